@@ -0,0 +1,103 @@
+package com.daria.service.analytics;
+
+import com.daria.dto.AnalyticsDto;
+import com.daria.infra.AnalyticsProperties;
+import com.daria.service.AnalyticsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AnalyticsService.getAnalytics на синтетических данных
+ *
+ * Параметры:
+ * - employees - размер набора (пропуски и обучения - по распределениям SyntheticWorkforce)
+ * - engine - memory (строки выдаются генератором вместо потокового запроса, без затрат драйвера и сети)
+ *   или snapshot (колоночный снимок загружается до замеров)
+ * - section - одна секция (расчет, соответствующий calculate* движка sql) или ALL - весь ответ
+ * - period, department - фильтр запроса ("" - без фильтра)
+ *
+ * Запуск: mvn -Pjmh test-compile exec:exec -Djmh.args="AnalyticsServiceBenchmark -p employees=100000"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class AnalyticsServiceBenchmark {
+
+  private static final String ALL_SECTIONS = "ALL";
+
+  @Param({"1000", "100000", "1000000"})
+  private int employees;
+
+  @Param({"MEMORY", "SNAPSHOT"})
+  private AnalyticsProperties.Engine engine;
+
+  @Param({ALL_SECTIONS, "KPI", "ABSENCES", "ABSENCE_DAYS", "GENDER", "AGE", "RANKS", "DEPARTMENTS",
+      "HIRES_FIRES", "DEPARTMENTS_SUMMARY", "EMPLOYEES"})
+  private String section;
+
+  @Param({"year"})
+  private String period;
+
+  @Param({""})
+  private String department;
+
+  private AnalyticsService analyticsService;
+  private AnalyticsSectionRunner analyticsSectionRunner;
+  private Set<AnalyticsSection> sections;
+  private Long departmentId;
+  private String normalizedPeriod;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    SyntheticWorkforce workforce = SyntheticWorkforce.generate(employees, LocalDate.now(), 20260101L);
+    SyntheticAnalyticsQueryRepository repository = new SyntheticAnalyticsQueryRepository(workforce);
+
+    AnalyticsProperties properties = new AnalyticsProperties();
+    properties.setEngine(engine);
+    analyticsSectionRunner = new AnalyticsSectionRunner(properties);
+    analyticsService = new AnalyticsService(
+        repository,
+        null,
+        new InMemoryAnalyticsEngine(repository, new WorkforceSnapshot(repository)),
+        properties,
+        analyticsSectionRunner);
+
+    sections = ALL_SECTIONS.equals(section)
+        ? AnalyticsSection.all()
+        : EnumSet.of(AnalyticsSection.valueOf(section));
+    departmentId = department.isEmpty() ? null : Long.valueOf(department);
+    normalizedPeriod = period.isEmpty() ? null : period;
+
+    // Загрузка снимка не входит в замеры
+    analyticsService.getAnalytics(departmentId, normalizedPeriod, sections);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    analyticsSectionRunner.shutdown();
+  }
+
+  @Benchmark
+  public AnalyticsDto getAnalytics() {
+    return analyticsService.getAnalytics(departmentId, normalizedPeriod, sections);
+  }
+}
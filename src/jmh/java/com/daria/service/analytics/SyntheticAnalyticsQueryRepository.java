@@ -0,0 +1,46 @@
+package com.daria.service.analytics;
+
+import com.daria.repository.AnalyticsQueryRepository;
+import com.daria.repository.WorkforceRow;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * AnalyticsQueryRepository поверх SyntheticWorkforce без БД
+ *
+ * Переопределены только методы, которые используют движки memory и snapshot;
+ * агрегирующие запросы движка sql без БД не выполняются.
+ */
+public class SyntheticAnalyticsQueryRepository extends AnalyticsQueryRepository {
+
+  private final SyntheticWorkforce workforce;
+
+  public SyntheticAnalyticsQueryRepository(SyntheticWorkforce workforce) {
+    super(new NamedParameterJdbcTemplate(new DriverManagerDataSource()));
+    this.workforce = workforce;
+  }
+
+  @Override
+  public List<DepartmentRef> findDepartments() {
+    return workforce.getDepartments();
+  }
+
+  @Override
+  public void scanWorkforce(EmployeeFilter filter, Collection<Long> employeeIds, Consumer<WorkforceRow> consumer) {
+    workforce.scan(filter.departmentId(), filter.periodStart(), employeeIds, consumer);
+  }
+
+  @Override
+  public void scanEmployeeAttributes(Collection<Long> employeeIds, Consumer<WorkforceRow> consumer) {
+    workforce.scan(null, null, employeeIds, consumer);
+  }
+
+  @Override
+  public List<AbsenceDaysGroup> findAbsenceDays(EmployeeFilter filter) {
+    return workforce.absenceDaysGroups(filter.departmentId());
+  }
+}
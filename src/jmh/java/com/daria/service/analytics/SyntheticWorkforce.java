@@ -0,0 +1,209 @@
+package com.daria.service.analytics;
+
+import com.daria.entity.enums.CompetenceRank;
+import com.daria.entity.enums.Gender;
+import com.daria.repository.AnalyticsQueryRepository.AbsenceDaysGroup;
+import com.daria.repository.AnalyticsQueryRepository.DepartmentRef;
+import com.daria.repository.WorkforceRow;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/**
+ * Синтетический набор сотрудников для бенчмарков
+ *
+ * Данные хранятся по колонкам и выдаются строками WorkforceRow так же,
+ * как их заполняет AnalyticsQueryRepository.scanWorkforce (агрегаты пропусков и обучений уже посчитаны).
+ *
+ * Распределения (детерминированы seed):
+ * - Отделы: ~1 на 250 сотрудников (5..400), размеры неравномерные, 5% сотрудников без отдела
+ * - Прием за последние 15 лет (недавние чаще), 30% уволены
+ * - Пропуски: у 40% нет, у остальных геометрическое распределение со средним ~3 и хвостом до 40,
+ *   ~70% с уважительной причиной
+ * - Обучения: у 60% сотрудников, последнее - в пределах 5 лет после приема
+ * - 2% без даты рождения, 10% без уровня компетенции, остальные - уровень 1..3 (CHECK в employees)
+ */
+public final class SyntheticWorkforce {
+
+  private static final Gender[] GENDERS = Gender.values();
+  private static final CompetenceRank[] RANKS = CompetenceRank.values();
+
+  private final LocalDate today;
+  private final List<DepartmentRef> departments;
+  private final int size;
+
+  private final String[] fullNames;
+  private final byte[] genders;
+  private final byte[] ranks;
+  private final byte[] levels;
+  private final long[] departmentIds;
+  private final int[] birthDays;
+  private final int[] hireDays;
+  private final int[] fireDays;
+  private final short[] absences;
+  private final short[] validAbsences;
+  private final int[] lastTrainingDays;
+  private final boolean[] trained;
+
+  private SyntheticWorkforce(LocalDate today, List<DepartmentRef> departments, int size) {
+    this.today = today;
+    this.departments = departments;
+    this.size = size;
+    this.fullNames = new String[size];
+    this.genders = new byte[size];
+    this.ranks = new byte[size];
+    this.levels = new byte[size];
+    this.departmentIds = new long[size];
+    this.birthDays = new int[size];
+    this.hireDays = new int[size];
+    this.fireDays = new int[size];
+    this.absences = new short[size];
+    this.validAbsences = new short[size];
+    this.lastTrainingDays = new int[size];
+    this.trained = new boolean[size];
+  }
+
+  public static SyntheticWorkforce generate(int employees, LocalDate today, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    int departmentCount = Math.min(400, Math.max(5, employees / 250));
+    List<DepartmentRef> departments = new ArrayList<>(departmentCount);
+    for (long id = 1; id <= departmentCount; id++) {
+      departments.add(new DepartmentRef(id, "Отдел " + id));
+    }
+
+    SyntheticWorkforce workforce = new SyntheticWorkforce(today, departments, employees);
+    int todayDay = EpochDays.of(today);
+
+    for (int i = 0; i < employees; i++) {
+      workforce.fullNames[i] = "Сотрудник " + (i + 1);
+      workforce.genders[i] = (byte) random.nextInt(GENDERS.length);
+      workforce.ranks[i] = (byte) random.nextInt(RANKS.length);
+      workforce.levels[i] = (byte) (random.nextInt(10) == 0 ? 0 : 1 + random.nextInt(3));
+
+      // Квадрат равномерной величины: первые отделы крупнее
+      double skew = random.nextDouble();
+      workforce.departmentIds[i] = random.nextInt(20) == 0
+          ? WorkforceRow.NO_DEPARTMENT
+          : 1 + (long) (skew * skew * departmentCount);
+
+      workforce.birthDays[i] = random.nextInt(50) == 0 ? WorkforceRow.NO_DATE : todayDay - 365 * 20 - random.nextInt(365 * 45);
+
+      double recency = random.nextDouble();
+      int hireDay = todayDay - (int) (recency * recency * 365 * 15);
+      workforce.hireDays[i] = hireDay;
+      workforce.fireDays[i] = random.nextInt(10) < 3 ? hireDay + random.nextInt(todayDay - hireDay + 1) : WorkforceRow.NO_DATE;
+
+      int absenceCount = 0;
+      int validCount = 0;
+      if (random.nextInt(10) >= 4) {
+        absenceCount = 1;
+        while (absenceCount < 40 && random.nextInt(3) != 0) {
+          absenceCount++;
+        }
+        for (int a = 0; a < absenceCount; a++) {
+          if (random.nextInt(10) < 7) {
+            validCount++;
+          }
+        }
+      }
+      workforce.absences[i] = (short) absenceCount;
+      workforce.validAbsences[i] = (short) validCount;
+
+      boolean isTrained = random.nextInt(10) < 6;
+      workforce.trained[i] = isTrained;
+      workforce.lastTrainingDays[i] = isTrained
+          ? Math.min(todayDay, hireDay + random.nextInt(365 * 5))
+          : WorkforceRow.NO_DATE;
+    }
+    return workforce;
+  }
+
+  public LocalDate getToday() {
+    return today;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Все отделы в порядке идентификаторов (как findDepartments)
+   */
+  public List<DepartmentRef> getDepartments() {
+    return departments;
+  }
+
+  /**
+   * Обход сотрудников в порядке идентификаторов с фильтром по отделу и периоду
+   *
+   * @param employeeIds сотрудники (null = все)
+   */
+  public void scan(Long departmentId, LocalDate periodStart, Collection<Long> employeeIds, Consumer<WorkforceRow> consumer) {
+    AnalyticsContext context = new AnalyticsContext(departmentId, periodStart, today, List.of());
+    WorkforceRow row = new WorkforceRow();
+    if (employeeIds != null) {
+      for (Long id : employeeIds) {
+        if (id >= 1 && id <= size) {
+          emit(Math.toIntExact(id) - 1, row, context, consumer);
+        }
+      }
+      return;
+    }
+    for (int i = 0; i < size; i++) {
+      emit(i, row, context, consumer);
+    }
+  }
+
+  /**
+   * Дни пропусков по отделам без фильтра периода (секция absenceDays в памяти не считается,
+   * в бенчмарке движков она не должна доминировать)
+   */
+  public List<AbsenceDaysGroup> absenceDaysGroups(Long departmentId) {
+    long[] employeesByDepartment = new long[departments.size() + 1];
+    long[] validByDepartment = new long[departments.size() + 1];
+    long[] invalidByDepartment = new long[departments.size() + 1];
+    for (int i = 0; i < size; i++) {
+      int index = (int) departmentIds[i];
+      employeesByDepartment[index]++;
+      validByDepartment[index] += validAbsences[i];
+      invalidByDepartment[index] += absences[i] - validAbsences[i];
+    }
+
+    List<AbsenceDaysGroup> groups = new ArrayList<>();
+    for (int index = 0; index < employeesByDepartment.length; index++) {
+      if (employeesByDepartment[index] == 0 || (departmentId != null && departmentId != index)) {
+        continue;
+      }
+      groups.add(new AbsenceDaysGroup(
+          index == 0 ? null : (long) index,
+          index == 0 ? null : departments.get(index - 1).name(),
+          employeesByDepartment[index],
+          validByDepartment[index], invalidByDepartment[index],
+          validByDepartment[index] * 3, invalidByDepartment[index] * 2));
+    }
+    return groups;
+  }
+
+  private void emit(int i, WorkforceRow row, AnalyticsContext context, Consumer<WorkforceRow> consumer) {
+    row.setId(i + 1L);
+    row.setFullName(fullNames[i]);
+    row.setGender(GENDERS[genders[i]]);
+    row.setCompetenceRank(RANKS[ranks[i]]);
+    row.setCompetenceLevel(levels[i]);
+    row.setDepartmentId(departmentIds[i]);
+    row.setBirthDay(birthDays[i]);
+    row.setHireDay(hireDays[i]);
+    row.setFireDay(fireDays[i]);
+    row.setAbsences(absences[i]);
+    row.setValidAbsences(validAbsences[i]);
+    row.setTrained(trained[i]);
+    row.setLastTrainingDay(lastTrainingDays[i]);
+    if (context.includes(row)) {
+      consumer.accept(row);
+    }
+  }
+}
@@ -0,0 +1,125 @@
+package com.daria.controller;
+
+import com.daria.dto.AbsenceCounterReconcileDto;
+import com.daria.dto.CacheStatsDto;
+import com.daria.dto.RollupRebuildDto;
+import com.daria.dto.SectionTimingDto;
+import com.daria.dto.SnapshotStatsDto;
+import com.daria.service.AbsenceCounterService;
+import com.daria.service.analytics.AnalyticsCache;
+import com.daria.service.analytics.AnalyticsSectionRunner;
+import com.daria.service.analytics.HeadcountRollupService;
+import com.daria.service.analytics.WorkforceSnapshot;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Административные операции аналитики
+ * 
+ * Доступно только администраторам (см. SecurityConfig: /admin/**)
+ */
+@RestController
+@RequestMapping("/v1/employee-service/admin/analytics")
+@RequiredArgsConstructor
+@Tag(name = "Analytics Admin", description = "API для обслуживания аналитики (кэш и т.д.)")
+@SecurityRequirement(name = "bearerAuth")
+@PreAuthorize("hasRole('ADMIN')")
+public class AnalyticsAdminController {
+
+  private final AnalyticsCache analyticsCache;
+  private final AnalyticsSectionRunner analyticsSectionRunner;
+  private final HeadcountRollupService headcountRollupService;
+  private final AbsenceCounterService absenceCounterService;
+  private final WorkforceSnapshot workforceSnapshot;
+
+  @Operation(
+      summary = "Статистика кэша аналитики",
+      description = "Возвращает размер кэша, количество попаданий, промахов, вытеснений и инвалидаций. " +
+          "Используется для подбора размера и TTL кэша.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Статистика успешно получена"),
+      @ApiResponse(responseCode = "403", description = "Доступ запрещен. Требуется роль ADMIN")
+  })
+  @GetMapping("/cache")
+  public ResponseEntity<CacheStatsDto> getCacheStats() {
+    return ResponseEntity.ok(analyticsCache.getStats());
+  }
+
+  @Operation(summary = "Очистить кэш аналитики", description = "Удаляет все записи из кэша аналитики")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "204", description = "Кэш очищен"),
+      @ApiResponse(responseCode = "403", description = "Доступ запрещен. Требуется роль ADMIN")
+  })
+  @DeleteMapping("/cache")
+  public ResponseEntity<Void> clearCache() {
+    analyticsCache.invalidateAll();
+    return ResponseEntity.noContent().build();
+  }
+
+  @Operation(
+      summary = "Время расчета секций аналитики",
+      description = "Возвращает количество расчетов, среднее, максимальное и последнее время каждой секции (мс). " +
+          "Кэшированные ответы не учитываются.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Статистика успешно получена"),
+      @ApiResponse(responseCode = "403", description = "Доступ запрещен. Требуется роль ADMIN")
+  })
+  @GetMapping("/sections")
+  public ResponseEntity<List<SectionTimingDto>> getSectionTimings() {
+    return ResponseEntity.ok(analyticsSectionRunner.getTimings());
+  }
+
+  @Operation(
+      summary = "Размер снимка сотрудников",
+      description = "Возвращает количество сотрудников в колоночном снимке (engine = snapshot), " +
+          "примерный объем памяти всего и на одного сотрудника, время загрузки и количество инкрементальных обновлений.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Статистика успешно получена"),
+      @ApiResponse(responseCode = "403", description = "Доступ запрещен. Требуется роль ADMIN")
+  })
+  @GetMapping("/snapshot")
+  public ResponseEntity<SnapshotStatsDto> getSnapshotStats() {
+    return ResponseEntity.ok(workforceSnapshot.getStats());
+  }
+
+  @Operation(
+      summary = "Пересчитать помесячные итоги",
+      description = "Полностью пересчитывает помесячные итоги приемов и увольнений по таблице сотрудников " +
+          "(то же, что плановый пересчет по расписанию). Кэш аналитики очищается, версия данных (ETag) увеличивается.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Итоги пересчитаны"),
+      @ApiResponse(responseCode = "403", description = "Доступ запрещен. Требуется роль ADMIN")
+  })
+  @PostMapping("/rollup/rebuild")
+  public ResponseEntity<RollupRebuildDto> rebuildRollup() {
+    long start = System.nanoTime();
+    int rows = headcountRollupService.rebuild();
+    analyticsCache.invalidateAll();
+    return ResponseEntity.ok(new RollupRebuildDto(rows, (System.nanoTime() - start) / 1_000_000));
+  }
+
+  @Operation(
+      summary = "Сверить счетчики пропусков сотрудников",
+      description = "Сравнивает счетчики пропусков сотрудников (количество, без уважительной причины, дни) " +
+          "с таблицей пропусков и исправляет расхождения (то же, что плановая сверка по расписанию). " +
+          "При исправлениях версия данных (ETag) увеличивается.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Счетчики сверены"),
+      @ApiResponse(responseCode = "403", description = "Доступ запрещен. Требуется роль ADMIN")
+  })
+  @PostMapping("/absence-counters/reconcile")
+  public ResponseEntity<AbsenceCounterReconcileDto> reconcileAbsenceCounters() {
+    long start = System.nanoTime();
+    int corrected = absenceCounterService.reconcile();
+    return ResponseEntity.ok(new AbsenceCounterReconcileDto(corrected, (System.nanoTime() - start) / 1_000_000));
+  }
+}
@@ -1,15 +1,40 @@
 package com.daria.controller;
 
 import com.daria.dto.AnalyticsDto;
+import com.daria.dto.AnalyticsJobDto;
+import com.daria.dto.CursorPageDto;
+import com.daria.dto.DepartmentComparisonDto;
+import com.daria.dto.HeadcountDto;
+import com.daria.dto.HeadcountSeriesDto;
+import com.daria.dto.TimeSeriesDto;
+import com.daria.dto.TrainingOutcomesDto;
+import com.daria.exception.BadRequestException;
+import com.daria.repository.AnalyticsQueryRepository.SummarySort;
+import com.daria.repository.AnalyticsTimeSeriesRepository.Granularity;
+import com.daria.repository.AnalyticsTimeSeriesRepository.Metric;
 import com.daria.service.AnalyticsService;
+import com.daria.service.AnalyticsTimeSeriesService;
+import com.daria.service.analytics.AnalyticsCache;
+import com.daria.service.analytics.AnalyticsJobService;
+import com.daria.service.analytics.AnalyticsSection;
+import com.daria.service.analytics.HeadcountIndex;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
 /**
  * Контроллер для аналитических данных
  * 
@@ -18,9 +43,21 @@ import org.springframework.web.bind.annotation.*;
  * - Данные для графиков
  * - Сводные таблицы
  * 
+ * Результаты кэшируются (AnalyticsCache) и инвалидируются при изменении данных.
+ * 
  * Поддерживает фильтрацию:
  * - По отделу (departmentId)
  * - По периоду (period: month, quarter, year, 2years, 3years, 5years)
+ * 
+ * Выбор секций (sections): вычисляются и возвращаются только перечисленные секции,
+ * без параметра - все секции.
+ * 
+ * Сводка по сотрудникам доступна также постранично: GET /analytics/employees.
+ * KPI всех отделов одним запросом: GET /analytics/departments/compare.
+ * Переходы уровней по обучениям: GET /analytics/trainings.
+ * Временные ряды по произвольному диапазону дат: GET /analytics/timeseries.
+ * Численность на дату и ряд численности: GET /analytics/headcount, GET /analytics/headcount/series.
+ * Долгие расчеты можно выполнить в фоне: POST /analytics/jobs.
  */
 @RestController
 @RequestMapping("/v1/employee-service/analytics")
@@ -29,39 +66,40 @@ import org.springframework.web.bind.annotation.*;
 @SecurityRequirement(name = "bearerAuth")
 public class AnalyticsController {
 
+  private static final Set<String> SUPPORTED_PERIODS = Set.copyOf(AnalyticsService.SUPPORTED_PERIODS);
+  private static final int MAX_PAGE_SIZE = 500;
+  private static final int MAX_COMPARED_DEPARTMENTS = 1000;
+
+  private final AnalyticsCache analyticsCache;
   private final AnalyticsService analyticsService;
+  private final AnalyticsTimeSeriesService analyticsTimeSeriesService;
+  private final AnalyticsJobService analyticsJobService;
+  private final HeadcountIndex headcountIndex;
 
   @Operation(
       summary = "Получить аналитические данные",
       description = "Возвращает агрегированные аналитические данные с опциональной фильтрацией. " +
           "Доступно всем аутентифицированным пользователям. " +
-          "Параметры фильтрации: departmentId (фильтр по отделу), period (период: month, quarter, year, 2years, 3years, 5years).")
+          "Параметры фильтрации: departmentId (фильтр по отделу), period (период: month, quarter, year, 2years, 3years, 5years). " +
+          "Параметр sections ограничивает ответ перечисленными секциями, остальные не вычисляются и не возвращаются.")
   @ApiResponse(responseCode = "200", description = "Аналитические данные успешно получены")
+  @ApiResponse(responseCode = "400", description = "Неизвестная секция в параметре sections")
   @GetMapping
   public ResponseEntity<AnalyticsDto> getAnalytics(
       @RequestParam(required = false) Long departmentId,
-      @RequestParam(required = false) String period) {
+      @RequestParam(required = false) String period,
+      @Parameter(description = "Секции через запятую: kpi, absences, absenceDays, gender, age, ranks, departments, " +
+          "hiresFires, departmentsSummary, employees (по умолчанию - все)")
+      @RequestParam(required = false) String sections) {
+    
+    Set<AnalyticsSection> requestedSections = AnalyticsSection.parse(sections);
     
     try {
       // Валидация и нормализация параметров
-      Long normalizedDepartmentId = null;
-      if (departmentId != null && departmentId > 0) {
-        normalizedDepartmentId = departmentId;
-      }
-      
-      String normalizedPeriod = null;
-      if (period != null && !period.trim().isEmpty()) {
-        String trimmedPeriod = period.trim().toLowerCase();
-        // Поддерживаем периоды: month, quarter, year, 2years, 3years, 5years
-        if ("month".equals(trimmedPeriod) || "quarter".equals(trimmedPeriod) || 
-            "year".equals(trimmedPeriod) || "2years".equals(trimmedPeriod) || 
-            "3years".equals(trimmedPeriod) || "5years".equals(trimmedPeriod)) {
-          normalizedPeriod = trimmedPeriod;
-        }
-        // Если период невалидный, игнорируем его
-      }
+      Long normalizedDepartmentId = normalizeDepartmentId(departmentId);
+      String normalizedPeriod = normalizePeriod(period);
       
-      AnalyticsDto analytics = analyticsService.getAnalytics(normalizedDepartmentId, normalizedPeriod);
+      AnalyticsDto analytics = analyticsCache.getAnalytics(normalizedDepartmentId, normalizedPeriod, requestedSections);
       return ResponseEntity.ok(analytics);
     } catch (Exception e) {
       // Логируем ошибку для отладки
@@ -71,5 +109,231 @@ public class AnalyticsController {
       throw e;
     }
   }
-}
 
+  @Operation(
+      summary = "Получить сводку по сотрудникам постранично",
+      description = "Возвращает строки сводки по сотрудникам (ФИО, уровень компетенции, наличие обучений, количество пропусков) " +
+          "с keyset-пагинацией и сортировкой на стороне сервера. " +
+          "Фильтры departmentId и period работают так же, как в основном запросе аналитики. " +
+          "Для следующей страницы передайте nextCursor из ответа в параметр cursor с той же сортировкой.")
+  @ApiResponse(responseCode = "200", description = "Страница успешно получена")
+  @ApiResponse(responseCode = "400", description = "Невалидные параметры сортировки, размера страницы или курсор")
+  @GetMapping("/employees")
+  public ResponseEntity<CursorPageDto<AnalyticsDto.EmployeeSummary>> getEmployeesSummary(
+      @RequestParam(required = false) Long departmentId,
+      @RequestParam(required = false) String period,
+      @Parameter(description = "Поле сортировки: name, competence, absences")
+      @RequestParam(defaultValue = "name") String sort,
+      @Parameter(description = "Направление сортировки: asc, desc")
+      @RequestParam(defaultValue = "asc") String direction,
+      @Parameter(description = "Размер страницы (1-" + MAX_PAGE_SIZE + ")")
+      @RequestParam(defaultValue = "50") int limit,
+      @Parameter(description = "Курсор следующей страницы (nextCursor из предыдущего ответа)")
+      @RequestParam(required = false) String cursor) {
+    
+    SummarySort summarySort = switch (sort.trim().toLowerCase()) {
+      case "name" -> SummarySort.NAME;
+      case "competence" -> SummarySort.COMPETENCE;
+      case "absences" -> SummarySort.ABSENCES;
+      default -> throw new BadRequestException("Unsupported sort: " + sort);
+    };
+    boolean descending = switch (direction.trim().toLowerCase()) {
+      case "asc" -> false;
+      case "desc" -> true;
+      default -> throw new BadRequestException("Unsupported direction: " + direction);
+    };
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new BadRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+    }
+    
+    return ResponseEntity.ok(analyticsService.getEmployeesSummaryPage(
+        normalizeDepartmentId(departmentId), normalizePeriod(period), summarySort, descending, cursor, limit));
+  }
+
+  @Operation(
+      summary = "Сравнить отделы",
+      description = "Возвращает KPI (количество сотрудников, средняя компетенция, обученные, уволенные, текучесть, пропуски) " +
+          "по каждому отделу или по перечисленным отделам. Все отделы считаются одним запросом. " +
+          "Значения совпадают с GET /analytics?departmentId=... для того же периода.")
+  @ApiResponse(responseCode = "200", description = "KPI по отделам успешно получены")
+  @ApiResponse(responseCode = "400", description = "Слишком много отделов в параметре departmentIds")
+  @GetMapping("/departments/compare")
+  public ResponseEntity<List<DepartmentComparisonDto>> compareDepartments(
+      @RequestParam(required = false) String period,
+      @Parameter(description = "Идентификаторы отделов через запятую (по умолчанию - все отделы)")
+      @RequestParam(required = false) List<Long> departmentIds) {
+    
+    Set<Long> ids = null;
+    if (departmentIds != null && !departmentIds.isEmpty()) {
+      ids = new TreeSet<>();
+      for (Long id : departmentIds) {
+        if (id != null && id > 0) {
+          ids.add(id);
+        }
+      }
+      if (ids.size() > MAX_COMPARED_DEPARTMENTS) {
+        throw new BadRequestException("At most " + MAX_COMPARED_DEPARTMENTS + " departments can be compared");
+      }
+      if (ids.isEmpty()) {
+        return ResponseEntity.ok(List.of());
+      }
+    }
+    
+    return ResponseEntity.ok(analyticsService.compareDepartments(normalizePeriod(period), ids));
+  }
+
+  @Operation(
+      summary = "Получить результаты обучений",
+      description = "Возвращает матрицу переходов уровней компетенции (JUNIOR/MIDDLE/SENIOR) по обучениям, " +
+          "долю повышений (%) и среднюю длительность обучений в днях - итого и по отделам. " +
+          "Обучения относятся к периоду по дате начала. Считается одним сгруппированным запросом.")
+  @ApiResponse(responseCode = "200", description = "Результаты обучений успешно получены")
+  @GetMapping("/trainings")
+  public ResponseEntity<TrainingOutcomesDto> getTrainingOutcomes(
+      @RequestParam(required = false) Long departmentId,
+      @RequestParam(required = false) String period) {
+    
+    return ResponseEntity.ok(analyticsService.getTrainingOutcomes(
+        normalizeDepartmentId(departmentId), normalizePeriod(period)));
+  }
+
+  @Operation(
+      summary = "Получить временной ряд",
+      description = "Возвращает количество приемов, увольнений, пропусков и обучений по интервалам произвольного диапазона дат. " +
+          "Ответ содержит по одной точке на интервал (в том числе с нулями), количество интервалов ограничено.")
+  @ApiResponse(responseCode = "200", description = "Временной ряд успешно получен")
+  @ApiResponse(responseCode = "400", description = "Невалидный диапазон, шаг, метрика или слишком много интервалов")
+  @GetMapping("/timeseries")
+  public ResponseEntity<TimeSeriesDto> getTimeSeries(
+      @RequestParam(required = false) Long departmentId,
+      @Parameter(description = "Начало диапазона (yyyy-MM-dd, включительно)")
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @Parameter(description = "Конец диапазона (yyyy-MM-dd, включительно, по умолчанию - сегодня)")
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+      @Parameter(description = "Шаг: day, week, month, quarter")
+      @RequestParam(defaultValue = "month") String granularity,
+      @Parameter(description = "Метрики через запятую: hires, fires, absences, trainings (по умолчанию - все)")
+      @RequestParam(required = false) String metrics) {
+    
+    Granularity parsedGranularity = parseGranularity(granularity);
+    
+    Set<Metric> parsedMetrics = EnumSet.allOf(Metric.class);
+    if (metrics != null && !metrics.isBlank()) {
+      parsedMetrics = EnumSet.noneOf(Metric.class);
+      for (String metric : metrics.split(",")) {
+        String key = metric.trim().toUpperCase();
+        if (key.isEmpty()) {
+          continue;
+        }
+        try {
+          parsedMetrics.add(Metric.valueOf(key));
+        } catch (IllegalArgumentException e) {
+          throw new BadRequestException("Unsupported metric: " + metric.trim());
+        }
+      }
+    }
+    
+    return ResponseEntity.ok(analyticsTimeSeriesService.getTimeSeries(
+        normalizeDepartmentId(departmentId), from, to != null ? to : LocalDate.now(), parsedGranularity, parsedMetrics));
+  }
+
+  @Operation(
+      summary = "Получить численность на дату",
+      description = "Возвращает количество сотрудников, работавших в указанный день (принят не позже даты, " +
+          "не уволен до нее включительно). Считается по индексу периодов работы в памяти.")
+  @ApiResponse(responseCode = "200", description = "Численность успешно получена")
+  @GetMapping("/headcount")
+  public ResponseEntity<HeadcountDto> getHeadcount(
+      @RequestParam(required = false) Long departmentId,
+      @Parameter(description = "Дата (yyyy-MM-dd, по умолчанию - сегодня)")
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+    
+    Long normalizedDepartmentId = normalizeDepartmentId(departmentId);
+    LocalDate day = date != null ? date : LocalDate.now();
+    return ResponseEntity.ok(new HeadcountDto(day, normalizedDepartmentId,
+        headcountIndex.headcount(normalizedDepartmentId, day)));
+  }
+
+  @Operation(
+      summary = "Получить ряд численности",
+      description = "Возвращает численность сотрудников на последний день каждого интервала диапазона " +
+          "(последняя точка - на дату to). Количество интервалов ограничено.")
+  @ApiResponse(responseCode = "200", description = "Ряд численности успешно получен")
+  @ApiResponse(responseCode = "400", description = "Невалидный диапазон, шаг или слишком много интервалов")
+  @GetMapping("/headcount/series")
+  public ResponseEntity<HeadcountSeriesDto> getHeadcountSeries(
+      @RequestParam(required = false) Long departmentId,
+      @Parameter(description = "Начало диапазона (yyyy-MM-dd, включительно)")
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @Parameter(description = "Конец диапазона (yyyy-MM-dd, включительно, по умолчанию - сегодня)")
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+      @Parameter(description = "Шаг: day, week, month, quarter")
+      @RequestParam(defaultValue = "month") String granularity) {
+    
+    return ResponseEntity.ok(analyticsTimeSeriesService.getHeadcountSeries(
+        normalizeDepartmentId(departmentId), from, to != null ? to : LocalDate.now(), parseGranularity(granularity)));
+  }
+
+  @Operation(
+      summary = "Запустить фоновый расчет аналитики",
+      description = "Ставит расчет аналитики в очередь и сразу возвращает задание (202). " +
+          "Параметры те же, что у GET /analytics. Если такое же задание уже выполняется, возвращается оно. " +
+          "Состояние задания - GET /analytics/jobs/{id}, результат - GET /analytics/jobs/{id}/result.")
+  @ApiResponse(responseCode = "202", description = "Задание поставлено в очередь")
+  @ApiResponse(responseCode = "503", description = "Очередь заданий переполнена")
+  @PostMapping("/jobs")
+  public ResponseEntity<AnalyticsJobDto> submitJob(
+      @RequestParam(required = false) Long departmentId,
+      @RequestParam(required = false) String period,
+      @RequestParam(required = false) String sections) {
+    
+    AnalyticsJobDto job = analyticsJobService.submit(
+        normalizeDepartmentId(departmentId), normalizePeriod(period), AnalyticsSection.parse(sections));
+    return ResponseEntity.accepted()
+        .location(URI.create("/v1/employee-service/analytics/jobs/" + job.id()))
+        .body(job);
+  }
+
+  @Operation(summary = "Получить состояние фонового расчета", description = "Статусы: PENDING, RUNNING, DONE, FAILED")
+  @ApiResponse(responseCode = "200", description = "Состояние задания")
+  @ApiResponse(responseCode = "404", description = "Задание не найдено или срок хранения истек")
+  @GetMapping("/jobs/{id}")
+  public ResponseEntity<AnalyticsJobDto> getJob(@PathVariable String id) {
+    return ResponseEntity.ok(analyticsJobService.getJob(id));
+  }
+
+  @Operation(summary = "Получить результат фонового расчета")
+  @ApiResponse(responseCode = "200", description = "Аналитические данные")
+  @ApiResponse(responseCode = "404", description = "Задание не найдено или срок хранения истек")
+  @ApiResponse(responseCode = "409", description = "Задание еще выполняется или завершилось ошибкой")
+  @GetMapping("/jobs/{id}/result")
+  public ResponseEntity<AnalyticsDto> getJobResult(@PathVariable String id) {
+    return ResponseEntity.ok(analyticsJobService.getResult(id));
+  }
+
+  private static Granularity parseGranularity(String granularity) {
+    return switch (granularity.trim().toLowerCase()) {
+      case "day" -> Granularity.DAY;
+      case "week" -> Granularity.WEEK;
+      case "month" -> Granularity.MONTH;
+      case "quarter" -> Granularity.QUARTER;
+      default -> throw new BadRequestException("Unsupported granularity: " + granularity);
+    };
+  }
+
+  private static Long normalizeDepartmentId(Long departmentId) {
+    return departmentId != null && departmentId > 0 ? departmentId : null;
+  }
+
+  /**
+   * Поддерживаем периоды: month, quarter, year, 2years, 3years, 5years.
+   * Если период невалидный, игнорируем его
+   */
+  private static String normalizePeriod(String period) {
+    if (period == null || period.trim().isEmpty()) {
+      return null;
+    }
+    String trimmedPeriod = period.trim().toLowerCase();
+    return SUPPORTED_PERIODS.contains(trimmedPeriod) ? trimmedPeriod : null;
+  }
+}
@@ -1,9 +1,21 @@
 package com.daria.controller;
 
+import com.daria.dto.CursorPageDto;
 import com.daria.dto.EmployeeCreateRequest;
 import com.daria.dto.EmployeeDto;
+import com.daria.dto.EmployeeFacetsDto;
+import com.daria.dto.EmployeeSuggestionDto;
 import com.daria.dto.EmployeeUpdateRequest;
+import com.daria.entity.enums.CompetenceRank;
+import com.daria.entity.enums.Gender;
+import com.daria.exception.BadRequestException;
+import com.daria.repository.EmployeeSearchFilter;
+import com.daria.repository.EmployeeSort;
+import com.daria.service.EmployeeExportService;
 import com.daria.service.EmployeeService;
+import com.daria.service.analytics.EmployeeFacetIndex;
+import com.daria.service.analytics.EmployeeNameIndex;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -13,11 +25,17 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -27,22 +45,64 @@ import java.util.List;
 @SecurityRequirement(name = "bearerAuth")
 public class EmployeeController {
 
+  private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+  private static final int DEFAULT_PAGE_SIZE = 100;
+  private static final int MAX_PAGE_SIZE = 500;
+  private static final int MAX_SUGGESTIONS = 50;
+
   private final EmployeeService employeeService;
+  private final EmployeeExportService employeeExportService;
+  private final EmployeeFacetIndex employeeFacetIndex;
+  private final EmployeeNameIndex employeeNameIndex;
 
   @Operation(
-      summary = "Получить всех сотрудников", 
-      description = "Возвращает список всех сотрудников с опциональной фильтрацией и сортировкой. " +
+      summary = "Получить сотрудников", 
+      description = "Возвращает страницу сотрудников с опциональной фильтрацией и сортировкой. " +
           "Доступно всем аутентифицированным пользователям. " +
-          "Параметры фильтрации: search (поиск по имени), departmentId (фильтр по отделу), " +
-          "gender (фильтр по полу: М или Ж), sortBy (сортировка: absences или competence_level).")
-  @ApiResponse(responseCode = "200", description = "Список сотрудников успешно получен")
+          "Параметры фильтрации: search (полнотекстовый поиск по имени: все слова как подстроки, без учета регистра; " +
+          "без sortBy результаты упорядочены по релевантности), departmentId (фильтр по отделу), " +
+          "gender (фильтр по полу: М или Ж), rank (ранг компетенции), minLevel/maxLevel (уровень компетенции), " +
+          "hiredFrom/hiredTo и firedFrom/firedTo (даты приема и увольнения включительно), " +
+          "active (только работающие сегодня). В запрос к БД попадают только заданные фильтры. " +
+          "Сортировка sortBy: id, absences, competence_level, hire_date, relevance (только с search); " +
+          "direction: asc или desc (по умолчанию asc для id, desc для остальных). " +
+          "Неизвестные значения gender и sortBy игнорируются, неизвестные rank и direction - 400. " +
+          "Без limit и cursor возвращаются все найденные сотрудники. " +
+          "Keyset-пагинация (limit или cursor): если есть следующая страница, ответ содержит заголовок " +
+          NEXT_CURSOR_HEADER + ", его значение передается в параметр cursor с теми же фильтрами и сортировкой " +
+          "(без limit размер страницы " + DEFAULT_PAGE_SIZE + ").")
+  @ApiResponse(responseCode = "200", description = "Сотрудники (или страница сотрудников) успешно получены")
+  @ApiResponse(responseCode = "400", description = "Невалидный фильтр, направление, размер страницы или курсор")
   @GetMapping
   // Просмотр доступен всем аутентифицированным пользователям
   public ResponseEntity<List<EmployeeDto>> getAllEmployees(
       @RequestParam(required = false) String search,
       @RequestParam(required = false) Long departmentId,
       @RequestParam(required = false) String gender,
-      @RequestParam(required = false) String sortBy) {
+      @Parameter(description = "Ранг компетенции: JUNIOR, MIDDLE, SENIOR")
+      @RequestParam(required = false) String rank,
+      @Parameter(description = "Уровень компетенции не ниже")
+      @RequestParam(required = false) Integer minLevel,
+      @Parameter(description = "Уровень компетенции не выше")
+      @RequestParam(required = false) Integer maxLevel,
+      @Parameter(description = "Принят не раньше (YYYY-MM-DD)")
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hiredFrom,
+      @Parameter(description = "Принят не позже (YYYY-MM-DD)")
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hiredTo,
+      @Parameter(description = "Уволен не раньше (YYYY-MM-DD)")
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate firedFrom,
+      @Parameter(description = "Уволен не позже (YYYY-MM-DD)")
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate firedTo,
+      @Parameter(description = "Только работающие сегодня")
+      @RequestParam(defaultValue = "false") boolean active,
+      @Parameter(description = "Поле сортировки: id, absences, competence_level, hire_date, relevance")
+      @RequestParam(required = false) String sortBy,
+      @Parameter(description = "Направление сортировки: asc, desc")
+      @RequestParam(required = false) String direction,
+      @Parameter(description = "Размер страницы (1-" + MAX_PAGE_SIZE + "), без limit и cursor - все сотрудники")
+      @RequestParam(required = false) Integer limit,
+      @Parameter(description = "Курсор следующей страницы (заголовок " + NEXT_CURSOR_HEADER + " предыдущего ответа)")
+      @RequestParam(required = false) String cursor) {
     
     // Валидация и нормализация параметров
     // search: нормализуем пустые строки в null
@@ -69,18 +129,125 @@ public class EmployeeController {
     }
     
     // sortBy: проверяем, что это валидное значение
-    String normalizedSortBy = null;
+    EmployeeSort normalizedSortBy = null;
     if (sortBy != null && !sortBy.trim().isEmpty()) {
-      String trimmedSortBy = sortBy.trim();
-      if ("absences".equals(trimmedSortBy) || "competence_level".equals(trimmedSortBy)) {
-        normalizedSortBy = trimmedSortBy;
-      }
-      // Если значение невалидное, игнорируем сортировку
+      normalizedSortBy = EmployeeSort.fromKey(sortBy.trim());
+      // Если значение невалидное (null), игнорируем сортировку, как и невалидный gender
+    }
+    
+    Boolean descending = null;
+    if (direction != null && !direction.isBlank()) {
+      descending = switch (direction.trim().toLowerCase()) {
+        case "asc" -> false;
+        case "desc" -> true;
+        default -> throw new BadRequestException("Unsupported direction: " + direction);
+      };
+    }
+    
+    if (hiredFrom != null && hiredTo != null && hiredFrom.isAfter(hiredTo)) {
+      throw new BadRequestException("hiredFrom must not be after hiredTo");
+    }
+    if (firedFrom != null && firedTo != null && firedFrom.isAfter(firedTo)) {
+      throw new BadRequestException("firedFrom must not be after firedTo");
+    }
+    if (minLevel != null && maxLevel != null && minLevel > maxLevel) {
+      throw new BadRequestException("minLevel must not be greater than maxLevel");
+    }
+    
+    // Постраничный ответ только по запросу: без limit и cursor - полный список, как до пагинации
+    Integer pageSize = limit;
+    if (pageSize == null && cursor != null) {
+      pageSize = DEFAULT_PAGE_SIZE;
+    }
+    if (pageSize != null && (pageSize < 1 || pageSize > MAX_PAGE_SIZE)) {
+      throw new BadRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE);
     }
     
-    List<EmployeeDto> employees = employeeService.getAllEmployees(
-        normalizedSearch, normalizedDepartmentId, genderEnum, normalizedSortBy);
-    return ResponseEntity.ok(employees);
+    EmployeeSearchFilter filter = new EmployeeSearchFilter(
+        normalizedSearch, normalizedDepartmentId, genderEnum,
+        hiredFrom, hiredTo, firedFrom, firedTo,
+        parseEnum(CompetenceRank.class, rank, "rank"), minLevel, maxLevel,
+        active ? LocalDate.now() : null);
+    CursorPageDto<EmployeeDto> page = employeeService.getEmployeesPage(filter, normalizedSortBy, descending, cursor, pageSize);
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (page.nextCursor() != null) {
+      response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+    }
+    return response.body(page.items());
+  }
+
+  @Operation(
+      summary = "Выгрузить справочник сотрудников",
+      description = "Потоково выгружает всех сотрудников в порядке id: NDJSON (по одному сотруднику в JSON на строку) " +
+          "или CSV (UTF-8 с BOM). Строки читаются из БД курсором и сразу пишутся в ответ, " +
+          "память сервера не зависит от количества сотрудников. Доступно администраторам и руководителям отделов.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Выгрузка началась"),
+      @ApiResponse(responseCode = "400", description = "Неподдерживаемый формат"),
+      @ApiResponse(responseCode = "403", description = "Доступ запрещен. Требуется роль ADMIN или HEAD")
+  })
+  @GetMapping("/export")
+  @PreAuthorize("hasAnyRole('ADMIN', 'HEAD')")
+  public ResponseEntity<StreamingResponseBody> exportEmployees(
+      @Parameter(description = "Формат: ndjson, csv")
+      @RequestParam(defaultValue = "ndjson") String format) {
+    
+    EmployeeExportService.Format exportFormat = parseEnum(EmployeeExportService.Format.class, format, "format");
+    StreamingResponseBody body = out -> employeeExportService.export(exportFormat, out);
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+            .filename("employees." + exportFormat.extension())
+            .build()
+            .toString())
+        .body(body);
+  }
+
+  @Operation(
+      summary = "Фасетные счетчики сотрудников",
+      description = "Возвращает количество сотрудников по комбинации фильтров и счетчики по каждому фасету " +
+          "(отдел, пол, ранг, уровень компетенции, статус). Счетчики фасета учитывают все фильтры, кроме своего. " +
+          "Считается по битовым картам в памяти, без запросов к БД.")
+  @ApiResponse(responseCode = "200", description = "Счетчики успешно получены")
+  @ApiResponse(responseCode = "400", description = "Невалидное значение фильтра")
+  @GetMapping("/facets")
+  public ResponseEntity<EmployeeFacetsDto> getEmployeeFacets(
+      @RequestParam(required = false) Long departmentId,
+      @Parameter(description = "Пол: М или Ж")
+      @RequestParam(required = false) String gender,
+      @Parameter(description = "Ранг компетенции: JUNIOR, MIDDLE, SENIOR")
+      @RequestParam(required = false) String rank,
+      @Parameter(description = "Уровень компетенции: 1-3")
+      @RequestParam(required = false) Integer competenceLevel,
+      @Parameter(description = "Статус: active, fired")
+      @RequestParam(required = false) String status) {
+    
+    EmployeeFacetIndex.Query query = new EmployeeFacetIndex.Query(
+        departmentId != null && departmentId > 0 ? departmentId : null,
+        parseEnum(Gender.class, gender, "gender"),
+        parseEnum(CompetenceRank.class, rank, "rank"),
+        competenceLevel,
+        parseEnum(EmployeeFacetIndex.Status.class, status, "status"));
+    return ResponseEntity.ok(employeeFacetIndex.count(query));
+  }
+
+  @Operation(
+      summary = "Подсказки сотрудников по началу ФИО",
+      description = "Возвращает до limit сотрудников (id и ФИО), у которых каждое слово prefix - начало какого-либо слова ФИО " +
+          "(без учета регистра, ё = е). Для виджетов выбора сотрудника: отвечает из индекса в памяти, без запросов к БД.")
+  @ApiResponse(responseCode = "200", description = "Подсказки успешно получены")
+  @ApiResponse(responseCode = "400", description = "Невалидное количество подсказок")
+  @GetMapping("/suggest")
+  public ResponseEntity<List<EmployeeSuggestionDto>> suggestEmployees(
+      @Parameter(description = "Начало ФИО (одно или несколько слов)")
+      @RequestParam(defaultValue = "") String prefix,
+      @Parameter(description = "Количество подсказок (1-" + MAX_SUGGESTIONS + ")")
+      @RequestParam(defaultValue = "10") int limit) {
+    
+    if (limit < 1 || limit > MAX_SUGGESTIONS) {
+      throw new BadRequestException("Limit must be between 1 and " + MAX_SUGGESTIONS);
+    }
+    return ResponseEntity.ok(employeeNameIndex.suggest(prefix, limit));
   }
 
   @Operation(summary = "Получить сотрудника по ID", description = "Возвращает информацию о сотруднике по его идентификатору")
@@ -147,5 +314,17 @@ public class EmployeeController {
     employeeService.deleteEmployee(id);
     return ResponseEntity.noContent().build();
   }
-}
 
+  private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String name) {
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    String trimmed = value.trim();
+    for (E constant : type.getEnumConstants()) {
+      if (constant.name().equalsIgnoreCase(trimmed)) {
+        return constant;
+      }
+    }
+    throw new BadRequestException("Unsupported " + name + ": " + trimmed);
+  }
+}
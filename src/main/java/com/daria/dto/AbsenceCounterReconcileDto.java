@@ -0,0 +1,12 @@
+package com.daria.dto;
+
+/**
+ * Результат сверки счетчиков пропусков сотрудников
+ *
+ * @param corrected количество сотрудников с исправленными счетчиками
+ * @param durationMs время сверки (мс)
+ */
+public record AbsenceCounterReconcileDto(
+    int corrected,
+    long durationMs
+) {}
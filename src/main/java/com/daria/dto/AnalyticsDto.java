@@ -1,5 +1,7 @@
 package com.daria.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 /**
@@ -9,7 +11,10 @@ import java.util.List;
  * - KPI метрики (общее количество сотрудников, средняя компетенция, текучесть)
  * - Данные для графиков (возраст, пол, ранги, отделы)
  * - Сводные таблицы
+ * 
+ * Секции, не запрошенные через параметр sections, равны null и не сериализуются.
  */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record AnalyticsDto(
     // KPI метрики
     Long totalEmployees,
@@ -18,6 +23,7 @@ public record AnalyticsDto(
     Long fired,
     Double turnoverRate,
     AbsencesInfo absences,
+    AbsenceDaysInfo absenceDays,
     
     // Данные для графиков
     List<ChartData> gender,
@@ -39,6 +45,48 @@ public record AnalyticsDto(
         Long invalid
     ) {}
     
+    /**
+     * Дни пропусков в периоде
+     * 
+     * Длительность пропуска обрезается по периоду [начало периода, сегодня],
+     * пропуск без даты окончания длится до сегодняшнего дня.
+     */
+    public record AbsenceDaysInfo(
+        Long totalDays,
+        Double avgDaysPerEmployee,
+        Double avgDaysPerAbsence,
+        AbsenceDaysStats valid,
+        AbsenceDaysStats invalid,
+        List<DepartmentAbsenceDays> departments
+    ) {}
+    
+    /**
+     * Количество пропусков и дней по статусу
+     */
+    public record AbsenceDaysStats(
+        Long absences,
+        Long days,
+        Double avgDays
+    ) {}
+    
+    /**
+     * Дни пропусков по отделу
+     */
+    public record DepartmentAbsenceDays(
+        String dept,
+        Long employees,
+        Long days,
+        Double avgDaysPerEmployee
+    ) {}
+    
+    /**
+     * Копия с заполненной секцией дней пропусков
+     */
+    public AnalyticsDto withAbsenceDays(AbsenceDaysInfo value) {
+        return new AnalyticsDto(totalEmployees, avgCompetence, trained, fired, turnoverRate, absences, value,
+            gender, age, ranks, departments, hiresFires, departmentsSummary, employees);
+    }
+    
     /**
      * Данные для графиков (pie, bar)
      */
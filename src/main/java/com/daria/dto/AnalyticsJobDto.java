@@ -0,0 +1,30 @@
+package com.daria.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Состояние фонового расчета аналитики
+ *
+ * @param id идентификатор задания
+ * @param status PENDING, RUNNING, DONE, FAILED
+ * @param departmentId фильтр по отделу (null = все отделы)
+ * @param period период (null = все время)
+ * @param sections запрошенные секции
+ * @param createdAt время постановки в очередь
+ * @param finishedAt время завершения (null - не завершено)
+ * @param error сообщение об ошибке (только для FAILED)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AnalyticsJobDto(
+    String id,
+    String status,
+    Long departmentId,
+    String period,
+    List<String> sections,
+    LocalDateTime createdAt,
+    LocalDateTime finishedAt,
+    String error
+) {}
@@ -0,0 +1,19 @@
+package com.daria.dto;
+
+/**
+ * Статистика кэша
+ * 
+ * - size - текущее количество записей
+ * - hits / misses - попадания и промахи
+ * - hitRate - доля попаданий (0..1)
+ * - evictions - вытеснения по размеру и TTL
+ * - invalidations - записи, удаленные из-за изменения данных
+ */
+public record CacheStatsDto(
+    Long size,
+    Long hits,
+    Long misses,
+    Double hitRate,
+    Long evictions,
+    Long invalidations
+) {}
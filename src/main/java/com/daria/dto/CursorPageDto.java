@@ -0,0 +1,14 @@
+package com.daria.dto;
+
+import java.util.List;
+
+/**
+ * Страница keyset-пагинации
+ *
+ * @param items элементы страницы
+ * @param nextCursor курсор следующей страницы (null - страница последняя)
+ */
+public record CursorPageDto<T>(
+    List<T> items,
+    String nextCursor
+) {}
@@ -0,0 +1,26 @@
+package com.daria.dto;
+
+/**
+ * KPI отдела для сравнения отделов
+ *
+ * Поля совпадают с KPI секциями AnalyticsDto для фильтра по этому отделу.
+ *
+ * @param departmentId идентификатор отдела
+ * @param departmentName название отдела
+ * @param totalEmployees количество сотрудников
+ * @param avgCompetence средний уровень компетенции
+ * @param trained количество обученных в периоде
+ * @param fired количество уволенных в периоде
+ * @param turnoverRate текучесть (%)
+ * @param absences пропуски (уважительные / неуважительные)
+ */
+public record DepartmentComparisonDto(
+    Long departmentId,
+    String departmentName,
+    Long totalEmployees,
+    Double avgCompetence,
+    Long trained,
+    Long fired,
+    Double turnoverRate,
+    AnalyticsDto.AbsencesInfo absences
+) {}
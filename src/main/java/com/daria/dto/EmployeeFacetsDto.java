@@ -0,0 +1,28 @@
+package com.daria.dto;
+
+import java.util.Map;
+
+/**
+ * Фасетные счетчики сотрудников
+ *
+ * Счетчики фасета учитывают все фильтры, кроме фильтра самого фасета.
+ * Значения с нулевым количеством не возвращаются.
+ *
+ * @param total количество сотрудников, подходящих под все фильтры
+ * @param departments идентификатор отдела ("none" - без отдела) -> количество
+ * @param genders пол -> количество
+ * @param ranks ранг компетенции -> количество
+ * @param competenceLevels уровень компетенции -> количество
+ * @param statuses ACTIVE / FIRED -> количество
+ */
+public record EmployeeFacetsDto(
+    long total,
+    Map<String, Long> departments,
+    Map<String, Long> genders,
+    Map<String, Long> ranks,
+    Map<String, Long> competenceLevels,
+    Map<String, Long> statuses
+) {
+
+  public static final String NO_DEPARTMENT = "none";
+}
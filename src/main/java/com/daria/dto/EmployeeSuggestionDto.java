@@ -0,0 +1,12 @@
+package com.daria.dto;
+
+/**
+ * Подсказка для выбора сотрудника
+ *
+ * @param id идентификатор сотрудника
+ * @param fullName ФИО
+ */
+public record EmployeeSuggestionDto(
+    Long id,
+    String fullName
+) {}
@@ -0,0 +1,19 @@
+package com.daria.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+
+/**
+ * Численность сотрудников на дату
+ *
+ * @param date дата
+ * @param departmentId отдел (null - все отделы)
+ * @param headcount количество сотрудников, работавших в этот день
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record HeadcountDto(
+    LocalDate date,
+    Long departmentId,
+    long headcount
+) {}
@@ -0,0 +1,28 @@
+package com.daria.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Ряд численности сотрудников
+ *
+ * Точка - численность на последний день интервала (последняя точка - на дату to).
+ *
+ * @param departmentId отдел (null - все отделы)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record HeadcountSeriesDto(
+    String granularity,
+    LocalDate from,
+    LocalDate to,
+    Long departmentId,
+    List<Point> points
+) {
+
+  public record Point(
+      LocalDate date,
+      long headcount
+  ) {}
+}
@@ -0,0 +1,12 @@
+package com.daria.dto;
+
+/**
+ * Результат пересчета помесячных итогов
+ *
+ * @param rows количество строк итогов
+ * @param durationMs время пересчета (мс)
+ */
+public record RollupRebuildDto(
+    int rows,
+    long durationMs
+) {}
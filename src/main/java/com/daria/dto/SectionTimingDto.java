@@ -0,0 +1,18 @@
+package com.daria.dto;
+
+/**
+ * Статистика времени расчета секции аналитики
+ *
+ * @param section секция
+ * @param count количество расчетов
+ * @param avgMs среднее время (мс)
+ * @param maxMs максимальное время (мс)
+ * @param lastMs время последнего расчета (мс)
+ */
+public record SectionTimingDto(
+    String section,
+    long count,
+    double avgMs,
+    double maxMs,
+    double lastMs
+) {}
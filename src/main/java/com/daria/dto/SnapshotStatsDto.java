@@ -0,0 +1,22 @@
+package com.daria.dto;
+
+import java.time.Instant;
+
+/**
+ * Статистика колоночного снимка сотрудников
+ *
+ * @param loaded загружен ли снимок (загружается при первом расчете с engine = snapshot)
+ * @param employees количество сотрудников в снимке
+ * @param memoryBytes примерный объем памяти снимка (байт)
+ * @param bytesPerEmployee примерный объем памяти на одного сотрудника (байт)
+ * @param loadedAt время последней полной загрузки
+ * @param refreshes количество инкрементальных обновлений после изменений данных
+ */
+public record SnapshotStatsDto(
+    boolean loaded,
+    int employees,
+    long memoryBytes,
+    double bytesPerEmployee,
+    Instant loadedAt,
+    long refreshes
+) {}
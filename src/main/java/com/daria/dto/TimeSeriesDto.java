@@ -0,0 +1,34 @@
+package com.daria.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Временной ряд аналитики
+ *
+ * Содержит по одной точке на каждый интервал диапазона (в том числе с нулями),
+ * размер ответа определяется количеством интервалов, а не объемом данных.
+ * Незапрошенные метрики равны null и не сериализуются.
+ */
+public record TimeSeriesDto(
+    String granularity,
+    LocalDate from,
+    LocalDate to,
+    List<Point> points
+) {
+
+  /**
+   * Точка ряда: интервал [start, end] (обрезан по границам диапазона) и количество событий
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public record Point(
+      LocalDate start,
+      LocalDate end,
+      Long hires,
+      Long fires,
+      Long absences,
+      Long trainings
+  ) {}
+}
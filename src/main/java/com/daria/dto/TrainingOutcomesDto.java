@@ -0,0 +1,40 @@
+package com.daria.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Результаты обучений: переходы уровней компетенции, доля повышений и средняя длительность
+ *
+ * @param total итоги по всем отфильтрованным обучениям
+ * @param departments итоги по отделам (обучения сотрудников без отдела входят только в total)
+ */
+public record TrainingOutcomesDto(
+    Outcomes total,
+    List<DepartmentOutcomes> departments
+) {
+
+  /**
+   * @param trainings количество обучений
+   * @param transitions матрица переходов: уровень до -> уровень после -> количество
+   *                    (только обучения с указанными обоими уровнями)
+   * @param promotions обучения, после которых уровень вырос
+   * @param demotions обучения, после которых уровень снизился
+   * @param promotionRate доля повышений среди обучений с указанными уровнями (%)
+   * @param avgDurationDays средняя длительность обучений с датами начала и окончания (дни)
+   */
+  public record Outcomes(
+      Long trainings,
+      Map<String, Map<String, Long>> transitions,
+      Long promotions,
+      Long demotions,
+      Double promotionRate,
+      Double avgDurationDays
+  ) {}
+
+  public record DepartmentOutcomes(
+      Long departmentId,
+      String dept,
+      Outcomes outcomes
+  ) {}
+}
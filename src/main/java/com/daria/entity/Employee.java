@@ -4,6 +4,7 @@ import com.daria.entity.enums.CompetenceRank;
 import com.daria.entity.enums.Gender;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -46,6 +47,21 @@ public class Employee {
   @Column(name = "competence_level")
   private Integer competenceLevel;
 
+  /**
+   * Счетчики пропусков (V9): поддерживаются AbsenceCounterService, JPA их не записывает
+   */
+  @ColumnDefault("0")
+  @Column(name = "absence_count", insertable = false, updatable = false)
+  private int absenceCount;
+
+  @ColumnDefault("0")
+  @Column(name = "bad_reason_count", insertable = false, updatable = false)
+  private int badReasonCount;
+
+  @ColumnDefault("0")
+  @Column(name = "absence_days", insertable = false, updatable = false)
+  private int absenceDays;
+
   @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "department_id")
   private Department department;
@@ -0,0 +1,53 @@
+package com.daria.event;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Событие изменения данных
+ * 
+ * Публикуется сервисами внутри транзакции записи. Слушатели, которым важен
+ * только зафиксированный результат (кэши, индексы), подписываются через
+ * {@code @TransactionalEventListener(phase = AFTER_COMMIT)}.
+ * 
+ * @param type тип измененной сущности
+ * @param entityId идентификатор измененной сущности
+ * @param employeeId сотрудник, к которому относится изменение (null для отделов)
+ * @param departmentIds отделы, которые затрагивает изменение
+ *                      (для сотрудника - старый и новый отдел, пустое множество - без отдела)
+ */
+public record DataChangedEvent(
+    DataType type,
+    Long entityId,
+    Long employeeId,
+    Set<Long> departmentIds
+) {
+
+  public enum DataType {
+    EMPLOYEE, DEPARTMENT, ABSENCE, TRAINING
+  }
+
+  public static DataChangedEvent employee(Long employeeId, Long... departmentIds) {
+    return new DataChangedEvent(DataType.EMPLOYEE, employeeId, employeeId, toSet(departmentIds));
+  }
+
+  public static DataChangedEvent department(Long departmentId) {
+    return new DataChangedEvent(DataType.DEPARTMENT, departmentId, null, toSet(departmentId));
+  }
+
+  public static DataChangedEvent absence(Long absenceId, Long employeeId, Long departmentId) {
+    return new DataChangedEvent(DataType.ABSENCE, absenceId, employeeId, toSet(departmentId));
+  }
+
+  public static DataChangedEvent training(Long trainingId, Long employeeId, Long departmentId) {
+    return new DataChangedEvent(DataType.TRAINING, trainingId, employeeId, toSet(departmentId));
+  }
+
+  private static Set<Long> toSet(Long... ids) {
+    return Arrays.stream(ids)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toUnmodifiableSet());
+  }
+}
@@ -0,0 +1,59 @@
+package com.daria.event;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Монотонно растущая версия данных
+ * 
+ * Увеличивается после коммита каждой записи через сервисы (DataChangedEvent).
+ * Используется как основа ETag: пока версия не изменилась, ответы GET
+ * по сотрудникам, отделам, пропускам, обучениям и аналитике не меняются
+ * (кроме зависимости аналитики от текущей даты, которая учитывается в ETag отдельно).
+ * 
+ * Счетчик хранится в памяти, поэтому к нему добавляется идентификатор запуска:
+ * после рестарта версии не совпадут со старыми ETag.
+ */
+@Component
+public class DataVersion {
+
+  private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+  private final AtomicLong version = new AtomicLong();
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onDataChanged(DataChangedEvent event) {
+    version.incrementAndGet();
+  }
+
+  /**
+   * Принудительно увеличить версию (изменения данных в обход сервисов, пересчеты)
+   * 
+   * Внутри транзакции версия увеличивается после коммита: иначе запрос между увеличением
+   * и коммитом получил бы новый ETag для старых данных.
+   */
+  public void bump() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          version.incrementAndGet();
+        }
+      });
+    } else {
+      version.incrementAndGet();
+    }
+  }
+
+  public long current() {
+    return version.get();
+  }
+
+  public String getBootId() {
+    return bootId;
+  }
+}
@@ -0,0 +1,177 @@
+package com.daria.infra;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.analytics")
+@Validated
+@Getter
+@Setter
+public class AnalyticsProperties {
+
+  /**
+   * Движок расчета: sql - агрегирующие запросы на каждую метрику,
+   * memory - один потоковый запрос и однопроходный расчет в памяти,
+   * snapshot - однопроходный расчет по колоночному снимку сотрудников в памяти
+   */
+  @NotNull(message = "Analytics engine must be set")
+  private Engine engine = Engine.SQL;
+
+  @Valid
+  private Cache cache = new Cache();
+
+  @Valid
+  private Parallel parallel = new Parallel();
+
+  @Valid
+  private Rollup rollup = new Rollup();
+
+  @Valid
+  private AbsenceCounters absenceCounters = new AbsenceCounters();
+
+  @Valid
+  private Timeseries timeseries = new Timeseries();
+
+  @Valid
+  private Jobs jobs = new Jobs();
+
+  @Valid
+  private Precompute precompute = new Precompute();
+
+  public enum Engine {
+    SQL, MEMORY, SNAPSHOT
+  }
+
+  @Getter
+  @Setter
+  public static class Cache {
+
+    @NotNull(message = "Analytics cache TTL must be set")
+    private Duration ttl = Duration.ofMinutes(5);
+
+    @Positive(message = "Analytics cache size must be positive")
+    private long maxSize = 500;
+  }
+
+  /**
+   * Параллельный расчет независимых секций (только для engine = sql)
+   */
+  @Getter
+  @Setter
+  public static class Parallel {
+
+    private boolean enabled = false;
+
+    /**
+     * Максимум одновременно выполняемых секций на все запросы
+     * (каждая секция держит соединение из пула БД)
+     */
+    @Positive(message = "Analytics parallelism must be positive")
+    private int maxConcurrency = 4;
+
+    /**
+     * Крайний срок расчета всех секций одного запроса
+     */
+    @NotNull(message = "Analytics deadline must be set")
+    private Duration timeout = Duration.ofSeconds(10);
+  }
+
+  /**
+   * Помесячные итоги приемов и увольнений (employee_monthly_rollup)
+   */
+  @Getter
+  @Setter
+  public static class Rollup {
+
+    /**
+     * Читать полные месяцы графика приемов/увольнений из итогов
+     * (false - считать по таблице employees)
+     */
+    private boolean enabled = true;
+
+    /**
+     * Расписание полного пересчета итогов
+     */
+    @NotNull(message = "Rollup rebuild cron must be set")
+    private String rebuildCron = "0 30 3 * * *";
+  }
+
+  /**
+   * Счетчики пропусков сотрудника (employees.absence_count, bad_reason_count, absence_days)
+   */
+  @Getter
+  @Setter
+  public static class AbsenceCounters {
+
+    /**
+     * Расписание сверки счетчиков с таблицей пропусков
+     */
+    @NotNull(message = "Absence counters reconcile cron must be set")
+    private String reconcileCron = "0 45 3 * * *";
+  }
+
+  /**
+   * Временные ряды (/analytics/timeseries)
+   */
+  @Getter
+  @Setter
+  public static class Timeseries {
+
+    /**
+     * Максимальное количество интервалов в одном ответе
+     */
+    @Positive(message = "Time series bucket limit must be positive")
+    private int maxBuckets = 400;
+  }
+
+  /**
+   * Фоновые расчеты (/analytics/jobs)
+   */
+  @Getter
+  @Setter
+  public static class Jobs {
+
+    /**
+     * Количество одновременно выполняемых заданий
+     */
+    @Positive(message = "Analytics job concurrency must be positive")
+    private int maxConcurrency = 2;
+
+    /**
+     * Максимум заданий в очереди, сверх него - 503
+     */
+    @Positive(message = "Analytics job queue capacity must be positive")
+    private int queueCapacity = 20;
+
+    /**
+     * Время хранения завершенного задания и его результата
+     */
+    @NotNull(message = "Analytics job result TTL must be set")
+    private Duration resultTtl = Duration.ofMinutes(30);
+  }
+
+  /**
+   * Предрасчет всех комбинаций (отдел x период) и теплый старт из analytics_snapshots
+   */
+  @Getter
+  @Setter
+  public static class Precompute {
+
+    private boolean enabled = false;
+
+    /**
+     * Пауза между пересчетами (не больше TTL кэша)
+     */
+    @NotNull(message = "Analytics precompute interval must be set")
+    private Duration interval = Duration.ofMinutes(5);
+  }
+}
@@ -1,8 +1,10 @@
 package com.daria.infra;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Configuration
+@EnableScheduling
 public class AppConfiguration {
 
 //  @Bean
@@ -0,0 +1,95 @@
+package com.daria.infra;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Условные GET по версии данных: ETag в ответе и 304
+ * 
+ * Совпадение If-None-Match с конкретным ETag определяет DataVersionNotModifiedInterceptor
+ * до вызова метода контроллера, здесь из его исключения формируется 304.
+ * 
+ * Для выполненного метода - перед записью тела. Ответы с ошибками (403, 400, 404 ...)
+ * возвращаются как есть, без ETag. Потоковые ответы (StreamingResponseBody, /employees/export)
+ * не проходят через конвертеры сообщений и ETag не получают.
+ * 
+ * - If-None-Match: * - 304 без тела после вызова (успешный ответ существует)
+ * - Cache-Control: private, no-cache - браузер хранит ответ, но перепроверяет его при каждом запросе
+ */
+@RestControllerAdvice
+public class DataVersionEtagAdvice implements ResponseBodyAdvice<Object> {
+
+  private static final String CACHE_CONTROL = "private, no-cache";
+
+  @ExceptionHandler(DataVersionNotModifiedInterceptor.NotModifiedException.class)
+  public ResponseEntity<Void> handleNotModified(DataVersionNotModifiedInterceptor.NotModifiedException ex) {
+    return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+        .header(HttpHeaders.ETAG, ex.getEtag())
+        .header(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL)
+        .build();
+  }
+
+  @Override
+  public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+    return true;
+  }
+
+  @Override
+  public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                ServerHttpRequest request, ServerHttpResponse response) {
+    if (!(request instanceof ServletServerHttpRequest servletRequest)
+        || !(response instanceof ServletServerHttpResponse servletResponse)) {
+      return body;
+    }
+    Object etag = servletRequest.getServletRequest().getAttribute(DataVersionEtagInterceptor.ETAG_ATTRIBUTE);
+    HttpServletResponse servlet = servletResponse.getServletResponse();
+    if (!(etag instanceof String value) || !HttpStatus.valueOf(servlet.getStatus()).is2xxSuccessful()) {
+      return body;
+    }
+
+    // Заголовки - сразу в HttpServletResponse: при пустом теле ServerHttpResponse их может не записать
+    servlet.setHeader(HttpHeaders.ETAG, value);
+    servlet.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+    if (matches(servletRequest.getServletRequest().getHeader(HttpHeaders.IF_NONE_MATCH), value, true)) {
+      servlet.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      return null;
+    }
+    return body;
+  }
+
+  /**
+   * Сравнение If-None-Match (список через запятую или *) с ETag
+   * 
+   * Для If-None-Match сравнение слабое (RFC 9110): префикс W/ не учитывается.
+   * 
+   * @param wildcard учитывать ли *
+   */
+  static boolean matches(String ifNoneMatch, String etag, boolean wildcard) {
+    if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+      return false;
+    }
+    for (String candidate : ifNoneMatch.split(",")) {
+      String value = candidate.trim();
+      if (value.startsWith("W/")) {
+        value = value.substring(2);
+      }
+      if ((wildcard && value.equals("*")) || value.equals(etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
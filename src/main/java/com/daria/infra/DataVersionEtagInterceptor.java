@@ -0,0 +1,48 @@
+package com.daria.infra;
+
+import com.daria.event.DataVersion;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.LocalDate;
+
+/**
+ * Условные GET по версии данных: вычисление ETag
+ * 
+ * - ETag = идентификатор запуска + версия данных + текущая дата (аналитика считается
+ *   относительно сегодняшнего дня) + хэш адреса запроса с параметрами
+ * - Версия локальна для экземпляра, как и индексы в памяти, которые обновляются по событиям
+ *   этого же экземпляра: записи через другой экземпляр ETag не меняют
+ * - Сравнение с If-None-Match - в DataVersionNotModifiedInterceptor после @PreAuthorize
+ *   и до вызова метода контроллера, ответ 304 и заголовки - в DataVersionEtagAdvice
+ * 
+ * Версия читается до выполнения запроса: если данные изменятся во время расчета,
+ * ответ получит старый ETag и будет пересчитан при следующем опросе.
+ */
+@Component
+@RequiredArgsConstructor
+public class DataVersionEtagInterceptor implements HandlerInterceptor {
+
+  /**
+   * Атрибут запроса с ETag, вычисленным до вызова контроллера
+   */
+  static final String ETAG_ATTRIBUTE = DataVersionEtagInterceptor.class.getName() + ".etag";
+
+  private final DataVersion dataVersion;
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (HttpMethod.GET.matches(request.getMethod())) {
+      String target = request.getQueryString() == null
+          ? request.getRequestURI()
+          : request.getRequestURI() + "?" + request.getQueryString();
+      request.setAttribute(ETAG_ATTRIBUTE, "\"" + dataVersion.getBootId() + "-" + dataVersion.current()
+          + "-" + LocalDate.now().toEpochDay() + "-" + Integer.toHexString(target.hashCode()) + "\"");
+    }
+    return true;
+  }
+}
@@ -0,0 +1,72 @@
+package com.daria.infra;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authorization.method.AuthorizationInterceptorsOrder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Условные GET по версии данных: 304 до вызова контроллера
+ *
+ * Оборачивает GET-методы контроллеров и выполняется после проверки @PreAuthorize
+ * (порядок сразу за AuthorizationInterceptorsOrder.PRE_AUTHORIZE), но до тела метода:
+ * при совпадении If-None-Match с ETag из DataVersionEtagInterceptor метод не вызывается,
+ * запрос к сервису и БД не выполняется, ответ 304 формирует DataVersionEtagAdvice.
+ *
+ * Edge cases:
+ * - Ошибки привязки параметров (400) возникают до вызова метода и по-прежнему выигрывают у 304
+ * - Проверки параметров внутри метода пропускаются безопасно: ETag включает адрес запроса,
+ *   совпадающий ETag клиент мог получить только в успешном ответе на тот же запрос при той же версии
+ * - If-None-Match: * здесь не учитывается - существование ответа известно только после вызова,
+ *   такой запрос обрабатывает DataVersionEtagAdvice
+ */
+class DataVersionNotModifiedInterceptor implements MethodInterceptor {
+
+  /**
+   * Советник для InfrastructureAdvisorAutoProxyCreator (GET-методы @RestController)
+   */
+  static Advisor advisor() {
+    DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+        new AnnotationMatchingPointcut(RestController.class, GetMapping.class, true),
+        new DataVersionNotModifiedInterceptor());
+    advisor.setOrder(AuthorizationInterceptorsOrder.PRE_AUTHORIZE.getOrder() + 1);
+    return advisor;
+  }
+
+  @Override
+  public Object invoke(MethodInvocation invocation) throws Throwable {
+    if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+      HttpServletRequest request = attributes.getRequest();
+      if (request.getAttribute(DataVersionEtagInterceptor.ETAG_ATTRIBUTE) instanceof String etag
+          && DataVersionEtagAdvice.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag, false)) {
+        throw new NotModifiedException(etag);
+      }
+    }
+    return invocation.proceed();
+  }
+
+  /**
+   * Ответ не изменился: DataVersionEtagAdvice отвечает 304 с ETag
+   */
+  static class NotModifiedException extends RuntimeException {
+
+    private final String etag;
+
+    NotModifiedException(String etag) {
+      super(null, null, false, false);
+      this.etag = etag;
+    }
+
+    String getEtag() {
+      return etag;
+    }
+  }
+}
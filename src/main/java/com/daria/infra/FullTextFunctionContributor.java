@@ -0,0 +1,26 @@
+package com.daria.infra;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Функция полнотекстового поиска MySQL для JPQL
+ *
+ * function('match_against', e.fullName, :query) -> MATCH(full_name) AGAINST (:query IN BOOLEAN MODE),
+ * результат - релевантность (0 - не найдено). Колонка должна быть покрыта FULLTEXT-индексом (V8).
+ *
+ * Регистрируется через META-INF/services/org.hibernate.boot.model.FunctionContributor.
+ */
+public class FullTextFunctionContributor implements FunctionContributor {
+
+  public static final String MATCH_AGAINST = "match_against";
+
+  @Override
+  public void contributeFunctions(FunctionContributions functionContributions) {
+    functionContributions.getFunctionRegistry().registerPattern(
+        MATCH_AGAINST,
+        "match(?1) against (?2 in boolean mode)",
+        functionContributions.getTypeConfiguration().getBasicTypeRegistry().resolve(StandardBasicTypes.DOUBLE));
+  }
+}
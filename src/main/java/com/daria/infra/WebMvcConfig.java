@@ -0,0 +1,47 @@
+package com.daria.infra;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcConfig implements WebMvcConfigurer {
+
+  private final DataVersionEtagInterceptor dataVersionEtagInterceptor;
+
+  /**
+   * 304 по ETag после @PreAuthorize и до вызова GET-метода контроллера
+   * 
+   * Роль инфраструктуры: советник подхватывает тот же автопрокси, что и советники @PreAuthorize.
+   */
+  @Bean
+  @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+  static Advisor dataVersionNotModifiedAdvisor() {
+    return DataVersionNotModifiedInterceptor.advisor();
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    // ETag по версии данных для GET-запросов чтения
+    registry.addInterceptor(dataVersionEtagInterceptor)
+        .addPathPatterns(
+            "/v1/employee-service/analytics/**",
+            "/v1/employee-service/employees/**",
+            "/v1/employee-service/departments/**",
+            "/v1/employee-service/absences/**",
+            "/v1/employee-service/trainings/**"
+        )
+        .excludePathPatterns(
+            // Состояние фоновых заданий меняется без записи данных
+            "/v1/employee-service/analytics/jobs/**",
+            // Потоковая выгрузка: без ETag, каждый запрос читает данные заново
+            "/v1/employee-service/employees/export"
+        );
+  }
+}
@@ -1,5 +1,6 @@
 package com.daria.repository;
 
+import com.daria.dto.AbsenceDto;
 import com.daria.entity.AbsenceEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -8,17 +9,24 @@ import org.springframework.data.repository.query.Param;
 import java.util.List;
 
 public interface AbsenceRepository extends JpaRepository<AbsenceEntity, Long> {
+
+  String ABSENCE_DTO = "new com.daria.dto.AbsenceDto(a.id, e.id, e.fullName, a.startDate, a.endDate, " +
+      "a.description, a.status)";
+
   List<AbsenceEntity> findByEmployeeId(Long employeeId);
-  
+
   /**
-   * Найти все пропуски, отсортированные по дате начала (от новых к старым)
+   * Все пропуски сразу в AbsenceDto (от новых к старым)
+   * 
+   * ФИО сотрудника читается join в том же запросе, без загрузки сотрудника на каждую строку
    */
-  @Query("SELECT a FROM AbsenceEntity a ORDER BY a.startDate DESC")
-  List<AbsenceEntity> findAllOrderByStartDateDesc();
-  
+  @Query("SELECT " + ABSENCE_DTO + " FROM AbsenceEntity a JOIN a.employee e ORDER BY a.startDate DESC")
+  List<AbsenceDto> findAllDtoOrderByStartDateDesc();
+
   /**
-   * Найти пропуски сотрудника, отсортированные по дате начала
+   * Пропуски сотрудника сразу в AbsenceDto (от новых к старым)
    */
-  @Query("SELECT a FROM AbsenceEntity a WHERE a.employee.id = :employeeId ORDER BY a.startDate DESC")
-  List<AbsenceEntity> findByEmployeeIdOrderByStartDateDesc(@Param("employeeId") Long employeeId);
+  @Query("SELECT " + ABSENCE_DTO + " FROM AbsenceEntity a JOIN a.employee e " +
+      "WHERE e.id = :employeeId ORDER BY a.startDate DESC")
+  List<AbsenceDto> findDtoByEmployeeIdOrderByStartDateDesc(@Param("employeeId") Long employeeId);
 }
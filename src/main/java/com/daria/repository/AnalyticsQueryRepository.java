@@ -0,0 +1,684 @@
+package com.daria.repository;
+
+import com.daria.entity.enums.CompetenceRank;
+import com.daria.entity.enums.Gender;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Агрегирующие запросы для аналитики
+ *
+ * Все метрики считаются в БД через GROUP BY / COUNT / SUM,
+ * в приложение возвращаются только небольшие итоговые строки.
+ *
+ * Фильтр сотрудников (см. {@link EmployeeFilter}) совпадает с логикой
+ * AnalyticsService: отдел + сотрудники, принятые, уволенные или активные в периоде.
+ * В SQL попадают только реально заданные условия.
+ */
+@Repository
+public class AnalyticsQueryRepository {
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  /**
+   * Шаблон для потокового чтения больших выборок.
+   * fetchSize = Integer.MIN_VALUE включает построчную выдачу результата в MySQL Connector/J,
+   * без загрузки всей выборки в память драйвера.
+   */
+  private final NamedParameterJdbcTemplate streamingJdbcTemplate;
+
+  public AnalyticsQueryRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+    JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getJdbcTemplate().getDataSource());
+    streaming.setFetchSize(Integer.MIN_VALUE);
+    this.streamingJdbcTemplate = new NamedParameterJdbcTemplate(streaming);
+  }
+
+  /**
+   * Фильтр сотрудников для аналитики
+   *
+   * @param departmentId отдел (null = все отделы)
+   * @param periodStart начало периода (null = все время)
+   * @param today текущая дата (передается явно, чтобы все запросы использовали одну и ту же дату)
+   */
+  public record EmployeeFilter(Long departmentId, LocalDate periodStart, LocalDate today) {}
+
+  /**
+   * KPI метрики: количество сотрудников, сумма и количество уровней компетенции,
+   * количество обученных в периоде и уволенных в периоде
+   */
+  public record Kpi(long total, long competenceSum, long competenceCount, long trained, long fired) {}
+
+  /**
+   * Количество пропусков отфильтрованных сотрудников
+   */
+  public record AbsenceCounts(long valid, long total) {}
+
+  /**
+   * Пропуски и дни пропусков группы сотрудников одного отдела
+   *
+   * @param departmentId отдел (null - сотрудники без отдела)
+   * @param employees количество отфильтрованных сотрудников
+   * @param validAbsences / invalidAbsences количество пропусков, пересекающих период
+   * @param validDays / invalidDays дни этих пропусков в пределах периода
+   */
+  public record AbsenceDaysGroup(Long departmentId, String departmentName, long employees,
+                                 long validAbsences, long invalidAbsences, long validDays, long invalidDays) {}
+
+  /**
+   * Группа обучений отдела с одинаковым переходом уровня
+   *
+   * @param departmentId отдел (null - сотрудники без отдела)
+   * @param levelBefore уровень до обучения (null - не указан)
+   * @param levelAfter уровень после обучения (null - не указан)
+   * @param trainings количество обучений
+   * @param durationDays сумма длительностей обучений с датами начала и окончания (дни, включительно)
+   * @param withDuration количество обучений с датами начала и окончания
+   */
+  public record TrainingTransition(Long departmentId, String departmentName, CompetenceRank levelBefore,
+                                   CompetenceRank levelAfter, long trainings, long durationDays, long withDuration) {}
+
+  /**
+   * Сводка по отделу: количество сотрудников и сумма/количество уровней компетенции
+   */
+  public record DepartmentAggregate(Long id, String name, long count, long competenceSum, long competenceCount) {}
+
+  /**
+   * Сводка по сотруднику: наличие обучений и количество пропусков
+   */
+  public record EmployeeAggregate(Long id, String fullName, Integer competenceLevel, boolean trained, long absences) {}
+
+  /**
+   * KPI и пропуски одного отдела (сравнение отделов)
+   */
+  public record DepartmentKpi(long id, String name, Kpi kpi, AbsenceCounts absences) {}
+
+  /**
+   * Отдел (идентификатор и название)
+   */
+  public record DepartmentRef(long id, String name) {}
+
+  /**
+   * Поле сортировки сводки по сотрудникам (при равенстве - по идентификатору)
+   */
+  public enum SummarySort {
+    NAME, COMPETENCE, ABSENCES
+  }
+
+  /**
+   * Позиция keyset-пагинации: значение поля сортировки и идентификатор последней строки страницы
+   *
+   * @param value String для NAME, Integer для COMPETENCE (null уровень = 0), Long для ABSENCES
+   */
+  public record SummaryKeyset(Object value, long id) {}
+
+  public Kpi findKpi(EmployeeFilter filter) {
+    MapSqlParameterSource params = new MapSqlParameterSource();
+    String where = employeeWhere(filter, params);
+    params.addValue("today", filter.today());
+
+    String firedInPeriod = filter.periodStart() != null ? " AND e.fire_date >= :periodStart" : "";
+    String trainedInPeriod = filter.periodStart() != null ? " AND t.start_date >= :periodStart" : "";
+
+    String sql = "SELECT COUNT(*) AS total, " +
+        "COALESCE(SUM(e.competence_level), 0) AS competence_sum, " +
+        "COUNT(e.competence_level) AS competence_count, " +
+        "COALESCE(SUM(EXISTS (SELECT 1 FROM trainings t WHERE t.employee_id = e.id " +
+        "AND t.start_date IS NOT NULL" + trainedInPeriod + ")), 0) AS trained, " +
+        "COALESCE(SUM(e.fire_date IS NOT NULL AND e.fire_date <= :today" + firedInPeriod + "), 0) AS fired " +
+        "FROM employees e WHERE " + where;
+
+    return jdbcTemplate.queryForObject(sql, params, (rs, rowNum) -> new Kpi(
+        rs.getLong("total"),
+        rs.getLong("competence_sum"),
+        rs.getLong("competence_count"),
+        rs.getLong("trained"),
+        rs.getLong("fired")
+    ));
+  }
+
+  public AbsenceCounts countAbsences(EmployeeFilter filter) {
+    MapSqlParameterSource params = new MapSqlParameterSource();
+    String sql = "SELECT COUNT(*) AS total, COALESCE(SUM(a.status = 'GOOD_REASON'), 0) AS valid " +
+        "FROM absences a JOIN employees e ON e.id = a.employee_id " +
+        "WHERE " + employeeWhere(filter, params);
+
+    return jdbcTemplate.queryForObject(sql, params, (rs, rowNum) ->
+        new AbsenceCounts(rs.getLong("valid"), rs.getLong("total")));
+  }
+
+  /**
+   * Дни пропусков по отделам и статусам одним запросом
+   *
+   * Длительность считается в SQL: DATEDIFF(конец, начало) + 1, где начало не раньше начала периода,
+   * а конец (или сегодня для пропуска без даты окончания) не позже сегодняшнего дня.
+   * Учитываются только пропуски, пересекающие период. Пропуск без статуса считается неуважительным,
+   * как в {@link #countAbsences}.
+   *
+   * Сотрудники присоединяются через LEFT JOIN, поэтому в каждой группе есть и количество сотрудников
+   * (для среднего на сотрудника), и отделы без пропусков.
+   */
+  public List<AbsenceDaysGroup> findAbsenceDays(EmployeeFilter filter) {
+    MapSqlParameterSource params = new MapSqlParameterSource();
+    String where = employeeWhere(filter, params);
+    params.addValue("today", filter.today());
+
+    String start = filter.periodStart() != null ? "GREATEST(a.start_date, :periodStart)" : "a.start_date";
+    String overlapsPeriod = filter.periodStart() != null ? " AND COALESCE(a.end_date, :today) >= :periodStart" : "";
+    String days = "GREATEST(DATEDIFF(LEAST(COALESCE(a.end_date, :today), :today), " + start + ") + 1, 0)";
+    String valid = "a.status = 'GOOD_REASON'";
+
+    String sql = "SELECT e.department_id, d.name, COUNT(DISTINCT e.id) AS employees, " +
+        "COALESCE(SUM(" + valid + "), 0) AS valid_absences, " +
+        "COUNT(a.id) - COALESCE(SUM(" + valid + "), 0) AS invalid_absences, " +
+        "COALESCE(SUM(CASE WHEN " + valid + " THEN " + days + " END), 0) AS valid_days, " +
+        "COALESCE(SUM(CASE WHEN a.id IS NOT NULL AND (a.status IS NULL OR a.status <> 'GOOD_REASON') " +
+        "THEN " + days + " END), 0) AS invalid_days " +
+        "FROM employees e " +
+        "LEFT JOIN departments d ON d.id = e.department_id " +
+        "LEFT JOIN absences a ON a.employee_id = e.id AND a.start_date <= :today" + overlapsPeriod + " " +
+        "WHERE " + where + " " +
+        "GROUP BY e.department_id, d.name ORDER BY e.department_id";
+
+    return jdbcTemplate.query(sql, params, (rs, rowNum) -> new AbsenceDaysGroup(
+        rs.getObject("department_id", Long.class),
+        rs.getString("name"),
+        rs.getLong("employees"),
+        rs.getLong("valid_absences"),
+        rs.getLong("invalid_absences"),
+        rs.getLong("valid_days"),
+        rs.getLong("invalid_days")
+    ));
+  }
+
+  /**
+   * Переходы уровней по обучениям одним запросом GROUP BY (отдел, уровень до, уровень после)
+   *
+   * Обучения относятся к периоду по дате начала (как обученные в KPI),
+   * без периода учитываются все обучения, в том числе без даты начала.
+   * Фильтр периода по сотрудникам не применяется: учитываются обучения в периоде,
+   * в том числе уже уволенных сотрудников.
+   */
+  public List<TrainingTransition> findTrainingTransitions(Long departmentId, LocalDate periodStart) {
+    MapSqlParameterSource params = new MapSqlParameterSource();
+    StringBuilder where = new StringBuilder("1 = 1");
+    if (departmentId != null) {
+      where.append(" AND e.department_id = :departmentId");
+      params.addValue("departmentId", departmentId);
+    }
+    if (periodStart != null) {
+      where.append(" AND t.start_date >= :periodStart");
+      params.addValue("periodStart", periodStart);
+    }
+
+    String sql = "SELECT e.department_id, d.name, t.level_before, t.level_after, COUNT(*) AS trainings, " +
+        "COALESCE(SUM(DATEDIFF(t.end_date, t.start_date) + 1), 0) AS duration_days, " +
+        "COUNT(DATEDIFF(t.end_date, t.start_date)) AS with_duration " +
+        "FROM trainings t JOIN employees e ON e.id = t.employee_id " +
+        "LEFT JOIN departments d ON d.id = e.department_id " +
+        "WHERE " + where + " " +
+        "GROUP BY e.department_id, d.name, t.level_before, t.level_after " +
+        "ORDER BY e.department_id";
+
+    return jdbcTemplate.query(sql, params, (rs, rowNum) -> {
+      String before = rs.getString("level_before");
+      String after = rs.getString("level_after");
+      return new TrainingTransition(
+          rs.getObject("department_id", Long.class),
+          rs.getString("name"),
+          before != null ? CompetenceRank.valueOf(before) : null,
+          after != null ? CompetenceRank.valueOf(after) : null,
+          rs.getLong("trainings"),
+          rs.getLong("duration_days"),
+          rs.getLong("with_duration")
+      );
+    });
+  }
+
+  public Map<Gender, Long> countByGender(EmployeeFilter filter) {
+    MapSqlParameterSource params = new MapSqlParameterSource();
+    String sql = "SELECT e.gender, COUNT(*) AS cnt FROM employees e " +
+        "WHERE " + employeeWhere(filter, params) + " GROUP BY e.gender";
+
+    Map<Gender, Long> result = new EnumMap<>(Gender.class);
+    jdbcTemplate.query(sql, params, rs -> {
+      result.put(Gender.valueOf(rs.getString("gender")), rs.getLong("cnt"));
+    });
+    return result;
+  }
+
+  /**
+   * Количество сотрудников по возрастным группам
+   *
+   * @return массив из 4 элементов: 18–25, 26–35, 36–45, 46+
+   * (сотрудники младше 18 лет попадают в группу 26–35, как и в исходном расчете)
+   */
+  public long[] countByAgeGroup(EmployeeFilter filter) {
+    MapSqlParameterSource params = new MapSqlParameterSource();
+    String where = employeeWhere(filter, params);
+    params.addValue("today", filter.today());
+
+    String age = "TIMESTAMPDIFF(YEAR, e.birth_date, :today)";
+    String sql = "SELECT CASE " +
+        "WHEN " + age + " BETWEEN 18 AND 25 THEN 0 " +
+        "WHEN " + age + " <= 35 THEN 1 " +
+        "WHEN " + age + " <= 45 THEN 2 " +
+        "ELSE 3 END AS age_group, COUNT(*) AS cnt " +
+        "FROM employees e WHERE e.birth_date IS NOT NULL AND " + where + " " +
+        "GROUP BY age_group";
+
+    long[] result = new long[4];
+    jdbcTemplate.query(sql, params, rs -> {
+      result[rs.getInt("age_group")] = rs.getLong("cnt");
+    });
+    return result;
+  }
+
+  public Map<CompetenceRank, Long> countByRank(EmployeeFilter filter) {
+    MapSqlParameterSource params = new MapSqlParameterSource();
+    String sql = "SELECT e.competence_rank, COUNT(*) AS cnt FROM employees e " +
+        "WHERE " + employeeWhere(filter, params) + " GROUP BY e.competence_rank";
+
+    Map<CompetenceRank, Long> result = new EnumMap<>(CompetenceRank.class);
+    jdbcTemplate.query(sql, params, rs -> {
+      result.put(CompetenceRank.valueOf(rs.getString("competence_rank")), rs.getLong("cnt"));
+    });
+    return result;
+  }
+
+  /**
+   * Количество сотрудников по названию отдела (отделы с пустым названием не учитываются)
+   */
+  public Map<String, Long> countByDepartmentName(EmployeeFilter filter) {
+    MapSqlParameterSource params = new MapSqlParameterSource();
+    String sql = "SELECT d.name, COUNT(*) AS cnt FROM employees e " +
+        "JOIN departments d ON d.id = e.department_id " +
+        "WHERE TRIM(d.name) <> '' AND " + employeeWhere(filter, params) + " " +
+        "GROUP BY d.name ORDER BY d.name";
+
+    Map<String, Long> result = new LinkedHashMap<>();
+    jdbcTemplate.query(sql, params, rs -> {
+      result.put(rs.getString("name"), rs.getLong("cnt"));
+    });
+    return result;
+  }
+
+  /**
+   * Количество приемов по месяцам в диапазоне [from, today]
+   */
+  public Map<YearMonth, Long> countHiresByMonth(EmployeeFilter filter, LocalDate from) {
+    return countByMonth("e.hire_date", filter, from, null, null);
+  }
+
+  /**
+   * Количество приемов по месяцам в диапазоне [from, today] без месяцев [skipFrom, skipTo]
+   * (пропущенные месяцы берутся из помесячных итогов)
+   */
+  public Map<YearMonth, Long> countHiresByMonth(EmployeeFilter filter, LocalDate from, YearMonth skipFrom, YearMonth skipTo) {
+    return countByMonth("e.hire_date", filter, from, skipFrom, skipTo);
+  }
+
+  /**
+   * Количество увольнений по месяцам в диапазоне [from, today]
+   */
+  public Map<YearMonth, Long> countFiresByMonth(EmployeeFilter filter, LocalDate from) {
+    return countByMonth("e.fire_date", filter, from, null, null);
+  }
+
+  /**
+   * Количество увольнений по месяцам в диапазоне [from, today] без месяцев [skipFrom, skipTo]
+   */
+  public Map<YearMonth, Long> countFiresByMonth(EmployeeFilter filter, LocalDate from, YearMonth skipFrom, YearMonth skipTo) {
+    return countByMonth("e.fire_date", filter, from, skipFrom, skipTo);
+  }
+
+  /**
+   * Сводка по всем отделам (отделы без сотрудников в фильтре возвращаются с нулями)
+   */
+  public List<DepartmentAggregate> findDepartmentAggregates(EmployeeFilter filter) {
+    MapSqlParameterSource params = new MapSqlParameterSource();
+    String sql = "SELECT d.id, d.name, COUNT(e.id) AS cnt, " +
+        "COALESCE(SUM(e.competence_level), 0) AS competence_sum, " +
+        "COUNT(e.competence_level) AS competence_count " +
+        "FROM departments d " +
+        "LEFT JOIN employees e ON e.department_id = d.id AND " + employeeWhere(filter, params) + " " +
+        "GROUP BY d.id, d.name ORDER BY d.id";
+
+    return jdbcTemplate.query(sql, params, (rs, rowNum) -> new DepartmentAggregate(
+        rs.getLong("id"),
+        rs.getString("name"),
+        rs.getLong("cnt"),
+        rs.getLong("competence_sum"),
+        rs.getLong("competence_count")
+    ));
+  }
+
+  /**
+   * KPI и пропуски по отделам одним запросом
+   *
+   * Сотрудники и пропуски агрегируются в производных таблицах с GROUP BY department_id
+   * (по одному проходу по employees и absences на весь запрос), затем присоединяются к departments.
+   * Метрики совпадают с {@link #findKpi} и {@link #countAbsences} для фильтра по одному отделу.
+   *
+   * Edge cases:
+   * - Отделы без сотрудников в фильтре возвращаются с нулями
+   * - Сотрудники без отдела не учитываются
+   *
+   * @param filter фильтр по периоду (departmentId фильтра не используется)
+   * @param departmentIds отделы для сравнения (null = все отделы)
+   */
+  public List<DepartmentKpi> findDepartmentKpis(EmployeeFilter filter, Collection<Long> departmentIds) {
+    MapSqlParameterSource params = new MapSqlParameterSource();
+    EmployeeFilter periodOnly = new EmployeeFilter(null, filter.periodStart(), filter.today());
+    StringBuilder where = new StringBuilder(employeeWhere(periodOnly, params)).append(" AND e.department_id IS NOT NULL");
+    if (departmentIds != null) {
+      where.append(" AND e.department_id IN (:departmentIds)");
+      params.addValue("departmentIds", departmentIds);
+    }
+    params.addValue("today", filter.today());
+
+    String firedInPeriod = filter.periodStart() != null ? " AND e.fire_date >= :periodStart" : "";
+    String trainedInPeriod = filter.periodStart() != null ? " AND t.start_date >= :periodStart" : "";
+
+    String sql = "SELECT d.id, d.name, " +
+        "COALESCE(k.total, 0) AS total, COALESCE(k.competence_sum, 0) AS competence_sum, " +
+        "COALESCE(k.competence_count, 0) AS competence_count, COALESCE(k.trained, 0) AS trained, " +
+        "COALESCE(k.fired, 0) AS fired, " +
+        "COALESCE(ab.total, 0) AS absences_total, COALESCE(ab.valid, 0) AS absences_valid " +
+        "FROM departments d " +
+        "LEFT JOIN (SELECT e.department_id, COUNT(*) AS total, " +
+        "SUM(e.competence_level) AS competence_sum, " +
+        "COUNT(e.competence_level) AS competence_count, " +
+        "SUM(EXISTS (SELECT 1 FROM trainings t WHERE t.employee_id = e.id " +
+        "AND t.start_date IS NOT NULL" + trainedInPeriod + ")) AS trained, " +
+        "SUM(e.fire_date IS NOT NULL AND e.fire_date <= :today" + firedInPeriod + ") AS fired " +
+        "FROM employees e WHERE " + where + " GROUP BY e.department_id) k ON k.department_id = d.id " +
+        "LEFT JOIN (SELECT e.department_id, COUNT(*) AS total, SUM(a.status = 'GOOD_REASON') AS valid " +
+        "FROM absences a JOIN employees e ON e.id = a.employee_id " +
+        "WHERE " + where + " GROUP BY e.department_id) ab ON ab.department_id = d.id " +
+        (departmentIds != null ? "WHERE d.id IN (:departmentIds) " : "") +
+        "ORDER BY d.id";
+
+    return jdbcTemplate.query(sql, params, (rs, rowNum) -> new DepartmentKpi(
+        rs.getLong("id"),
+        rs.getString("name"),
+        new Kpi(
+            rs.getLong("total"),
+            rs.getLong("competence_sum"),
+            rs.getLong("competence_count"),
+            rs.getLong("trained"),
+            rs.getLong("fired")
+        ),
+        new AbsenceCounts(rs.getLong("absences_valid"), rs.getLong("absences_total"))
+    ));
+  }
+
+  /**
+   * Сводка по каждому отфильтрованному сотруднику
+   */
+  public List<EmployeeAggregate> findEmployeeAggregates(EmployeeFilter filter) {
+    MapSqlParameterSource params = new MapSqlParameterSource();
+    String sql = "SELECT e.id, e.full_name, e.competence_level, " +
+        "EXISTS (SELECT 1 FROM trainings t WHERE t.employee_id = e.id) AS trained, " +
+        "(SELECT COUNT(*) FROM absences a WHERE a.employee_id = e.id) AS absences " +
+        "FROM employees e WHERE " + employeeWhere(filter, params) + " ORDER BY e.id";
+
+    return jdbcTemplate.query(sql, params, (rs, rowNum) -> new EmployeeAggregate(
+        rs.getLong("id"),
+        rs.getString("full_name"),
+        rs.getObject("competence_level", Integer.class),
+        rs.getBoolean("trained"),
+        rs.getLong("absences")
+    ));
+  }
+
+  /**
+   * Страница сводки по сотрудникам (keyset-пагинация)
+   * 
+   * Один запрос: сотрудники + LEFT JOIN пропусков с GROUP BY, обучения через EXISTS.
+   * Условие keyset для полей сотрудника стоит в WHERE (отсекает строки до группировки),
+   * для количества пропусков - в HAVING.
+   *
+   * @param after позиция после последней строки предыдущей страницы (null = первая страница)
+   * @param limit максимальное количество строк
+   */
+  public List<EmployeeAggregate> findEmployeeSummaryPage(EmployeeFilter filter, SummarySort sort, boolean descending,
+                                                         SummaryKeyset after, int limit) {
+    MapSqlParameterSource params = new MapSqlParameterSource();
+    String where = employeeWhere(filter, params);
+    String sortExpression = switch (sort) {
+      case NAME -> "e.full_name";
+      case COMPETENCE -> "COALESCE(e.competence_level, 0)";
+      case ABSENCES -> "COUNT(a.id)";
+    };
+    String direction = descending ? "DESC" : "ASC";
+
+    String keyset = "";
+    if (after != null) {
+      String cmp = descending ? "<" : ">";
+      keyset = "(" + sortExpression + " " + cmp + " :afterValue OR (" + sortExpression + " = :afterValue AND e.id " + cmp + " :afterId))";
+      params.addValue("afterValue", after.value());
+      params.addValue("afterId", after.id());
+    }
+    boolean keysetInHaving = sort == SummarySort.ABSENCES;
+    params.addValue("limit", limit);
+
+    String sql = "SELECT e.id, e.full_name, e.competence_level, " +
+        "EXISTS (SELECT 1 FROM trainings t WHERE t.employee_id = e.id) AS trained, " +
+        "COUNT(a.id) AS absences " +
+        "FROM employees e LEFT JOIN absences a ON a.employee_id = e.id " +
+        "WHERE " + where + (!keyset.isEmpty() && !keysetInHaving ? " AND " + keyset : "") + " " +
+        "GROUP BY e.id " +
+        (!keyset.isEmpty() && keysetInHaving ? "HAVING " + keyset + " " : "") +
+        "ORDER BY " + sortExpression + " " + direction + ", e.id " + direction + " " +
+        "LIMIT :limit";
+
+    return jdbcTemplate.query(sql, params, (rs, rowNum) -> new EmployeeAggregate(
+        rs.getLong("id"),
+        rs.getString("full_name"),
+        rs.getObject("competence_level", Integer.class),
+        rs.getBoolean("trained"),
+        rs.getLong("absences")
+    ));
+  }
+
+  /**
+   * Все отделы в порядке идентификаторов
+   */
+  public List<DepartmentRef> findDepartments() {
+    return jdbcTemplate.query("SELECT d.id, d.name FROM departments d ORDER BY d.id",
+        (rs, rowNum) -> new DepartmentRef(rs.getLong("id"), rs.getString("name")));
+  }
+
+  /**
+   * Потоковый обход отфильтрованных сотрудников одним запросом
+   * 
+   * Каждая строка содержит поля сотрудника и его агрегаты пропусков и обучений
+   * (подзапросы GROUP BY employee_id). Сущности не создаются, в consumer передается
+   * один и тот же экземпляр WorkforceRow.
+   */
+  public void scanWorkforce(EmployeeFilter filter, Consumer<WorkforceRow> consumer) {
+    scanWorkforce(filter, null, consumer);
+  }
+
+  /**
+   * Потоковый обход сотрудников в порядке идентификаторов с ограничением по списку сотрудников
+   * 
+   * Список сотрудников применяется и внутри подзапросов агрегатов: обновление нескольких
+   * сотрудников читает только их пропуски и обучения (индексы по employee_id),
+   * а не группирует таблицы absences и trainings целиком.
+   * 
+   * @param employeeIds сотрудники (null = все сотрудники фильтра)
+   */
+  public void scanWorkforce(EmployeeFilter filter, Collection<Long> employeeIds, Consumer<WorkforceRow> consumer) {
+    MapSqlParameterSource params = new MapSqlParameterSource();
+    String where = employeeWhere(filter, params);
+    String aggregateWhere = "";
+    if (employeeIds != null) {
+      where += " AND e.id IN (:employeeIds)";
+      aggregateWhere = "WHERE employee_id IN (:employeeIds) ";
+      params.addValue("employeeIds", employeeIds);
+    }
+    String sql = "SELECT e.id, e.full_name, e.gender, e.competence_rank, e.competence_level, e.department_id, " +
+        "e.birth_date, e.hire_date, e.fire_date, " +
+        "COALESCE(a.total, 0) AS absences, COALESCE(a.valid, 0) AS valid_absences, " +
+        "t.employee_id IS NOT NULL AS trained, t.last_start " +
+        "FROM employees e " +
+        "LEFT JOIN (SELECT employee_id, COUNT(*) AS total, SUM(status = 'GOOD_REASON') AS valid " +
+        "FROM absences " + aggregateWhere + "GROUP BY employee_id) a ON a.employee_id = e.id " +
+        "LEFT JOIN (SELECT employee_id, MAX(start_date) AS last_start " +
+        "FROM trainings " + aggregateWhere + "GROUP BY employee_id) t ON t.employee_id = e.id " +
+        "WHERE " + where + " ORDER BY e.id";
+
+    WorkforceRow row = new WorkforceRow();
+    streamingJdbcTemplate.query(sql, params, rs -> {
+      readWorkforceRow(rs, row);
+      consumer.accept(row);
+    });
+  }
+
+  /**
+   * Заполнение WorkforceRow текущей строкой результата scanWorkforce
+   * 
+   * Edge cases:
+   * - NULL department_id - WorkforceRow.NO_DEPARTMENT (по самому значению: wasNull() относится к последней прочитанной колонке)
+   * - NULL competence_level - 0
+   */
+  public static void readWorkforceRow(ResultSet rs, WorkforceRow row) throws SQLException {
+    String gender = rs.getString("gender");
+    String rank = rs.getString("competence_rank");
+    Long departmentId = rs.getObject("department_id", Long.class);
+
+    row.setId(rs.getLong("id"));
+    row.setFullName(rs.getString("full_name"));
+    row.setGender(gender != null ? Gender.valueOf(gender) : null);
+    row.setCompetenceRank(rank != null ? CompetenceRank.valueOf(rank) : null);
+    row.setCompetenceLevel(rs.getInt("competence_level"));
+    row.setDepartmentId(departmentId != null ? departmentId : WorkforceRow.NO_DEPARTMENT);
+    row.setBirthDay(epochDay(rs.getObject("birth_date", LocalDate.class)));
+    row.setHireDay(epochDay(rs.getObject("hire_date", LocalDate.class)));
+    row.setFireDay(epochDay(rs.getObject("fire_date", LocalDate.class)));
+    row.setAbsences(rs.getLong("absences"));
+    row.setValidAbsences(rs.getLong("valid_absences"));
+    row.setTrained(rs.getBoolean("trained"));
+    row.setLastTrainingDay(epochDay(rs.getObject("last_start", LocalDate.class)));
+  }
+
+  /**
+   * Потоковый обход атрибутов сотрудников для индексов в памяти (фасеты, численность на дату)
+   * 
+   * Заполняются только id, пол, ранг, уровень компетенции, отдел, даты приема и увольнения
+   * (без агрегатов пропусков и обучений).
+   * 
+   * @param employeeIds сотрудники (null = все сотрудники)
+   */
+  public void scanEmployeeAttributes(Collection<Long> employeeIds, Consumer<WorkforceRow> consumer) {
+    MapSqlParameterSource params = new MapSqlParameterSource();
+    String sql = "SELECT e.id, e.gender, e.competence_rank, e.competence_level, e.department_id, " +
+        "e.hire_date, e.fire_date " +
+        "FROM employees e";
+    if (employeeIds != null) {
+      sql += " WHERE e.id IN (:employeeIds)";
+      params.addValue("employeeIds", employeeIds);
+    }
+
+    WorkforceRow row = new WorkforceRow();
+    streamingJdbcTemplate.query(sql, params, rs -> {
+      String gender = rs.getString("gender");
+      String rank = rs.getString("competence_rank");
+      Long departmentId = rs.getObject("department_id", Long.class);
+
+      row.setId(rs.getLong("id"));
+      row.setGender(gender != null ? Gender.valueOf(gender) : null);
+      row.setCompetenceRank(rank != null ? CompetenceRank.valueOf(rank) : null);
+      row.setCompetenceLevel(rs.getInt("competence_level"));
+      row.setDepartmentId(departmentId != null ? departmentId : WorkforceRow.NO_DEPARTMENT);
+      row.setHireDay(epochDay(rs.getObject("hire_date", LocalDate.class)));
+      row.setFireDay(epochDay(rs.getObject("fire_date", LocalDate.class)));
+      consumer.accept(row);
+    });
+  }
+
+  /**
+   * Потоковый обход ФИО сотрудников для индекса подсказок
+   * 
+   * Заполняются только id и ФИО.
+   * 
+   * @param employeeIds сотрудники (null = все сотрудники)
+   */
+  public void scanEmployeeNames(Collection<Long> employeeIds, Consumer<WorkforceRow> consumer) {
+    MapSqlParameterSource params = new MapSqlParameterSource();
+    String sql = "SELECT e.id, e.full_name FROM employees e";
+    if (employeeIds != null) {
+      sql += " WHERE e.id IN (:employeeIds)";
+      params.addValue("employeeIds", employeeIds);
+    }
+
+    WorkforceRow row = new WorkforceRow();
+    streamingJdbcTemplate.query(sql, params, rs -> {
+      row.setId(rs.getLong("id"));
+      row.setFullName(rs.getString("full_name"));
+      consumer.accept(row);
+    });
+  }
+
+  private static int epochDay(LocalDate date) {
+    return date != null ? (int) date.toEpochDay() : WorkforceRow.NO_DATE;
+  }
+
+  private Map<YearMonth, Long> countByMonth(String dateColumn, EmployeeFilter filter, LocalDate from,
+                                            YearMonth skipFrom, YearMonth skipTo) {
+    MapSqlParameterSource params = new MapSqlParameterSource();
+    String where = employeeWhere(filter, params);
+    params.addValue("from", from);
+    params.addValue("today", filter.today());
+    if (skipFrom != null && skipTo != null && !skipFrom.isAfter(skipTo)) {
+      where += " AND NOT (" + dateColumn + " BETWEEN :skipFrom AND :skipTo)";
+      params.addValue("skipFrom", skipFrom.atDay(1));
+      params.addValue("skipTo", skipTo.atEndOfMonth());
+    }
+
+    String sql = "SELECT YEAR(" + dateColumn + ") AS y, MONTH(" + dateColumn + ") AS m, COUNT(*) AS cnt " +
+        "FROM employees e " +
+        "WHERE " + dateColumn + " >= :from AND " + dateColumn + " <= :today AND " + where + " " +
+        "GROUP BY y, m";
+
+    Map<YearMonth, Long> result = new HashMap<>();
+    jdbcTemplate.query(sql, params, rs -> {
+      result.put(YearMonth.of(rs.getInt("y"), rs.getInt("m")), rs.getLong("cnt"));
+    });
+    return result;
+  }
+
+  /**
+   * Условие фильтрации сотрудников (алиас таблицы employees - e)
+   *
+   * Период: сотрудник принят в периоде, уволен в периоде или активен в течение периода.
+   */
+  private String employeeWhere(EmployeeFilter filter, MapSqlParameterSource params) {
+    StringBuilder where = new StringBuilder("1 = 1");
+    if (filter.departmentId() != null) {
+      where.append(" AND e.department_id = :departmentId");
+      params.addValue("departmentId", filter.departmentId());
+    }
+    if (filter.periodStart() != null) {
+      where.append(" AND (e.hire_date >= :periodStart OR e.fire_date IS NULL OR e.fire_date >= :periodStart)");
+      params.addValue("periodStart", filter.periodStart());
+    }
+    return where.toString();
+  }
+}
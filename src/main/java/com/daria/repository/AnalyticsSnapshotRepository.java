@@ -0,0 +1,90 @@
+package com.daria.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Сохраненные результаты предрасчета аналитики (таблица analytics_snapshots)
+ *
+ * department_id = 0 - все отделы, period = '' - все время.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AnalyticsSnapshotRepository {
+
+  public static final long ALL_DEPARTMENTS = 0L;
+  public static final String ALL_TIME = "";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  /**
+   * Сохраненный результат
+   *
+   * @param departmentId отдел (ALL_DEPARTMENTS - все отделы)
+   * @param period период (ALL_TIME - все время)
+   * @param computedOn дата расчета
+   * @param payload AnalyticsDto в JSON
+   */
+  public record StoredSnapshot(long departmentId, String period, LocalDate computedOn, String payload) {}
+
+  public void save(long departmentId, String period, LocalDate computedOn, String payload) {
+    MapSqlParameterSource params = new MapSqlParameterSource()
+        .addValue("departmentId", departmentId)
+        .addValue("period", period)
+        .addValue("computedOn", computedOn)
+        .addValue("payload", payload);
+    jdbcTemplate.update(
+        "INSERT INTO analytics_snapshots (department_id, period, computed_on, computed_at, payload) " +
+        "VALUES (:departmentId, :period, :computedOn, CURRENT_TIMESTAMP, :payload) " +
+        "ON DUPLICATE KEY UPDATE computed_on = :computedOn, computed_at = CURRENT_TIMESTAMP, payload = :payload",
+        params);
+  }
+
+  /**
+   * Результаты, рассчитанные в указанный день
+   */
+  public List<StoredSnapshot> findComputedOn(LocalDate computedOn) {
+    return jdbcTemplate.query(
+        "SELECT department_id, period, computed_on, payload FROM analytics_snapshots WHERE computed_on = :computedOn",
+        new MapSqlParameterSource("computedOn", computedOn),
+        (rs, rowNum) -> new StoredSnapshot(
+            rs.getLong("department_id"),
+            rs.getString("period"),
+            rs.getObject("computed_on", LocalDate.class),
+            rs.getString("payload")
+        ));
+  }
+
+  /**
+   * Удалить результаты указанных отделов и результаты "все отделы"
+   */
+  public int deleteForDepartments(Collection<Long> departmentIds) {
+    if (departmentIds.isEmpty()) {
+      return jdbcTemplate.update("DELETE FROM analytics_snapshots WHERE department_id = 0", new MapSqlParameterSource());
+    }
+    return jdbcTemplate.update(
+        "DELETE FROM analytics_snapshots WHERE department_id = 0 OR department_id IN (:departmentIds)",
+        new MapSqlParameterSource("departmentIds", departmentIds));
+  }
+
+  /**
+   * Удалить результат одной комбинации (отдел x период)
+   */
+  public int delete(long departmentId, String period) {
+    return jdbcTemplate.update(
+        "DELETE FROM analytics_snapshots WHERE department_id = :departmentId AND period = :period",
+        new MapSqlParameterSource()
+            .addValue("departmentId", departmentId)
+            .addValue("period", period));
+  }
+
+  public int deleteAll() {
+    return jdbcTemplate.update("DELETE FROM analytics_snapshots", new MapSqlParameterSource());
+  }
+}
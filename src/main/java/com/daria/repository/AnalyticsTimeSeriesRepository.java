@@ -0,0 +1,137 @@
+package com.daria.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Запросы временных рядов аналитики
+ *
+ * Каждый ряд - один запрос по диапазону дат (индексы из V6__date_range_indexes.sql)
+ * с группировкой по началу интервала в SQL: в приложение возвращается
+ * не больше одной строки на интервал независимо от объема данных.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AnalyticsTimeSeriesRepository {
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  /**
+   * Шаг временного ряда
+   *
+   * Начало интервала: день; понедельник недели (ISO); первый день месяца; первый день квартала.
+   */
+  public enum Granularity {
+    DAY, WEEK, MONTH, QUARTER;
+
+    public LocalDate bucketStart(LocalDate date) {
+      return switch (this) {
+        case DAY -> date;
+        case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        case MONTH -> date.withDayOfMonth(1);
+        case QUARTER -> LocalDate.of(date.getYear(), (date.getMonthValue() - 1) / 3 * 3 + 1, 1);
+      };
+    }
+
+    public LocalDate next(LocalDate bucketStart) {
+      return switch (this) {
+        case DAY -> bucketStart.plusDays(1);
+        case WEEK -> bucketStart.plusWeeks(1);
+        case MONTH -> bucketStart.plusMonths(1);
+        case QUARTER -> bucketStart.plusMonths(3);
+      };
+    }
+
+    /**
+     * То же начало интервала, выраженное в SQL (MySQL) для колонки-даты
+     */
+    String sqlBucket(String column) {
+      return switch (this) {
+        case DAY -> column;
+        case WEEK -> "DATE_SUB(" + column + ", INTERVAL WEEKDAY(" + column + ") DAY)";
+        case MONTH -> "DATE_SUB(" + column + ", INTERVAL DAYOFMONTH(" + column + ") - 1 DAY)";
+        case QUARTER -> "(MAKEDATE(YEAR(" + column + "), 1) + INTERVAL (QUARTER(" + column + ") - 1) QUARTER)";
+      };
+    }
+  }
+
+  /**
+   * Метрика временного ряда: событие и его дата
+   */
+  public enum Metric {
+    /** Приемы (employees.hire_date) */
+    HIRES,
+    /** Увольнения (employees.fire_date) */
+    FIRES,
+    /** Пропуски по дате начала (absences.start_date) */
+    ABSENCES,
+    /** Обучения по дате начала (trainings.start_date) */
+    TRAININGS
+  }
+
+  /**
+   * Количество событий по интервалам в диапазоне [from, to]
+   *
+   * @param departmentId отдел (текущий отдел сотрудника, null = все отделы)
+   * @param skipFrom первый пропускаемый месяц (null - без пропуска); месяцы [skipFrom, skipTo]
+   *                 не считаются, их берут из помесячных итогов
+   * @return начало интервала -> количество (интервалы без событий отсутствуют)
+   */
+  public Map<LocalDate, Long> countByBucket(Metric metric, Granularity granularity, Long departmentId,
+                                            LocalDate from, LocalDate to, YearMonth skipFrom, YearMonth skipTo) {
+    MapSqlParameterSource params = new MapSqlParameterSource()
+        .addValue("from", from)
+        .addValue("to", to);
+
+    String table;
+    String column;
+    switch (metric) {
+      case HIRES -> {
+        table = "employees e";
+        column = "e.hire_date";
+      }
+      case FIRES -> {
+        table = "employees e";
+        column = "e.fire_date";
+      }
+      case ABSENCES -> {
+        table = "absences x" + (departmentId != null ? " JOIN employees e ON e.id = x.employee_id" : "");
+        column = "x.start_date";
+      }
+      case TRAININGS -> {
+        table = "trainings x" + (departmentId != null ? " JOIN employees e ON e.id = x.employee_id" : "");
+        column = "x.start_date";
+      }
+      default -> throw new IllegalArgumentException("Unsupported metric: " + metric);
+    }
+
+    StringBuilder where = new StringBuilder(column + " BETWEEN :from AND :to");
+    if (departmentId != null) {
+      where.append(" AND e.department_id = :departmentId");
+      params.addValue("departmentId", departmentId);
+    }
+    if (skipFrom != null && skipTo != null && !skipFrom.isAfter(skipTo)) {
+      where.append(" AND NOT (").append(column).append(" BETWEEN :skipFrom AND :skipTo)");
+      params.addValue("skipFrom", skipFrom.atDay(1));
+      params.addValue("skipTo", skipTo.atEndOfMonth());
+    }
+
+    String sql = "SELECT " + granularity.sqlBucket(column) + " AS bucket, COUNT(*) AS cnt " +
+        "FROM " + table + " WHERE " + where + " GROUP BY bucket";
+
+    Map<LocalDate, Long> result = new HashMap<>();
+    jdbcTemplate.query(sql, params, rs -> {
+      result.put(rs.getObject("bucket", LocalDate.class), rs.getLong("cnt"));
+    });
+    return result;
+  }
+}
@@ -1,10 +1,19 @@
 package com.daria.repository;
 
+import com.daria.dto.DepartmentDto;
 import com.daria.entity.Department;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface DepartmentRepository extends JpaRepository<Department, Long> {
   Optional<Department> findByName(String name);
+
+  /**
+   * Все отделы сразу в DepartmentDto (идентификатор руководителя - из внешнего ключа, без join)
+   */
+  @Query("SELECT new com.daria.dto.DepartmentDto(d.id, d.name, d.head.id) FROM Department d ORDER BY d.id")
+  List<DepartmentDto> findAllDto();
 }
@@ -0,0 +1,57 @@
+package com.daria.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Счетчики пропусков сотрудника (колонки absence_count, bad_reason_count, absence_days таблицы employees)
+ *
+ * Дни пропуска считаются включительно, пропуск без end_date - один день.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EmployeeAbsenceCounterRepository {
+
+  private static final String ABSENCE_TOTALS_SQL =
+      "SELECT employee_id, COUNT(*) AS absence_count, SUM(status = 'BAD_REASON') AS bad_reason_count, " +
+      "SUM(DATEDIFF(COALESCE(end_date, start_date), start_date) + 1) AS absence_days " +
+      "FROM absences GROUP BY employee_id";
+
+  private static final String RECONCILE_SQL =
+      "UPDATE employees e LEFT JOIN (" + ABSENCE_TOTALS_SQL + ") a ON a.employee_id = e.id " +
+      "SET e.absence_count = COALESCE(a.absence_count, 0), " +
+      "e.bad_reason_count = COALESCE(a.bad_reason_count, 0), " +
+      "e.absence_days = COALESCE(a.absence_days, 0) " +
+      "WHERE e.absence_count <> COALESCE(a.absence_count, 0) " +
+      "OR e.bad_reason_count <> COALESCE(a.bad_reason_count, 0) " +
+      "OR e.absence_days <> COALESCE(a.absence_days, 0)";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  /**
+   * Изменить счетчики сотрудника на delta (атомарно, без чтения текущих значений)
+   */
+  public void add(long employeeId, int countDelta, int badReasonDelta, int daysDelta) {
+    MapSqlParameterSource params = new MapSqlParameterSource()
+        .addValue("employeeId", employeeId)
+        .addValue("count", countDelta)
+        .addValue("badReason", badReasonDelta)
+        .addValue("days", daysDelta);
+    jdbcTemplate.update(
+        "UPDATE employees SET absence_count = absence_count + :count, " +
+        "bad_reason_count = bad_reason_count + :badReason, absence_days = absence_days + :days " +
+        "WHERE id = :employeeId",
+        params);
+  }
+
+  /**
+   * Сверить счетчики с таблицей absences и исправить расхождения
+   *
+   * @return количество исправленных сотрудников
+   */
+  public int reconcile() {
+    return jdbcTemplate.getJdbcTemplate().update(RECONCILE_SQL);
+  }
+}
@@ -0,0 +1,55 @@
+package com.daria.repository;
+
+import com.daria.dto.EmployeeDto;
+import com.daria.entity.enums.CompetenceRank;
+import com.daria.entity.enums.Gender;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+/**
+ * Потоковое чтение справочника сотрудников для выгрузки (GET /employees/export)
+ *
+ * fetchSize = Integer.MIN_VALUE - построчная выдача результата MySQL Connector/J (forward-only курсор):
+ * строки передаются в consumer по мере чтения, ни драйвер, ни приложение не держат всю выборку в памяти.
+ */
+@Repository
+public class EmployeeExportRepository {
+
+  private final NamedParameterJdbcTemplate streamingJdbcTemplate;
+
+  public EmployeeExportRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+    JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getJdbcTemplate().getDataSource());
+    streaming.setFetchSize(Integer.MIN_VALUE);
+    this.streamingJdbcTemplate = new NamedParameterJdbcTemplate(streaming);
+  }
+
+  /**
+   * Обход всех сотрудников в порядке идентификаторов
+   *
+   * Соединение с БД занято до конца обхода: consumer не должен надолго блокироваться.
+   */
+  public void scanEmployees(Consumer<EmployeeDto> consumer) {
+    streamingJdbcTemplate.getJdbcTemplate().query(
+        "SELECT e.id, e.user_id, e.full_name, e.gender, e.birth_date, e.hire_date, e.fire_date, " +
+        "e.competence_rank, e.competence_level, e.department_id FROM employees e ORDER BY e.id",
+        rs -> {
+          String rank = rs.getString("competence_rank");
+          consumer.accept(new EmployeeDto(
+              rs.getLong("id"),
+              rs.getObject("user_id", Long.class),
+              rs.getString("full_name"),
+              Gender.valueOf(rs.getString("gender")),
+              rs.getObject("birth_date", LocalDate.class),
+              rs.getObject("hire_date", LocalDate.class),
+              rs.getObject("fire_date", LocalDate.class),
+              rank != null ? CompetenceRank.valueOf(rank) : null,
+              rs.getObject("competence_level", Integer.class),
+              rs.getObject("department_id", Long.class)
+          ));
+        });
+  }
+}
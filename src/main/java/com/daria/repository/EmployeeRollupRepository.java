@@ -0,0 +1,123 @@
+package com.daria.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Помесячные итоги приемов и увольнений (таблица employee_monthly_rollup)
+ *
+ * department_id = 0 - сотрудники без отдела.
+ * Месяц хранится первым днем месяца.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EmployeeRollupRepository {
+
+  public static final long NO_DEPARTMENT = 0L;
+
+  private static final String REBUILD_SQL =
+      "INSERT INTO employee_monthly_rollup (department_id, month_start, hires, fires) " +
+      "SELECT department_id, month_start, SUM(hires), SUM(fires) FROM (" +
+      "SELECT COALESCE(department_id, 0) AS department_id, DATE_FORMAT(hire_date, '%Y-%m-01') AS month_start, " +
+      "1 AS hires, 0 AS fires FROM employees " +
+      "UNION ALL " +
+      "SELECT COALESCE(department_id, 0), DATE_FORMAT(fire_date, '%Y-%m-01'), 0, 1 " +
+      "FROM employees WHERE fire_date IS NOT NULL" +
+      ") events GROUP BY department_id, month_start";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  /**
+   * Итоги месяца
+   *
+   * @param hires принято в месяце
+   * @param fires уволено в месяце
+   * @param headcount численность на конец месяца (все принятые минус все уволенные до конца месяца включительно)
+   */
+  public record MonthTotals(long hires, long fires, long headcount) {}
+
+  /**
+   * Изменить итоги месяца на delta (строка создается при отсутствии)
+   */
+  public void add(long departmentId, YearMonth month, int hiresDelta, int firesDelta) {
+    MapSqlParameterSource params = new MapSqlParameterSource()
+        .addValue("departmentId", departmentId)
+        .addValue("monthStart", month.atDay(1))
+        .addValue("hires", hiresDelta)
+        .addValue("fires", firesDelta);
+    jdbcTemplate.update(
+        "INSERT INTO employee_monthly_rollup (department_id, month_start, hires, fires) " +
+        "VALUES (:departmentId, :monthStart, :hires, :fires) " +
+        "ON DUPLICATE KEY UPDATE hires = hires + :hires, fires = fires + :fires",
+        params);
+  }
+
+  /**
+   * Перенести итоги удаленного отдела в "без отдела"
+   * (в БД сотрудники удаленного отдела получают department_id = NULL)
+   */
+  public void moveToNoDepartment(long departmentId) {
+    MapSqlParameterSource params = new MapSqlParameterSource("departmentId", departmentId);
+    jdbcTemplate.update(
+        "INSERT INTO employee_monthly_rollup (department_id, month_start, hires, fires) " +
+        "SELECT 0, src.month_start, src.hires, src.fires FROM (" +
+        "SELECT month_start, hires, fires FROM employee_monthly_rollup WHERE department_id = :departmentId" +
+        ") src " +
+        "ON DUPLICATE KEY UPDATE hires = employee_monthly_rollup.hires + src.hires, " +
+        "fires = employee_monthly_rollup.fires + src.fires",
+        params);
+    jdbcTemplate.update("DELETE FROM employee_monthly_rollup WHERE department_id = :departmentId", params);
+  }
+
+  /**
+   * Полный пересчет по таблице employees
+   *
+   * @return количество строк итогов
+   */
+  public int rebuild() {
+    jdbcTemplate.getJdbcTemplate().update("DELETE FROM employee_monthly_rollup");
+    return jdbcTemplate.getJdbcTemplate().update(REBUILD_SQL);
+  }
+
+  /**
+   * Итоги по месяцам в диапазоне [from, to] с численностью на конец месяца
+   *
+   * Численность - накопленная сумма (hires - fires) с самого раннего месяца,
+   * поэтому строки до from тоже участвуют в расчете (окно по всей истории отдела).
+   * Месяцы без приемов и увольнений в результат не попадают.
+   *
+   * @param departmentId отдел (null = все отделы)
+   */
+  public Map<YearMonth, MonthTotals> findMonthlyTotals(Long departmentId, YearMonth from, YearMonth to) {
+    MapSqlParameterSource params = new MapSqlParameterSource()
+        .addValue("from", from.atDay(1))
+        .addValue("to", to.atDay(1));
+    String departmentWhere = "";
+    if (departmentId != null) {
+      departmentWhere = " AND department_id = :departmentId";
+      params.addValue("departmentId", departmentId);
+    }
+
+    Map<YearMonth, MonthTotals> result = new LinkedHashMap<>();
+    jdbcTemplate.query(
+        "SELECT month_start, hires, fires, headcount FROM (" +
+        "SELECT month_start, SUM(hires) AS hires, SUM(fires) AS fires, " +
+        "SUM(SUM(hires) - SUM(fires)) OVER (ORDER BY month_start) AS headcount " +
+        "FROM employee_monthly_rollup WHERE month_start <= :to" + departmentWhere + " " +
+        "GROUP BY month_start" +
+        ") totals WHERE month_start >= :from ORDER BY month_start",
+        params,
+        rs -> {
+          result.put(YearMonth.from(rs.getObject("month_start", LocalDate.class)),
+              new MonthTotals(rs.getLong("hires"), rs.getLong("fires"), rs.getLong("headcount")));
+        });
+    return result;
+  }
+}
@@ -0,0 +1,42 @@
+package com.daria.repository;
+
+import com.daria.entity.enums.CompetenceRank;
+import com.daria.entity.enums.Gender;
+
+import java.time.LocalDate;
+
+/**
+ * Фильтры списка сотрудников (GET /employees); null - фильтр не задан
+ *
+ * Диапазоны дат включительно, границы задаются независимо.
+ *
+ * @param search строка поиска по ФИО (как ввел пользователь)
+ * @param hiredFrom принят не раньше
+ * @param hiredTo принят не позже
+ * @param firedFrom уволен не раньше (задан - только уволенные)
+ * @param firedTo уволен не позже (задан - только уволенные)
+ * @param minCompetenceLevel уровень компетенции не ниже
+ * @param maxCompetenceLevel уровень компетенции не выше
+ * @param activeOn только работающие на дату (не уволены или дата увольнения позже)
+ */
+public record EmployeeSearchFilter(
+    String search,
+    Long departmentId,
+    Gender gender,
+    LocalDate hiredFrom,
+    LocalDate hiredTo,
+    LocalDate firedFrom,
+    LocalDate firedTo,
+    CompetenceRank competenceRank,
+    Integer minCompetenceLevel,
+    Integer maxCompetenceLevel,
+    LocalDate activeOn
+) {
+
+  /**
+   * Запрос boolean mode для MATCH ... AGAINST или null, если в строке поиска нет слов
+   */
+  public String fullTextQuery() {
+    return FullTextQuery.booleanMode(search);
+  }
+}
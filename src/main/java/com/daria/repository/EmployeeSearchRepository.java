@@ -0,0 +1,30 @@
+package com.daria.repository;
+
+import com.daria.dto.EmployeeDto;
+
+import java.util.List;
+
+/**
+ * Поиск сотрудников по произвольному набору фильтров и ключу сортировки (Criteria API)
+ */
+public interface EmployeeSearchRepository {
+
+  /**
+   * Строка страницы
+   *
+   * @param sortValue значение ключа сортировки в формате курсора (EmployeeSort)
+   */
+  record Row(EmployeeDto employee, long sortValue) {}
+
+  /**
+   * Страница сотрудников с keyset-пагинацией
+   *
+   * @param sort ключ сортировки (RELEVANCE - только при заданном поиске)
+   * @param descending направление (и ключа, и id при равенстве)
+   * @param afterValue значение ключа последней строки предыдущей страницы (формат курсора)
+   * @param afterId идентификатор последней строки предыдущей страницы (null - первая страница)
+   * @param limit максимальное количество строк (null - без ограничения)
+   */
+  List<Row> findEmployeesPage(EmployeeSearchFilter filter, EmployeeSort sort, boolean descending,
+                              long afterValue, Long afterId, Integer limit);
+}
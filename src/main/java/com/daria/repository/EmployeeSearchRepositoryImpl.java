@@ -0,0 +1,84 @@
+package com.daria.repository;
+
+import com.daria.dto.EmployeeDto;
+import com.daria.entity.Employee;
+import com.daria.entity.enums.CompetenceRank;
+import com.daria.entity.enums.Gender;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Запрос страницы сотрудников собирается из заданных фильтров (EmployeeSpecifications),
+ * условия keyset и ключа сортировки. Строки выбираются колонками в EmployeeDto одной SQL-командой,
+ * без сущностей; идентификаторы пользователя и отдела берутся из внешних ключей без join.
+ */
+class EmployeeSearchRepositoryImpl implements EmployeeSearchRepository {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public List<Row> findEmployeesPage(EmployeeSearchFilter filter, EmployeeSort sort, boolean descending,
+                                     long afterValue, Long afterId, Integer limit) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+    Root<Employee> e = query.from(Employee.class);
+    Expression<Long> id = e.get("id");
+    Expression key = sort.expression(e, cb, filter.fullTextQuery());
+
+    // Колонки перечислены плоско (без construct): ORDER BY по выбранному выражению Hibernate выводит
+    // номером позиции, который не учитывает колонки, развернутые из constructor expression
+    query.multiselect(
+        id, e.get("user").get("id"), e.get("fullName"), e.get("gender"), e.get("birthDate"),
+        e.get("hireDate"), e.get("fireDate"), e.get("competenceRank"), e.get("competenceLevel"),
+        e.get("department").get("id"), key);
+
+    List<Predicate> where = new ArrayList<>();
+    Predicate filters = EmployeeSpecifications.matching(filter).toPredicate(e, query, cb);
+    if (filters != null) {
+      where.add(filters);
+    }
+    if (afterId != null) {
+      Predicate afterIdPredicate = descending ? cb.lt(id, afterId) : cb.gt(id, afterId);
+      if (sort == EmployeeSort.ID) {
+        where.add(afterIdPredicate);
+      } else {
+        Comparable after = sort.fromCursorValue(afterValue);
+        where.add(cb.or(
+            descending ? cb.lessThan(key, after) : cb.greaterThan(key, after),
+            cb.and(cb.equal(key, after), afterIdPredicate)));
+      }
+    }
+    query.where(where.toArray(new Predicate[0]));
+    if (sort == EmployeeSort.ID) {
+      query.orderBy(descending ? cb.desc(id) : cb.asc(id));
+    } else {
+      query.orderBy(descending ? cb.desc(key) : cb.asc(key), descending ? cb.desc(id) : cb.asc(id));
+    }
+
+    TypedQuery<Object[]> typedQuery = entityManager.createQuery(query);
+    if (limit != null) {
+      typedQuery.setMaxResults(limit);
+    }
+    List<Object[]> rows = typedQuery.getResultList();
+    List<Row> page = new ArrayList<>(rows.size());
+    for (Object[] row : rows) {
+      EmployeeDto employee = new EmployeeDto((Long) row[0], (Long) row[1], (String) row[2], (Gender) row[3],
+          (LocalDate) row[4], (LocalDate) row[5], (LocalDate) row[6], (CompetenceRank) row[7], (Integer) row[8],
+          (Long) row[9]);
+      page.add(new Row(employee, sort.toCursorValue(row[10])));
+    }
+    return page;
+  }
+}
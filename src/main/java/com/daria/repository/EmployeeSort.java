@@ -0,0 +1,146 @@
+package com.daria.repository;
+
+import com.daria.entity.Employee;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDate;
+
+/**
+ * Ключ сортировки списка сотрудников (при равенстве - по id в том же направлении)
+ *
+ * Значение ключа последней строки страницы хранится в курсоре числом:
+ * количество/уровень как есть, дата - день эпохи, релевантность - биты double.
+ */
+public enum EmployeeSort {
+
+  ID("id", false) {
+    @Override
+    Expression<? extends Comparable<?>> expression(Root<Employee> e, CriteriaBuilder cb, String fullTextQuery) {
+      return e.get("id");
+    }
+
+    @Override
+    Comparable<?> fromCursorValue(long value) {
+      return value;
+    }
+
+    @Override
+    long toCursorValue(Object value) {
+      return ((Number) value).longValue();
+    }
+  },
+
+  /** Количество пропусков (денормализованный счетчик, V9) */
+  ABSENCES("absences", true) {
+    @Override
+    Expression<? extends Comparable<?>> expression(Root<Employee> e, CriteriaBuilder cb, String fullTextQuery) {
+      return e.get("absenceCount");
+    }
+
+    @Override
+    Comparable<?> fromCursorValue(long value) {
+      return Math.toIntExact(value);
+    }
+
+    @Override
+    long toCursorValue(Object value) {
+      return ((Number) value).longValue();
+    }
+  },
+
+  /** Уровень компетенции, null = 0 */
+  COMPETENCE_LEVEL("competence_level", true) {
+    @Override
+    Expression<? extends Comparable<?>> expression(Root<Employee> e, CriteriaBuilder cb, String fullTextQuery) {
+      // literal(0) выводится в SQL как есть (не параметром) - выражение совпадает с функциональным индексом V10
+      return cb.coalesce(e.<Integer>get("competenceLevel"), cb.literal(0));
+    }
+
+    @Override
+    Comparable<?> fromCursorValue(long value) {
+      return Math.toIntExact(value);
+    }
+
+    @Override
+    long toCursorValue(Object value) {
+      return ((Number) value).longValue();
+    }
+  },
+
+  HIRE_DATE("hire_date", true) {
+    @Override
+    Expression<? extends Comparable<?>> expression(Root<Employee> e, CriteriaBuilder cb, String fullTextQuery) {
+      return e.get("hireDate");
+    }
+
+    @Override
+    Comparable<?> fromCursorValue(long value) {
+      return LocalDate.ofEpochDay(value);
+    }
+
+    @Override
+    long toCursorValue(Object value) {
+      return ((LocalDate) value).toEpochDay();
+    }
+  },
+
+  /** Релевантность полнотекстового поиска (только вместе с поиском) */
+  RELEVANCE("relevance", true) {
+    @Override
+    Expression<? extends Comparable<?>> expression(Root<Employee> e, CriteriaBuilder cb, String fullTextQuery) {
+      return EmployeeSpecifications.relevance(e, cb, fullTextQuery);
+    }
+
+    @Override
+    Comparable<?> fromCursorValue(long value) {
+      return Double.longBitsToDouble(value);
+    }
+
+    @Override
+    long toCursorValue(Object value) {
+      return Double.doubleToLongBits(((Number) value).doubleValue());
+    }
+  };
+
+  private final String key;
+  private final boolean descendingByDefault;
+
+  EmployeeSort(String key, boolean descendingByDefault) {
+    this.key = key;
+    this.descendingByDefault = descendingByDefault;
+  }
+
+  /**
+   * Значение параметра sortBy
+   */
+  public String key() {
+    return key;
+  }
+
+  /**
+   * Направление без явного параметра direction: счетчики, уровни, даты и релевантность - по убыванию
+   */
+  public boolean descendingByDefault() {
+    return descendingByDefault;
+  }
+
+  /**
+   * @return сортировка по значению sortBy или null, если значение не поддерживается
+   */
+  public static EmployeeSort fromKey(String key) {
+    for (EmployeeSort sort : values()) {
+      if (sort.key.equals(key)) {
+        return sort;
+      }
+    }
+    return null;
+  }
+
+  abstract Expression<? extends Comparable<?>> expression(Root<Employee> e, CriteriaBuilder cb, String fullTextQuery);
+
+  abstract Comparable<?> fromCursorValue(long value);
+
+  abstract long toCursorValue(Object value);
+}
@@ -0,0 +1,73 @@
+package com.daria.repository;
+
+import com.daria.entity.Employee;
+import com.daria.infra.FullTextFunctionContributor;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Условия списка сотрудников из EmployeeSearchFilter
+ *
+ * В запрос попадают только заданные фильтры: вместо "(:x IS NULL OR ...)" для каждого параметра
+ * MySQL видит конкретные условия и может выбрать индекс по отделу, полу, датам или рангу.
+ * Значения передаются параметрами (Hibernate связывает литералы Criteria API).
+ */
+public final class EmployeeSpecifications {
+
+  private EmployeeSpecifications() {
+  }
+
+  public static Specification<Employee> matching(EmployeeSearchFilter filter) {
+    List<Specification<Employee>> specs = new ArrayList<>();
+
+    String fullTextQuery = filter.fullTextQuery();
+    if (fullTextQuery != null) {
+      specs.add((e, query, cb) -> cb.gt(relevance(e, cb, fullTextQuery), 0));
+    }
+    if (filter.departmentId() != null) {
+      specs.add((e, query, cb) -> cb.equal(e.get("department").get("id"), filter.departmentId()));
+    }
+    if (filter.gender() != null) {
+      specs.add((e, query, cb) -> cb.equal(e.get("gender"), filter.gender()));
+    }
+    if (filter.hiredFrom() != null) {
+      specs.add((e, query, cb) -> cb.greaterThanOrEqualTo(e.get("hireDate"), filter.hiredFrom()));
+    }
+    if (filter.hiredTo() != null) {
+      specs.add((e, query, cb) -> cb.lessThanOrEqualTo(e.get("hireDate"), filter.hiredTo()));
+    }
+    if (filter.firedFrom() != null) {
+      specs.add((e, query, cb) -> cb.greaterThanOrEqualTo(e.get("fireDate"), filter.firedFrom()));
+    }
+    if (filter.firedTo() != null) {
+      specs.add((e, query, cb) -> cb.lessThanOrEqualTo(e.get("fireDate"), filter.firedTo()));
+    }
+    if (filter.competenceRank() != null) {
+      specs.add((e, query, cb) -> cb.equal(e.get("competenceRank"), filter.competenceRank()));
+    }
+    if (filter.minCompetenceLevel() != null) {
+      specs.add((e, query, cb) -> cb.greaterThanOrEqualTo(e.get("competenceLevel"), filter.minCompetenceLevel()));
+    }
+    if (filter.maxCompetenceLevel() != null) {
+      specs.add((e, query, cb) -> cb.lessThanOrEqualTo(e.get("competenceLevel"), filter.maxCompetenceLevel()));
+    }
+    if (filter.activeOn() != null) {
+      specs.add((e, query, cb) -> cb.or(
+          cb.isNull(e.get("fireDate")),
+          cb.greaterThan(e.get("fireDate"), filter.activeOn())));
+    }
+    return Specification.allOf(specs);
+  }
+
+  /**
+   * Релевантность MATCH(full_name) AGAINST (запрос IN BOOLEAN MODE), 0 - не найдено
+   */
+  static Expression<Double> relevance(Root<Employee> e, CriteriaBuilder cb, String fullTextQuery) {
+    return cb.function(FullTextFunctionContributor.MATCH_AGAINST, Double.class, e.get("fullName"), cb.literal(fullTextQuery));
+  }
+}
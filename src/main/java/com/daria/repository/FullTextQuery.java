@@ -0,0 +1,42 @@
+package com.daria.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Построение запроса MATCH ... AGAINST (... IN BOOLEAN MODE) из строки поиска
+ *
+ * - Каждое слово обязательно (+), порядок слов не важен
+ * - Слово из нескольких символов - фраза ("иван"): ngram-токены должны идти подряд,
+ *   то есть слово найдется как подстрока в любом месте имени
+ * - Слово короче токена ngram (1 символ) - префиксный поиск (и*): находит имена,
+ *   содержащие ngram-токены, которые начинаются с этого символа
+ * - Операторы boolean mode во вводе пользователя заменяются пробелами
+ */
+public final class FullTextQuery {
+
+  /** ngram_token_size MySQL по умолчанию */
+  private static final int NGRAM_TOKEN_SIZE = 2;
+
+  private FullTextQuery() {
+  }
+
+  /**
+   * @return запрос boolean mode или null, если в строке нет слов
+   */
+  public static String booleanMode(String search) {
+    if (search == null) {
+      return null;
+    }
+    String cleaned = search.replaceAll("[+\\-<>()~*\"@]", " ").trim();
+    if (cleaned.isEmpty()) {
+      return null;
+    }
+
+    List<String> terms = new ArrayList<>();
+    for (String word : cleaned.split("\\s+")) {
+      terms.add(word.length() < NGRAM_TOKEN_SIZE ? "+" + word + "*" : "+\"" + word + "\"");
+    }
+    return String.join(" ", terms);
+  }
+}
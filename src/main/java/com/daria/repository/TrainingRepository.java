@@ -1,10 +1,29 @@
 package com.daria.repository;
 
+import com.daria.dto.TrainingDto;
 import com.daria.entity.Training;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface TrainingRepository extends JpaRepository<Training, Long> {
+
+  String TRAINING_DTO = "new com.daria.dto.TrainingDto(t.id, t.employee.id, t.trainingName, t.startDate, t.endDate, " +
+      "t.levelBefore, t.levelAfter)";
+
   List<Training> findByEmployeeId(Long employeeId);
-}
\ No newline at end of file
+
+  /**
+   * Все обучения сразу в TrainingDto (идентификатор сотрудника - из внешнего ключа, без join)
+   */
+  @Query("SELECT " + TRAINING_DTO + " FROM Training t ORDER BY t.id")
+  List<TrainingDto> findAllDto();
+
+  /**
+   * Обучения сотрудника сразу в TrainingDto
+   */
+  @Query("SELECT " + TRAINING_DTO + " FROM Training t WHERE t.employee.id = :employeeId ORDER BY t.id")
+  List<TrainingDto> findDtoByEmployeeId(@Param("employeeId") Long employeeId);
+}
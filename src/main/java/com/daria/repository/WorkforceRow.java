@@ -0,0 +1,41 @@
+package com.daria.repository;
+
+import com.daria.entity.enums.CompetenceRank;
+import com.daria.entity.enums.Gender;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Строка "сотрудник + агрегаты пропусков и обучений" для однопроходных расчетов
+ * 
+ * Экземпляр переиспользуется между строками (flyweight): потребитель не должен
+ * сохранять ссылку на него. Даты хранятся в днях эпохи (LocalDate.toEpochDay),
+ * отсутствующие значения - сентинелы NO_DATE / NO_DEPARTMENT / 0 для уровня компетенции.
+ */
+@Getter
+@Setter
+public final class WorkforceRow {
+
+  public static final int NO_DATE = Integer.MIN_VALUE;
+  public static final long NO_DEPARTMENT = 0L;
+
+  private long id;
+  private String fullName;
+  private Gender gender;
+  private CompetenceRank competenceRank;
+  /** Уровень компетенции (0 - не указан) */
+  private int competenceLevel;
+  private long departmentId = NO_DEPARTMENT;
+  private int birthDay = NO_DATE;
+  private int hireDay = NO_DATE;
+  private int fireDay = NO_DATE;
+
+  /** Количество пропусков сотрудника */
+  private long absences;
+  /** Количество пропусков с уважительной причиной */
+  private long validAbsences;
+  /** Есть ли у сотрудника хотя бы одно обучение */
+  private boolean trained;
+  /** Максимальная дата начала обучения (NO_DATE - нет обучений с датой начала) */
+  private int lastTrainingDay = NO_DATE;
+}
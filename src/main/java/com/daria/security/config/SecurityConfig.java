@@ -1,6 +1,7 @@
 package com.daria.security.config;
 
 import com.daria.security.filter.JwtAuthFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -106,6 +107,9 @@ public class SecurityConfig {
         .cors(cors -> cors.configurationSource(corsConfigurationSource()))
         .sessionManagement(s -> s.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
         .authorizeHttpRequests(auth -> auth
+            // Повторная диспетчеризация после StreamingResponseBody (GET /employees/export):
+            // доступ уже проверен на исходном запросе, а JWT-фильтр на ней не выполняется
+            .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
             // Публичные endpoints (не требуют аутентификации)
             // /auth/login - доступен всем для входа в систему
             // /auth/register - доступен всем на уровне URL, но требует роль ADMIN через @PreAuthorize
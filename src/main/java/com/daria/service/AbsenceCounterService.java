@@ -0,0 +1,105 @@
+package com.daria.service;
+
+import com.daria.entity.AbsenceEntity;
+import com.daria.entity.enums.AbsenceStatus;
+import com.daria.event.DataVersion;
+import com.daria.repository.EmployeeAbsenceCounterRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+
+/**
+ * Поддержка счетчиков пропусков сотрудника (employees.absence_count, bad_reason_count, absence_days)
+ *
+ * - Инкрементально: AbsenceService вызывает метод в своей транзакции,
+ *   счетчики меняются атомарно вместе с пропуском
+ * - Сверка: по расписанию (app.analytics.absence-counters.reconcile-cron) и через админский API,
+ *   исправляет расхождения после прямых изменений в БД
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AbsenceCounterService {
+
+  private final EmployeeAbsenceCounterRepository employeeAbsenceCounterRepository;
+  private final DataVersion dataVersion;
+
+  /**
+   * Поля пропуска, от которых зависят счетчики
+   */
+  public record Snapshot(Long employeeId, AbsenceStatus status, LocalDate startDate, LocalDate endDate) {
+
+    public static Snapshot of(AbsenceEntity absence) {
+      return new Snapshot(absence.getEmployee().getId(), absence.getStatus(), absence.getStartDate(), absence.getEndDate());
+    }
+
+    /**
+     * Дни пропуска включительно (без даты окончания - один день)
+     */
+    int days() {
+      LocalDate end = endDate != null ? endDate : startDate;
+      return (int) ChronoUnit.DAYS.between(startDate, end) + 1;
+    }
+  }
+
+  /**
+   * Учесть изменение пропуска
+   *
+   * @param before состояние до изменения (null - пропуск создан)
+   * @param after состояние после изменения (null - пропуск удален)
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void onAbsenceChanged(Snapshot before, Snapshot after) {
+    if (Objects.equals(before, after)) {
+      return;
+    }
+    if (before != null && after != null && before.employeeId().equals(after.employeeId())) {
+      // Один сотрудник - одно обновление с разностью
+      int badReasonDelta = badReason(after) - badReason(before);
+      int daysDelta = after.days() - before.days();
+      if (badReasonDelta != 0 || daysDelta != 0) {
+        employeeAbsenceCounterRepository.add(after.employeeId(), 0, badReasonDelta, daysDelta);
+      }
+      return;
+    }
+    if (before != null) {
+      employeeAbsenceCounterRepository.add(before.employeeId(), -1, -badReason(before), -before.days());
+    }
+    if (after != null) {
+      employeeAbsenceCounterRepository.add(after.employeeId(), 1, badReason(after), after.days());
+    }
+  }
+
+  /**
+   * Сверка счетчиков с таблицей absences
+   *
+   * При исправлениях увеличивается версия данных (ETag списка сотрудников с sortBy=absences).
+   *
+   * @return количество исправленных сотрудников
+   */
+  @Scheduled(cron = "${app.analytics.absence-counters.reconcile-cron:0 45 3 * * *}")
+  @Transactional
+  public int reconcile() {
+    long start = System.nanoTime();
+    int corrected = employeeAbsenceCounterRepository.reconcile();
+    if (corrected > 0) {
+      dataVersion.bump();
+      log.warn("Absence counters reconciled: {} employees corrected in {} ms",
+          corrected, (System.nanoTime() - start) / 1_000_000);
+    } else {
+      log.info("Absence counters reconciled: no drift in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+    return corrected;
+  }
+
+  private static int badReason(Snapshot snapshot) {
+    return snapshot.status() == AbsenceStatus.BAD_REASON ? 1 : 0;
+  }
+}
@@ -6,15 +6,16 @@ import com.daria.dto.AbsenceUpdateRequest;
 import com.daria.entity.AbsenceEntity;
 import com.daria.entity.Employee;
 import com.daria.entity.enums.AbsenceStatus;
+import com.daria.event.DataChangedEvent;
 import com.daria.exception.ResourceNotFoundException;
 import com.daria.repository.AbsenceRepository;
 import com.daria.repository.EmployeeRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -23,14 +24,17 @@ public class AbsenceService {
 
   private final AbsenceRepository absenceRepository;
   private final EmployeeRepository employeeRepository;
+  private final AbsenceCounterService absenceCounterService;
+  private final ApplicationEventPublisher eventPublisher;
 
   /**
    * Получить все пропуски, отсортированные по дате начала (от новых к старым)
+   * 
+   * Одним запросом сразу в DTO (с ФИО сотрудника), без загрузки сущностей
    */
+  @Transactional(readOnly = true)
   public List<AbsenceDto> getAllAbsences() {
-    return absenceRepository.findAllOrderByStartDateDesc().stream()
-        .map(this::toDto)
-        .collect(Collectors.toList());
+    return absenceRepository.findAllDtoOrderByStartDateDesc();
   }
 
   public AbsenceDto getAbsenceById(Long id) {
@@ -42,10 +46,9 @@ public class AbsenceService {
   /**
    * Получить пропуски сотрудника, отсортированные по дате начала
    */
+  @Transactional(readOnly = true)
   public List<AbsenceDto> getAbsencesByEmployeeId(Long employeeId) {
-    return absenceRepository.findByEmployeeIdOrderByStartDateDesc(employeeId).stream()
-        .map(this::toDto)
-        .collect(Collectors.toList());
+    return absenceRepository.findDtoByEmployeeIdOrderByStartDateDesc(employeeId);
   }
 
   /**
@@ -103,15 +106,20 @@ public class AbsenceService {
         .build();
 
     AbsenceEntity saved = absenceRepository.save(absence);
+    absenceCounterService.onAbsenceChanged(null, AbsenceCounterService.Snapshot.of(saved));
+    publishChange(saved);
     return toDto(saved);
   }
 
   /**
    * Обновление пропуска с валидацией данных
+   * 
+   * Счетчики пропусков сотрудника обновляются в той же транзакции (статус и даты могут измениться)
    */
   public AbsenceDto updateAbsence(Long id, AbsenceUpdateRequest request) {
     AbsenceEntity absence = absenceRepository.findById(id)
         .orElseThrow(() -> new ResourceNotFoundException("Absence", id));
+    AbsenceCounterService.Snapshot before = AbsenceCounterService.Snapshot.of(absence);
 
     java.time.LocalDate startDate = request.startDate() != null ? request.startDate() : absence.getStartDate();
     java.time.LocalDate endDate = request.endDate() != null ? request.endDate() : absence.getEndDate();
@@ -141,6 +149,8 @@ public class AbsenceService {
     }
 
     AbsenceEntity updated = absenceRepository.save(absence);
+    absenceCounterService.onAbsenceChanged(before, AbsenceCounterService.Snapshot.of(updated));
+    publishChange(updated);
     return toDto(updated);
   }
 
@@ -148,6 +158,17 @@ public class AbsenceService {
     AbsenceEntity absence = absenceRepository.findById(id)
         .orElseThrow(() -> new ResourceNotFoundException("Absence", id));
     absenceRepository.delete(absence);
+    absenceCounterService.onAbsenceChanged(AbsenceCounterService.Snapshot.of(absence), null);
+    publishChange(absence);
+  }
+
+  private void publishChange(AbsenceEntity absence) {
+    Employee employee = absence.getEmployee();
+    eventPublisher.publishEvent(DataChangedEvent.absence(
+        absence.getId(),
+        employee.getId(),
+        employee.getDepartment() != null ? employee.getDepartment().getId() : null
+    ));
   }
 
   /**
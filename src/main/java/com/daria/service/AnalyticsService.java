@@ -1,30 +1,49 @@
 package com.daria.service;
 
 import com.daria.dto.AnalyticsDto;
-import com.daria.entity.AbsenceEntity;
-import com.daria.entity.Employee;
-import com.daria.entity.Training;
+import com.daria.dto.CursorPageDto;
+import com.daria.dto.DepartmentComparisonDto;
+import com.daria.dto.TrainingOutcomesDto;
 import com.daria.entity.enums.CompetenceRank;
-import com.daria.entity.enums.Gender;
-import com.daria.repository.AbsenceRepository;
-import com.daria.repository.DepartmentRepository;
-import com.daria.repository.EmployeeRepository;
-import com.daria.repository.TrainingRepository;
+import com.daria.infra.AnalyticsProperties;
+import com.daria.repository.AnalyticsQueryRepository;
+import com.daria.repository.AnalyticsQueryRepository.EmployeeFilter;
+import com.daria.repository.AnalyticsQueryRepository.SummaryKeyset;
+import com.daria.repository.AnalyticsQueryRepository.SummarySort;
+import com.daria.repository.EmployeeRollupRepository;
+import com.daria.service.analytics.AnalyticsDtoAccumulator;
+import com.daria.service.analytics.AnalyticsLabels;
+import com.daria.service.analytics.AnalyticsSection;
+import com.daria.service.analytics.AnalyticsSectionRunner;
+import com.daria.service.analytics.EmployeeSummaryCursor;
+import com.daria.service.analytics.InMemoryAnalyticsEngine;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
+import java.time.YearMonth;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * Сервис для расчета аналитических данных
  * 
  * Лучшие практики:
- * - Фильтрация данных на уровне БД для производительности
- * - Кэширование результатов (можно добавить в будущем)
+ * - Агрегация на уровне БД (GROUP BY запросы AnalyticsQueryRepository),
+ *   сущности сотрудников, пропусков и обучений в память не загружаются
+ * - Альтернативный движок (app.analytics.engine = memory): один потоковый запрос
+ *   и однопроходный расчет аккумуляторами (InMemoryAnalyticsEngine)
+ * - Колоночный снимок в памяти (app.analytics.engine = snapshot): те же аккумуляторы
+ *   поверх примитивных массивов WorkforceSnapshot, без запросов к БД на каждый расчет
+ * - Независимые секции могут считаться параллельно с крайним сроком
+ *   (app.analytics.parallel, AnalyticsSectionRunner)
+ * - Кэширование результатов в AnalyticsCache (TTL + инвалидация после коммита записи:
+ *   изменение отдела - весь кэш, сотрудника/пропуска/обучения - записи "все отделы" и затронутых отделов)
  * - Обработка edge cases (пустые данные, null значения)
  * - Поддержка фильтрации по отделу и периоду
  */
@@ -33,10 +52,17 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class AnalyticsService {
 
-  private final EmployeeRepository employeeRepository;
-  private final DepartmentRepository departmentRepository;
-  private final AbsenceRepository absenceRepository;
-  private final TrainingRepository trainingRepository;
+  /**
+   * Поддерживаемые периоды (null = все время)
+   */
+  public static final List<String> SUPPORTED_PERIODS = List.of("month", "quarter", "year", "2years", "3years", "5years");
+
+  private final AnalyticsQueryRepository analyticsQueryRepository;
+  private final EmployeeRollupRepository employeeRollupRepository;
+  private final InMemoryAnalyticsEngine inMemoryAnalyticsEngine;
+  private final AnalyticsProperties analyticsProperties;
+  private final AnalyticsSectionRunner analyticsSectionRunner;
+  private final PlatformTransactionManager transactionManager;
 
   /**
    * Получить аналитические данные с фильтрацией
@@ -45,113 +71,186 @@ public class AnalyticsService {
    * @param period период: "month", "quarter", "year", "2years", "3years", "5years" (null = все время)
    * @return аналитические данные
    */
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
   public AnalyticsDto getAnalytics(Long departmentId, String period) {
-    // Получаем список сотрудников с учетом фильтров
-    List<Employee> employees = getFilteredEmployees(departmentId, period);
-    
-    // Получаем все пропуски для расчета статистики
-    List<AbsenceEntity> allAbsences = absenceRepository.findAll();
+    return getAnalytics(departmentId, period, AnalyticsSection.all());
+  }
+
+  /**
+   * Получить только запрошенные секции аналитических данных
+   * 
+   * Незапрошенные секции не вычисляются (запросы к БД не выполняются) и равны null.
+   * 
+   * Транзакция только для последовательного расчета: параллельные секции берут соединения
+   * на своих потоках, и соединение транзакции потока запроса простаивало бы все время ожидания.
+   * Семафор AnalyticsSectionRunner их не учитывает, поэтому при числе одновременных запросов,
+   * равном пулу, секции ждали бы свободного соединения до крайнего срока (503).
+   * 
+   * @param sections секции для расчета
+   */
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public AnalyticsDto getAnalytics(Long departmentId, String period, Set<AnalyticsSection> sections) {
+    if (analyticsProperties.getEngine() == AnalyticsProperties.Engine.SQL && analyticsSectionRunner.isParallel()) {
+      return compute(departmentId, period, sections);
+    }
+    TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+    return readOnly.execute(status -> compute(departmentId, period, sections));
+  }
+
+  private AnalyticsDto compute(Long departmentId, String period, Set<AnalyticsSection> sections) {
+    EmployeeFilter filter = new EmployeeFilter(departmentId, getPeriodStart(period), LocalDate.now());
+    
+    AnalyticsProperties.Engine engine = analyticsProperties.getEngine();
+    if (engine == AnalyticsProperties.Engine.MEMORY || engine == AnalyticsProperties.Engine.SNAPSHOT) {
+      AnalyticsDto computed = inMemoryAnalyticsEngine.compute(filter.departmentId(), filter.periodStart(), filter.today(),
+          sections, engine == AnalyticsProperties.Engine.SNAPSHOT);
+      // Длительность пропусков в строках сотрудников не хранится
+      return sections.contains(AnalyticsSection.ABSENCE_DAYS)
+          ? computed.withAbsenceDays(calculateAbsenceDays(filter))
+          : computed;
+    }
     
-    // Получаем все обучения
-    List<Training> allTrainings = trainingRepository.findAll();
+    // Секции независимы: при app.analytics.parallel.enabled считаются параллельно
+    AnalyticsSectionRunner.Batch batch = analyticsSectionRunner.begin();
     
-    // Вычисляем KPI метрики
-    Long totalEmployees = (long) employees.size();
-    Double avgCompetence = calculateAvgCompetence(employees);
-    Long trained = calculateTrainedCount(employees, allTrainings, period);
-    Long fired = calculateFiredCount(employees, period);
-    Double turnoverRate = calculateTurnoverRate(totalEmployees, fired);
-    AnalyticsDto.AbsencesInfo absences = calculateAbsencesInfo(employees, allAbsences);
+    // KPI метрики
+    Section<AnalyticsQueryRepository.Kpi> kpi = new Section<>(sections, batch, AnalyticsSection.KPI,
+        () -> analyticsQueryRepository.findKpi(filter));
+    Section<AnalyticsDto.AbsencesInfo> absences = new Section<>(sections, batch, AnalyticsSection.ABSENCES,
+        () -> calculateAbsencesInfo(filter));
+    Section<AnalyticsDto.AbsenceDaysInfo> absenceDays = new Section<>(sections, batch, AnalyticsSection.ABSENCE_DAYS,
+        () -> calculateAbsenceDays(filter));
     
     // Данные для графиков
-    List<AnalyticsDto.ChartData> gender = calculateGenderDistribution(employees);
-    List<AnalyticsDto.ChartData> age = calculateAgeDistribution(employees);
-    List<AnalyticsDto.ChartData> ranks = calculateRankDistribution(employees);
-    List<AnalyticsDto.DepartmentChartData> departments = calculateDepartmentDistribution(employees);
-    List<AnalyticsDto.HiresFiresData> hiresFires = calculateHiresFires(employees, period);
+    Section<List<AnalyticsDto.ChartData>> gender = new Section<>(sections, batch, AnalyticsSection.GENDER,
+        () -> calculateGenderDistribution(filter));
+    Section<List<AnalyticsDto.ChartData>> age = new Section<>(sections, batch, AnalyticsSection.AGE,
+        () -> calculateAgeDistribution(filter));
+    Section<List<AnalyticsDto.ChartData>> ranks = new Section<>(sections, batch, AnalyticsSection.RANKS,
+        () -> calculateRankDistribution(filter));
+    Section<List<AnalyticsDto.DepartmentChartData>> departments = new Section<>(sections, batch, AnalyticsSection.DEPARTMENTS,
+        () -> calculateDepartmentDistribution(filter));
+    Section<List<AnalyticsDto.HiresFiresData>> hiresFires = new Section<>(sections, batch, AnalyticsSection.HIRES_FIRES,
+        () -> calculateHiresFires(filter));
     
     // Сводные таблицы
-    List<AnalyticsDto.DepartmentSummary> departmentsSummary = calculateDepartmentsSummary(employees);
-    List<AnalyticsDto.EmployeeSummary> employeesSummary = calculateEmployeesSummary(employees, allTrainings, allAbsences);
+    Section<List<AnalyticsDto.DepartmentSummary>> departmentsSummary = new Section<>(sections, batch, AnalyticsSection.DEPARTMENTS_SUMMARY,
+        () -> calculateDepartmentsSummary(filter));
+    Section<List<AnalyticsDto.EmployeeSummary>> employeesSummary = new Section<>(sections, batch, AnalyticsSection.EMPLOYEES,
+        () -> calculateEmployeesSummary(filter));
+    
+    batch.await();
+    
+    AnalyticsQueryRepository.Kpi kpiValue = kpi.get();
+    Long totalEmployees = kpiValue != null ? kpiValue.total() : null;
+    Long fired = kpiValue != null ? kpiValue.fired() : null;
     
     return new AnalyticsDto(
         totalEmployees,
-        avgCompetence,
-        trained,
+        kpiValue != null ? calculateAvgCompetence(kpiValue) : null,
+        kpiValue != null ? kpiValue.trained() : null,
         fired,
-        turnoverRate,
-        absences,
-        gender,
-        age,
-        ranks,
-        departments,
-        hiresFires,
-        departmentsSummary,
-        employeesSummary
+        kpiValue != null ? AnalyticsDtoAccumulator.turnoverRate(totalEmployees, fired) : null,
+        absences.get(),
+        absenceDays.get(),
+        gender.get(),
+        age.get(),
+        ranks.get(),
+        departments.get(),
+        hiresFires.get(),
+        departmentsSummary.get(),
+        employeesSummary.get()
     );
   }
 
   /**
-   * Получить отфильтрованных сотрудников
+   * Сравнить KPI отделов
    * 
-   * Edge cases:
-   * - Обработка null сотрудников
-   * - Обработка null отделов
-   * - Обработка null ID отделов
-   * - Обработка null дат
+   * Все отделы считаются одним сгруппированным запросом
+   * вместо отдельного расчета аналитики на каждый отдел.
+   * 
+   * @param period период (null = все время)
+   * @param departmentIds отделы для сравнения (null = все отделы)
+   * @return KPI по отделам в порядке идентификаторов
    */
-  private List<Employee> getFilteredEmployees(Long departmentId, String period) {
-    List<Employee> allEmployees = employeeRepository.findAll();
-    
-    // Безопасная фильтрация: исключаем null сотрудников
-    allEmployees = allEmployees.stream()
-        .filter(e -> e != null)
+  public List<DepartmentComparisonDto> compareDepartments(String period, Collection<Long> departmentIds) {
+    EmployeeFilter filter = new EmployeeFilter(null, getPeriodStart(period), LocalDate.now());
+    return analyticsQueryRepository.findDepartmentKpis(filter, departmentIds).stream()
+        .map(row -> {
+          AnalyticsQueryRepository.Kpi kpi = row.kpi();
+          return new DepartmentComparisonDto(
+              row.id(),
+              row.name(),
+              kpi.total(),
+              calculateAvgCompetence(kpi),
+              kpi.trained(),
+              kpi.fired(),
+              AnalyticsDtoAccumulator.turnoverRate(kpi.total(), kpi.fired()),
+              new AnalyticsDto.AbsencesInfo(row.absences().valid(), row.absences().total() - row.absences().valid())
+          );
+        })
         .collect(Collectors.toList());
-    
-    // Фильтр по отделу
-    if (departmentId != null) {
-      allEmployees = allEmployees.stream()
-          .filter(e -> {
-            // Безопасная проверка: проверяем все null значения
-            if (e.getDepartment() == null) {
-              return false;
-            }
-            if (e.getDepartment().getId() == null) {
-              return false;
-            }
-            return e.getDepartment().getId().equals(departmentId);
-          })
-          .collect(Collectors.toList());
+  }
+
+  /**
+   * Получить результаты обучений: матрицу переходов уровней, долю повышений и среднюю длительность
+   * 
+   * Все отделы и переходы считаются одним запросом GROUP BY, итоги складываются в Java.
+   * 
+   * @param departmentId фильтр по отделу (null = все отделы)
+   * @param period период по дате начала обучения (null = все время)
+   */
+  public TrainingOutcomesDto getTrainingOutcomes(Long departmentId, String period) {
+    OutcomesAccumulator total = new OutcomesAccumulator();
+    Map<Long, OutcomesAccumulator> byDepartment = new LinkedHashMap<>();
+    Map<Long, String> names = new HashMap<>();
+    
+    for (AnalyticsQueryRepository.TrainingTransition row :
+        analyticsQueryRepository.findTrainingTransitions(departmentId, getPeriodStart(period))) {
+      total.add(row);
+      if (row.departmentId() != null) {
+        byDepartment.computeIfAbsent(row.departmentId(), id -> new OutcomesAccumulator()).add(row);
+        names.put(row.departmentId(), row.departmentName());
+      }
     }
     
-    // Фильтр по периоду (для дат приема/увольнения и активных сотрудников)
-    if (period != null && !period.isEmpty()) {
-      LocalDate periodStart = getPeriodStart(period);
-      if (periodStart != null) {
-        allEmployees = allEmployees.stream()
-            .filter(e -> {
-              // Безопасная проверка: обрабатываем null даты
-              // Включаем сотрудника, если:
-              // 1. Он был принят в периоде (hireDate >= periodStart)
-              if (e.getHireDate() != null && !e.getHireDate().isBefore(periodStart)) {
-                return true;
-              }
-              // 2. Он был уволен в периоде (fireDate >= periodStart)
-              if (e.getFireDate() != null && !e.getFireDate().isBefore(periodStart)) {
-                return true;
-              }
-              // 3. Он был активен в течение периода (принят до периода, не уволен или уволен после периода)
-              if (e.getHireDate() != null && e.getHireDate().isBefore(periodStart)) {
-                return e.getFireDate() == null || e.getFireDate().isAfter(periodStart);
-              }
-              // Иначе исключаем
-              return false;
-            })
-            .collect(Collectors.toList());
-      }
+    List<TrainingOutcomesDto.DepartmentOutcomes> departments = new ArrayList<>(byDepartment.size());
+    byDepartment.forEach((id, outcomes) ->
+        departments.add(new TrainingOutcomesDto.DepartmentOutcomes(id, names.get(id), outcomes.result())));
+    return new TrainingOutcomesDto(total.result(), departments);
+  }
+
+  /**
+   * Получить страницу сводки по сотрудникам (keyset-пагинация)
+   * 
+   * Строки те же, что в AnalyticsDto.employees, но считаются одним запросом на страницу
+   * и отдаются частями в заданной сортировке.
+   * 
+   * @param sort поле сортировки (при равенстве - по идентификатору сотрудника)
+   * @param descending сортировка по убыванию
+   * @param cursor курсор из предыдущей страницы (null = первая страница)
+   * @param limit размер страницы
+   */
+  public CursorPageDto<AnalyticsDto.EmployeeSummary> getEmployeesSummaryPage(
+      Long departmentId, String period, SummarySort sort, boolean descending, String cursor, int limit) {
+    SummaryKeyset after = EmployeeSummaryCursor.decode(cursor, sort, descending);
+    EmployeeFilter filter = new EmployeeFilter(departmentId, getPeriodStart(period), LocalDate.now());
+    
+    // Одна лишняя строка показывает, есть ли следующая страница
+    List<AnalyticsQueryRepository.EmployeeAggregate> rows =
+        analyticsQueryRepository.findEmployeeSummaryPage(filter, sort, descending, after, limit + 1);
+    
+    String nextCursor = null;
+    if (rows.size() > limit) {
+      rows = rows.subList(0, limit);
+      nextCursor = EmployeeSummaryCursor.encode(sort, descending, rows.get(limit - 1));
     }
     
-    return allEmployees;
+    return new CursorPageDto<>(
+        rows.stream().map(this::toEmployeeSummary).collect(Collectors.toList()),
+        nextCursor
+    );
   }
 
   /**
@@ -185,163 +284,74 @@ public class AnalyticsService {
 
   /**
    * Вычислить среднюю компетенцию
+   * 
+   * Среднее считается в Java по сумме и количеству из БД,
+   * чтобы не зависеть от округления AVG() в MySQL (DECIMAL с 4 знаками).
    */
-  private Double calculateAvgCompetence(List<Employee> employees) {
-    if (employees.isEmpty()) {
+  private Double calculateAvgCompetence(AnalyticsQueryRepository.Kpi kpi) {
+    if (kpi.total() == 0 || kpi.competenceCount() == 0) {
       return 0.0;
     }
-    
-    double sum = employees.stream()
-        .filter(e -> e.getCompetenceLevel() != null)
-        .mapToInt(Employee::getCompetenceLevel)
-        .sum();
-    
-    long count = employees.stream()
-        .filter(e -> e.getCompetenceLevel() != null)
-        .count();
-    
-    return count > 0 ? sum / count : 0.0;
+    return (double) kpi.competenceSum() / kpi.competenceCount();
   }
 
   /**
-   * Вычислить количество обученных сотрудников
+   * Вычислить информацию о пропусках
    * 
    * Edge cases:
-   * - Обработка null дат
-   * - Учет периода фильтрации
-   * - Обработка пустых списков
+   * - Пропуски без статуса считаются невалидными
    */
-  private Long calculateTrainedCount(List<Employee> employees, List<Training> allTrainings, String period) {
-    if (employees.isEmpty()) {
-      return 0L;
-    }
-    
-    LocalDate periodStart = getPeriodStart(period);
-    
-    // Получаем ID сотрудников, которые прошли обучение в указанном периоде
-    Set<Long> trainedEmployeeIds = allTrainings.stream()
-        .filter(t -> {
-          // Проверяем, что у обучения есть сотрудник и дата начала
-          if (t.getEmployee() == null || t.getStartDate() == null) {
-            return false;
-          }
-          
-          // Если период указан, учитываем только обучения в периоде
-          if (periodStart != null) {
-            return !t.getStartDate().isBefore(periodStart);
-          }
-          // Если период не указан, учитываем все обучения
-          return true;
-        })
-        .map(t -> t.getEmployee().getId())
-        .collect(Collectors.toSet());
-    
-    // Подсчитываем, сколько из отфильтрованных сотрудников прошли обучение
-    return employees.stream()
-        .filter(e -> trainedEmployeeIds.contains(e.getId()))
-        .count();
+  private AnalyticsDto.AbsencesInfo calculateAbsencesInfo(EmployeeFilter filter) {
+    AnalyticsQueryRepository.AbsenceCounts counts = analyticsQueryRepository.countAbsences(filter);
+    return new AnalyticsDto.AbsencesInfo(counts.valid(), counts.total() - counts.valid());
   }
 
   /**
-   * Вычислить количество уволенных
+   * Вычислить дни пропусков по статусам и отделам
    * 
    * Edge cases:
-   * - Обработка null дат увольнения
-   * - Правильная фильтрация по периоду (включая начало периода)
-   * - Учет текущей даты (не учитываем будущие даты)
+   * - Нет сотрудников или пропусков - нули, средние 0.0
+   * - Сотрудники без отдела учитываются в итогах, но не в списке отделов
    */
-  private Long calculateFiredCount(List<Employee> employees, String period) {
-    LocalDate periodStart = getPeriodStart(period);
-    LocalDate now = LocalDate.now();
+  private AnalyticsDto.AbsenceDaysInfo calculateAbsenceDays(EmployeeFilter filter) {
+    long employees = 0, validAbsences = 0, invalidAbsences = 0, validDays = 0, invalidDays = 0;
+    List<AnalyticsDto.DepartmentAbsenceDays> departments = new ArrayList<>();
+    
+    for (AnalyticsQueryRepository.AbsenceDaysGroup group : analyticsQueryRepository.findAbsenceDays(filter)) {
+      employees += group.employees();
+      validAbsences += group.validAbsences();
+      invalidAbsences += group.invalidAbsences();
+      validDays += group.validDays();
+      invalidDays += group.invalidDays();
+      if (group.departmentId() != null) {
+        long days = group.validDays() + group.invalidDays();
+        departments.add(new AnalyticsDto.DepartmentAbsenceDays(
+            group.departmentName(), group.employees(), days, average(days, group.employees())));
+      }
+    }
     
-    return employees.stream()
-        .filter(e -> {
-          if (e.getFireDate() == null) {
-            return false;
-          }
-          // Не учитываем будущие даты увольнения
-          if (e.getFireDate().isAfter(now)) {
-            return false;
-          }
-          // Если период указан, учитываем только увольнения в периоде
-          if (periodStart != null) {
-            // Включаем увольнения, которые произошли в периоде или после начала периода
-            return !e.getFireDate().isBefore(periodStart);
-          }
-          // Если период не указан, учитываем все увольнения
-          return true;
-        })
-        .count();
+    long totalDays = validDays + invalidDays;
+    return new AnalyticsDto.AbsenceDaysInfo(
+        totalDays,
+        average(totalDays, employees),
+        average(totalDays, validAbsences + invalidAbsences),
+        new AnalyticsDto.AbsenceDaysStats(validAbsences, validDays, average(validDays, validAbsences)),
+        new AnalyticsDto.AbsenceDaysStats(invalidAbsences, invalidDays, average(invalidDays, invalidAbsences)),
+        departments
+    );
   }
 
-  /**
-   * Вычислить текучесть кадров (%)
-   */
-  private Double calculateTurnoverRate(Long totalEmployees, Long fired) {
-    if (totalEmployees == null || totalEmployees == 0) {
-      return 0.0;
-    }
-    return (fired.doubleValue() / totalEmployees.doubleValue()) * 100.0;
-  }
-
-  /**
-   * Вычислить информацию о пропусках
-   * 
-   * Edge cases:
-   * - Обработка null статусов
-   * - Безопасная проверка enum значений
-   */
-  private AnalyticsDto.AbsencesInfo calculateAbsencesInfo(List<Employee> employees, List<AbsenceEntity> allAbsences) {
-    if (employees.isEmpty()) {
-      return new AnalyticsDto.AbsencesInfo(0L, 0L);
-    }
-    
-    Set<Long> employeeIds = employees.stream()
-        .map(Employee::getId)
-        .collect(Collectors.toSet());
-    
-    List<AbsenceEntity> relevantAbsences = allAbsences.stream()
-        .filter(a -> a.getEmployee() != null && employeeIds.contains(a.getEmployee().getId()))
-        .collect(Collectors.toList());
-    
-    // Разделяем на валидные (GOOD_REASON) и невалидные (BAD_REASON)
-    // Используем безопасную проверку enum
-    long valid = relevantAbsences.stream()
-        .filter(a -> {
-          if (a.getStatus() == null) {
-            return false; // Если статус не указан, считаем невалидным
-          }
-          return a.getStatus() == com.daria.entity.enums.AbsenceStatus.GOOD_REASON;
-        })
-        .count();
-    
-    long invalid = relevantAbsences.size() - valid;
-    
-    return new AnalyticsDto.AbsencesInfo(valid, invalid);
+  private static double average(long sum, long count) {
+    return count > 0 ? (double) sum / count : 0.0;
   }
 
   /**
    * Вычислить распределение по полу
-   * 
-   * Edge cases:
-   * - Обработка null значений gender
-   * - Пустые списки
    */
-  private List<AnalyticsDto.ChartData> calculateGenderDistribution(List<Employee> employees) {
-    if (employees.isEmpty()) {
-      return new ArrayList<>();
-    }
-    
-    Map<Gender, Long> distribution = employees.stream()
-        .filter(e -> e.getGender() != null) // Исключаем null значения
-        .collect(Collectors.groupingBy(
-            Employee::getGender,
-            Collectors.counting()
-        ));
-    
-    return distribution.entrySet().stream()
+  private List<AnalyticsDto.ChartData> calculateGenderDistribution(EmployeeFilter filter) {
+    return analyticsQueryRepository.countByGender(filter).entrySet().stream()
         .map(e -> new AnalyticsDto.ChartData(
-            e.getKey() == Gender.М ? "Мужчины" : "Женщины",
+            AnalyticsLabels.gender(e.getKey()),
             e.getValue()
         ))
         .collect(Collectors.toList());
@@ -349,55 +359,25 @@ public class AnalyticsService {
 
   /**
    * Вычислить распределение по возрасту
+   * 
+   * Всегда возвращает все 4 группы (в том числе с нулевыми значениями)
    */
-  private List<AnalyticsDto.ChartData> calculateAgeDistribution(List<Employee> employees) {
-    LocalDate now = LocalDate.now();
-    Map<String, Long> ageGroups = new LinkedHashMap<>();
-    ageGroups.put("18–25", 0L);
-    ageGroups.put("26–35", 0L);
-    ageGroups.put("36–45", 0L);
-    ageGroups.put("46+", 0L);
+  private List<AnalyticsDto.ChartData> calculateAgeDistribution(EmployeeFilter filter) {
+    long[] counts = analyticsQueryRepository.countByAgeGroup(filter);
     
-    employees.forEach(e -> {
-      if (e.getBirthDate() != null) {
-        long age = ChronoUnit.YEARS.between(e.getBirthDate(), now);
-        if (age >= 18 && age <= 25) {
-          ageGroups.put("18–25", ageGroups.get("18–25") + 1);
-        } else if (age <= 35) {
-          ageGroups.put("26–35", ageGroups.get("26–35") + 1);
-        } else if (age <= 45) {
-          ageGroups.put("36–45", ageGroups.get("36–45") + 1);
-        } else {
-          ageGroups.put("46+", ageGroups.get("46+") + 1);
-        }
-      }
-    });
-    
-    return ageGroups.entrySet().stream()
-        .map(e -> new AnalyticsDto.ChartData(e.getKey(), e.getValue()))
-        .collect(Collectors.toList());
+    List<AnalyticsDto.ChartData> result = new ArrayList<>(AnalyticsLabels.AGE_GROUPS.length);
+    for (int i = 0; i < AnalyticsLabels.AGE_GROUPS.length; i++) {
+      result.add(new AnalyticsDto.ChartData(AnalyticsLabels.AGE_GROUPS[i], counts[i]));
+    }
+    return result;
   }
 
   /**
    * Вычислить распределение по рангам
    */
-  private List<AnalyticsDto.ChartData> calculateRankDistribution(List<Employee> employees) {
-    Map<String, Long> distribution = employees.stream()
-        .collect(Collectors.groupingBy(
-            e -> {
-              CompetenceRank rank = e.getCompetenceRank();
-              if (rank == null) return "Не указан";
-              return switch (rank) {
-                case JUNIOR -> "Начальный";
-                case MIDDLE -> "Средний";
-                case SENIOR -> "Высокий";
-              };
-            },
-            Collectors.counting()
-        ));
-    
-    return distribution.entrySet().stream()
-        .map(e -> new AnalyticsDto.ChartData(e.getKey(), e.getValue()))
+  private List<AnalyticsDto.ChartData> calculateRankDistribution(EmployeeFilter filter) {
+    return analyticsQueryRepository.countByRank(filter).entrySet().stream()
+        .map(e -> new AnalyticsDto.ChartData(AnalyticsLabels.rank(e.getKey()), e.getValue()))
         .collect(Collectors.toList());
   }
 
@@ -405,36 +385,11 @@ public class AnalyticsService {
    * Вычислить распределение по отделам
    * 
    * Edge cases:
-   * - Обработка null отделов
-   * - Обработка null имен отделов
-   * - Обработка null сотрудников
-   * - Пустые списки
+   * - Сотрудники без отдела не учитываются
+   * - Отделы с пустыми именами не учитываются
    */
-  private List<AnalyticsDto.DepartmentChartData> calculateDepartmentDistribution(List<Employee> employees) {
-    if (employees == null || employees.isEmpty()) {
-      return new ArrayList<>();
-    }
-    
-    Map<String, Long> distribution = employees.stream()
-        .filter(e -> {
-          // Безопасная проверка: проверяем все null значения
-          if (e == null) {
-            return false;
-          }
-          if (e.getDepartment() == null) {
-            return false;
-          }
-          if (e.getDepartment().getName() == null || e.getDepartment().getName().trim().isEmpty()) {
-            return false;
-          }
-          return true;
-        })
-        .collect(Collectors.groupingBy(
-            e -> e.getDepartment().getName(),
-            Collectors.counting()
-        ));
-    
-    return distribution.entrySet().stream()
+  private List<AnalyticsDto.DepartmentChartData> calculateDepartmentDistribution(EmployeeFilter filter) {
+    return analyticsQueryRepository.countByDepartmentName(filter).entrySet().stream()
         .map(e -> new AnalyticsDto.DepartmentChartData(e.getKey(), e.getValue()))
         .collect(Collectors.toList());
   }
@@ -444,72 +399,47 @@ public class AnalyticsService {
    * 
    * Edge cases:
    * - Учитывает период фильтрации
-   * - Обрабатывает null даты
-   * - Фильтрует данные по периоду, если указан
-   * - Показывает только месяцы в пределах периода
+   * - Не учитывает будущие даты
+   * - Показывает только месяцы в пределах периода (без периода - с начала текущего года)
    * - Группирует по месяцам с учетом года
+   * - Полные месяцы читаются из помесячных итогов (app.analytics.rollup.enabled)
    */
-  private List<AnalyticsDto.HiresFiresData> calculateHiresFires(List<Employee> employees, String period) {
-    List<AnalyticsDto.HiresFiresData> result = new ArrayList<>();
-    LocalDate periodStart = getPeriodStart(period);
-    LocalDate now = LocalDate.now();
-    
-    // Группируем по месяцам с учетом года (ключ: "YYYY-MM")
-    Map<String, Long> hiresByMonth = new LinkedHashMap<>();
-    Map<String, Long> firesByMonth = new LinkedHashMap<>();
+  private List<AnalyticsDto.HiresFiresData> calculateHiresFires(EmployeeFilter filter) {
+    LocalDate now = filter.today();
     
     // Определяем диапазон месяцев для отображения
-    LocalDate startDate = periodStart != null ? periodStart : LocalDate.of(now.getYear(), 1, 1);
-    LocalDate endDate = now;
-    
-    // Инициализируем все месяцы в диапазоне
-    LocalDate current = startDate.withDayOfMonth(1);
-    while (!current.isAfter(endDate)) {
-      String monthKey = String.format("%d-%02d", current.getYear(), current.getMonthValue());
-      hiresByMonth.put(monthKey, 0L);
-      firesByMonth.put(monthKey, 0L);
-      current = current.plusMonths(1);
+    LocalDate startDate = filter.periodStart() != null ? filter.periodStart() : LocalDate.of(now.getYear(), 1, 1);
+    YearMonth startMonth = YearMonth.from(startDate);
+    YearMonth end = YearMonth.from(now);
+    
+    Map<YearMonth, Long> hiresByMonth = new HashMap<>();
+    Map<YearMonth, Long> firesByMonth = new HashMap<>();
+    
+    // Полные месяцы между началом периода и текущим месяцем - из помесячных итогов,
+    // неполные граничные месяцы (с середины месяца, текущий месяц до сегодня) - по employees
+    YearMonth rollupFrom = startDate.getDayOfMonth() == 1 ? startMonth : startMonth.plusMonths(1);
+    YearMonth rollupTo = end.minusMonths(1);
+    if (analyticsProperties.getRollup().isEnabled() && !rollupFrom.isAfter(rollupTo)) {
+      employeeRollupRepository.findMonthlyTotals(filter.departmentId(), rollupFrom, rollupTo).forEach((month, totals) -> {
+        hiresByMonth.put(month, totals.hires());
+        firesByMonth.put(month, totals.fires());
+      });
+      hiresByMonth.putAll(analyticsQueryRepository.countHiresByMonth(filter, startDate, rollupFrom, rollupTo));
+      firesByMonth.putAll(analyticsQueryRepository.countFiresByMonth(filter, startDate, rollupFrom, rollupTo));
+    } else {
+      hiresByMonth.putAll(analyticsQueryRepository.countHiresByMonth(filter, startDate));
+      firesByMonth.putAll(analyticsQueryRepository.countFiresByMonth(filter, startDate));
     }
     
-    String[] monthNames = {"Янв", "Фев", "Мар", "Апр", "Май", "Июн", "Июл", "Авг", "Сен", "Окт", "Ноя", "Дек"};
-    
-    // Подсчитываем приемы и увольнения
-    employees.forEach(e -> {
-      // Приемы
-      if (e.getHireDate() != null) {
-        LocalDate hireDate = e.getHireDate();
-        // Проверяем, что дата в пределах периода и не в будущем
-        if (!hireDate.isAfter(now) && (periodStart == null || !hireDate.isBefore(periodStart))) {
-          String monthKey = String.format("%d-%02d", hireDate.getYear(), hireDate.getMonthValue());
-          hiresByMonth.put(monthKey, hiresByMonth.getOrDefault(monthKey, 0L) + 1);
-        }
-      }
-      
-      // Увольнения
-      if (e.getFireDate() != null) {
-        LocalDate fireDate = e.getFireDate();
-        // Проверяем, что дата в пределах периода и не в будущем
-        if (!fireDate.isAfter(now) && (periodStart == null || !fireDate.isBefore(periodStart))) {
-          String monthKey = String.format("%d-%02d", fireDate.getYear(), fireDate.getMonthValue());
-          firesByMonth.put(monthKey, firesByMonth.getOrDefault(monthKey, 0L) + 1);
-        }
-      }
-    });
-    
     // Формируем результат в хронологическом порядке
-    current = startDate.withDayOfMonth(1);
-    while (!current.isAfter(endDate)) {
-      String monthKey = String.format("%d-%02d", current.getYear(), current.getMonthValue());
-      String monthName = monthNames[current.getMonthValue() - 1];
-      // Если год отличается от текущего, добавляем год к названию
-      String displayName = current.getYear() != now.getYear() 
-          ? String.format("%s %d", monthName, current.getYear())
-          : monthName;
-      
+    List<AnalyticsDto.HiresFiresData> result = new ArrayList<>();
+    YearMonth current = startMonth;
+    while (!current.isAfter(end)) {
+      // Если год отличается от текущего, к названию добавляется год
       result.add(new AnalyticsDto.HiresFiresData(
-          displayName,
-          hiresByMonth.getOrDefault(monthKey, 0L),
-          firesByMonth.getOrDefault(monthKey, 0L)
+          AnalyticsLabels.month(current, now.getYear()),
+          hiresByMonth.getOrDefault(current, 0L),
+          firesByMonth.getOrDefault(current, 0L)
       ));
       current = current.plusMonths(1);
     }
@@ -521,46 +451,16 @@ public class AnalyticsService {
    * Вычислить сводку по отделам
    * 
    * Edge cases:
-   * - Обработка null отделов
+   * - Отделы без сотрудников в фильтре возвращаются с нулями
    * - Обработка null имен отделов
-   * - Обработка null ID отделов
-   * - Обработка null сотрудников
    */
-  private List<AnalyticsDto.DepartmentSummary> calculateDepartmentsSummary(List<Employee> employees) {
-    return departmentRepository.findAll().stream()
-        .filter(dept -> dept != null && dept.getId() != null) // Фильтруем null отделы
-        .map(dept -> {
-          List<Employee> deptEmployees = employees.stream()
-              .filter(e -> {
-                // Безопасная проверка: проверяем все null значения
-                if (e == null) {
-                  return false;
-                }
-                if (e.getDepartment() == null) {
-                  return false;
-                }
-                if (e.getDepartment().getId() == null) {
-                  return false;
-                }
-                return e.getDepartment().getId().equals(dept.getId());
-              })
-              .collect(Collectors.toList());
-          
-          double avgComp = deptEmployees.stream()
-              .filter(e -> e != null && e.getCompetenceLevel() != null)
-              .mapToInt(Employee::getCompetenceLevel)
-              .average()
-              .orElse(0.0);
-          
-          // Безопасная обработка null имени отдела
-          String deptName = dept.getName() != null ? dept.getName() : "Не указано";
-          
-          return new AnalyticsDto.DepartmentSummary(
-              deptName,
-              (long) deptEmployees.size(),
-              avgComp
-          );
-        })
+  private List<AnalyticsDto.DepartmentSummary> calculateDepartmentsSummary(EmployeeFilter filter) {
+    return analyticsQueryRepository.findDepartmentAggregates(filter).stream()
+        .map(dept -> new AnalyticsDto.DepartmentSummary(
+            dept.name() != null ? dept.name() : "Не указано",
+            dept.count(),
+            dept.competenceCount() > 0 ? (double) dept.competenceSum() / dept.competenceCount() : 0.0
+        ))
         .collect(Collectors.toList());
   }
 
@@ -568,42 +468,89 @@ public class AnalyticsService {
    * Вычислить сводку по сотрудникам
    * 
    * Edge cases:
-   * - Обработка null значений employee в trainings и absences
    * - Обработка null значений fullName и competenceLevel
-   * - Безопасная обработка отсутствующих данных
    */
-  private List<AnalyticsDto.EmployeeSummary> calculateEmployeesSummary(
-      List<Employee> employees,
-      List<Training> allTrainings,
-      List<AbsenceEntity> allAbsences) {
-    
-    if (employees.isEmpty()) {
-      return new ArrayList<>();
-    }
-    
-    // Безопасно собираем ID обученных сотрудников
-    Set<Long> trainedEmployeeIds = allTrainings.stream()
-        .filter(t -> t != null && t.getEmployee() != null && t.getEmployee().getId() != null)
-        .map(t -> t.getEmployee().getId())
-        .collect(Collectors.toSet());
-    
-    // Безопасно собираем количество пропусков по сотрудникам
-    Map<Long, Long> absencesByEmployee = allAbsences.stream()
-        .filter(a -> a != null && a.getEmployee() != null && a.getEmployee().getId() != null)
-        .collect(Collectors.groupingBy(
-            a -> a.getEmployee().getId(),
-            Collectors.counting()
-        ));
-    
-    return employees.stream()
-        .filter(e -> e != null) // Фильтруем null сотрудников
-        .map(e -> new AnalyticsDto.EmployeeSummary(
-            e.getFullName() != null ? e.getFullName() : "Не указано",
-            e.getCompetenceLevel() != null ? e.getCompetenceLevel() : 0,
-            trainedEmployeeIds.contains(e.getId()) ? "Да" : "Нет",
-            absencesByEmployee.getOrDefault(e.getId(), 0L)
-        ))
+  private List<AnalyticsDto.EmployeeSummary> calculateEmployeesSummary(EmployeeFilter filter) {
+    return analyticsQueryRepository.findEmployeeAggregates(filter).stream()
+        .map(this::toEmployeeSummary)
         .collect(Collectors.toList());
   }
-}
 
+  private AnalyticsDto.EmployeeSummary toEmployeeSummary(AnalyticsQueryRepository.EmployeeAggregate e) {
+    return new AnalyticsDto.EmployeeSummary(
+        e.fullName() != null ? e.fullName() : "Не указано",
+        e.competenceLevel() != null ? e.competenceLevel() : 0,
+        e.trained() ? "Да" : "Нет",
+        e.absences()
+    );
+  }
+
+  /**
+   * Сумма групп обучений одного отдела (или всех отделов)
+   */
+  private static final class OutcomesAccumulator {
+
+    private final Map<CompetenceRank, Map<CompetenceRank, Long>> transitions = new EnumMap<>(CompetenceRank.class);
+    private long trainings;
+    private long withLevels;
+    private long promotions;
+    private long demotions;
+    private long durationDays;
+    private long withDuration;
+
+    void add(AnalyticsQueryRepository.TrainingTransition row) {
+      trainings += row.trainings();
+      durationDays += row.durationDays();
+      withDuration += row.withDuration();
+      if (row.levelBefore() == null || row.levelAfter() == null) {
+        return;
+      }
+      withLevels += row.trainings();
+      transitions.computeIfAbsent(row.levelBefore(), level -> new EnumMap<>(CompetenceRank.class))
+          .merge(row.levelAfter(), row.trainings(), Long::sum);
+      int change = row.levelAfter().compareTo(row.levelBefore());
+      if (change > 0) {
+        promotions += row.trainings();
+      } else if (change < 0) {
+        demotions += row.trainings();
+      }
+    }
+
+    TrainingOutcomesDto.Outcomes result() {
+      // Полная матрица: все пары уровней, в том числе с нулями
+      Map<String, Map<String, Long>> matrix = new LinkedHashMap<>();
+      for (CompetenceRank before : CompetenceRank.values()) {
+        Map<String, Long> row = new LinkedHashMap<>();
+        for (CompetenceRank after : CompetenceRank.values()) {
+          row.put(after.name(), transitions.getOrDefault(before, Map.of()).getOrDefault(after, 0L));
+        }
+        matrix.put(before.name(), row);
+      }
+      return new TrainingOutcomesDto.Outcomes(
+          trainings,
+          matrix,
+          promotions,
+          demotions,
+          withLevels > 0 ? promotions * 100.0 / withLevels : 0.0,
+          withDuration > 0 ? (double) durationDays / withDuration : 0.0
+      );
+    }
+  }
+
+  /**
+   * Секция запроса: планируется в batch, только если запрошена, иначе результат null
+   */
+  private static final class Section<T> {
+
+    private final Supplier<T> result;
+
+    Section(Set<AnalyticsSection> requested, AnalyticsSectionRunner.Batch batch,
+            AnalyticsSection section, Supplier<T> task) {
+      this.result = requested.contains(section) ? batch.submit(section, task) : null;
+    }
+
+    T get() {
+      return result != null ? result.get() : null;
+    }
+  }
+}
@@ -0,0 +1,155 @@
+package com.daria.service;
+
+import com.daria.dto.HeadcountSeriesDto;
+import com.daria.dto.TimeSeriesDto;
+import com.daria.exception.BadRequestException;
+import com.daria.infra.AnalyticsProperties;
+import com.daria.repository.AnalyticsTimeSeriesRepository;
+import com.daria.repository.AnalyticsTimeSeriesRepository.Granularity;
+import com.daria.repository.AnalyticsTimeSeriesRepository.Metric;
+import com.daria.repository.EmployeeRollupRepository;
+import com.daria.service.analytics.HeadcountIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+/**
+ * Временные ряды аналитики по произвольному диапазону дат
+ * 
+ * Лучшие практики:
+ * - Один запрос по диапазону дат на метрику, группировка по интервалам в БД
+ * - Для шагов month/quarter полные месяцы приемов и увольнений читаются
+ *   из помесячных итогов (employee_monthly_rollup), неполные граничные - из employees
+ * - Численность на даты - бинарный поиск по индексу периодов работы (HeadcountIndex), без запросов к БД
+ * - Количество интервалов ограничено (app.analytics.timeseries.max-buckets)
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class AnalyticsTimeSeriesService {
+
+  private final AnalyticsTimeSeriesRepository analyticsTimeSeriesRepository;
+  private final EmployeeRollupRepository employeeRollupRepository;
+  private final AnalyticsProperties analyticsProperties;
+  private final HeadcountIndex headcountIndex;
+
+  /**
+   * Получить временной ряд
+   * 
+   * Edge cases:
+   * - from позже to - BadRequestException
+   * - слишком много интервалов - BadRequestException
+   * - первый и последний интервалы обрезаются по from/to
+   * 
+   * @param departmentId фильтр по отделу (null = все отделы)
+   * @param from начало диапазона (включительно)
+   * @param to конец диапазона (включительно)
+   * @param granularity шаг ряда
+   * @param metrics метрики для расчета
+   */
+  public TimeSeriesDto getTimeSeries(Long departmentId, LocalDate from, LocalDate to,
+                                     Granularity granularity, Set<Metric> metrics) {
+    if (from.isAfter(to)) {
+      throw new BadRequestException("'from' must not be after 'to'");
+    }
+    
+    List<LocalDate> buckets = buckets(from, to, granularity);
+    
+    Map<Metric, Map<LocalDate, Long>> counts = new EnumMap<>(Metric.class);
+    for (Metric metric : metrics) {
+      counts.put(metric, count(metric, departmentId, from, to, granularity));
+    }
+    
+    List<TimeSeriesDto.Point> points = new ArrayList<>(buckets.size());
+    for (LocalDate bucket : buckets) {
+      LocalDate end = granularity.next(bucket).minusDays(1);
+      points.add(new TimeSeriesDto.Point(
+          bucket.isBefore(from) ? from : bucket,
+          end.isAfter(to) ? to : end,
+          valueOf(counts, Metric.HIRES, bucket),
+          valueOf(counts, Metric.FIRES, bucket),
+          valueOf(counts, Metric.ABSENCES, bucket),
+          valueOf(counts, Metric.TRAININGS, bucket)
+      ));
+    }
+    
+    return new TimeSeriesDto(granularity.name().toLowerCase(), from, to, points);
+  }
+
+  /**
+   * Получить ряд численности сотрудников
+   * 
+   * Edge cases:
+   * - from позже to - BadRequestException
+   * - слишком много интервалов - BadRequestException
+   * - последняя точка - численность на дату to (интервал обрезан)
+   * 
+   * @param departmentId фильтр по отделу (null = все отделы)
+   * @param from начало диапазона (включительно)
+   * @param to конец диапазона (включительно)
+   * @param granularity шаг ряда
+   */
+  public HeadcountSeriesDto getHeadcountSeries(Long departmentId, LocalDate from, LocalDate to, Granularity granularity) {
+    if (from.isAfter(to)) {
+      throw new BadRequestException("'from' must not be after 'to'");
+    }
+    
+    List<LocalDate> dates = new ArrayList<>();
+    for (LocalDate bucket : buckets(from, to, granularity)) {
+      LocalDate end = granularity.next(bucket).minusDays(1);
+      dates.add(end.isAfter(to) ? to : end);
+    }
+    
+    long[] headcounts = headcountIndex.headcount(departmentId, dates);
+    List<HeadcountSeriesDto.Point> points = new ArrayList<>(dates.size());
+    for (int i = 0; i < dates.size(); i++) {
+      points.add(new HeadcountSeriesDto.Point(dates.get(i), headcounts[i]));
+    }
+    return new HeadcountSeriesDto(granularity.name().toLowerCase(), from, to, departmentId, points);
+  }
+
+  /**
+   * Начала интервалов, пересекающихся с [from, to]
+   */
+  private List<LocalDate> buckets(LocalDate from, LocalDate to, Granularity granularity) {
+    int maxBuckets = analyticsProperties.getTimeseries().getMaxBuckets();
+    List<LocalDate> buckets = new ArrayList<>();
+    for (LocalDate bucket = granularity.bucketStart(from); !bucket.isAfter(to); bucket = granularity.next(bucket)) {
+      if (buckets.size() == maxBuckets) {
+        throw new BadRequestException("Time series exceeds " + maxBuckets + " buckets, use a coarser granularity or a shorter range");
+      }
+      buckets.add(bucket);
+    }
+    return buckets;
+  }
+
+  private Map<LocalDate, Long> count(Metric metric, Long departmentId, LocalDate from, LocalDate to, Granularity granularity) {
+    boolean monthly = granularity == Granularity.MONTH || granularity == Granularity.QUARTER;
+    boolean rollupMetric = metric == Metric.HIRES || metric == Metric.FIRES;
+    
+    // Месяцы, целиком лежащие в диапазоне
+    YearMonth rollupFrom = from.getDayOfMonth() == 1 ? YearMonth.from(from) : YearMonth.from(from).plusMonths(1);
+    YearMonth rollupTo = to.equals(YearMonth.from(to).atEndOfMonth()) ? YearMonth.from(to) : YearMonth.from(to).minusMonths(1);
+    
+    if (!monthly || !rollupMetric || !analyticsProperties.getRollup().isEnabled() || rollupFrom.isAfter(rollupTo)) {
+      return analyticsTimeSeriesRepository.countByBucket(metric, granularity, departmentId, from, to, null, null);
+    }
+    
+    Map<LocalDate, Long> result = new HashMap<>(
+        analyticsTimeSeriesRepository.countByBucket(metric, granularity, departmentId, from, to, rollupFrom, rollupTo));
+    employeeRollupRepository.findMonthlyTotals(departmentId, rollupFrom, rollupTo).forEach((month, totals) -> {
+      long value = metric == Metric.HIRES ? totals.hires() : totals.fires();
+      result.merge(granularity.bucketStart(month.atDay(1)), value, Long::sum);
+    });
+    return result;
+  }
+
+  private static Long valueOf(Map<Metric, Map<LocalDate, Long>> counts, Metric metric, LocalDate bucket) {
+    Map<LocalDate, Long> values = counts.get(metric);
+    return values != null ? values.getOrDefault(bucket, 0L) : null;
+  }
+}
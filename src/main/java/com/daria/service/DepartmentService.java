@@ -5,16 +5,18 @@ import com.daria.dto.DepartmentDto;
 import com.daria.dto.DepartmentUpdateRequest;
 import com.daria.entity.Department;
 import com.daria.entity.Employee;
+import com.daria.event.DataChangedEvent;
 import com.daria.exception.BadRequestException;
 import com.daria.exception.ResourceNotFoundException;
 import com.daria.repository.DepartmentRepository;
 import com.daria.repository.EmployeeRepository;
+import com.daria.service.analytics.HeadcountRollupService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -23,11 +25,15 @@ public class DepartmentService {
 
   private final DepartmentRepository departmentRepository;
   private final EmployeeRepository employeeRepository;
+  private final ApplicationEventPublisher eventPublisher;
+  private final HeadcountRollupService headcountRollupService;
 
+  /**
+   * Получить все отделы одним запросом сразу в DTO
+   */
+  @Transactional(readOnly = true)
   public List<DepartmentDto> getAllDepartments() {
-    return departmentRepository.findAll().stream()
-        .map(this::toDto)
-        .collect(Collectors.toList());
+    return departmentRepository.findAllDto();
   }
 
   public DepartmentDto getDepartmentById(Long id) {
@@ -70,6 +76,7 @@ public class DepartmentService {
         .build();
 
     Department saved = departmentRepository.save(department);
+    eventPublisher.publishEvent(DataChangedEvent.department(saved.getId()));
     return toDto(saved);
   }
 
@@ -133,6 +140,7 @@ public class DepartmentService {
     }
 
     Department updated = departmentRepository.save(department);
+    eventPublisher.publishEvent(DataChangedEvent.department(id));
     return toDto(updated);
   }
 
@@ -155,6 +163,8 @@ public class DepartmentService {
     
     // Удаляем отдел (сотрудники автоматически получат department_id = NULL)
     departmentRepository.delete(department);
+    headcountRollupService.onDepartmentDeleted(id);
+    eventPublisher.publishEvent(DataChangedEvent.department(id));
   }
 
   private DepartmentDto toDto(Department department) {
@@ -0,0 +1,126 @@
+package com.daria.service;
+
+import com.daria.dto.EmployeeDto;
+import com.daria.repository.EmployeeExportRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Выгрузка справочника сотрудников (GET /employees/export)
+ *
+ * Строки пишутся в ответ по мере чтения из БД (EmployeeExportRepository): память не зависит
+ * от размера таблицы, первые байты уходят клиенту сразу после первой строки.
+ *
+ * Форматы:
+ * - NDJSON - по одному EmployeeDto в JSON на строку (поля и формат дат как в GET /employees)
+ * - CSV - заголовок + строки (RFC 4180, CRLF), UTF-8 с BOM, чтобы Excel распознал кириллицу
+ *
+ * Edge cases:
+ * - Пустая таблица - пустой NDJSON / CSV только с заголовком
+ * - Обрыв соединения клиентом - IOException, чтение из БД прекращается
+ * - Поле CSV, начинающееся с =, +, -, @, табуляции или CR, получает префикс ' -
+ *   Excel иначе выполнит его как формулу (CSV injection)
+ */
+@Service
+@RequiredArgsConstructor
+public class EmployeeExportService {
+
+  private static final String CSV_HEADER =
+      "id,userId,fullName,gender,birthDate,hireDate,fireDate,competenceRank,competenceLevel,departmentId";
+
+  private final EmployeeExportRepository employeeExportRepository;
+  private final ObjectMapper objectMapper;
+
+  public enum Format {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv;charset=UTF-8", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    Format(String contentType, String extension) {
+      this.contentType = contentType;
+      this.extension = extension;
+    }
+
+    public String contentType() {
+      return contentType;
+    }
+
+    public String extension() {
+      return extension;
+    }
+  }
+
+  public void export(Format format, OutputStream out) throws IOException {
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    String lineEnd = format == Format.CSV ? "\r\n" : "\n";
+    if (format == Format.CSV) {
+      writer.write('\uFEFF');
+      writer.write(CSV_HEADER);
+      writer.write(lineEnd);
+      writer.flush();
+    }
+
+    boolean[] first = {true};
+    try {
+      employeeExportRepository.scanEmployees(employee -> {
+        try {
+          writer.write(format == Format.CSV ? toCsv(employee) : objectMapper.writeValueAsString(employee));
+          writer.write(lineEnd);
+          if (first[0]) {
+            // Первая строка уходит клиенту сразу, дальше - по заполнении буферов
+            writer.flush();
+            first[0] = false;
+          }
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    writer.flush();
+  }
+
+  private static String toCsv(EmployeeDto employee) {
+    return String.join(",",
+        csv(employee.id()),
+        csv(employee.userId()),
+        csv(employee.fullName()),
+        csv(employee.gender()),
+        csv(employee.birthDate()),
+        csv(employee.hireDate()),
+        csv(employee.fireDate()),
+        csv(employee.competenceRank()),
+        csv(employee.competenceLevel()),
+        csv(employee.departmentId()));
+  }
+
+  /**
+   * Значение поля CSV: null - пустое поле, поле с запятой, кавычкой или переводом строки - в кавычках,
+   * поле, похожее на формулу, - с префиксом '
+   */
+  static String csv(Object value) {
+    if (value == null) {
+      return "";
+    }
+    String text = value.toString();
+    if (!text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+      text = "'" + text;
+    }
+    if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+      return text;
+    }
+    return "\"" + text.replace("\"", "\"\"") + "\"";
+  }
+}
@@ -0,0 +1,61 @@
+package com.daria.service;
+
+import com.daria.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Непрозрачный курсор списка сотрудников (GET /employees)
+ *
+ * Содержит сортировку с направлением ("absences.desc") и позицию последней строки страницы:
+ * значение ключа сортировки + id. Формат: base64url("сортировка:значение:id").
+ * Курсор действителен только для той же сортировки и направления.
+ *
+ * Значение ключа - в формате EmployeeSort (число, день эпохи или биты double).
+ */
+public final class EmployeeListCursor {
+
+  /**
+   * Позиция keyset-пагинации
+   *
+   * @param value значение ключа сортировки последней строки (для сортировки по id не используется)
+   * @param id идентификатор последней строки
+   */
+  public record Position(long value, long id) {}
+
+  private EmployeeListCursor() {
+  }
+
+  public static String encode(String sortBy, long value, long id) {
+    String raw = sortBy + ":" + value + ":" + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Разобрать курсор
+   *
+   * Edge cases:
+   * - null или пустая строка - первая страница (null)
+   * - поврежденный курсор или курсор другой сортировки - BadRequestException
+   */
+  public static Position decode(String cursor, String sortBy) {
+    if (cursor == null || cursor.isBlank()) {
+      return null;
+    }
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+      String[] parts = raw.split(":");
+      if (parts.length != 3) {
+        throw new BadRequestException("Invalid cursor");
+      }
+      if (!parts[0].equals(sortBy)) {
+        throw new BadRequestException("Cursor does not match requested sort order");
+      }
+      return new Position(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+    } catch (IllegalArgumentException e) {
+      // Base64 и NumberFormatException
+      throw new BadRequestException("Invalid cursor");
+    }
+  }
+}
@@ -1,23 +1,28 @@
 package com.daria.service;
 
+import com.daria.dto.CursorPageDto;
 import com.daria.dto.EmployeeCreateRequest;
 import com.daria.dto.EmployeeDto;
 import com.daria.dto.EmployeeUpdateRequest;
 import com.daria.entity.Department;
 import com.daria.entity.Employee;
-import com.daria.entity.enums.Gender;
+import com.daria.event.DataChangedEvent;
 import com.daria.exception.BadRequestException;
 import com.daria.exception.ResourceNotFoundException;
 import com.daria.repository.DepartmentRepository;
 import com.daria.repository.EmployeeRepository;
+import com.daria.repository.EmployeeSearchFilter;
+import com.daria.repository.EmployeeSearchRepository;
+import com.daria.repository.EmployeeSort;
 import com.daria.repository.UserRepository;
+import com.daria.service.analytics.HeadcountRollupService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -27,45 +32,56 @@ public class EmployeeService {
   private final EmployeeRepository employeeRepository;
   private final DepartmentRepository departmentRepository;
   private final UserRepository userRepository;
+  private final ApplicationEventPublisher eventPublisher;
+  private final HeadcountRollupService headcountRollupService;
 
   /**
-   * Получить всех сотрудников с опциональной фильтрацией и сортировкой
+   * Получить страницу сотрудников с опциональной фильтрацией и сортировкой (keyset-пагинация)
    * 
-   * @param search поисковый запрос (поиск по имени, может быть null или пустым)
-   * @param departmentId фильтр по отделу (может быть null)
-   * @param gender фильтр по полу (может быть null)
-   * @param sortBy тип сортировки: "absences" - по пропускам, "competence_level" - по уровню компетенции, null - без сортировки
-   * @return список сотрудников, соответствующих критериям
+   * Поиск по имени идет по полнотекстовому индексу: все слова запроса должны встречаться в ФИО
+   * (как подстроки, без учета регистра). Без явной сортировки найденные сотрудники
+   * упорядочены по релевантности.
+   * 
+   * Edge cases:
+   * - сортировка по релевантности без слов поиска - BadRequestException
+   * - курсор действителен только для той же сортировки и направления
+   * - без limit возвращаются все найденные сотрудники одним списком, курсора нет
+   * 
+   * @param filter фильтры (не заданные не попадают в запрос)
+   * @param sortBy ключ сортировки (null - по релевантности при поиске, иначе по id)
+   * @param descending направление (null - направление ключа по умолчанию)
+   * @param cursor курсор следующей страницы из предыдущего ответа (null - первая страница)
+   * @param limit размер страницы (null - без ограничения)
+   * @return сотрудники страницы и курсор следующей страницы (null - страница последняя)
    */
-  public List<EmployeeDto> getAllEmployees(String search, Long departmentId, Gender gender, String sortBy) {
-    List<Employee> employees;
+  @Transactional(readOnly = true)
+  public CursorPageDto<EmployeeDto> getEmployeesPage(EmployeeSearchFilter filter, EmployeeSort sortBy, Boolean descending,
+                                                     String cursor, Integer limit) {
+    boolean searching = filter.fullTextQuery() != null;
+    EmployeeSort sort = sortBy != null ? sortBy : searching ? EmployeeSort.RELEVANCE : EmployeeSort.ID;
+    if (sort == EmployeeSort.RELEVANCE && !searching) {
+      throw new BadRequestException("Sort by relevance requires search");
+    }
+    boolean desc = descending != null ? descending : sort.descendingByDefault();
+    String cursorSort = sort.key() + "." + (desc ? "desc" : "asc");
+    EmployeeListCursor.Position after = EmployeeListCursor.decode(cursor, cursorSort);
     
-    // Нормализуем search: если пустая строка, делаем null
-    String normalizedSearch = (search != null && search.trim().isEmpty()) ? null : search;
+    // Одна лишняя строка показывает, есть ли следующая страница
+    List<EmployeeSearchRepository.Row> rows = employeeRepository.findEmployeesPage(
+        filter, sort, desc, after != null ? after.value() : 0L, after != null ? after.id() : null,
+        limit != null ? limit + 1 : null);
     
-    // Выбираем метод репозитория в зависимости от сортировки
-    if ("absences".equals(sortBy)) {
-      employees = employeeRepository.findEmployeesWithFiltersSortedByAbsences(
-          normalizedSearch, departmentId, gender);
-    } else if ("competence_level".equals(sortBy)) {
-      employees = employeeRepository.findEmployeesWithFiltersSortedByCompetence(
-          normalizedSearch, departmentId, gender);
-    } else {
-      // Без сортировки или неизвестный тип сортировки
-      employees = employeeRepository.findEmployeesWithFilters(
-          normalizedSearch, departmentId, gender);
+    String nextCursor = null;
+    if (limit != null && rows.size() > limit) {
+      rows = rows.subList(0, limit);
+      EmployeeSearchRepository.Row last = rows.get(limit - 1);
+      nextCursor = EmployeeListCursor.encode(cursorSort, last.sortValue(), last.employee().id());
     }
     
-    return employees.stream()
-        .map(this::toDto)
-        .collect(Collectors.toList());
-  }
-  
-  /**
-   * Получить всех сотрудников без фильтрации (для обратной совместимости)
-   */
-  public List<EmployeeDto> getAllEmployees() {
-    return getAllEmployees(null, null, null, null);
+    return new CursorPageDto<>(
+        rows.stream().map(EmployeeSearchRepository.Row::employee).toList(),
+        nextCursor
+    );
   }
 
   public EmployeeDto getEmployeeById(Long id) {
@@ -125,6 +141,8 @@ public class EmployeeService {
         .build();
 
     Employee saved = employeeRepository.save(employee);
+    headcountRollupService.onEmployeeChanged(null, HeadcountRollupService.Snapshot.of(saved));
+    eventPublisher.publishEvent(DataChangedEvent.employee(saved.getId(), departmentIdOf(saved)));
     return toDto(saved);
   }
 
@@ -140,6 +158,8 @@ public class EmployeeService {
   public EmployeeDto updateEmployee(Long id, EmployeeUpdateRequest request) {
     Employee employee = employeeRepository.findById(id)
         .orElseThrow(() -> new ResourceNotFoundException("Employee", id));
+    Long oldDepartmentId = departmentIdOf(employee);
+    HeadcountRollupService.Snapshot before = HeadcountRollupService.Snapshot.of(employee);
 
     // Обновление полей
     if (request.fullName() != null) {
@@ -199,13 +219,21 @@ public class EmployeeService {
     }
 
     Employee updated = employeeRepository.save(employee);
+    headcountRollupService.onEmployeeChanged(before, HeadcountRollupService.Snapshot.of(updated));
+    eventPublisher.publishEvent(DataChangedEvent.employee(id, oldDepartmentId, departmentIdOf(updated)));
     return toDto(updated);
   }
 
   public void deleteEmployee(Long id) {
     Employee employee = employeeRepository.findById(id)
         .orElseThrow(() -> new ResourceNotFoundException("Employee", id));
+    headcountRollupService.onEmployeeChanged(HeadcountRollupService.Snapshot.of(employee), null);
     employeeRepository.delete(employee);
+    eventPublisher.publishEvent(DataChangedEvent.employee(id, departmentIdOf(employee)));
+  }
+
+  private Long departmentIdOf(Employee employee) {
+    return employee.getDepartment() != null ? employee.getDepartment().getId() : null;
   }
 
   private EmployeeDto toDto(Employee employee) {
@@ -5,15 +5,16 @@ import com.daria.dto.TrainingDto;
 import com.daria.dto.TrainingUpdateRequest;
 import com.daria.entity.Employee;
 import com.daria.entity.Training;
+import com.daria.event.DataChangedEvent;
 import com.daria.exception.ResourceNotFoundException;
 import com.daria.repository.EmployeeRepository;
 import com.daria.repository.TrainingRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -22,11 +23,14 @@ public class TrainingService {
 
   private final TrainingRepository trainingRepository;
   private final EmployeeRepository employeeRepository;
+  private final ApplicationEventPublisher eventPublisher;
 
+  /**
+   * Получить все обучения одним запросом сразу в DTO
+   */
+  @Transactional(readOnly = true)
   public List<TrainingDto> getAllTrainings() {
-    return trainingRepository.findAll().stream()
-        .map(this::toDto)
-        .collect(Collectors.toList());
+    return trainingRepository.findAllDto();
   }
 
   public TrainingDto getTrainingById(Long id) {
@@ -35,10 +39,9 @@ public class TrainingService {
     return toDto(training);
   }
 
+  @Transactional(readOnly = true)
   public List<TrainingDto> getTrainingsByEmployeeId(Long employeeId) {
-    return trainingRepository.findByEmployeeId(employeeId).stream()
-        .map(this::toDto)
-        .collect(Collectors.toList());
+    return trainingRepository.findDtoByEmployeeId(employeeId);
   }
 
   /**
@@ -78,6 +81,7 @@ public class TrainingService {
         .build();
 
     Training saved = trainingRepository.save(training);
+    publishChange(saved);
     return toDto(saved);
   }
 
@@ -122,6 +126,7 @@ public class TrainingService {
     }
 
     Training updated = trainingRepository.save(training);
+    publishChange(updated);
     return toDto(updated);
   }
 
@@ -129,6 +134,16 @@ public class TrainingService {
     Training training = trainingRepository.findById(id)
         .orElseThrow(() -> new ResourceNotFoundException("Training", id));
     trainingRepository.delete(training);
+    publishChange(training);
+  }
+
+  private void publishChange(Training training) {
+    Employee employee = training.getEmployee();
+    eventPublisher.publishEvent(DataChangedEvent.training(
+        training.getId(),
+        employee.getId(),
+        employee.getDepartment() != null ? employee.getDepartment().getId() : null
+    ));
   }
 
   private TrainingDto toDto(Training training) {
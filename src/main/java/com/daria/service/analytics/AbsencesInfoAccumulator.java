@@ -0,0 +1,25 @@
+package com.daria.service.analytics;
+
+import com.daria.dto.AnalyticsDto;
+import com.daria.repository.WorkforceRow;
+
+/**
+ * Пропуски сотрудников: с уважительной причиной и остальные
+ * (пропуски без статуса считаются невалидными)
+ */
+public class AbsencesInfoAccumulator implements AnalyticsAccumulator<AnalyticsDto.AbsencesInfo> {
+
+  private long valid;
+  private long total;
+
+  @Override
+  public void accept(WorkforceRow row) {
+    valid += row.getValidAbsences();
+    total += row.getAbsences();
+  }
+
+  @Override
+  public AnalyticsDto.AbsencesInfo result() {
+    return new AnalyticsDto.AbsencesInfo(valid, total - valid);
+  }
+}
@@ -0,0 +1,38 @@
+package com.daria.service.analytics;
+
+import com.daria.dto.AnalyticsDto;
+import com.daria.repository.WorkforceRow;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Распределение по возрастным группам (всегда 4 группы, сотрудники без даты рождения не учитываются)
+ */
+public class AgeDistributionAccumulator implements AnalyticsAccumulator<List<AnalyticsDto.ChartData>> {
+
+  private final AnalyticsContext context;
+  private final long[] counts = new long[AnalyticsLabels.AGE_GROUPS.length];
+
+  public AgeDistributionAccumulator(AnalyticsContext context) {
+    this.context = context;
+  }
+
+  @Override
+  public void accept(WorkforceRow row) {
+    if (row.getBirthDay() == EpochDays.NO_DATE) {
+      return;
+    }
+    int age = EpochDays.yearsBetween(EpochDays.packed(row.getBirthDay()), context.getTodayPacked());
+    counts[AnalyticsLabels.ageGroup(age)]++;
+  }
+
+  @Override
+  public List<AnalyticsDto.ChartData> result() {
+    List<AnalyticsDto.ChartData> result = new ArrayList<>(counts.length);
+    for (int i = 0; i < counts.length; i++) {
+      result.add(new AnalyticsDto.ChartData(AnalyticsLabels.AGE_GROUPS[i], counts[i]));
+    }
+    return result;
+  }
+}
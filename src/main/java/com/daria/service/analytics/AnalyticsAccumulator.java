@@ -0,0 +1,19 @@
+package com.daria.service.analytics;
+
+import com.daria.repository.WorkforceRow;
+
+/**
+ * Аккумулятор одной метрики аналитики
+ * 
+ * Получает отфильтрованных сотрудников по одному за проход ({@link #accept}),
+ * хранит только примитивное состояние и строит итог в {@link #result}.
+ * Несколько аккумуляторов комбинируются и питаются одним проходом по данным.
+ * 
+ * @param <R> тип результата
+ */
+public interface AnalyticsAccumulator<R> {
+
+  void accept(WorkforceRow row);
+
+  R result();
+}
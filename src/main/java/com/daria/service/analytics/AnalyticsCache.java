@@ -0,0 +1,158 @@
+package com.daria.service.analytics;
+
+import com.daria.dto.AnalyticsDto;
+import com.daria.dto.CacheStatsDto;
+import com.daria.event.DataChangedEvent;
+import com.daria.infra.AnalyticsProperties;
+import com.daria.service.AnalyticsService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Кэш результатов аналитики перед AnalyticsService.getAnalytics
+ *
+ * Ключ: нормализованные отдел, период и набор секций + текущая дата
+ * (периоды считаются от LocalDate.now(), поэтому при смене дня записи не переиспользуются).
+ *
+ * Ограничения: TTL (expireAfterWrite) и максимальное количество записей.
+ *
+ * Инвалидация после коммита транзакции записи:
+ * - изменение отдела - весь кэш (названия и список отделов есть в каждой записи)
+ * - изменение сотрудника, пропуска или обучения - записи "все отделы"
+ *   и записи затронутых отделов (старый и новый отдел сотрудника)
+ *
+ * Результат, посчитанный параллельно с инвалидацией, в кэш не кладется,
+ * чтобы не сохранить устаревшие данные.
+ */
+@Component
+public class AnalyticsCache {
+
+  private final AnalyticsService analyticsService;
+  private final Cache<Key, AnalyticsDto> cache;
+  private final AtomicLong invalidationEpoch = new AtomicLong();
+  private final LongAdder invalidations = new LongAdder();
+
+  public AnalyticsCache(AnalyticsService analyticsService, AnalyticsProperties properties) {
+    this.analyticsService = analyticsService;
+    this.cache = Caffeine.newBuilder()
+        .expireAfterWrite(properties.getCache().getTtl())
+        .maximumSize(properties.getCache().getMaxSize())
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * Ключ кэша
+   *
+   * @param departmentId отдел (null = все отделы)
+   * @param period нормализованный период (null = все время)
+   * @param sections запрошенные секции
+   * @param date дата расчета
+   */
+  record Key(Long departmentId, String period, Set<AnalyticsSection> sections, LocalDate date) {}
+
+  /**
+   * Получить аналитические данные из кэша или рассчитать их
+   *
+   * @param departmentId фильтр по отделу (null = все отделы)
+   * @param period нормализованный период (null = все время)
+   */
+  public AnalyticsDto getAnalytics(Long departmentId, String period) {
+    return getAnalytics(departmentId, period, AnalyticsSection.all());
+  }
+
+  /**
+   * Получить запрошенные секции аналитических данных из кэша или рассчитать их
+   * 
+   * @param sections секции для расчета
+   */
+  public AnalyticsDto getAnalytics(Long departmentId, String period, Set<AnalyticsSection> sections) {
+    Key key = new Key(departmentId, period, Set.copyOf(sections), LocalDate.now());
+    AnalyticsDto cached = cache.getIfPresent(key);
+    if (cached != null) {
+      return cached;
+    }
+
+    long epoch = invalidationEpoch.get();
+    AnalyticsDto computed = analyticsService.getAnalytics(departmentId, period, key.sections());
+
+    // Если за время расчета данные менялись, результат может быть устаревшим
+    if (invalidationEpoch.get() == epoch) {
+      cache.put(key, computed);
+    }
+    return computed;
+  }
+
+  /**
+   * Пересчитать все секции в обход кэша и положить результат в кэш (предрасчет)
+   *
+   * @return результат или null, если во время расчета данные менялись (результат не сохранен)
+   */
+  public AnalyticsDto refresh(Long departmentId, String period) {
+    Key key = new Key(departmentId, period, AnalyticsSection.all(), LocalDate.now());
+    long epoch = invalidationEpoch.get();
+    AnalyticsDto computed = analyticsService.getAnalytics(departmentId, period, key.sections());
+    if (invalidationEpoch.get() != epoch) {
+      return null;
+    }
+    cache.put(key, computed);
+    return computed;
+  }
+
+  /**
+   * Положить в кэш ранее сохраненный результат всех секций (теплый старт)
+   *
+   * Результат другого дня не используется, существующая запись не заменяется.
+   *
+   * @param date дата расчета сохраненного результата
+   */
+  public void warm(Long departmentId, String period, LocalDate date, AnalyticsDto analytics) {
+    if (date.equals(LocalDate.now())) {
+      cache.asMap().putIfAbsent(new Key(departmentId, period, AnalyticsSection.all(), date), analytics);
+    }
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onDataChanged(DataChangedEvent event) {
+    Predicate<Key> affected = event.type() == DataChangedEvent.DataType.DEPARTMENT
+        ? key -> true
+        : key -> key.departmentId() == null || event.departmentIds().contains(key.departmentId());
+
+    invalidationEpoch.incrementAndGet();
+    cache.asMap().keySet().removeIf(key -> {
+      if (affected.test(key)) {
+        invalidations.increment();
+        return true;
+      }
+      return false;
+    });
+  }
+
+  public void invalidateAll() {
+    invalidationEpoch.incrementAndGet();
+    invalidations.add(cache.estimatedSize());
+    cache.invalidateAll();
+  }
+
+  public CacheStatsDto getStats() {
+    CacheStats stats = cache.stats();
+    return new CacheStatsDto(
+        cache.estimatedSize(),
+        stats.hitCount(),
+        stats.missCount(),
+        stats.hitRate(),
+        stats.evictionCount(),
+        invalidations.sum()
+    );
+  }
+}
@@ -0,0 +1,86 @@
+package com.daria.service.analytics;
+
+import com.daria.repository.AnalyticsQueryRepository.DepartmentRef;
+import com.daria.repository.WorkforceRow;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Параметры одного расчета аналитики: фильтр, текущая дата и справочник отделов
+ * 
+ * Даты заранее переведены в дни эпохи, отделы - в плотные индексы,
+ * чтобы аккумуляторы работали с примитивами.
+ */
+@Getter
+public final class AnalyticsContext {
+
+  private final Long departmentId;
+  private final LocalDate periodStart;
+  private final LocalDate today;
+  private final List<DepartmentRef> departments;
+
+  private final int periodStartDay;
+  private final int todayDay;
+  private final int todayPacked;
+  private final LongIntHashMap departmentIndex;
+
+  /**
+   * @param departmentId фильтр по отделу (null = все отделы)
+   * @param periodStart начало периода (null = все время)
+   * @param today текущая дата
+   * @param departments все отделы в порядке идентификаторов
+   */
+  public AnalyticsContext(Long departmentId, LocalDate periodStart, LocalDate today, List<DepartmentRef> departments) {
+    this.departmentId = departmentId;
+    this.periodStart = periodStart;
+    this.today = today;
+    this.departments = departments;
+    this.periodStartDay = EpochDays.of(periodStart);
+    this.todayDay = EpochDays.of(today);
+    this.todayPacked = EpochDays.packed(todayDay);
+    this.departmentIndex = new LongIntHashMap(departments.size());
+    for (int i = 0; i < departments.size(); i++) {
+      departmentIndex.put(departments.get(i).id(), i);
+    }
+  }
+
+  public boolean hasPeriod() {
+    return periodStartDay != EpochDays.NO_DATE;
+  }
+
+  /**
+   * Плотный индекс отдела в списке departments или LongIntHashMap.MISSING
+   */
+  public int departmentIndexOf(long departmentId) {
+    return departmentId == WorkforceRow.NO_DEPARTMENT ? LongIntHashMap.MISSING : departmentIndex.get(departmentId);
+  }
+
+  /**
+   * Проходит ли сотрудник фильтр (для источников, которые не фильтруют данные сами)
+   * 
+   * Период: сотрудник принят в периоде, уволен в периоде
+   * или был активен в течение периода.
+   */
+  public boolean includes(WorkforceRow row) {
+    if (departmentId != null && row.getDepartmentId() != departmentId) {
+      return false;
+    }
+    if (!hasPeriod()) {
+      return true;
+    }
+    int hire = row.getHireDay();
+    int fire = row.getFireDay();
+    if (hire != EpochDays.NO_DATE && hire >= periodStartDay) {
+      return true;
+    }
+    if (fire != EpochDays.NO_DATE && fire >= periodStartDay) {
+      return true;
+    }
+    if (hire != EpochDays.NO_DATE && hire < periodStartDay) {
+      return fire == EpochDays.NO_DATE || fire > periodStartDay;
+    }
+    return false;
+  }
+}
@@ -0,0 +1,120 @@
+package com.daria.service.analytics;
+
+import com.daria.dto.AnalyticsDto;
+import com.daria.repository.WorkforceRow;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Композиция всех аккумуляторов аналитики
+ * 
+ * Один проход по отфильтрованным сотрудникам заполняет все метрики сразу,
+ * стоимость расчета линейна по количеству сотрудников.
+ * Участвуют только аккумуляторы запрошенных секций, остальные секции результата равны null.
+ */
+public class AnalyticsDtoAccumulator implements AnalyticsAccumulator<AnalyticsDto> {
+
+  private final EmployeeCountAccumulator total = new EmployeeCountAccumulator();
+  private final AvgCompetenceAccumulator avgCompetence = new AvgCompetenceAccumulator();
+  private final TrainedCountAccumulator trained;
+  private final FiredCountAccumulator fired;
+  private final AbsencesInfoAccumulator absences = new AbsencesInfoAccumulator();
+  private final GenderDistributionAccumulator gender = new GenderDistributionAccumulator();
+  private final AgeDistributionAccumulator age;
+  private final RankDistributionAccumulator ranks = new RankDistributionAccumulator();
+  private final DepartmentDistributionAccumulator departments;
+  private final HiresFiresAccumulator hiresFires;
+  private final DepartmentsSummaryAccumulator departmentsSummary;
+  private final EmployeesSummaryAccumulator employeesSummary = new EmployeesSummaryAccumulator();
+
+  private final Set<AnalyticsSection> sections;
+  private final AnalyticsAccumulator<?>[] accumulators;
+
+  public AnalyticsDtoAccumulator(AnalyticsContext context) {
+    this(context, AnalyticsSection.all());
+  }
+
+  public AnalyticsDtoAccumulator(AnalyticsContext context, Set<AnalyticsSection> sections) {
+    this.sections = sections;
+    this.trained = new TrainedCountAccumulator(context);
+    this.fired = new FiredCountAccumulator(context);
+    this.age = new AgeDistributionAccumulator(context);
+    this.departments = new DepartmentDistributionAccumulator(context);
+    this.hiresFires = new HiresFiresAccumulator(context);
+    this.departmentsSummary = new DepartmentsSummaryAccumulator(context);
+
+    List<AnalyticsAccumulator<?>> active = new ArrayList<>();
+    if (sections.contains(AnalyticsSection.KPI)) {
+      active.addAll(List.of(total, avgCompetence, trained, fired));
+    }
+    addIf(active, AnalyticsSection.ABSENCES, absences);
+    addIf(active, AnalyticsSection.GENDER, gender);
+    addIf(active, AnalyticsSection.AGE, age);
+    addIf(active, AnalyticsSection.RANKS, ranks);
+    addIf(active, AnalyticsSection.DEPARTMENTS, departments);
+    addIf(active, AnalyticsSection.HIRES_FIRES, hiresFires);
+    addIf(active, AnalyticsSection.DEPARTMENTS_SUMMARY, departmentsSummary);
+    addIf(active, AnalyticsSection.EMPLOYEES, employeesSummary);
+    this.accumulators = active.toArray(AnalyticsAccumulator<?>[]::new);
+  }
+
+  private void addIf(List<AnalyticsAccumulator<?>> active, AnalyticsSection section, AnalyticsAccumulator<?> accumulator) {
+    if (sections.contains(section)) {
+      active.add(accumulator);
+    }
+  }
+
+  /**
+   * Нужны ли строки сотрудников: false, если запрошены только секции, которые считаются
+   * не по строкам (дни пропусков) - тогда обход сотрудников не выполняется
+   */
+  public boolean needsRows() {
+    return accumulators.length > 0;
+  }
+
+  @Override
+  public void accept(WorkforceRow row) {
+    for (AnalyticsAccumulator<?> accumulator : accumulators) {
+      accumulator.accept(row);
+    }
+  }
+
+  @Override
+  public AnalyticsDto result() {
+    boolean kpi = sections.contains(AnalyticsSection.KPI);
+    Long totalEmployees = kpi ? total.result() : null;
+    Long firedCount = kpi ? fired.result() : null;
+    return new AnalyticsDto(
+        totalEmployees,
+        kpi ? avgCompetence.result() : null,
+        kpi ? trained.result() : null,
+        firedCount,
+        kpi ? turnoverRate(totalEmployees, firedCount) : null,
+        resultIf(AnalyticsSection.ABSENCES, absences),
+        null, // дни пропусков считаются только в SQL (AnalyticsService)
+        resultIf(AnalyticsSection.GENDER, gender),
+        resultIf(AnalyticsSection.AGE, age),
+        resultIf(AnalyticsSection.RANKS, ranks),
+        resultIf(AnalyticsSection.DEPARTMENTS, departments),
+        resultIf(AnalyticsSection.HIRES_FIRES, hiresFires),
+        resultIf(AnalyticsSection.DEPARTMENTS_SUMMARY, departmentsSummary),
+        resultIf(AnalyticsSection.EMPLOYEES, employeesSummary)
+    );
+  }
+
+  private <R> R resultIf(AnalyticsSection section, AnalyticsAccumulator<R> accumulator) {
+    return sections.contains(section) ? accumulator.result() : null;
+  }
+
+  /**
+   * Текучесть кадров (%)
+   */
+  public static Double turnoverRate(Long totalEmployees, Long fired) {
+    if (totalEmployees == null || totalEmployees == 0) {
+      return 0.0;
+    }
+    return (fired.doubleValue() / totalEmployees.doubleValue()) * 100.0;
+  }
+}
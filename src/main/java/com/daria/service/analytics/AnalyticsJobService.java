@@ -0,0 +1,199 @@
+package com.daria.service.analytics;
+
+import com.daria.dto.AnalyticsDto;
+import com.daria.dto.AnalyticsJobDto;
+import com.daria.exception.ConflictException;
+import com.daria.exception.ResourceNotFoundException;
+import com.daria.exception.ServiceUnavailableException;
+import com.daria.infra.AnalyticsProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Фоновые расчеты аналитики (submit -> id -> опрос -> результат)
+ * 
+ * - Расчеты выполняются на отдельном пуле с ограниченным числом потоков
+ *   и ограниченной очередью; при переполнении - ServiceUnavailableException (503)
+ * - Завершенные задания (с результатом или ошибкой) хранятся app.analytics.jobs.result-ttl
+ *   от завершения; ожидающие и выполняющиеся задания не удаляются
+ * - Крайний срок параллельного расчета (app.analytics.parallel.timeout) к заданиям не применяется
+ * - Одинаковые незавершенные задания (отдел, период, секции, дата) не дублируются:
+ *   повторная постановка возвращает уже существующее задание
+ * - Сам расчет идет через AnalyticsCache, поэтому готовый результат из кэша отдается сразу
+ */
+@Slf4j
+@Service
+public class AnalyticsJobService {
+
+  public enum Status {
+    PENDING, RUNNING, DONE, FAILED
+  }
+
+  private final AnalyticsCache analyticsCache;
+  private final AnalyticsSectionRunner analyticsSectionRunner;
+  private final ThreadPoolExecutor executor;
+  private final Cache<String, Job> jobs;
+  private final ConcurrentMap<Key, Job> inFlight = new ConcurrentHashMap<>();
+
+  public AnalyticsJobService(AnalyticsCache analyticsCache, AnalyticsSectionRunner analyticsSectionRunner,
+                             AnalyticsProperties properties) {
+    AnalyticsProperties.Jobs config = properties.getJobs();
+    this.analyticsCache = analyticsCache;
+    this.analyticsSectionRunner = analyticsSectionRunner;
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(
+        config.getMaxConcurrency(), config.getMaxConcurrency(),
+        0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(config.getQueueCapacity()),
+        runnable -> {
+          Thread thread = new Thread(runnable, "analytics-job-" + threadNumber.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    long resultTtlNanos = config.getResultTtl().toNanos();
+    this.jobs = Caffeine.newBuilder()
+        .expireAfter(new Expiry<String, Job>() {
+          @Override
+          public long expireAfterCreate(String id, Job job, long currentTime) {
+            return job.isFinished() ? resultTtlNanos : Long.MAX_VALUE;
+          }
+
+          @Override
+          public long expireAfterUpdate(String id, Job job, long currentTime, long currentDuration) {
+            return expireAfterCreate(id, job, currentTime);
+          }
+
+          @Override
+          public long expireAfterRead(String id, Job job, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .build();
+  }
+
+  private record Key(Long departmentId, String period, Set<AnalyticsSection> sections, LocalDate date) {}
+
+  private static final class Job {
+    final String id = UUID.randomUUID().toString();
+    final Key key;
+    final LocalDateTime createdAt = LocalDateTime.now();
+    volatile Status status = Status.PENDING;
+    volatile LocalDateTime finishedAt;
+    volatile AnalyticsDto result;
+    volatile String error;
+
+    Job(Key key) {
+      this.key = key;
+    }
+
+    boolean isFinished() {
+      return status == Status.DONE || status == Status.FAILED;
+    }
+  }
+
+  /**
+   * Поставить расчет в очередь
+   * 
+   * @param departmentId нормализованный отдел (null = все отделы)
+   * @param period нормализованный период (null = все время)
+   * @param sections секции для расчета
+   * @return новое или уже выполняющееся такое же задание
+   */
+  public AnalyticsJobDto submit(Long departmentId, String period, Set<AnalyticsSection> sections) {
+    Key key = new Key(departmentId, period, Set.copyOf(sections), LocalDate.now());
+    boolean[] created = {false};
+    Job job = inFlight.computeIfAbsent(key, k -> {
+      created[0] = true;
+      return new Job(k);
+    });
+    if (!created[0]) {
+      return toDto(job);
+    }
+
+    jobs.put(job.id, job);
+    try {
+      executor.execute(() -> run(job));
+    } catch (RejectedExecutionException e) {
+      inFlight.remove(key, job);
+      jobs.invalidate(job.id);
+      throw new ServiceUnavailableException("Analytics job queue is full, try again later");
+    }
+    return toDto(job);
+  }
+
+  public AnalyticsJobDto getJob(String id) {
+    return toDto(find(id));
+  }
+
+  /**
+   * Результат завершенного задания
+   * 
+   * Edge cases:
+   * - задание не найдено или истек срок хранения - ResourceNotFoundException
+   * - задание еще выполняется или завершилось ошибкой - ConflictException
+   */
+  public AnalyticsDto getResult(String id) {
+    Job job = find(id);
+    return switch (job.status) {
+      case DONE -> job.result;
+      case FAILED -> throw new ConflictException("Analytics job failed: " + job.error);
+      default -> throw new ConflictException("Analytics job is not finished yet");
+    };
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private void run(Job job) {
+    job.status = Status.RUNNING;
+    try {
+      Key key = job.key;
+      job.result = analyticsSectionRunner.withoutDeadline(
+          () -> analyticsCache.getAnalytics(key.departmentId(), key.period(), key.sections()));
+      job.status = Status.DONE;
+    } catch (RuntimeException e) {
+      log.warn("Analytics job {} failed", job.id, e);
+      job.error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+      job.status = Status.FAILED;
+    } finally {
+      job.finishedAt = LocalDateTime.now();
+      inFlight.remove(job.key, job);
+      // Срок хранения отсчитывается от завершения (Expiry пересчитывается при обновлении)
+      jobs.put(job.id, job);
+    }
+  }
+
+  private Job find(String id) {
+    Job job = jobs.getIfPresent(id);
+    if (job == null) {
+      throw new ResourceNotFoundException("Analytics job not found: " + id);
+    }
+    return job;
+  }
+
+  private static AnalyticsJobDto toDto(Job job) {
+    return new AnalyticsJobDto(
+        job.id,
+        job.status.name(),
+        job.key.departmentId(),
+        job.key.period(),
+        job.key.sections().stream().sorted().map(AnalyticsSection::getKey).toList(),
+        job.createdAt,
+        job.finishedAt,
+        job.error
+    );
+  }
+}
@@ -0,0 +1,57 @@
+package com.daria.service.analytics;
+
+import com.daria.entity.enums.CompetenceRank;
+import com.daria.entity.enums.Gender;
+
+import java.time.YearMonth;
+
+/**
+ * Подписи для графиков аналитики (общие для SQL и in-memory расчета)
+ */
+public final class AnalyticsLabels {
+
+  public static final String[] AGE_GROUPS = {"18–25", "26–35", "36–45", "46+"};
+
+  private static final String[] MONTH_NAMES =
+      {"Янв", "Фев", "Мар", "Апр", "Май", "Июн", "Июл", "Авг", "Сен", "Окт", "Ноя", "Дек"};
+
+  private AnalyticsLabels() {
+  }
+
+  public static String gender(Gender gender) {
+    return gender == Gender.М ? "Мужчины" : "Женщины";
+  }
+
+  public static String rank(CompetenceRank rank) {
+    if (rank == null) return "Не указан";
+    return switch (rank) {
+      case JUNIOR -> "Начальный";
+      case MIDDLE -> "Средний";
+      case SENIOR -> "Высокий";
+    };
+  }
+
+  /**
+   * Подпись месяца; если год отличается от текущего, добавляется год ("Мар 2024")
+   */
+  public static String month(YearMonth month, int currentYear) {
+    String monthName = MONTH_NAMES[month.getMonthValue() - 1];
+    return month.getYear() != currentYear
+        ? String.format("%s %d", monthName, month.getYear())
+        : monthName;
+  }
+
+  /**
+   * Группа возраста: 0 - 18–25, 1 - 26–35 (в том числе младше 18), 2 - 36–45, 3 - 46+
+   */
+  public static int ageGroup(long age) {
+    if (age >= 18 && age <= 25) {
+      return 0;
+    } else if (age <= 35) {
+      return 1;
+    } else if (age <= 45) {
+      return 2;
+    }
+    return 3;
+  }
+}
@@ -0,0 +1,196 @@
+package com.daria.service.analytics;
+
+import com.daria.dto.AnalyticsDto;
+import com.daria.event.DataChangedEvent;
+import com.daria.infra.AnalyticsProperties;
+import com.daria.repository.AnalyticsQueryRepository;
+import com.daria.repository.AnalyticsSnapshotRepository;
+import com.daria.repository.AnalyticsSnapshotRepository.StoredSnapshot;
+import com.daria.service.AnalyticsService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Предрасчет аналитики для всех комбинаций (отдел x период) и теплый старт
+ *
+ * Комбинации: все отделы и каждый отдел x все время и каждый поддерживаемый период,
+ * все секции (тот же ключ кэша, что у GET /analytics без sections).
+ *
+ * - При старте (app.analytics.precompute.enabled) результаты, рассчитанные сегодня,
+ *   читаются из analytics_snapshots в кэш, затем в фоне идет свежий пересчет
+ * - Пересчет повторяется с интервалом app.analytics.precompute.interval
+ *   (не больше TTL кэша, иначе записи успевают истечь)
+ * - Каждый результат кладется в кэш и сохраняется в analytics_snapshots в JSON
+ * - После изменения данных сохраненные результаты затронутых отделов и "все отделы" удаляются
+ *   (изменение отдела - все результаты), кэш инвалидируется самим AnalyticsCache
+ *
+ * Edge cases:
+ * - Пересчеты не пересекаются: запуск во время идущего пересчета пропускается
+ * - Результат, во время расчета которого менялись данные, не сохраняется
+ * - Изменение, закоммиченное между расчетом и сохранением, тоже отбрасывает результат:
+ *   эпоха изменений сверяется перед сохранением и после него (сохраненная строка удаляется)
+ * - Ошибка одной комбинации не прерывает пересчет остальных
+ * - Нечитаемый сохраненный результат (например, после изменения AnalyticsDto) пропускается
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AnalyticsPrecomputeService {
+
+  private final AnalyticsCache analyticsCache;
+  private final AnalyticsQueryRepository analyticsQueryRepository;
+  private final AnalyticsSnapshotRepository analyticsSnapshotRepository;
+  private final AnalyticsProperties analyticsProperties;
+  private final ObjectMapper objectMapper;
+
+  private final AtomicBoolean running = new AtomicBoolean();
+  /** Растет до удаления сохраненных результатов в onDataChanged */
+  private final AtomicLong changeEpoch = new AtomicLong();
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    if (!analyticsProperties.getPrecompute().isEnabled()) {
+      return;
+    }
+    try {
+      warmStart();
+    } catch (DataAccessException e) {
+      log.warn("Analytics warm start failed", e);
+    }
+    Thread.ofVirtual().name("analytics-precompute").start(this::precomputeAll);
+  }
+
+  @Scheduled(
+      fixedDelayString = "${app.analytics.precompute.interval:5m}",
+      initialDelayString = "${app.analytics.precompute.interval:5m}")
+  public void scheduledPrecompute() {
+    if (analyticsProperties.getPrecompute().isEnabled()) {
+      precomputeAll();
+    }
+  }
+
+  /**
+   * Загрузить в кэш сохраненные результаты, рассчитанные сегодня
+   *
+   * @return количество загруженных результатов
+   */
+  public int warmStart() {
+    LocalDate today = LocalDate.now();
+    int loaded = 0;
+    for (StoredSnapshot stored : analyticsSnapshotRepository.findComputedOn(today)) {
+      try {
+        AnalyticsDto analytics = objectMapper.readValue(stored.payload(), AnalyticsDto.class);
+        analyticsCache.warm(toDepartmentId(stored.departmentId()), toPeriod(stored.period()), stored.computedOn(), analytics);
+        loaded++;
+      } catch (JsonProcessingException e) {
+        log.warn("Skipping unreadable analytics snapshot: department {}, period '{}'",
+            stored.departmentId(), stored.period(), e);
+      }
+    }
+    log.info("Analytics warm start: {} results loaded", loaded);
+    return loaded;
+  }
+
+  /**
+   * Пересчитать все комбинации (отдел x период)
+   *
+   * @return количество сохраненных результатов (0 - пересчет уже идет)
+   */
+  public int precomputeAll() {
+    if (!running.compareAndSet(false, true)) {
+      log.debug("Analytics precompute is already running");
+      return 0;
+    }
+    try {
+      long start = System.nanoTime();
+      List<Long> departmentIds = new ArrayList<>();
+      departmentIds.add(null);
+      analyticsQueryRepository.findDepartments().forEach(department -> departmentIds.add(department.id()));
+
+      List<String> periods = new ArrayList<>();
+      periods.add(null);
+      periods.addAll(AnalyticsService.SUPPORTED_PERIODS);
+
+      int saved = 0;
+      for (Long departmentId : departmentIds) {
+        for (String period : periods) {
+          if (precompute(departmentId, period)) {
+            saved++;
+          }
+        }
+      }
+      log.info("Analytics precomputed: {} of {} combinations in {} ms",
+          saved, departmentIds.size() * periods.size(), (System.nanoTime() - start) / 1_000_000);
+      return saved;
+    } catch (RuntimeException e) {
+      log.warn("Analytics precompute failed", e);
+      return 0;
+    } finally {
+      running.set(false);
+    }
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onDataChanged(DataChangedEvent event) {
+    if (!analyticsProperties.getPrecompute().isEnabled()) {
+      return;
+    }
+    changeEpoch.incrementAndGet();
+    try {
+      if (event.type() == DataChangedEvent.DataType.DEPARTMENT) {
+        analyticsSnapshotRepository.deleteAll();
+      } else {
+        analyticsSnapshotRepository.deleteForDepartments(event.departmentIds());
+      }
+    } catch (DataAccessException e) {
+      // Устаревший результат будет перезаписан следующим пересчетом
+      log.warn("Failed to delete analytics snapshots after {} change", event.type(), e);
+    }
+  }
+
+  private boolean precompute(Long departmentId, String period) {
+    try {
+      LocalDate today = LocalDate.now();
+      long epoch = changeEpoch.get();
+      AnalyticsDto analytics = analyticsCache.refresh(departmentId, period);
+      if (analytics == null || changeEpoch.get() != epoch) {
+        return false;
+      }
+      long storedDepartmentId = departmentId != null ? departmentId : AnalyticsSnapshotRepository.ALL_DEPARTMENTS;
+      String storedPeriod = period != null ? period : AnalyticsSnapshotRepository.ALL_TIME;
+      analyticsSnapshotRepository.save(storedDepartmentId, storedPeriod, today, objectMapper.writeValueAsString(analytics));
+      if (changeEpoch.get() != epoch) {
+        // Удаление из onDataChanged могло пройти до save - удаляем устаревший результат сами
+        analyticsSnapshotRepository.delete(storedDepartmentId, storedPeriod);
+        return false;
+      }
+      return true;
+    } catch (JsonProcessingException | RuntimeException e) {
+      log.warn("Analytics precompute failed: department {}, period {}", departmentId, period, e);
+      return false;
+    }
+  }
+
+  private static Long toDepartmentId(long storedDepartmentId) {
+    return storedDepartmentId == AnalyticsSnapshotRepository.ALL_DEPARTMENTS ? null : storedDepartmentId;
+  }
+
+  private static String toPeriod(String storedPeriod) {
+    return AnalyticsSnapshotRepository.ALL_TIME.equals(storedPeriod) ? null : storedPeriod;
+  }
+}
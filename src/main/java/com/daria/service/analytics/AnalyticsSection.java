@@ -0,0 +1,70 @@
+package com.daria.service.analytics;
+
+import com.daria.exception.BadRequestException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Независимые секции AnalyticsDto
+ * 
+ * Каждая секция считается отдельным запросом (engine = sql)
+ * и может выполняться параллельно с остальными.
+ * Ключ секции совпадает с именем поля AnalyticsDto (для KPI - набор полей).
+ */
+@Getter
+@RequiredArgsConstructor
+public enum AnalyticsSection {
+  /** Количество сотрудников, средняя компетенция, обученные, уволенные, текучесть */
+  KPI("kpi"),
+  ABSENCES("absences"),
+  /** Дни пропусков по статусам и отделам (всегда считается в SQL) */
+  ABSENCE_DAYS("absenceDays"),
+  GENDER("gender"),
+  AGE("age"),
+  RANKS("ranks"),
+  DEPARTMENTS("departments"),
+  HIRES_FIRES("hiresFires"),
+  DEPARTMENTS_SUMMARY("departmentsSummary"),
+  EMPLOYEES("employees");
+
+  private final String key;
+
+  public static Set<AnalyticsSection> all() {
+    return EnumSet.allOf(AnalyticsSection.class);
+  }
+
+  /**
+   * Разобрать список секций через запятую
+   * 
+   * Edge cases:
+   * - null или пустая строка - все секции
+   * - ключи без учета регистра, пробелы и пустые элементы игнорируются
+   * - неизвестный ключ - BadRequestException
+   */
+  public static Set<AnalyticsSection> parse(String sections) {
+    if (sections == null || sections.isBlank()) {
+      return all();
+    }
+    Set<AnalyticsSection> result = EnumSet.noneOf(AnalyticsSection.class);
+    for (String token : sections.split(",")) {
+      String key = token.trim();
+      if (key.isEmpty()) {
+        continue;
+      }
+      result.add(fromKey(key));
+    }
+    return result.isEmpty() ? all() : result;
+  }
+
+  private static AnalyticsSection fromKey(String key) {
+    for (AnalyticsSection section : values()) {
+      if (section.key.equalsIgnoreCase(key)) {
+        return section;
+      }
+    }
+    throw new BadRequestException("Unknown analytics section: " + key);
+  }
+}
@@ -0,0 +1,255 @@
+package com.daria.service.analytics;
+
+import com.daria.dto.SectionTimingDto;
+import com.daria.exception.ServiceUnavailableException;
+import com.daria.infra.AnalyticsProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Выполнение секций аналитики последовательно или параллельно
+ * 
+ * Параллельный режим (app.analytics.parallel.enabled):
+ * - секции выполняются на виртуальных потоках
+ * - количество одновременно выполняемых секций ограничено семафором
+ *   на все запросы сразу, чтобы не исчерпать пул соединений БД
+ *   (поток запроса при этом соединение не держит, см. AnalyticsService.getAnalytics)
+ * - у каждого запроса есть крайний срок; по его истечении незавершенные
+ *   секции отменяются, запрос завершается ServiceUnavailableException (503)
+ * - фоновые расчеты (withoutDeadline) выполняются параллельно, но без крайнего срока
+ * 
+ * В обоих режимах время каждой секции пишется в лог (DEBUG)
+ * и накапливается в статистике (getTimings).
+ */
+@Slf4j
+@Component
+public class AnalyticsSectionRunner {
+
+  private final AnalyticsProperties.Parallel properties;
+  private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+      Thread.ofVirtual().name("analytics-section-", 0).factory());
+  private final Semaphore permits;
+  private final Map<AnalyticsSection, Timing> timings = new EnumMap<>(AnalyticsSection.class);
+  private final ThreadLocal<Boolean> unbounded = ThreadLocal.withInitial(() -> false);
+
+  public AnalyticsSectionRunner(AnalyticsProperties properties) {
+    this.properties = properties.getParallel();
+    this.permits = new Semaphore(this.properties.getMaxConcurrency());
+    for (AnalyticsSection section : AnalyticsSection.values()) {
+      timings.put(section, new Timing());
+    }
+  }
+
+  /**
+   * Секции считаются на своих потоках (каждая берет свое соединение БД)
+   */
+  public boolean isParallel() {
+    return properties.isEnabled();
+  }
+
+  /**
+   * Начать расчет секций одного запроса
+   */
+  public Batch begin() {
+    if (!properties.isEnabled()) {
+      return new SequentialBatch();
+    }
+    return new ParallelBatch(unbounded.get() ? null : System.nanoTime() + properties.getTimeout().toNanos());
+  }
+
+  /**
+   * Выполнить расчет без крайнего срока запроса
+   * 
+   * Для фоновых расчетов (AnalyticsJobService): долгий расчет - их назначение,
+   * 503 по таймауту HTTP-запроса к ним не относится. Действует для begin(),
+   * вызванных в текущем потоке внутри calculation.
+   */
+  public <T> T withoutDeadline(Supplier<T> calculation) {
+    boolean previous = unbounded.get();
+    unbounded.set(true);
+    try {
+      return calculation.get();
+    } finally {
+      unbounded.set(previous);
+    }
+  }
+
+  public List<SectionTimingDto> getTimings() {
+    List<SectionTimingDto> result = new ArrayList<>(timings.size());
+    timings.forEach((section, timing) -> result.add(timing.toDto(section)));
+    return result;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Набор секций одного запроса
+   * 
+   * Порядок работы: submit для каждой секции, затем await, затем чтение результатов.
+   */
+  public abstract sealed class Batch permits SequentialBatch, ParallelBatch {
+
+    private final long startedAt = System.nanoTime();
+    private final Map<AnalyticsSection, Long> elapsed = new ConcurrentHashMap<>();
+
+    /**
+     * Запланировать секцию
+     * 
+     * @return результат секции, доступный после await
+     */
+    public abstract <T> Supplier<T> submit(AnalyticsSection section, Supplier<T> task);
+
+    /**
+     * Дождаться завершения всех запланированных секций
+     */
+    public void await() {
+      if (log.isDebugEnabled()) {
+        StringJoiner details = new StringJoiner(", ");
+        elapsed.entrySet().stream()
+            .sorted(Map.Entry.comparingByKey())
+            .forEach(e -> details.add(String.format("%s=%.1fms", e.getKey(), toMillis(e.getValue()))));
+        log.debug("Analytics sections ({}) computed in {}: {}",
+            this instanceof ParallelBatch ? "parallel" : "sequential",
+            String.format("%.1fms", toMillis(System.nanoTime() - startedAt)), details);
+      }
+    }
+
+    protected <T> T timed(AnalyticsSection section, Supplier<T> task) {
+      long start = System.nanoTime();
+      try {
+        return task.get();
+      } finally {
+        long nanos = System.nanoTime() - start;
+        elapsed.put(section, nanos);
+        timings.get(section).record(nanos);
+      }
+    }
+  }
+
+  final class SequentialBatch extends Batch {
+
+    @Override
+    public <T> Supplier<T> submit(AnalyticsSection section, Supplier<T> task) {
+      T value = timed(section, task);
+      return () -> value;
+    }
+  }
+
+  final class ParallelBatch extends Batch {
+
+    /**
+     * Крайний срок (System.nanoTime), null - без крайнего срока
+     */
+    private final Long deadline;
+    private final List<Future<?>> futures = new ArrayList<>();
+
+    ParallelBatch(Long deadline) {
+      this.deadline = deadline;
+    }
+
+    @Override
+    public <T> Supplier<T> submit(AnalyticsSection section, Supplier<T> task) {
+      Future<T> future = executor.submit(() -> {
+        permits.acquire();
+        try {
+          return timed(section, task);
+        } finally {
+          permits.release();
+        }
+      });
+      futures.add(future);
+      return () -> resultOf(future);
+    }
+
+    @Override
+    public void await() {
+      try {
+        for (Future<?> future : futures) {
+          if (deadline == null) {
+            future.get();
+          } else {
+            future.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+          }
+        }
+      } catch (TimeoutException e) {
+        cancelAll();
+        throw new ServiceUnavailableException(
+            "Analytics calculation exceeded " + properties.getTimeout().toMillis() + " ms");
+      } catch (InterruptedException e) {
+        cancelAll();
+        Thread.currentThread().interrupt();
+        throw new ServiceUnavailableException("Analytics calculation was interrupted");
+      } catch (ExecutionException e) {
+        cancelAll();
+        throw rethrow(e);
+      }
+      super.await();
+    }
+
+    private void cancelAll() {
+      futures.forEach(future -> future.cancel(true));
+    }
+
+    private <T> T resultOf(Future<T> future) {
+      try {
+        return future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ServiceUnavailableException("Analytics calculation was interrupted");
+      } catch (ExecutionException e) {
+        throw rethrow(e);
+      }
+    }
+
+    private RuntimeException rethrow(ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException runtime) {
+        return runtime;
+      }
+      if (cause instanceof Error error) {
+        throw error;
+      }
+      return new IllegalStateException(cause);
+    }
+  }
+
+  private static double toMillis(long nanos) {
+    return nanos / 1_000_000.0;
+  }
+
+  private static final class Timing {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private volatile long lastNanos;
+
+    void record(long nanos) {
+      count.increment();
+      totalNanos.add(nanos);
+      maxNanos.accumulateAndGet(nanos, Math::max);
+      lastNanos = nanos;
+    }
+
+    SectionTimingDto toDto(AnalyticsSection section) {
+      long n = count.sum();
+      return new SectionTimingDto(
+          section.name(),
+          n,
+          n > 0 ? toMillis(totalNanos.sum()) / n : 0.0,
+          toMillis(maxNanos.get()),
+          toMillis(lastNanos)
+      );
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package com.daria.service.analytics;
+
+import com.daria.repository.WorkforceRow;
+
+/**
+ * Средний уровень компетенции (сотрудники без уровня не учитываются)
+ */
+public class AvgCompetenceAccumulator implements AnalyticsAccumulator<Double> {
+
+  private long sum;
+  private long count;
+
+  @Override
+  public void accept(WorkforceRow row) {
+    if (row.getCompetenceLevel() != 0) {
+      sum += row.getCompetenceLevel();
+      count++;
+    }
+  }
+
+  @Override
+  public Double result() {
+    return count > 0 ? (double) sum / count : 0.0;
+  }
+}
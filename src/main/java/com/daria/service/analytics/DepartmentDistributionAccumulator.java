@@ -0,0 +1,51 @@
+package com.daria.service.analytics;
+
+import com.daria.dto.AnalyticsDto;
+import com.daria.repository.AnalyticsQueryRepository.DepartmentRef;
+import com.daria.repository.WorkforceRow;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Распределение по отделам
+ * 
+ * Группировка по названию отдела (отделы с одинаковыми названиями объединяются),
+ * сотрудники без отдела и отделы с пустым названием не учитываются.
+ */
+public class DepartmentDistributionAccumulator implements AnalyticsAccumulator<List<AnalyticsDto.DepartmentChartData>> {
+
+  private final AnalyticsContext context;
+  private final long[] counts;
+
+  public DepartmentDistributionAccumulator(AnalyticsContext context) {
+    this.context = context;
+    this.counts = new long[context.getDepartments().size()];
+  }
+
+  @Override
+  public void accept(WorkforceRow row) {
+    int index = context.departmentIndexOf(row.getDepartmentId());
+    if (index != LongIntHashMap.MISSING) {
+      counts[index]++;
+    }
+  }
+
+  @Override
+  public List<AnalyticsDto.DepartmentChartData> result() {
+    Map<String, Long> byName = new TreeMap<>();
+    List<DepartmentRef> departments = context.getDepartments();
+    for (int i = 0; i < counts.length; i++) {
+      String name = departments.get(i).name();
+      if (counts[i] > 0 && name != null && !name.trim().isEmpty()) {
+        byName.merge(name, counts[i], Long::sum);
+      }
+    }
+
+    List<AnalyticsDto.DepartmentChartData> result = new ArrayList<>(byName.size());
+    byName.forEach((name, count) -> result.add(new AnalyticsDto.DepartmentChartData(name, count)));
+    return result;
+  }
+}
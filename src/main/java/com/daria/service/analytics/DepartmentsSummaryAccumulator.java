@@ -0,0 +1,56 @@
+package com.daria.service.analytics;
+
+import com.daria.dto.AnalyticsDto;
+import com.daria.repository.AnalyticsQueryRepository.DepartmentRef;
+import com.daria.repository.WorkforceRow;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Сводка по всем отделам: количество сотрудников и средний уровень компетенции
+ * (отделы без сотрудников в фильтре возвращаются с нулями)
+ */
+public class DepartmentsSummaryAccumulator implements AnalyticsAccumulator<List<AnalyticsDto.DepartmentSummary>> {
+
+  private final AnalyticsContext context;
+  private final long[] counts;
+  private final long[] competenceSums;
+  private final long[] competenceCounts;
+
+  public DepartmentsSummaryAccumulator(AnalyticsContext context) {
+    this.context = context;
+    int size = context.getDepartments().size();
+    this.counts = new long[size];
+    this.competenceSums = new long[size];
+    this.competenceCounts = new long[size];
+  }
+
+  @Override
+  public void accept(WorkforceRow row) {
+    int index = context.departmentIndexOf(row.getDepartmentId());
+    if (index == LongIntHashMap.MISSING) {
+      return;
+    }
+    counts[index]++;
+    if (row.getCompetenceLevel() != 0) {
+      competenceSums[index] += row.getCompetenceLevel();
+      competenceCounts[index]++;
+    }
+  }
+
+  @Override
+  public List<AnalyticsDto.DepartmentSummary> result() {
+    List<DepartmentRef> departments = context.getDepartments();
+    List<AnalyticsDto.DepartmentSummary> result = new ArrayList<>(departments.size());
+    for (int i = 0; i < departments.size(); i++) {
+      String name = departments.get(i).name();
+      result.add(new AnalyticsDto.DepartmentSummary(
+          name != null ? name : "Не указано",
+          counts[i],
+          competenceCounts[i] > 0 ? (double) competenceSums[i] / competenceCounts[i] : 0.0
+      ));
+    }
+    return result;
+  }
+}
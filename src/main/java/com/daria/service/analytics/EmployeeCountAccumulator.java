@@ -0,0 +1,21 @@
+package com.daria.service.analytics;
+
+import com.daria.repository.WorkforceRow;
+
+/**
+ * Общее количество сотрудников
+ */
+public class EmployeeCountAccumulator implements AnalyticsAccumulator<Long> {
+
+  private long count;
+
+  @Override
+  public void accept(WorkforceRow row) {
+    count++;
+  }
+
+  @Override
+  public Long result() {
+    return count;
+  }
+}
@@ -0,0 +1,284 @@
+package com.daria.service.analytics;
+
+import com.daria.dto.EmployeeFacetsDto;
+import com.daria.entity.enums.CompetenceRank;
+import com.daria.entity.enums.Gender;
+import com.daria.event.DataChangedEvent;
+import com.daria.repository.AnalyticsQueryRepository;
+import com.daria.repository.WorkforceRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Фасетный индекс сотрудников на сжатых битовых картах (RoaringBitmap)
+ *
+ * Для каждого значения атрибута (отдел, пол, ранг, уровень компетенции, статус)
+ * хранится битовая карта идентификаторов сотрудников. Комбинированный фильтр -
+ * пересечение карт, количество по фасету - мощность пересечения, без обхода сотрудников.
+ *
+ * Счетчики фасета считаются с учетом всех остальных фильтров, кроме фильтра самого фасета
+ * (как в фасетном поиске: видно, сколько сотрудников будет при выборе другого значения).
+ *
+ * Обновление (как у WorkforceSnapshot):
+ * - Индекс строится одним потоковым запросом при первом обращении
+ * - После коммита изменения сотрудника его идентификатор запоминается,
+ *   перед следующим запросом накопленные сотрудники перечитываются одним запросом
+ * - Изменение отдела и смена дня (статус "уволен" зависит от текущей даты) - полная перестройка
+ *
+ * Edge cases:
+ * - Новые карты строятся отдельно и заменяют текущие под write-lock только после успешного запроса:
+ *   при ошибке запросы отвечают по прежним картам, перестройка или сотрудники остаются в очереди
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmployeeFacetIndex {
+
+  /**
+   * Статус сотрудника на текущую дату
+   */
+  public enum Status {
+    ACTIVE, FIRED
+  }
+
+  /**
+   * Фильтр фасетного запроса (null - без фильтра по атрибуту)
+   *
+   * @param departmentId отдел
+   */
+  public record Query(Long departmentId, Gender gender, CompetenceRank rank, Integer competenceLevel, Status status) {}
+
+  private final AnalyticsQueryRepository analyticsQueryRepository;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Object refreshLock = new Object();
+  private final Set<Long> pendingEmployeeIds = ConcurrentHashMap.newKeySet();
+  private volatile boolean active;
+  private volatile boolean stale;
+
+  private volatile LocalDate builtFor;
+  // Опубликованные карты не изменяются, заменяются целиком под write-lock
+  private Bitmaps bitmaps = new Bitmaps();
+
+  /**
+   * Количество сотрудников по фильтру и счетчики по каждому фасету
+   */
+  public EmployeeFacetsDto count(Query query) {
+    refreshIfNeeded();
+    lock.readLock().lock();
+    try {
+      Bitmaps current = bitmaps;
+      RoaringBitmap byDepartment = filter(current, current.departments, query.departmentId());
+      RoaringBitmap byGender = filter(current, current.genders, query.gender());
+      RoaringBitmap byRank = filter(current, current.ranks, query.rank());
+      RoaringBitmap byLevel = filter(current, current.levels, query.competenceLevel());
+      RoaringBitmap byStatus = filter(current, current.statuses, query.status());
+
+      return new EmployeeFacetsDto(
+          and(byDepartment, byGender, byRank, byLevel, byStatus).getLongCardinality(),
+          facet(current.departments, and(byGender, byRank, byLevel, byStatus),
+              id -> id == WorkforceRow.NO_DEPARTMENT ? EmployeeFacetsDto.NO_DEPARTMENT : String.valueOf(id)),
+          facet(current.genders, and(byDepartment, byRank, byLevel, byStatus), Gender::name),
+          facet(current.ranks, and(byDepartment, byGender, byLevel, byStatus), CompetenceRank::name),
+          facet(current.levels, and(byDepartment, byGender, byRank, byStatus), String::valueOf),
+          facet(current.statuses, and(byDepartment, byGender, byRank, byLevel), Status::name)
+      );
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onDataChanged(DataChangedEvent event) {
+    if (!active) {
+      return;
+    }
+    if (event.type() == DataChangedEvent.DataType.DEPARTMENT) {
+      stale = true;
+    } else if (event.type() == DataChangedEvent.DataType.EMPLOYEE) {
+      pendingEmployeeIds.add(event.employeeId());
+    }
+  }
+
+  private void refreshIfNeeded() {
+    LocalDate today = LocalDate.now();
+    if (active && !stale && pendingEmployeeIds.isEmpty() && today.equals(builtFor)) {
+      return;
+    }
+    // Новые карты строятся в стороне, запросы до замены отвечают по прежним
+    synchronized (refreshLock) {
+      if (!active || stale || !today.equals(builtFor)) {
+        // Флаги сбрасываются до загрузки: изменения во время загрузки будут применены при следующем запросе
+        active = true;
+        stale = false;
+        pendingEmployeeIds.clear();
+        Bitmaps rebuilt;
+        try {
+          rebuilt = rebuild(today);
+        } catch (RuntimeException e) {
+          // Перестройка повторится при следующем запросе
+          stale = true;
+          throw e;
+        }
+        publish(rebuilt, today);
+      } else if (!pendingEmployeeIds.isEmpty()) {
+        List<Long> ids = new ArrayList<>(pendingEmployeeIds);
+        pendingEmployeeIds.removeAll(ids);
+        Bitmaps updated;
+        try {
+          updated = update(ids, today);
+        } catch (RuntimeException e) {
+          // Сотрудники будут перечитаны при следующем запросе
+          pendingEmployeeIds.addAll(ids);
+          throw e;
+        }
+        publish(updated, today);
+      }
+    }
+  }
+
+  private void publish(Bitmaps updated, LocalDate today) {
+    lock.writeLock().lock();
+    try {
+      bitmaps = updated;
+      builtFor = today;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private Bitmaps rebuild(LocalDate today) {
+    long start = System.nanoTime();
+    Bitmaps rebuilt = new Bitmaps();
+    int todayDay = EpochDays.of(today);
+    analyticsQueryRepository.scanEmployeeAttributes(null, row -> rebuilt.add(row, todayDay));
+    rebuilt.runOptimize();
+    log.info("Employee facet index built: {} employees in {} ms",
+        rebuilt.all.getCardinality(), (System.nanoTime() - start) / 1_000_000);
+    return rebuilt;
+  }
+
+  /**
+   * Копия карт с перечитанными сотрудниками: удалить из всех карт и добавить по новым значениям
+   * (удаленные сотрудники запросом не возвращаются и остаются удаленными)
+   */
+  private Bitmaps update(List<Long> employeeIds, LocalDate today) {
+    RoaringBitmap changed = new RoaringBitmap();
+    for (Long id : employeeIds) {
+      changed.add(Math.toIntExact(id));
+    }
+    Bitmaps updated = bitmaps.without(changed);
+    int todayDay = EpochDays.of(today);
+    analyticsQueryRepository.scanEmployeeAttributes(employeeIds, row -> updated.add(row, todayDay));
+    return updated;
+  }
+
+  /**
+   * Битовые карты по значениям атрибутов
+   *
+   * Изменяются только до публикации (перестройка или обновление копии).
+   */
+  private static final class Bitmaps {
+
+    private final RoaringBitmap all;
+    private final Map<Long, RoaringBitmap> departments = new TreeMap<>();
+    private final Map<Gender, RoaringBitmap> genders = new EnumMap<>(Gender.class);
+    private final Map<CompetenceRank, RoaringBitmap> ranks = new EnumMap<>(CompetenceRank.class);
+    private final Map<Integer, RoaringBitmap> levels = new TreeMap<>();
+    private final Map<Status, RoaringBitmap> statuses = new EnumMap<>(Status.class);
+
+    Bitmaps() {
+      this(new RoaringBitmap());
+    }
+
+    private Bitmaps(RoaringBitmap all) {
+      this.all = all;
+    }
+
+    /**
+     * Копия без указанных сотрудников
+     */
+    Bitmaps without(RoaringBitmap removed) {
+      Bitmaps copy = new Bitmaps(RoaringBitmap.andNot(all, removed));
+      departments.forEach((key, bitmap) -> copy.departments.put(key, RoaringBitmap.andNot(bitmap, removed)));
+      genders.forEach((key, bitmap) -> copy.genders.put(key, RoaringBitmap.andNot(bitmap, removed)));
+      ranks.forEach((key, bitmap) -> copy.ranks.put(key, RoaringBitmap.andNot(bitmap, removed)));
+      levels.forEach((key, bitmap) -> copy.levels.put(key, RoaringBitmap.andNot(bitmap, removed)));
+      statuses.forEach((key, bitmap) -> copy.statuses.put(key, RoaringBitmap.andNot(bitmap, removed)));
+      return copy;
+    }
+
+    void add(WorkforceRow row, int todayDay) {
+      int id = Math.toIntExact(row.getId());
+      all.add(id);
+      departments.computeIfAbsent(row.getDepartmentId(), key -> new RoaringBitmap()).add(id);
+      if (row.getGender() != null) {
+        genders.computeIfAbsent(row.getGender(), key -> new RoaringBitmap()).add(id);
+      }
+      if (row.getCompetenceRank() != null) {
+        ranks.computeIfAbsent(row.getCompetenceRank(), key -> new RoaringBitmap()).add(id);
+      }
+      if (row.getCompetenceLevel() != 0) {
+        levels.computeIfAbsent(row.getCompetenceLevel(), key -> new RoaringBitmap()).add(id);
+      }
+      boolean fired = row.getFireDay() != EpochDays.NO_DATE && row.getFireDay() <= todayDay;
+      statuses.computeIfAbsent(fired ? Status.FIRED : Status.ACTIVE, key -> new RoaringBitmap()).add(id);
+    }
+
+    void runOptimize() {
+      all.runOptimize();
+      departments.values().forEach(RoaringBitmap::runOptimize);
+      genders.values().forEach(RoaringBitmap::runOptimize);
+      ranks.values().forEach(RoaringBitmap::runOptimize);
+      levels.values().forEach(RoaringBitmap::runOptimize);
+      statuses.values().forEach(RoaringBitmap::runOptimize);
+    }
+  }
+
+  /**
+   * Карта значения фильтра: null - все сотрудники, неизвестное значение - пустая карта
+   */
+  private static <K> RoaringBitmap filter(Bitmaps current, Map<K, RoaringBitmap> bitmaps, K value) {
+    if (value == null) {
+      return current.all;
+    }
+    RoaringBitmap bitmap = bitmaps.get(value);
+    return bitmap != null ? bitmap : new RoaringBitmap();
+  }
+
+  private static RoaringBitmap and(RoaringBitmap... bitmaps) {
+    RoaringBitmap result = bitmaps[0];
+    for (int i = 1; i < bitmaps.length; i++) {
+      result = RoaringBitmap.and(result, bitmaps[i]);
+    }
+    return result;
+  }
+
+  private static <K> Map<String, Long> facet(Map<K, RoaringBitmap> bitmaps, RoaringBitmap base, Function<K, String> label) {
+    Map<String, Long> counts = new LinkedHashMap<>();
+    bitmaps.forEach((value, bitmap) -> {
+      long count = RoaringBitmap.andCardinality(base, bitmap);
+      if (count > 0) {
+        counts.put(label.apply(value), count);
+      }
+    });
+    return counts;
+  }
+}
@@ -0,0 +1,212 @@
+package com.daria.service.analytics;
+
+import com.daria.dto.EmployeeSuggestionDto;
+import com.daria.event.DataChangedEvent;
+import com.daria.repository.AnalyticsQueryRepository;
+import com.daria.repository.WorkforceRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Индекс подсказок по ФИО сотрудников (GET /employees/suggest)
+ *
+ * ФИО разбивается на слова (по пробелам и дефисам), слова приводятся к нижнему регистру, ё -> е.
+ * Пары (слово, сотрудник) хранятся в массиве, отсортированном по слову и id:
+ * все слова с заданным префиксом идут подряд и находятся бинарным поиском, O(log n + результат).
+ *
+ * Запрос из нескольких слов: кандидаты ищутся по самому длинному слову запроса,
+ * остальные слова должны быть префиксами каких-либо слов ФИО кандидата.
+ *
+ * Обновление (как у HeadcountIndex):
+ * - Индекс строится одним потоковым запросом при первом обращении
+ * - После коммита изменения сотрудника его идентификатор запоминается, перед следующим запросом
+ *   накопленные сотрудники перечитываются одним запросом, их слова сливаются с массивом за O(n)
+ * - Изменения отделов, пропусков и обучений на ФИО не влияют
+ *
+ * Edge cases:
+ * - Пустой префикс - пустой результат
+ * - Сотрудник с несколькими подходящими словами возвращается один раз
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmployeeNameIndex {
+
+  private static final Comparator<Entry> ENTRY_ORDER =
+      Comparator.comparing(Entry::token).thenComparingLong(Entry::id);
+
+  private final AnalyticsQueryRepository analyticsQueryRepository;
+
+  private final Set<Long> pendingEmployeeIds = ConcurrentHashMap.newKeySet();
+  private volatile boolean active;
+  private volatile Index index;
+
+  /**
+   * Слово ФИО сотрудника
+   *
+   * @param fullName ФИО (общий экземпляр для всех слов сотрудника)
+   */
+  private record Entry(String token, long id, String fullName) {}
+
+  /**
+   * Опубликованное состояние индекса (заменяется целиком): пары, отсортированные по слову и id
+   */
+  private record Index(Entry[] entries) {}
+
+  /**
+   * Сотрудники, у которых каждое слово запроса - префикс какого-либо слова ФИО
+   *
+   * @param prefix начало ФИО (одно или несколько слов)
+   * @param limit максимальное количество подсказок
+   * @return подсказки в порядке подходящего слова, затем id
+   */
+  public List<EmployeeSuggestionDto> suggest(String prefix, int limit) {
+    List<String> queryTokens = tokenize(prefix);
+    if (queryTokens.isEmpty()) {
+      return List.of();
+    }
+    refreshIfNeeded();
+    Entry[] entries = index.entries();
+
+    // Самое длинное слово запроса дает меньше всего кандидатов
+    String key = queryTokens.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+    List<EmployeeSuggestionDto> result = new ArrayList<>(Math.min(limit, 16));
+    Set<Long> seen = new HashSet<>();
+    for (int i = lowerBound(entries, key); i < entries.length && result.size() < limit; i++) {
+      Entry entry = entries[i];
+      if (!entry.token().startsWith(key)) {
+        break;
+      }
+      if (seen.add(entry.id()) && (queryTokens.size() == 1 || matchesAll(entry.fullName(), queryTokens))) {
+        result.add(new EmployeeSuggestionDto(entry.id(), entry.fullName()));
+      }
+    }
+    return result;
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onDataChanged(DataChangedEvent event) {
+    if (active && event.type() == DataChangedEvent.DataType.EMPLOYEE) {
+      pendingEmployeeIds.add(event.employeeId());
+    }
+  }
+
+  private void refreshIfNeeded() {
+    if (index != null && pendingEmployeeIds.isEmpty()) {
+      return;
+    }
+    synchronized (this) {
+      if (index == null) {
+        // Флаги сбрасываются до загрузки: изменения во время загрузки будут применены при следующем запросе
+        active = true;
+        pendingEmployeeIds.clear();
+        long start = System.nanoTime();
+        List<Entry> loaded = new ArrayList<>();
+        analyticsQueryRepository.scanEmployeeNames(null, row -> addEntries(loaded, row));
+        Entry[] entries = loaded.toArray(new Entry[0]);
+        Arrays.sort(entries, ENTRY_ORDER);
+        index = new Index(entries);
+        log.info("Employee name index built: {} words in {} ms", entries.length, (System.nanoTime() - start) / 1_000_000);
+      } else if (!pendingEmployeeIds.isEmpty()) {
+        List<Long> ids = new ArrayList<>(pendingEmployeeIds);
+        pendingEmployeeIds.removeAll(ids);
+        List<Entry> changed = new ArrayList<>();
+        try {
+          // Удаленные сотрудники запросом не возвращаются
+          analyticsQueryRepository.scanEmployeeNames(ids, row -> addEntries(changed, row));
+        } catch (RuntimeException e) {
+          // Сотрудники будут перечитаны при следующем запросе
+          pendingEmployeeIds.addAll(ids);
+          throw e;
+        }
+        Entry[] added = changed.toArray(new Entry[0]);
+        Arrays.sort(added, ENTRY_ORDER);
+        index = new Index(merge(index.entries(), new HashSet<>(ids), added));
+      }
+    }
+  }
+
+  /**
+   * Слияние отсортированных массивов: старые слова без перечитанных сотрудников + новые слова
+   */
+  private static Entry[] merge(Entry[] current, Set<Long> removedIds, Entry[] added) {
+    Entry[] merged = new Entry[current.length + added.length];
+    int size = 0;
+    int j = 0;
+    for (Entry entry : current) {
+      if (removedIds.contains(entry.id())) {
+        continue;
+      }
+      while (j < added.length && ENTRY_ORDER.compare(added[j], entry) < 0) {
+        merged[size++] = added[j++];
+      }
+      merged[size++] = entry;
+    }
+    while (j < added.length) {
+      merged[size++] = added[j++];
+    }
+    return size == merged.length ? merged : Arrays.copyOf(merged, size);
+  }
+
+  private static void addEntries(List<Entry> entries, WorkforceRow row) {
+    String fullName = row.getFullName();
+    for (String token : new HashSet<>(tokenize(fullName))) {
+      entries.add(new Entry(token, row.getId(), fullName));
+    }
+  }
+
+  private static boolean matchesAll(String fullName, List<String> queryTokens) {
+    List<String> nameTokens = tokenize(fullName);
+    for (String queryToken : queryTokens) {
+      if (nameTokens.stream().noneMatch(token -> token.startsWith(queryToken))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Слова в нижнем регистре, ё -> е
+   */
+  static List<String> tokenize(String text) {
+    if (text == null || text.isBlank()) {
+      return List.of();
+    }
+    List<String> tokens = new ArrayList<>();
+    for (String word : text.toLowerCase(Locale.ROOT).replace('ё', 'е').split("[\\s\\-]+")) {
+      if (!word.isEmpty()) {
+        tokens.add(word);
+      }
+    }
+    return tokens;
+  }
+
+  /**
+   * Первая позиция, слово которой не меньше key
+   */
+  private static int lowerBound(Entry[] entries, String key) {
+    int low = 0;
+    int high = entries.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (entries[mid].token().compareTo(key) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+}
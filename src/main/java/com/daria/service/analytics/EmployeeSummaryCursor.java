@@ -0,0 +1,65 @@
+package com.daria.service.analytics;
+
+import com.daria.exception.BadRequestException;
+import com.daria.repository.AnalyticsQueryRepository.EmployeeAggregate;
+import com.daria.repository.AnalyticsQueryRepository.SummaryKeyset;
+import com.daria.repository.AnalyticsQueryRepository.SummarySort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Непрозрачный курсор сводки по сотрудникам
+ * 
+ * Содержит сортировку, направление и позицию (значение поля сортировки + id)
+ * последней строки страницы. Формат: base64url("сортировка:направление:id:значение").
+ * Курсор действителен только для той же сортировки и направления, с которыми он выдан.
+ */
+public final class EmployeeSummaryCursor {
+
+  private EmployeeSummaryCursor() {
+  }
+
+  public static String encode(SummarySort sort, boolean descending, EmployeeAggregate last) {
+    String value = switch (sort) {
+      case NAME -> last.fullName();
+      case COMPETENCE -> String.valueOf(last.competenceLevel() != null ? last.competenceLevel() : 0);
+      case ABSENCES -> String.valueOf(last.absences());
+    };
+    String raw = sort.name() + ":" + (descending ? "desc" : "asc") + ":" + last.id() + ":" + value;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Разобрать курсор
+   * 
+   * Edge cases:
+   * - null или пустая строка - первая страница (null)
+   * - поврежденный курсор или курсор другой сортировки - BadRequestException
+   */
+  public static SummaryKeyset decode(String cursor, SummarySort sort, boolean descending) {
+    if (cursor == null || cursor.isBlank()) {
+      return null;
+    }
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+      String[] parts = raw.split(":", 4);
+      if (parts.length != 4) {
+        throw new BadRequestException("Invalid cursor");
+      }
+      if (!parts[0].equals(sort.name()) || !parts[1].equals(descending ? "desc" : "asc")) {
+        throw new BadRequestException("Cursor does not match requested sort order");
+      }
+      long id = Long.parseLong(parts[2]);
+      Object value = switch (sort) {
+        case NAME -> parts[3];
+        case COMPETENCE -> Integer.parseInt(parts[3]);
+        case ABSENCES -> Long.parseLong(parts[3]);
+      };
+      return new SummaryKeyset(value, id);
+    } catch (IllegalArgumentException e) {
+      // Base64 и NumberFormatException
+      throw new BadRequestException("Invalid cursor");
+    }
+  }
+}
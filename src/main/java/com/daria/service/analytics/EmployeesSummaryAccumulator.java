@@ -0,0 +1,30 @@
+package com.daria.service.analytics;
+
+import com.daria.dto.AnalyticsDto;
+import com.daria.repository.WorkforceRow;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Сводка по каждому сотруднику: ФИО, уровень компетенции, наличие обучений, количество пропусков
+ */
+public class EmployeesSummaryAccumulator implements AnalyticsAccumulator<List<AnalyticsDto.EmployeeSummary>> {
+
+  private final List<AnalyticsDto.EmployeeSummary> rows = new ArrayList<>();
+
+  @Override
+  public void accept(WorkforceRow row) {
+    rows.add(new AnalyticsDto.EmployeeSummary(
+        row.getFullName() != null ? row.getFullName() : "Не указано",
+        row.getCompetenceLevel(),
+        row.isTrained() ? "Да" : "Нет",
+        row.getAbsences()
+    ));
+  }
+
+  @Override
+  public List<AnalyticsDto.EmployeeSummary> result() {
+    return rows;
+  }
+}
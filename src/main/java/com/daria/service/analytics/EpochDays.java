@@ -0,0 +1,60 @@
+package com.daria.service.analytics;
+
+import com.daria.repository.WorkforceRow;
+
+import java.time.LocalDate;
+
+/**
+ * Арифметика дат в днях эпохи без создания объектов LocalDate
+ * 
+ * packed-представление совпадает с тем, что использует LocalDate.until:
+ * (год * 12 + месяц - 1) * 32 + день, поэтому возраст в полных годах
+ * считается так же, как ChronoUnit.YEARS.between.
+ */
+public final class EpochDays {
+
+  public static final int NO_DATE = WorkforceRow.NO_DATE;
+
+  private EpochDays() {
+  }
+
+  public static int of(LocalDate date) {
+    return date != null ? (int) date.toEpochDay() : NO_DATE;
+  }
+
+  /**
+   * Упакованная дата: (год * 12 + месяц - 1) * 32 + день
+   * 
+   * Алгоритм civil_from_days (H. Hinnant) для пролептического григорианского календаря.
+   */
+  public static int packed(int epochDay) {
+    long z = epochDay + 719468L;
+    long era = Math.floorDiv(z, 146097L);
+    long doe = z - era * 146097L;
+    long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+    long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+    long mp = (5 * doy + 2) / 153;
+    int day = (int) (doy - (153 * mp + 2) / 5 + 1);
+    int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+    long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+    return (int) ((year * 12 + month - 1) * 32 + day);
+  }
+
+  /**
+   * Индекс месяца: год * 12 + месяц - 1
+   */
+  public static int monthIndex(int epochDay) {
+    return Math.floorDiv(packed(epochDay), 32);
+  }
+
+  public static int monthIndex(LocalDate date) {
+    return date.getYear() * 12 + date.getMonthValue() - 1;
+  }
+
+  /**
+   * Количество полных лет между датами (как ChronoUnit.YEARS.between)
+   */
+  public static int yearsBetween(int fromPacked, int toPacked) {
+    return (toPacked - fromPacked) / 32 / 12;
+  }
+}
@@ -0,0 +1,32 @@
+package com.daria.service.analytics;
+
+import com.daria.repository.WorkforceRow;
+
+/**
+ * Количество уволенных в периоде (будущие даты увольнения не учитываются)
+ */
+public class FiredCountAccumulator implements AnalyticsAccumulator<Long> {
+
+  private final AnalyticsContext context;
+  private long count;
+
+  public FiredCountAccumulator(AnalyticsContext context) {
+    this.context = context;
+  }
+
+  @Override
+  public void accept(WorkforceRow row) {
+    int fire = row.getFireDay();
+    if (fire == EpochDays.NO_DATE || fire > context.getTodayDay()) {
+      return;
+    }
+    if (!context.hasPeriod() || fire >= context.getPeriodStartDay()) {
+      count++;
+    }
+  }
+
+  @Override
+  public Long result() {
+    return count;
+  }
+}
@@ -0,0 +1,36 @@
+package com.daria.service.analytics;
+
+import com.daria.dto.AnalyticsDto;
+import com.daria.entity.enums.Gender;
+import com.daria.repository.WorkforceRow;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Распределение по полу (в результат попадают только встретившиеся значения)
+ */
+public class GenderDistributionAccumulator implements AnalyticsAccumulator<List<AnalyticsDto.ChartData>> {
+
+  private static final Gender[] GENDERS = Gender.values();
+
+  private final long[] counts = new long[GENDERS.length];
+
+  @Override
+  public void accept(WorkforceRow row) {
+    if (row.getGender() != null) {
+      counts[row.getGender().ordinal()]++;
+    }
+  }
+
+  @Override
+  public List<AnalyticsDto.ChartData> result() {
+    List<AnalyticsDto.ChartData> result = new ArrayList<>(GENDERS.length);
+    for (Gender gender : GENDERS) {
+      if (counts[gender.ordinal()] > 0) {
+        result.add(new AnalyticsDto.ChartData(AnalyticsLabels.gender(gender), counts[gender.ordinal()]));
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,233 @@
+package com.daria.service.analytics;
+
+import com.daria.event.DataChangedEvent;
+import com.daria.repository.AnalyticsQueryRepository;
+import com.daria.repository.WorkforceRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Индекс периодов работы сотрудников для численности на дату
+ *
+ * Сотрудник работает в день D, если hire_date <= D и (fire_date пуста или fire_date > D):
+ * в день увольнения сотрудник уже считается уволенным, как в KPI "уволенные".
+ *
+ * Для всех сотрудников и для каждого отдела хранятся отсортированные массивы дней приема
+ * и дней увольнения. Численность на день D = (количество приемов <= D) - (количество увольнений <= D),
+ * оба количества - бинарный поиск, то есть O(log n) на дату.
+ *
+ * Обновление (как у WorkforceSnapshot):
+ * - Индекс строится одним потоковым запросом при первом обращении
+ * - После коммита изменения сотрудника его идентификатор запоминается, перед следующим запросом
+ *   накопленные сотрудники перечитываются одним запросом, отсортированные массивы пересобираются в памяти
+ * - Изменение отдела - полная перестройка (сотрудники удаленного отдела переходят в "без отдела")
+ *
+ * Edge cases:
+ * - Дата увольнения не позже даты приема - сотрудник не учитывается ни в один день
+ * - Сотрудники без отдела учитываются только в численности по всем отделам
+ * - Ошибка чтения не меняет индекс: периоды загружаются в отдельную карту и заменяют текущие
+ *   только после успешного запроса, перестройка или сотрудники остаются в очереди до следующего запроса
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HeadcountIndex {
+
+  private final AnalyticsQueryRepository analyticsQueryRepository;
+
+  private final Set<Long> pendingEmployeeIds = ConcurrentHashMap.newKeySet();
+  private volatile boolean active;
+  private volatile boolean stale;
+  private volatile Index index;
+
+  // Периоды работы по сотрудникам, изменяются только под блокировкой
+  private Map<Long, Span> spans = new HashMap<>();
+
+  private record Span(long departmentId, int hireDay, int fireDay) {}
+
+  /**
+   * Опубликованное состояние индекса (заменяется целиком)
+   */
+  private record Index(Intervals all, Map<Long, Intervals> byDepartment) {}
+
+  /**
+   * Численность на дату
+   *
+   * @param departmentId отдел (null = все отделы)
+   */
+  public long headcount(Long departmentId, LocalDate date) {
+    return intervals(departmentId).headcount(EpochDays.of(date));
+  }
+
+  /**
+   * Численность на каждую из дат (один снимок индекса на весь ряд)
+   *
+   * @param departmentId отдел (null = все отделы)
+   */
+  public long[] headcount(Long departmentId, List<LocalDate> dates) {
+    Intervals intervals = intervals(departmentId);
+    long[] result = new long[dates.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = intervals.headcount(EpochDays.of(dates.get(i)));
+    }
+    return result;
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onDataChanged(DataChangedEvent event) {
+    if (!active) {
+      return;
+    }
+    if (event.type() == DataChangedEvent.DataType.DEPARTMENT) {
+      stale = true;
+    } else if (event.type() == DataChangedEvent.DataType.EMPLOYEE) {
+      pendingEmployeeIds.add(event.employeeId());
+    }
+  }
+
+  private Intervals intervals(Long departmentId) {
+    refreshIfNeeded();
+    Index current = index;
+    if (departmentId == null) {
+      return current.all();
+    }
+    return current.byDepartment().getOrDefault(departmentId, Intervals.EMPTY);
+  }
+
+  private void refreshIfNeeded() {
+    if (index != null && !stale && pendingEmployeeIds.isEmpty()) {
+      return;
+    }
+    synchronized (this) {
+      if (index == null || stale) {
+        // Флаги сбрасываются до загрузки: изменения во время загрузки будут применены при следующем запросе
+        active = true;
+        stale = false;
+        pendingEmployeeIds.clear();
+        long start = System.nanoTime();
+        Map<Long, Span> loaded = new HashMap<>();
+        try {
+          analyticsQueryRepository.scanEmployeeAttributes(null, row -> put(loaded, row));
+        } catch (RuntimeException e) {
+          // Перестройка повторится при следующем запросе, до тех пор отвечает прежний индекс
+          stale = true;
+          throw e;
+        }
+        spans = loaded;
+        publish();
+        log.info("Headcount index built: {} employees in {} ms", spans.size(), (System.nanoTime() - start) / 1_000_000);
+      } else if (!pendingEmployeeIds.isEmpty()) {
+        List<Long> ids = new ArrayList<>(pendingEmployeeIds);
+        pendingEmployeeIds.removeAll(ids);
+        Map<Long, Span> loaded = new HashMap<>();
+        try {
+          analyticsQueryRepository.scanEmployeeAttributes(ids, row -> put(loaded, row));
+        } catch (RuntimeException e) {
+          // Сотрудники будут перечитаны при следующем запросе
+          pendingEmployeeIds.addAll(ids);
+          throw e;
+        }
+        // Удаленные сотрудники запросом не возвращаются
+        ids.forEach(spans::remove);
+        spans.putAll(loaded);
+        publish();
+      }
+    }
+  }
+
+  private static void put(Map<Long, Span> target, WorkforceRow row) {
+    target.put(row.getId(), new Span(row.getDepartmentId(), row.getHireDay(), row.getFireDay()));
+  }
+
+  /**
+   * Пересобрать отсортированные массивы и опубликовать их одной записью volatile-поля
+   */
+  private void publish() {
+    Map<Long, IntervalsBuilder> builders = new HashMap<>();
+    IntervalsBuilder allBuilder = new IntervalsBuilder();
+    for (Span span : spans.values()) {
+      if (span.hireDay() == EpochDays.NO_DATE
+          || (span.fireDay() != EpochDays.NO_DATE && span.fireDay() <= span.hireDay())) {
+        continue;
+      }
+      allBuilder.add(span);
+      if (span.departmentId() != WorkforceRow.NO_DEPARTMENT) {
+        builders.computeIfAbsent(span.departmentId(), key -> new IntervalsBuilder()).add(span);
+      }
+    }
+
+    Map<Long, Intervals> departments = new HashMap<>(builders.size() * 2);
+    builders.forEach((id, builder) -> departments.put(id, builder.build()));
+    index = new Index(allBuilder.build(), departments);
+  }
+
+  /**
+   * Отсортированные дни приема и увольнения
+   */
+  private record Intervals(int[] hires, int[] fires) {
+
+    static final Intervals EMPTY = new Intervals(new int[0], new int[0]);
+
+    long headcount(int day) {
+      return countAtMost(hires, day) - countAtMost(fires, day);
+    }
+
+    /**
+     * Количество элементов <= value в отсортированном массиве
+     */
+    private static int countAtMost(int[] sorted, int value) {
+      int low = 0;
+      int high = sorted.length;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (sorted[mid] <= value) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+  }
+
+  private static final class IntervalsBuilder {
+
+    private int[] hires = new int[16];
+    private int[] fires = new int[16];
+    private int hireCount;
+    private int fireCount;
+
+    void add(Span span) {
+      if (hireCount == hires.length) {
+        hires = Arrays.copyOf(hires, hireCount * 2);
+      }
+      hires[hireCount++] = span.hireDay();
+      if (span.fireDay() != EpochDays.NO_DATE) {
+        if (fireCount == fires.length) {
+          fires = Arrays.copyOf(fires, fireCount * 2);
+        }
+        fires[fireCount++] = span.fireDay();
+      }
+    }
+
+    Intervals build() {
+      int[] sortedHires = Arrays.copyOf(hires, hireCount);
+      int[] sortedFires = Arrays.copyOf(fires, fireCount);
+      Arrays.sort(sortedHires);
+      Arrays.sort(sortedFires);
+      return new Intervals(sortedHires, sortedFires);
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package com.daria.service.analytics;
+
+import com.daria.entity.Employee;
+import com.daria.event.DataVersion;
+import com.daria.repository.EmployeeRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Поддержка помесячных итогов приемов и увольнений (employee_monthly_rollup)
+ * 
+ * - Инкрементально: EmployeeService/DepartmentService вызывают методы в своей транзакции,
+ *   итоги меняются атомарно вместе с сотрудником
+ * - Полный пересчет: по расписанию (app.analytics.rollup.rebuild-cron) и через админский API,
+ *   исправляет расхождения после прямых изменений в БД
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HeadcountRollupService {
+
+  private final EmployeeRollupRepository employeeRollupRepository;
+  private final DataVersion dataVersion;
+
+  /**
+   * Поля сотрудника, от которых зависят итоги
+   */
+  public record Snapshot(Long departmentId, LocalDate hireDate, LocalDate fireDate) {
+
+    public static Snapshot of(Employee employee) {
+      return new Snapshot(
+          employee.getDepartment() != null ? employee.getDepartment().getId() : null,
+          employee.getHireDate(),
+          employee.getFireDate()
+      );
+    }
+  }
+
+  /**
+   * Учесть изменение сотрудника
+   * 
+   * @param before состояние до изменения (null - сотрудник создан)
+   * @param after состояние после изменения (null - сотрудник удален)
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void onEmployeeChanged(Snapshot before, Snapshot after) {
+    if (Objects.equals(before, after)) {
+      return;
+    }
+
+    // (отдел, месяц) -> {delta hires, delta fires}; изменения одного месяца схлопываются
+    Map<Cell, int[]> deltas = new HashMap<>();
+    collect(deltas, before, -1);
+    collect(deltas, after, 1);
+
+    deltas.forEach((cell, delta) -> {
+      if (delta[0] != 0 || delta[1] != 0) {
+        employeeRollupRepository.add(cell.departmentId(), cell.month(), delta[0], delta[1]);
+      }
+    });
+  }
+
+  /**
+   * Учесть удаление отдела: сотрудники остаются без отдела
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void onDepartmentDeleted(Long departmentId) {
+    employeeRollupRepository.moveToNoDepartment(departmentId);
+  }
+
+  /**
+   * Полный пересчет итогов по таблице employees
+   * 
+   * После коммита увеличивается версия данных (ETag аналитики).
+   * 
+   * @return количество строк итогов
+   */
+  @Scheduled(cron = "${app.analytics.rollup.rebuild-cron:0 30 3 * * *}")
+  @Transactional
+  public int rebuild() {
+    long start = System.nanoTime();
+    int rows = employeeRollupRepository.rebuild();
+    dataVersion.bump();
+    log.info("Employee monthly rollup rebuilt: {} rows in {} ms", rows, (System.nanoTime() - start) / 1_000_000);
+    return rows;
+  }
+
+  private record Cell(long departmentId, YearMonth month) {}
+
+  private static void collect(Map<Cell, int[]> deltas, Snapshot snapshot, int sign) {
+    if (snapshot == null) {
+      return;
+    }
+    long departmentId = snapshot.departmentId() != null ? snapshot.departmentId() : EmployeeRollupRepository.NO_DEPARTMENT;
+    if (snapshot.hireDate() != null) {
+      deltas.computeIfAbsent(new Cell(departmentId, YearMonth.from(snapshot.hireDate())), k -> new int[2])[0] += sign;
+    }
+    if (snapshot.fireDate() != null) {
+      deltas.computeIfAbsent(new Cell(departmentId, YearMonth.from(snapshot.fireDate())), k -> new int[2])[1] += sign;
+    }
+  }
+}
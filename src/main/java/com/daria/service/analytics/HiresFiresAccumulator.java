@@ -0,0 +1,60 @@
+package com.daria.service.analytics;
+
+import com.daria.dto.AnalyticsDto;
+import com.daria.repository.WorkforceRow;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Приемы и увольнения по месяцам
+ * 
+ * Диапазон: от начала периода (без периода - с начала текущего года) до текущего месяца.
+ * Даты до начала периода и будущие даты не учитываются.
+ */
+public class HiresFiresAccumulator implements AnalyticsAccumulator<List<AnalyticsDto.HiresFiresData>> {
+
+  private final AnalyticsContext context;
+  private final int fromDay;
+  private final int firstMonth;
+  private final long[] hires;
+  private final long[] fires;
+
+  public HiresFiresAccumulator(AnalyticsContext context) {
+    this.context = context;
+    LocalDate today = context.getToday();
+    LocalDate from = context.getPeriodStart() != null ? context.getPeriodStart() : LocalDate.of(today.getYear(), 1, 1);
+    this.fromDay = EpochDays.of(from);
+    this.firstMonth = EpochDays.monthIndex(from);
+    int months = EpochDays.monthIndex(today) - firstMonth + 1;
+    this.hires = new long[Math.max(months, 0)];
+    this.fires = new long[Math.max(months, 0)];
+  }
+
+  @Override
+  public void accept(WorkforceRow row) {
+    count(row.getHireDay(), hires);
+    count(row.getFireDay(), fires);
+  }
+
+  private void count(int day, long[] buckets) {
+    if (day == EpochDays.NO_DATE || day < fromDay || day > context.getTodayDay()) {
+      return;
+    }
+    buckets[EpochDays.monthIndex(day) - firstMonth]++;
+  }
+
+  @Override
+  public List<AnalyticsDto.HiresFiresData> result() {
+    int currentYear = context.getToday().getYear();
+    List<AnalyticsDto.HiresFiresData> result = new ArrayList<>(hires.length);
+    for (int i = 0; i < hires.length; i++) {
+      int monthIndex = firstMonth + i;
+      YearMonth month = YearMonth.of(Math.floorDiv(monthIndex, 12), Math.floorMod(monthIndex, 12) + 1);
+      result.add(new AnalyticsDto.HiresFiresData(AnalyticsLabels.month(month, currentYear), hires[i], fires[i]));
+    }
+    return result;
+  }
+}
@@ -0,0 +1,60 @@
+package com.daria.service.analytics;
+
+import com.daria.dto.AnalyticsDto;
+import com.daria.repository.AnalyticsQueryRepository;
+import com.daria.repository.AnalyticsQueryRepository.EmployeeFilter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Однопроходный расчет аналитики (app.analytics.engine = memory)
+ * 
+ * Сотрудники вместе с агрегатами пропусков и обучений читаются одним потоковым
+ * запросом и передаются в AnalyticsDtoAccumulator без создания сущностей.
+ * Справочник отделов читается, только если запрошены секции по отделам.
+ * 
+ * Источник строк: потоковый запрос (engine = memory) или колоночный снимок
+ * WorkforceSnapshot (engine = snapshot), фильтр снимка применяется через AnalyticsContext.includes.
+ */
+@Component
+@RequiredArgsConstructor
+public class InMemoryAnalyticsEngine {
+
+  private final AnalyticsQueryRepository analyticsQueryRepository;
+  private final WorkforceSnapshot workforceSnapshot;
+
+  public AnalyticsDto compute(Long departmentId, LocalDate periodStart, LocalDate today) {
+    return compute(departmentId, periodStart, today, AnalyticsSection.all());
+  }
+
+  public AnalyticsDto compute(Long departmentId, LocalDate periodStart, LocalDate today, Set<AnalyticsSection> sections) {
+    return compute(departmentId, periodStart, today, sections, false);
+  }
+
+  /**
+   * @param fromSnapshot читать сотрудников из колоночного снимка вместо запроса к БД
+   */
+  public AnalyticsDto compute(Long departmentId, LocalDate periodStart, LocalDate today, Set<AnalyticsSection> sections,
+      boolean fromSnapshot) {
+    boolean needsDepartments = sections.contains(AnalyticsSection.DEPARTMENTS)
+        || sections.contains(AnalyticsSection.DEPARTMENTS_SUMMARY);
+    AnalyticsContext context = new AnalyticsContext(
+        departmentId, periodStart, today,
+        needsDepartments ? analyticsQueryRepository.findDepartments() : List.of());
+    AnalyticsDtoAccumulator accumulator = new AnalyticsDtoAccumulator(context, sections);
+    if (!accumulator.needsRows()) {
+      // Например, только absenceDays: незапрошенные секции не вычисляются
+      return accumulator.result();
+    }
+    if (fromSnapshot) {
+      workforceSnapshot.scan(context, accumulator::accept);
+    } else {
+      analyticsQueryRepository.scanWorkforce(new EmployeeFilter(departmentId, periodStart, today), accumulator::accept);
+    }
+    return accumulator.result();
+  }
+}
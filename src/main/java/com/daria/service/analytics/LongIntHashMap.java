@@ -0,0 +1,94 @@
+package com.daria.service.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Хэш-таблица long -> int с открытой адресацией
+ * 
+ * Используется в горячих циклах аналитики вместо HashMap<Long, Integer>,
+ * чтобы не создавать объекты-обертки на каждый поиск.
+ * Ключ Long.MIN_VALUE зарезервирован под пустую ячейку.
+ */
+public final class LongIntHashMap {
+
+  public static final int MISSING = -1;
+
+  private static final long EMPTY = Long.MIN_VALUE;
+
+  private long[] keys;
+  private int[] values;
+  private int size;
+
+  public LongIntHashMap(int expectedSize) {
+    int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+    keys = new long[capacity];
+    values = new int[capacity];
+    Arrays.fill(keys, EMPTY);
+  }
+
+  /**
+   * Значение по ключу или MISSING, если ключа нет
+   */
+  public int get(long key) {
+    int mask = keys.length - 1;
+    int i = mix(key) & mask;
+    while (keys[i] != EMPTY) {
+      if (keys[i] == key) {
+        return values[i];
+      }
+      i = (i + 1) & mask;
+    }
+    return MISSING;
+  }
+
+  public void put(long key, int value) {
+    if (key == EMPTY) {
+      throw new IllegalArgumentException("Key " + EMPTY + " is reserved");
+    }
+    if ((size + 1) * 2 > keys.length) {
+      resize();
+    }
+    int mask = keys.length - 1;
+    int i = mix(key) & mask;
+    while (keys[i] != EMPTY) {
+      if (keys[i] == key) {
+        values[i] = value;
+        return;
+      }
+      i = (i + 1) & mask;
+    }
+    keys[i] = key;
+    values[i] = value;
+    size++;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Примерный объем памяти в байтах
+   */
+  public long memoryBytes() {
+    return (long) keys.length * Long.BYTES + (long) values.length * Integer.BYTES;
+  }
+
+  private void resize() {
+    long[] oldKeys = keys;
+    int[] oldValues = values;
+    keys = new long[oldKeys.length * 2];
+    values = new int[oldValues.length * 2];
+    Arrays.fill(keys, EMPTY);
+    size = 0;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != EMPTY) {
+        put(oldKeys[i], oldValues[i]);
+      }
+    }
+  }
+
+  private static int mix(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+}
@@ -0,0 +1,37 @@
+package com.daria.service.analytics;
+
+import com.daria.dto.AnalyticsDto;
+import com.daria.entity.enums.CompetenceRank;
+import com.daria.repository.WorkforceRow;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Распределение по рангам компетенции (в результат попадают только встретившиеся значения)
+ */
+public class RankDistributionAccumulator implements AnalyticsAccumulator<List<AnalyticsDto.ChartData>> {
+
+  private static final CompetenceRank[] RANKS = CompetenceRank.values();
+
+  /** Последняя ячейка - ранг не указан */
+  private final long[] counts = new long[RANKS.length + 1];
+
+  @Override
+  public void accept(WorkforceRow row) {
+    CompetenceRank rank = row.getCompetenceRank();
+    counts[rank != null ? rank.ordinal() : RANKS.length]++;
+  }
+
+  @Override
+  public List<AnalyticsDto.ChartData> result() {
+    List<AnalyticsDto.ChartData> result = new ArrayList<>(counts.length);
+    for (int i = 0; i < counts.length; i++) {
+      if (counts[i] > 0) {
+        CompetenceRank rank = i < RANKS.length ? RANKS[i] : null;
+        result.add(new AnalyticsDto.ChartData(AnalyticsLabels.rank(rank), counts[i]));
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,35 @@
+package com.daria.service.analytics;
+
+import com.daria.repository.WorkforceRow;
+
+/**
+ * Количество сотрудников, прошедших обучение в периоде
+ * 
+ * Учитываются только обучения с датой начала; если период указан,
+ * дата начала должна быть не раньше начала периода.
+ */
+public class TrainedCountAccumulator implements AnalyticsAccumulator<Long> {
+
+  private final AnalyticsContext context;
+  private long count;
+
+  public TrainedCountAccumulator(AnalyticsContext context) {
+    this.context = context;
+  }
+
+  @Override
+  public void accept(WorkforceRow row) {
+    int lastTraining = row.getLastTrainingDay();
+    if (lastTraining == EpochDays.NO_DATE) {
+      return;
+    }
+    if (!context.hasPeriod() || lastTraining >= context.getPeriodStartDay()) {
+      count++;
+    }
+  }
+
+  @Override
+  public Long result() {
+    return count;
+  }
+}
@@ -0,0 +1,365 @@
+package com.daria.service.analytics;
+
+import com.daria.dto.SnapshotStatsDto;
+import com.daria.entity.enums.CompetenceRank;
+import com.daria.entity.enums.Gender;
+import com.daria.event.DataChangedEvent;
+import com.daria.repository.AnalyticsQueryRepository;
+import com.daria.repository.AnalyticsQueryRepository.EmployeeFilter;
+import com.daria.repository.WorkforceRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Колоночный снимок сотрудников в памяти (app.analytics.engine = snapshot)
+ *
+ * Каждое поле сотрудника хранится в отдельном примитивном массиве: даты - дни эпохи (int),
+ * отдел - int, пол и ранг - порядковый номер enum (byte), агрегаты пропусков и обучений - int.
+ * Обход снимка не создает объектов: строки по очереди копируются в один WorkforceRow
+ * и передаются тем же аккумуляторам, что и при потоковом запросе.
+ *
+ * Обновление:
+ * - Снимок загружается одним потоковым запросом при первом обращении
+ * - После коммита изменения сотрудника, пропуска или обучения идентификатор сотрудника
+ *   запоминается, перед следующим обходом все накопленные сотрудники перечитываются одним запросом
+ *   и заменяются в копии массивов (copy-on-write, читатели продолжают работать со старой копией)
+ * - Изменение отдела помечает снимок устаревшим (сотрудники удаленного отдела
+ *   переходят в "без отдела"), перед следующим обходом он загружается заново
+ *
+ * Edge cases:
+ * - До первой загрузки события игнорируются (загрузка прочитает актуальные данные)
+ * - Удаленный сотрудник не возвращается запросом и удаляется из снимка
+ * - Ошибка чтения не теряет изменений: сотрудники возвращаются в очередь, а после неудачной
+ *   загрузки снимок остается устаревшим, оба запроса повторяются перед следующим обходом
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WorkforceSnapshot {
+
+  private static final Gender[] GENDERS = Gender.values();
+  private static final CompetenceRank[] RANKS = CompetenceRank.values();
+  private static final byte NO_ENUM = -1;
+  private static final int NO_DEPARTMENT = 0;
+
+  private final AnalyticsQueryRepository analyticsQueryRepository;
+
+  private volatile Columns columns;
+  /** Снимок используется: с первой загрузки события запоминаются */
+  private volatile boolean active;
+  private volatile boolean stale;
+  private final Set<Long> pendingEmployeeIds = ConcurrentHashMap.newKeySet();
+  private volatile Instant loadedAt;
+  private volatile long refreshes;
+
+  /**
+   * Обойти сотрудников, прошедших фильтр контекста (отдел и период)
+   *
+   * В consumer передается один и тот же экземпляр WorkforceRow.
+   */
+  public void scan(AnalyticsContext context, Consumer<WorkforceRow> consumer) {
+    Columns current = current();
+    WorkforceRow row = new WorkforceRow();
+    for (int i = 0; i < current.size; i++) {
+      current.read(i, row);
+      if (context.includes(row)) {
+        consumer.accept(row);
+      }
+    }
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onDataChanged(DataChangedEvent event) {
+    if (!active) {
+      return;
+    }
+    if (event.type() == DataChangedEvent.DataType.DEPARTMENT) {
+      stale = true;
+    } else if (event.employeeId() != null) {
+      pendingEmployeeIds.add(event.employeeId());
+    }
+  }
+
+  /**
+   * Размер снимка: количество сотрудников и примерный объем памяти
+   */
+  public SnapshotStatsDto getStats() {
+    Columns current = columns;
+    if (current == null) {
+      return new SnapshotStatsDto(false, 0, 0, 0.0, null, refreshes);
+    }
+    long bytes = current.memoryBytes();
+    return new SnapshotStatsDto(
+        true,
+        current.size,
+        bytes,
+        current.size > 0 ? (double) bytes / current.size : 0.0,
+        loadedAt,
+        refreshes
+    );
+  }
+
+  private Columns current() {
+    Columns current = columns;
+    if (current != null && !stale && pendingEmployeeIds.isEmpty()) {
+      return current;
+    }
+    synchronized (this) {
+      if (columns == null || stale) {
+        // Флаги сбрасываются до загрузки: изменения во время загрузки будут применены при следующем обходе
+        active = true;
+        stale = false;
+        pendingEmployeeIds.clear();
+        try {
+          columns = load();
+        } catch (RuntimeException e) {
+          stale = true;
+          throw e;
+        }
+        loadedAt = Instant.now();
+      } else if (!pendingEmployeeIds.isEmpty()) {
+        List<Long> ids = new ArrayList<>(pendingEmployeeIds);
+        pendingEmployeeIds.removeAll(ids);
+        try {
+          columns = refresh(columns, ids);
+        } catch (RuntimeException e) {
+          // Сотрудники будут перечитаны при следующем обходе
+          pendingEmployeeIds.addAll(ids);
+          throw e;
+        }
+        refreshes++;
+      }
+      return columns;
+    }
+  }
+
+  private Columns load() {
+    long start = System.nanoTime();
+    Columns loaded = new Columns(1024);
+    analyticsQueryRepository.scanWorkforce(allEmployees(), null, loaded::append);
+    log.info("Workforce snapshot loaded: {} employees, {} bytes in {} ms",
+        loaded.size, loaded.memoryBytes(), (System.nanoTime() - start) / 1_000_000);
+    return loaded;
+  }
+
+  /**
+   * Копия снимка, в которой перечитанные сотрудники заменены, новые добавлены в конец,
+   * а отсутствующие в БД удалены
+   */
+  private Columns refresh(Columns source, List<Long> employeeIds) {
+    Columns updated = source.copy();
+    LongIntHashMap changed = new LongIntHashMap(employeeIds.size());
+    for (Long id : employeeIds) {
+      changed.put(id, 0);
+    }
+
+    analyticsQueryRepository.scanWorkforce(allEmployees(), employeeIds, row -> {
+      changed.put(row.getId(), 1);
+      int index = updated.indexOf(row.getId());
+      if (index != LongIntHashMap.MISSING) {
+        updated.write(index, row);
+      } else {
+        updated.append(row);
+      }
+    });
+
+    for (Long id : employeeIds) {
+      if (changed.get(id) == 0) {
+        updated.remove(id);
+      }
+    }
+    return updated;
+  }
+
+  private static EmployeeFilter allEmployees() {
+    return new EmployeeFilter(null, null, LocalDate.now());
+  }
+
+  /**
+   * Колонки снимка
+   *
+   * Изменяются только до публикации (загрузка или обновление копии),
+   * после присваивания полю columns только читаются.
+   */
+  private static final class Columns {
+
+    private int size;
+    private long[] ids;
+    private String[] fullNames;
+    private int[] departmentIds;
+    private int[] birthDays;
+    private int[] hireDays;
+    private int[] fireDays;
+    private int[] lastTrainingDays;
+    private int[] absences;
+    private int[] validAbsences;
+    private byte[] genders;
+    private byte[] ranks;
+    private byte[] competenceLevels;
+    private boolean[] trained;
+    private LongIntHashMap index;
+
+    Columns(int capacity) {
+      ids = new long[capacity];
+      fullNames = new String[capacity];
+      departmentIds = new int[capacity];
+      birthDays = new int[capacity];
+      hireDays = new int[capacity];
+      fireDays = new int[capacity];
+      lastTrainingDays = new int[capacity];
+      absences = new int[capacity];
+      validAbsences = new int[capacity];
+      genders = new byte[capacity];
+      ranks = new byte[capacity];
+      competenceLevels = new byte[capacity];
+      trained = new boolean[capacity];
+      index = new LongIntHashMap(capacity);
+    }
+
+    Columns copy() {
+      Columns copy = new Columns(0);
+      copy.size = size;
+      copy.ids = Arrays.copyOf(ids, ids.length);
+      copy.fullNames = Arrays.copyOf(fullNames, fullNames.length);
+      copy.departmentIds = Arrays.copyOf(departmentIds, departmentIds.length);
+      copy.birthDays = Arrays.copyOf(birthDays, birthDays.length);
+      copy.hireDays = Arrays.copyOf(hireDays, hireDays.length);
+      copy.fireDays = Arrays.copyOf(fireDays, fireDays.length);
+      copy.lastTrainingDays = Arrays.copyOf(lastTrainingDays, lastTrainingDays.length);
+      copy.absences = Arrays.copyOf(absences, absences.length);
+      copy.validAbsences = Arrays.copyOf(validAbsences, validAbsences.length);
+      copy.genders = Arrays.copyOf(genders, genders.length);
+      copy.ranks = Arrays.copyOf(ranks, ranks.length);
+      copy.competenceLevels = Arrays.copyOf(competenceLevels, competenceLevels.length);
+      copy.trained = Arrays.copyOf(trained, trained.length);
+      copy.reindex();
+      return copy;
+    }
+
+    int indexOf(long id) {
+      return index.get(id);
+    }
+
+    void append(WorkforceRow row) {
+      if (size == ids.length) {
+        grow();
+      }
+      index.put(row.getId(), size);
+      write(size++, row);
+    }
+
+    void write(int i, WorkforceRow row) {
+      ids[i] = row.getId();
+      fullNames[i] = row.getFullName();
+      departmentIds[i] = row.getDepartmentId() == WorkforceRow.NO_DEPARTMENT
+          ? NO_DEPARTMENT : Math.toIntExact(row.getDepartmentId());
+      birthDays[i] = row.getBirthDay();
+      hireDays[i] = row.getHireDay();
+      fireDays[i] = row.getFireDay();
+      lastTrainingDays[i] = row.getLastTrainingDay();
+      absences[i] = Math.toIntExact(row.getAbsences());
+      validAbsences[i] = Math.toIntExact(row.getValidAbsences());
+      genders[i] = row.getGender() != null ? (byte) row.getGender().ordinal() : NO_ENUM;
+      ranks[i] = row.getCompetenceRank() != null ? (byte) row.getCompetenceRank().ordinal() : NO_ENUM;
+      competenceLevels[i] = (byte) row.getCompetenceLevel();
+      trained[i] = row.isTrained();
+    }
+
+    void read(int i, WorkforceRow row) {
+      row.setId(ids[i]);
+      row.setFullName(fullNames[i]);
+      row.setDepartmentId(departmentIds[i] == NO_DEPARTMENT ? WorkforceRow.NO_DEPARTMENT : departmentIds[i]);
+      row.setBirthDay(birthDays[i]);
+      row.setHireDay(hireDays[i]);
+      row.setFireDay(fireDays[i]);
+      row.setLastTrainingDay(lastTrainingDays[i]);
+      row.setAbsences(absences[i]);
+      row.setValidAbsences(validAbsences[i]);
+      row.setGender(genders[i] != NO_ENUM ? GENDERS[genders[i]] : null);
+      row.setCompetenceRank(ranks[i] != NO_ENUM ? RANKS[ranks[i]] : null);
+      row.setCompetenceLevel(competenceLevels[i]);
+      row.setTrained(trained[i]);
+    }
+
+    /**
+     * Удаление со сдвигом хвоста: порядок по идентификаторам сохраняется
+     */
+    void remove(long id) {
+      int i = index.get(id);
+      if (i == LongIntHashMap.MISSING) {
+        return;
+      }
+      int tail = size - i - 1;
+      System.arraycopy(ids, i + 1, ids, i, tail);
+      System.arraycopy(fullNames, i + 1, fullNames, i, tail);
+      System.arraycopy(departmentIds, i + 1, departmentIds, i, tail);
+      System.arraycopy(birthDays, i + 1, birthDays, i, tail);
+      System.arraycopy(hireDays, i + 1, hireDays, i, tail);
+      System.arraycopy(fireDays, i + 1, fireDays, i, tail);
+      System.arraycopy(lastTrainingDays, i + 1, lastTrainingDays, i, tail);
+      System.arraycopy(absences, i + 1, absences, i, tail);
+      System.arraycopy(validAbsences, i + 1, validAbsences, i, tail);
+      System.arraycopy(genders, i + 1, genders, i, tail);
+      System.arraycopy(ranks, i + 1, ranks, i, tail);
+      System.arraycopy(competenceLevels, i + 1, competenceLevels, i, tail);
+      System.arraycopy(trained, i + 1, trained, i, tail);
+      size--;
+      fullNames[size] = null;
+      reindex();
+    }
+
+    /**
+     * Примерный объем памяти: массивы колонок, индекс и строки ФИО
+     * (заголовки объектов по 16 байт, символы строк - по 2 байта)
+     */
+    long memoryBytes() {
+      int capacity = ids.length;
+      long bytes = (long) capacity * (Long.BYTES + 7 * Integer.BYTES + 3 * Byte.BYTES + 1)
+          + (long) capacity * 4 // ссылки на ФИО (сжатые указатели)
+          + 14 * 16L
+          + index.memoryBytes();
+      for (int i = 0; i < size; i++) {
+        if (fullNames[i] != null) {
+          bytes += 40 + 2L * fullNames[i].length();
+        }
+      }
+      return bytes;
+    }
+
+    private void grow() {
+      int capacity = Math.max(16, ids.length * 2);
+      ids = Arrays.copyOf(ids, capacity);
+      fullNames = Arrays.copyOf(fullNames, capacity);
+      departmentIds = Arrays.copyOf(departmentIds, capacity);
+      birthDays = Arrays.copyOf(birthDays, capacity);
+      hireDays = Arrays.copyOf(hireDays, capacity);
+      fireDays = Arrays.copyOf(fireDays, capacity);
+      lastTrainingDays = Arrays.copyOf(lastTrainingDays, capacity);
+      absences = Arrays.copyOf(absences, capacity);
+      validAbsences = Arrays.copyOf(validAbsences, capacity);
+      genders = Arrays.copyOf(genders, capacity);
+      ranks = Arrays.copyOf(ranks, capacity);
+      competenceLevels = Arrays.copyOf(competenceLevels, capacity);
+      trained = Arrays.copyOf(trained, capacity);
+    }
+
+    private void reindex() {
+      index = new LongIntHashMap(Math.max(16, size));
+      for (int i = 0; i < size; i++) {
+        index.put(ids[i], i);
+      }
+    }
+  }
+}
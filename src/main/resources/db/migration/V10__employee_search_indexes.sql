@@ -0,0 +1,26 @@
+-- ============================================
+-- Миграция V10: Индексы списка сотрудников
+-- ============================================
+--
+-- Запрос списка сотрудников содержит только заданные фильтры (EmployeeSpecifications),
+-- поэтому MySQL может выбрать индекс под конкретную комбинацию:
+-- - отдел, пол - равенство + порядок по id (id добавляется явно для keyset-пагинации)
+-- - ранг и уровень компетенции - фильтр по рангу с диапазоном уровня
+-- - сортировка по ключу с отделом и без: (ключ, id) читается в обе стороны,
+--   при равенстве ключа id идет в том же направлении
+-- - уровень компетенции сортируется как COALESCE(competence_level, 0) - функциональная часть индекса
+--
+-- Индекс V9 (absence_count DESC, id) подходил только для одного направления и заменяется.
+--
+-- ============================================
+DROP INDEX idx_employees_absence_count ON employees;
+CREATE INDEX idx_employees_absence_count ON employees (absence_count, id);
+CREATE INDEX idx_employees_department_absence_count ON employees (department_id, absence_count, id);
+
+CREATE INDEX idx_employees_competence ON employees ((COALESCE(competence_level, 0)), id);
+CREATE INDEX idx_employees_department_competence ON employees (department_id, (COALESCE(competence_level, 0)), id);
+
+CREATE INDEX idx_employees_department_gender ON employees (department_id, gender, id);
+CREATE INDEX idx_employees_gender ON employees (gender, id);
+CREATE INDEX idx_employees_rank_level ON employees (competence_rank, competence_level);
+CREATE INDEX idx_employees_department_hire_date ON employees (department_id, hire_date, id);
@@ -0,0 +1,36 @@
+-- ============================================
+-- Миграция V5: Помесячные итоги приемов и увольнений
+-- ============================================
+--
+-- Таблица заменяет расчет графика приемов/увольнений по всем сотрудникам:
+-- - одна строка на (отдел, месяц), department_id = 0 - сотрудники без отдела
+-- - отдел - текущий отдел сотрудника (как в фильтре аналитики)
+-- - поддерживается инкрементально при изменении сотрудников (HeadcountRollupService)
+--   и полностью пересчитывается по расписанию
+-- - численность на конец месяца - накопленная сумма (hires - fires) по месяцам отдела
+--
+-- ============================================
+CREATE TABLE employee_monthly_rollup (
+                                         department_id INT NOT NULL,
+                                         month_start DATE NOT NULL,  -- первый день месяца
+                                         hires INT NOT NULL DEFAULT 0,
+                                         fires INT NOT NULL DEFAULT 0,
+                                         PRIMARY KEY (department_id, month_start),
+                                         INDEX idx_employee_monthly_rollup_month (month_start)
+);
+
+-- ============================================
+-- Начальное заполнение по существующим сотрудникам
+-- ============================================
+INSERT INTO employee_monthly_rollup (department_id, month_start, hires, fires)
+SELECT department_id, month_start, SUM(hires), SUM(fires)
+FROM (
+         SELECT COALESCE(department_id, 0) AS department_id,
+                DATE_FORMAT(hire_date, '%Y-%m-01') AS month_start, 1 AS hires, 0 AS fires
+         FROM employees
+         UNION ALL
+         SELECT COALESCE(department_id, 0), DATE_FORMAT(fire_date, '%Y-%m-01'), 0, 1
+         FROM employees
+         WHERE fire_date IS NOT NULL
+     ) events
+GROUP BY department_id, month_start;
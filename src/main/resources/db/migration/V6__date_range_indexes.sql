@@ -0,0 +1,14 @@
+-- ============================================
+-- Миграция V6: Индексы для запросов по диапазону дат
+-- ============================================
+--
+-- Временные ряды аналитики (приемы, увольнения, пропуски, обучения)
+-- читают только строки в диапазоне [from, to] по соответствующей дате.
+-- Индексы по (дата, employee_id) покрывают запросы без фильтра по отделу,
+-- с фильтром - используются для range scan и join к employees по первичному ключу.
+--
+-- ============================================
+CREATE INDEX idx_employees_hire_date ON employees (hire_date, department_id);
+CREATE INDEX idx_employees_fire_date ON employees (fire_date, department_id);
+CREATE INDEX idx_absences_start_date ON absences (start_date, employee_id);
+CREATE INDEX idx_trainings_start_date ON trainings (start_date, employee_id);
@@ -0,0 +1,20 @@
+-- ============================================
+-- Миграция V7: Сохраненные результаты предрасчета аналитики
+-- ============================================
+--
+-- Теплый старт: после перезапуска результаты читаются отсюда в кэш аналитики,
+-- пока в фоне идет свежий пересчет (AnalyticsPrecomputeService)
+-- - одна строка на (отдел, период), department_id = 0 - все отделы, period = '' - все время
+-- - payload - AnalyticsDto со всеми секциями в JSON
+-- - computed_on - дата расчета (периоды считаются от текущей даты, результат другого дня не используется)
+-- - строки затронутых отделов удаляются после изменения данных
+--
+-- ============================================
+CREATE TABLE analytics_snapshots (
+                                     department_id INT NOT NULL,
+                                     period VARCHAR(16) NOT NULL,
+                                     computed_on DATE NOT NULL,
+                                     computed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                     payload MEDIUMTEXT NOT NULL,
+                                     PRIMARY KEY (department_id, period)
+);
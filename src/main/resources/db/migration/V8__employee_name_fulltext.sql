@@ -0,0 +1,18 @@
+-- ============================================
+-- Миграция V8: Полнотекстовый индекс по ФИО сотрудника
+-- ============================================
+--
+-- Поиск сотрудников (параметр search) раньше фильтровал LOWER(full_name) LIKE '%x%'
+-- и читал всю таблицу на каждый запрос.
+-- - FULLTEXT с парсером ngram (токены по ngram_token_size символов, по умолчанию 2)
+--   находит подстроку в любом месте имени, в том числе в середине слова
+-- - Регистр и ё/е не различаются за счет сопоставления utf8mb4_0900_ai_ci
+--   (задано явно, чтобы не зависеть от настроек сервера)
+-- - Запрос: MATCH(full_name) AGAINST (... IN BOOLEAN MODE), см. FullTextQuery
+--
+-- ============================================
+ALTER TABLE employees
+    MODIFY full_name VARCHAR(100) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL;
+
+ALTER TABLE employees
+    ADD FULLTEXT INDEX ft_employees_full_name (full_name) WITH PARSER ngram;
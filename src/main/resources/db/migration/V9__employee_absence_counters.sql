@@ -0,0 +1,35 @@
+-- ============================================
+-- Миграция V9: Счетчики пропусков сотрудника
+-- ============================================
+--
+-- Сортировка списка сотрудников по количеству пропусков больше не группирует join с absences:
+-- - absence_count - количество пропусков
+-- - bad_reason_count - из них без уважительной причины (BAD_REASON)
+-- - absence_days - дни пропусков включительно (без end_date - один день)
+-- - поддерживаются в транзакции изменения пропуска (AbsenceCounterService)
+--   и сверяются с таблицей absences по расписанию
+-- - индекс (absence_count DESC, id) отдает страницу keyset-пагинации без сортировки
+--
+-- ============================================
+ALTER TABLE employees
+    ADD COLUMN absence_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN bad_reason_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN absence_days INT NOT NULL DEFAULT 0;
+
+CREATE INDEX idx_employees_absence_count ON employees (absence_count DESC, id);
+
+-- ============================================
+-- Начальное заполнение по существующим пропускам
+-- ============================================
+UPDATE employees e
+    JOIN (
+        SELECT employee_id,
+               COUNT(*) AS absence_count,
+               SUM(status = 'BAD_REASON') AS bad_reason_count,
+               SUM(DATEDIFF(COALESCE(end_date, start_date), start_date) + 1) AS absence_days
+        FROM absences
+        GROUP BY employee_id
+    ) a ON a.employee_id = e.id
+SET e.absence_count = a.absence_count,
+    e.bad_reason_count = a.bad_reason_count,
+    e.absence_days = a.absence_days;
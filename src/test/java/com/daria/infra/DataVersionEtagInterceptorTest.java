@@ -0,0 +1,156 @@
+package com.daria.infra;
+
+import com.daria.event.DataVersion;
+import com.daria.exception.BadRequestException;
+import com.daria.exception.GlobalExceptionHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class DataVersionEtagInterceptorTest {
+
+  private final DataVersion dataVersion = new DataVersion();
+  private final ItemsController controller = new ItemsController();
+  private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(proxy(controller))
+      .addInterceptors(new DataVersionEtagInterceptor(dataVersion))
+      .setControllerAdvice(new DataVersionEtagAdvice(), new GlobalExceptionHandler())
+      .build();
+
+  @BeforeEach
+  void authenticate() {
+    SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("user", "", "ROLE_USER"));
+  }
+
+  @AfterEach
+  void clearAuthentication() {
+    SecurityContextHolder.clearContext();
+  }
+
+  /**
+   * Прокси с советниками в порядке автопрокси: @PreAuthorize, затем 304 по ETag
+   */
+  private static Object proxy(Object target) {
+    List<Advisor> advisors = new ArrayList<>(List.of(
+        DataVersionNotModifiedInterceptor.advisor(), AuthorizationManagerBeforeMethodInterceptor.preAuthorize()));
+    AnnotationAwareOrderComparator.sort(advisors);
+    ProxyFactory factory = new ProxyFactory(target);
+    factory.setProxyTargetClass(true);
+    advisors.forEach(factory::addAdvisor);
+    return factory.getProxy();
+  }
+
+  @RestController
+  public static class ItemsController {
+
+    final AtomicInteger calls = new AtomicInteger();
+
+    @GetMapping("/items")
+    public List<String> items(@RequestParam(defaultValue = "10") int limit) {
+      calls.incrementAndGet();
+      if (limit <= 0) {
+        throw new BadRequestException("limit must be positive");
+      }
+      return List.of("a", "b");
+    }
+
+    @GetMapping("/secret")
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<String> secret() {
+      calls.incrementAndGet();
+      return List.of("s");
+    }
+
+    @PostMapping("/items")
+    public String create() {
+      return "created";
+    }
+  }
+
+  @Test
+  void answersNotModifiedWithoutCallingHandlerWhileVersionIsUnchanged() throws Exception {
+    String etag = mockMvc.perform(get("/items"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, no-cache"))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    assertThat(etag).startsWith("\"").endsWith("\"");
+
+    mockMvc.perform(get("/items").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, etag))
+        .andExpect(content().string(""));
+    mockMvc.perform(get("/items").header(HttpHeaders.IF_NONE_MATCH, "\"other\", W/" + etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, no-cache"));
+    assertThat(controller.calls).hasValue(1);
+
+    // * - только после вызова: успешный ответ существует
+    mockMvc.perform(get("/items").header(HttpHeaders.IF_NONE_MATCH, "*"))
+        .andExpect(status().isNotModified());
+    assertThat(controller.calls).hasValue(2);
+  }
+
+  @Test
+  void errorsWinOverMatchingEtag() throws Exception {
+    String etag = mockMvc.perform(get("/items")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    // ETag другого адреса не совпадает: проверка внутри метода выполняется
+    mockMvc.perform(get("/items?limit=0").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isBadRequest())
+        .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    mockMvc.perform(get("/items?limit=x").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isBadRequest());
+
+    SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("admin", "", "ROLE_ADMIN"));
+    String secretEtag = mockMvc.perform(get("/secret")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    authenticate();
+    mockMvc.perform(get("/secret").header(HttpHeaders.IF_NONE_MATCH, secretEtag))
+        .andExpect(status().isForbidden())
+        .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    mockMvc.perform(get("/secret").header(HttpHeaders.IF_NONE_MATCH, "*"))
+        .andExpect(status().isForbidden());
+  }
+
+  @Test
+  void changesEtagAfterWrite() throws Exception {
+    String etag = mockMvc.perform(get("/items")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    dataVersion.bump();
+
+    mockMvc.perform(get("/items").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+  }
+
+  @Test
+  void ignoresNonGetRequests() throws Exception {
+    mockMvc.perform(post("/items").header(HttpHeaders.IF_NONE_MATCH, "*"))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+  }
+}
@@ -0,0 +1,152 @@
+package com.daria.repository;
+
+import com.daria.dto.EmployeeDto;
+import com.daria.entity.Department;
+import com.daria.entity.Employee;
+import com.daria.entity.enums.CompetenceRank;
+import com.daria.entity.enums.Gender;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Поиск без полнотекстового условия (MATCH ... AGAINST есть только в MySQL)
+ */
+@DataJpaTest(properties = {
+    "spring.flyway.enabled=false",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.daria.repository.EmployeeSearchRepositoryTest$LastStatement"
+})
+class EmployeeSearchRepositoryTest {
+
+  private static final EmployeeSearchFilter NO_FILTER =
+      new EmployeeSearchFilter(null, null, null, null, null, null, null, null, null, null, null);
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private EmployeeRepository employeeRepository;
+
+  private Long itId;
+
+  /**
+   * Запоминает последнюю подготовленную SQL-команду
+   */
+  public static class LastStatement implements StatementInspector {
+
+    static volatile String sql;
+
+    @Override
+    public String inspect(String sql) {
+      LastStatement.sql = sql;
+      return sql;
+    }
+  }
+
+  @BeforeEach
+  void setUp() {
+    Department it = Department.builder().name("IT").build();
+    Department hr = Department.builder().name("HR").build();
+    entityManager.persist(it);
+    entityManager.persist(hr);
+    itId = it.getId();
+    for (int i = 0; i < 12; i++) {
+      entityManager.persist(Employee.builder()
+          .fullName("Сотрудник " + i)
+          .gender(i % 2 == 0 ? Gender.Ж : Gender.М)
+          .hireDate(LocalDate.of(2020, 1, 1).plusMonths(i % 5))
+          .fireDate(i % 4 == 0 ? LocalDate.of(2023, 6, 1) : null)
+          .competenceRank(i % 3 == 0 ? CompetenceRank.SENIOR : CompetenceRank.JUNIOR)
+          .competenceLevel(i % 3 == 1 ? null : i % 3 + 1)
+          .department(i % 2 == 0 ? it : hr)
+          .build());
+    }
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  @Test
+  void emitsOnlySuppliedPredicates() {
+    employeeRepository.findEmployeesPage(NO_FILTER, EmployeeSort.ID, false, 0, null, 10);
+    assertThat(LastStatement.sql).doesNotContainIgnoringCase("where");
+
+    EmployeeSearchFilter filter = new EmployeeSearchFilter(
+        null, itId, Gender.Ж, null, null, null, null, null, null, null, null);
+    List<EmployeeSearchRepository.Row> rows =
+        employeeRepository.findEmployeesPage(filter, EmployeeSort.ID, false, 0, null, 10);
+
+    assertThat(LastStatement.sql).doesNotContainIgnoringCase("is null");
+    assertThat(rows).hasSize(6)
+        .allSatisfy(row -> assertThat(row.employee().departmentId()).isEqualTo(itId));
+  }
+
+  @Test
+  void returnsAllRowsWithoutLimit() {
+    List<EmployeeSearchRepository.Row> rows =
+        employeeRepository.findEmployeesPage(NO_FILTER, EmployeeSort.ID, false, 0, null, null);
+
+    assertThat(rows).hasSize(12);
+    assertThat(LastStatement.sql).doesNotContainIgnoringCase("fetch").doesNotContainIgnoringCase("limit");
+  }
+
+  @Test
+  void appliesDateRankLevelAndActiveFilters() {
+    EmployeeSearchFilter filter = new EmployeeSearchFilter(null, null, null,
+        LocalDate.of(2020, 2, 1), LocalDate.of(2020, 4, 1), null, null,
+        CompetenceRank.JUNIOR, 2, null, LocalDate.of(2024, 1, 1));
+
+    List<EmployeeDto> employees = employeeRepository.findEmployeesPage(filter, EmployeeSort.ID, false, 0, null, 50)
+        .stream().map(EmployeeSearchRepository.Row::employee).toList();
+
+    assertThat(employees).isNotEmpty().allSatisfy(employee -> {
+      assertThat(employee.hireDate()).isBetween(LocalDate.of(2020, 2, 1), LocalDate.of(2020, 4, 1));
+      assertThat(employee.competenceRank()).isEqualTo(CompetenceRank.JUNIOR);
+      assertThat(employee.competenceLevel()).isGreaterThanOrEqualTo(2);
+      assertThat(employee.fireDate()).isNull();
+    });
+  }
+
+  @Test
+  void pagesFollowSortKeyAndDirection() {
+    Comparator<EmployeeDto> byLevel = Comparator
+        .comparingInt((EmployeeDto e) -> e.competenceLevel() != null ? e.competenceLevel() : 0)
+        .thenComparingLong(EmployeeDto::id);
+    Comparator<EmployeeDto> byHireDate = Comparator.comparing(EmployeeDto::hireDate).thenComparingLong(EmployeeDto::id);
+
+    assertThat(readAll(EmployeeSort.COMPETENCE_LEVEL, true)).isSortedAccordingTo(byLevel.reversed()).hasSize(12);
+    assertThat(readAll(EmployeeSort.COMPETENCE_LEVEL, false)).isSortedAccordingTo(byLevel).hasSize(12);
+    assertThat(readAll(EmployeeSort.HIRE_DATE, true)).isSortedAccordingTo(byHireDate.reversed()).hasSize(12);
+    assertThat(readAll(EmployeeSort.ID, true)).isSortedAccordingTo(Comparator.comparingLong(EmployeeDto::id).reversed())
+        .hasSize(12);
+  }
+
+  /**
+   * Все сотрудники страницами по 5 через позицию последней строки
+   */
+  private List<EmployeeDto> readAll(EmployeeSort sort, boolean descending) {
+    List<EmployeeDto> all = new ArrayList<>();
+    long afterValue = 0;
+    Long afterId = null;
+    while (true) {
+      List<EmployeeSearchRepository.Row> page =
+          employeeRepository.findEmployeesPage(NO_FILTER, sort, descending, afterValue, afterId, 5);
+      page.forEach(row -> all.add(row.employee()));
+      if (page.size() < 5) {
+        return all;
+      }
+      afterValue = page.get(4).sortValue();
+      afterId = page.get(4).employee().id();
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package com.daria.repository;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FullTextQueryTest {
+
+  @Test
+  void requiresEveryWordAsPhrase() {
+    assertThat(FullTextQuery.booleanMode("  Иванов  Пётр ")).isEqualTo("+\"Иванов\" +\"Пётр\"");
+  }
+
+  @Test
+  void usesPrefixForSingleCharacter() {
+    assertThat(FullTextQuery.booleanMode("и ван")).isEqualTo("+и* +\"ван\"");
+  }
+
+  @Test
+  void stripsBooleanOperators() {
+    assertThat(FullTextQuery.booleanMode("-Ив\"ан*")).isEqualTo("+\"Ив\" +\"ан\"");
+    assertThat(FullTextQuery.booleanMode(" +-*\" ")).isNull();
+    assertThat(FullTextQuery.booleanMode(null)).isNull();
+  }
+}
@@ -0,0 +1,55 @@
+package com.daria.service;
+
+import com.daria.entity.enums.AbsenceStatus;
+import com.daria.event.DataVersion;
+import com.daria.repository.EmployeeAbsenceCounterRepository;
+import com.daria.service.AbsenceCounterService.Snapshot;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class AbsenceCounterServiceTest {
+
+  private final EmployeeAbsenceCounterRepository repository = mock(EmployeeAbsenceCounterRepository.class);
+  private final AbsenceCounterService service = new AbsenceCounterService(repository, new DataVersion());
+
+  @Test
+  void countsCreatedAbsenceInclusiveDays() {
+    service.onAbsenceChanged(null,
+        new Snapshot(1L, AbsenceStatus.BAD_REASON, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 3)));
+
+    verify(repository).add(1L, 1, 1, 3);
+  }
+
+  @Test
+  void countsOpenAbsenceAsOneDay() {
+    service.onAbsenceChanged(new Snapshot(1L, AbsenceStatus.GOOD_REASON, LocalDate.of(2024, 3, 1), null), null);
+
+    verify(repository).add(1L, -1, 0, -1);
+  }
+
+  @Test
+  void updatesOnlyDifferenceForSameEmployee() {
+    Snapshot before = new Snapshot(1L, AbsenceStatus.GOOD_REASON, LocalDate.of(2024, 3, 1), null);
+    Snapshot after = new Snapshot(1L, AbsenceStatus.BAD_REASON, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 5));
+
+    service.onAbsenceChanged(before, after);
+
+    verify(repository).add(1L, 0, 1, 4);
+  }
+
+  @Test
+  void skipsUnchangedAbsence() {
+    Snapshot snapshot = new Snapshot(1L, AbsenceStatus.GOOD_REASON, LocalDate.of(2024, 3, 1), null);
+
+    service.onAbsenceChanged(snapshot, new Snapshot(1L, AbsenceStatus.GOOD_REASON, LocalDate.of(2024, 3, 1), null));
+
+    verify(repository, never()).add(anyLong(), anyInt(), anyInt(), anyInt());
+  }
+}
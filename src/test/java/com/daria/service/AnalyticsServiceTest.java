@@ -0,0 +1,56 @@
+package com.daria.service;
+
+import com.daria.infra.AnalyticsProperties;
+import com.daria.repository.AnalyticsQueryRepository;
+import com.daria.repository.EmployeeRollupRepository;
+import com.daria.service.analytics.AnalyticsSection;
+import com.daria.service.analytics.AnalyticsSectionRunner;
+import com.daria.service.analytics.InMemoryAnalyticsEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class AnalyticsServiceTest {
+
+  private final AnalyticsQueryRepository analyticsQueryRepository = mock(AnalyticsQueryRepository.class);
+  private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+  private final AnalyticsProperties properties = new AnalyticsProperties();
+  private AnalyticsSectionRunner runner;
+
+  @AfterEach
+  void tearDown() {
+    runner.shutdown();
+  }
+
+  @Test
+  void parallelSectionsRunWithoutRequestTransaction() {
+    properties.getParallel().setEnabled(true);
+
+    assertThat(newService().getAnalytics(null, null, Set.of(AnalyticsSection.KPI)).totalEmployees()).isNull();
+
+    // Соединение держат только потоки секций
+    verifyNoInteractions(transactionManager);
+  }
+
+  @Test
+  void sequentialSectionsShareReadOnlyTransaction() {
+    newService().getAnalytics(null, null, Set.of(AnalyticsSection.KPI));
+
+    verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+  }
+
+  private AnalyticsService newService() {
+    runner = new AnalyticsSectionRunner(properties);
+    return new AnalyticsService(analyticsQueryRepository, mock(EmployeeRollupRepository.class),
+        mock(InMemoryAnalyticsEngine.class), properties, runner, transactionManager);
+  }
+}
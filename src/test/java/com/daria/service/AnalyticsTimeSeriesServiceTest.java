@@ -0,0 +1,141 @@
+package com.daria.service;
+
+import com.daria.dto.HeadcountSeriesDto;
+import com.daria.dto.TimeSeriesDto;
+import com.daria.exception.BadRequestException;
+import com.daria.infra.AnalyticsProperties;
+import com.daria.repository.AnalyticsTimeSeriesRepository;
+import com.daria.repository.AnalyticsTimeSeriesRepository.Granularity;
+import com.daria.repository.AnalyticsTimeSeriesRepository.Metric;
+import com.daria.repository.EmployeeRollupRepository;
+import com.daria.repository.EmployeeRollupRepository.MonthTotals;
+import com.daria.service.analytics.HeadcountIndex;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class AnalyticsTimeSeriesServiceTest {
+
+  private final AnalyticsTimeSeriesRepository timeSeriesRepository = mock(AnalyticsTimeSeriesRepository.class);
+  private final EmployeeRollupRepository rollupRepository = mock(EmployeeRollupRepository.class);
+  private final HeadcountIndex headcountIndex = mock(HeadcountIndex.class);
+  private final AnalyticsProperties properties = new AnalyticsProperties();
+  private final AnalyticsTimeSeriesService service =
+      new AnalyticsTimeSeriesService(timeSeriesRepository, rollupRepository, properties, headcountIndex);
+
+  @Test
+  void joinsRollupMonthsWithPartialEdgeMonths() {
+    LocalDate from = LocalDate.of(2024, 1, 15);
+    LocalDate to = LocalDate.of(2024, 4, 10);
+    when(timeSeriesRepository.countByBucket(Metric.HIRES, Granularity.MONTH, null, from, to,
+        YearMonth.of(2024, 2), YearMonth.of(2024, 3)))
+        .thenReturn(Map.of(LocalDate.of(2024, 1, 1), 2L, LocalDate.of(2024, 4, 1), 1L));
+    when(rollupRepository.findMonthlyTotals(null, YearMonth.of(2024, 2), YearMonth.of(2024, 3)))
+        .thenReturn(Map.of(YearMonth.of(2024, 2), new MonthTotals(5, 9, 0), YearMonth.of(2024, 3), new MonthTotals(7, 9, 0)));
+
+    TimeSeriesDto series = service.getTimeSeries(null, from, to, Granularity.MONTH, Set.of(Metric.HIRES));
+
+    assertThat(series.points()).extracting(TimeSeriesDto.Point::hires).containsExactly(2L, 5L, 7L, 1L);
+    assertThat(series.points()).extracting(TimeSeriesDto.Point::fires).containsOnlyNulls();
+    assertThat(series.points().get(0).start()).isEqualTo(from);
+    assertThat(series.points().get(0).end()).isEqualTo(LocalDate.of(2024, 1, 31));
+    assertThat(series.points().get(3).start()).isEqualTo(LocalDate.of(2024, 4, 1));
+    assertThat(series.points().get(3).end()).isEqualTo(to);
+  }
+
+  @Test
+  void mergesRollupMonthsIntoQuarters() {
+    LocalDate from = LocalDate.of(2024, 2, 1);
+    LocalDate to = LocalDate.of(2024, 9, 30);
+    when(timeSeriesRepository.countByBucket(Metric.FIRES, Granularity.QUARTER, 3L, from, to,
+        YearMonth.of(2024, 2), YearMonth.of(2024, 9)))
+        .thenReturn(Map.of());
+    when(rollupRepository.findMonthlyTotals(3L, YearMonth.of(2024, 2), YearMonth.of(2024, 9)))
+        .thenReturn(Map.of(
+            YearMonth.of(2024, 2), new MonthTotals(0, 1, 0),
+            YearMonth.of(2024, 3), new MonthTotals(0, 2, 0),
+            YearMonth.of(2024, 5), new MonthTotals(0, 4, 0),
+            YearMonth.of(2024, 9), new MonthTotals(0, 8, 0)));
+
+    TimeSeriesDto series = service.getTimeSeries(3L, from, to, Granularity.QUARTER, Set.of(Metric.FIRES));
+
+    assertThat(series.points()).extracting(TimeSeriesDto.Point::fires).containsExactly(3L, 4L, 8L);
+    assertThat(series.points()).extracting(TimeSeriesDto.Point::start)
+        .containsExactly(from, LocalDate.of(2024, 4, 1), LocalDate.of(2024, 7, 1));
+    assertThat(series.points()).extracting(TimeSeriesDto.Point::end)
+        .containsExactly(LocalDate.of(2024, 3, 31), LocalDate.of(2024, 6, 30), to);
+  }
+
+  @Test
+  void readsEmployeesOnlyWhenNoFullMonthInRange() {
+    LocalDate from = LocalDate.of(2024, 3, 5);
+    LocalDate to = LocalDate.of(2024, 4, 20);
+    when(timeSeriesRepository.countByBucket(Metric.HIRES, Granularity.MONTH, null, from, to, null, null))
+        .thenReturn(Map.of(LocalDate.of(2024, 4, 1), 4L));
+
+    TimeSeriesDto series = service.getTimeSeries(null, from, to, Granularity.MONTH, Set.of(Metric.HIRES));
+
+    assertThat(series.points()).extracting(TimeSeriesDto.Point::hires).containsExactly(0L, 4L);
+    verifyNoInteractions(rollupRepository);
+  }
+
+  @Test
+  void skipsRollupForDailyStepsNonRollupMetricsAndWhenDisabled() {
+    LocalDate from = LocalDate.of(2024, 1, 1);
+    LocalDate to = LocalDate.of(2024, 3, 31);
+
+    service.getTimeSeries(null, from, to, Granularity.MONTH, Set.of(Metric.ABSENCES));
+    service.getTimeSeries(null, from, to, Granularity.DAY, Set.of(Metric.HIRES));
+    properties.getRollup().setEnabled(false);
+    service.getTimeSeries(null, from, to, Granularity.MONTH, Set.of(Metric.FIRES));
+
+    verify(timeSeriesRepository).countByBucket(Metric.ABSENCES, Granularity.MONTH, null, from, to, null, null);
+    verify(timeSeriesRepository).countByBucket(Metric.HIRES, Granularity.DAY, null, from, to, null, null);
+    verify(timeSeriesRepository).countByBucket(Metric.FIRES, Granularity.MONTH, null, from, to, null, null);
+    verifyNoInteractions(rollupRepository);
+  }
+
+  @Test
+  void limitsNumberOfBuckets() {
+    properties.getTimeseries().setMaxBuckets(3);
+
+    // Неполные граничные месяцы тоже занимают интервал
+    assertThat(service.getTimeSeries(null, LocalDate.of(2024, 1, 15), LocalDate.of(2024, 3, 31),
+        Granularity.MONTH, Set.of(Metric.ABSENCES)).points()).hasSize(3);
+    assertThatThrownBy(() -> service.getTimeSeries(null, LocalDate.of(2024, 1, 15), LocalDate.of(2024, 4, 1),
+        Granularity.MONTH, Set.of(Metric.ABSENCES)))
+        .isInstanceOf(BadRequestException.class);
+    assertThatThrownBy(() -> service.getHeadcountSeries(null, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 4),
+        Granularity.DAY))
+        .isInstanceOf(BadRequestException.class);
+    assertThatThrownBy(() -> service.getTimeSeries(null, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1),
+        Granularity.DAY, Set.of(Metric.HIRES)))
+        .isInstanceOf(BadRequestException.class);
+  }
+
+  @Test
+  void headcountSeriesUsesClippedBucketEnds() {
+    when(headcountIndex.headcount(eq(5L), anyList())).thenReturn(new long[]{10, 11, 12});
+
+    HeadcountSeriesDto series = service.getHeadcountSeries(5L, LocalDate.of(2024, 2, 10), LocalDate.of(2024, 8, 15),
+        Granularity.QUARTER);
+
+    assertThat(series.points()).extracting(HeadcountSeriesDto.Point::date)
+        .containsExactly(LocalDate.of(2024, 3, 31), LocalDate.of(2024, 6, 30), LocalDate.of(2024, 8, 15));
+    verify(headcountIndex).headcount(5L, List.of(
+        LocalDate.of(2024, 3, 31), LocalDate.of(2024, 6, 30), LocalDate.of(2024, 8, 15)));
+  }
+}
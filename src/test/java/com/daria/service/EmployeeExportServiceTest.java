@@ -0,0 +1,76 @@
+package com.daria.service;
+
+import com.daria.dto.EmployeeDto;
+import com.daria.entity.enums.CompetenceRank;
+import com.daria.entity.enums.Gender;
+import com.daria.repository.EmployeeExportRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class EmployeeExportServiceTest {
+
+  private final EmployeeExportRepository repository = mock(EmployeeExportRepository.class);
+  private final EmployeeExportService service = new EmployeeExportService(repository,
+      new ObjectMapper().findAndRegisterModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+
+  @BeforeEach
+  void setUp() {
+    doAnswer(invocation -> {
+      Consumer<EmployeeDto> consumer = invocation.getArgument(0);
+      consumer.accept(new EmployeeDto(1L, 10L, "Иванова Дарья", Gender.Ж, LocalDate.of(1990, 5, 1),
+          LocalDate.of(2020, 1, 15), null, CompetenceRank.SENIOR, 3, 2L));
+      consumer.accept(new EmployeeDto(2L, null, "Петров, \"Пётр\"", Gender.М, null,
+          LocalDate.of(2021, 2, 1), LocalDate.of(2023, 6, 30), null, null, null));
+      return null;
+    }).when(repository).scanEmployees(any());
+  }
+
+  @Test
+  void writesOneJsonObjectPerLine() throws IOException {
+    String[] lines = export(EmployeeExportService.Format.NDJSON).split("\n");
+
+    assertThat(lines).hasSize(2);
+    assertThat(lines[0]).startsWith("{\"id\":1,").contains("\"hireDate\":\"2020-01-15\"", "\"fullName\":\"Иванова Дарья\"");
+    assertThat(lines[1]).startsWith("{\"id\":2,").contains("\"fireDate\":\"2023-06-30\"");
+  }
+
+  @Test
+  void writesCsvWithBomHeaderAndEscapedValues() throws IOException {
+    String csv = export(EmployeeExportService.Format.CSV);
+
+    assertThat(csv).isEqualTo("\uFEFF"
+        + "id,userId,fullName,gender,birthDate,hireDate,fireDate,competenceRank,competenceLevel,departmentId\r\n"
+        + "1,10,Иванова Дарья,Ж,1990-05-01,2020-01-15,,SENIOR,3,2\r\n"
+        + "2,,\"Петров, \"\"Пётр\"\"\",М,,2021-02-01,2023-06-30,,,\r\n");
+  }
+
+  @Test
+  void prefixesFormulaLikeCsvValues() {
+    assertThat(EmployeeExportService.csv("=HYPERLINK(\"http://x\")")).isEqualTo("\"'=HYPERLINK(\"\"http://x\"\")\"");
+    assertThat(EmployeeExportService.csv("+7 900")).isEqualTo("'+7 900");
+    assertThat(EmployeeExportService.csv("-1+2")).isEqualTo("'-1+2");
+    assertThat(EmployeeExportService.csv("@SUM(A1)")).isEqualTo("'@SUM(A1)");
+    assertThat(EmployeeExportService.csv("\t=1")).isEqualTo("'\t=1");
+    assertThat(EmployeeExportService.csv("Анна-Мария")).isEqualTo("Анна-Мария");
+    assertThat(EmployeeExportService.csv("")).isEmpty();
+  }
+
+  private String export(EmployeeExportService.Format format) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    service.export(format, out);
+    return out.toString(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,33 @@
+package com.daria.service;
+
+import com.daria.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmployeeListCursorTest {
+
+  @Test
+  void roundTripsPosition() {
+    assertThat(EmployeeListCursor.decode(EmployeeListCursor.encode("absences", 7, 42), "absences"))
+        .isEqualTo(new EmployeeListCursor.Position(7, 42));
+    assertThat(EmployeeListCursor.decode(EmployeeListCursor.encode("id.asc", 0, 5), "id.asc"))
+        .isEqualTo(new EmployeeListCursor.Position(0, 5));
+  }
+
+  @Test
+  void emptyCursorMeansFirstPage() {
+    assertThat(EmployeeListCursor.decode(null, "absences")).isNull();
+    assertThat(EmployeeListCursor.decode(" ", "absences")).isNull();
+  }
+
+  @Test
+  void rejectsForeignOrDamagedCursor() {
+    String cursor = EmployeeListCursor.encode("competence_level", 2, 10);
+    assertThatThrownBy(() -> EmployeeListCursor.decode(cursor, "absences"))
+        .isInstanceOf(BadRequestException.class);
+    assertThatThrownBy(() -> EmployeeListCursor.decode("not base64!", "absences"))
+        .isInstanceOf(BadRequestException.class);
+  }
+}
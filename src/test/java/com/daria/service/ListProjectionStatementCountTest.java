@@ -0,0 +1,147 @@
+package com.daria.service;
+
+import com.daria.dto.AbsenceDto;
+import com.daria.dto.DepartmentDto;
+import com.daria.dto.TrainingDto;
+import com.daria.entity.AbsenceEntity;
+import com.daria.entity.Department;
+import com.daria.entity.Employee;
+import com.daria.entity.Training;
+import com.daria.entity.enums.AbsenceStatus;
+import com.daria.entity.enums.CompetenceRank;
+import com.daria.entity.enums.Gender;
+import com.daria.event.DataVersion;
+import com.daria.repository.EmployeeAbsenceCounterRepository;
+import com.daria.repository.EmployeeRollupRepository;
+import com.daria.service.analytics.HeadcountRollupService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Списки пропусков, обучений и отделов читаются одной SQL-командой независимо от количества строк
+ *
+ * Страницы сотрудников здесь не проверяются: их запросы содержат MATCH ... AGAINST (MySQL),
+ * которого нет в H2 (HQL проверяется при создании репозитория).
+ */
+@DataJpaTest(properties = {
+    "spring.flyway.enabled=false",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({
+    AbsenceService.class, AbsenceCounterService.class, EmployeeAbsenceCounterRepository.class,
+    TrainingService.class, DepartmentService.class, HeadcountRollupService.class, EmployeeRollupRepository.class,
+    DataVersion.class
+})
+class ListProjectionStatementCountTest {
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private AbsenceService absenceService;
+
+  @Autowired
+  private TrainingService trainingService;
+
+  @Autowired
+  private DepartmentService departmentService;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+
+  @Test
+  void absencesUseOneStatementRegardlessOfRowCount() {
+    seed(2);
+    List<AbsenceDto> few = countStatements(absenceService::getAllAbsences, 1);
+    seed(30);
+    List<AbsenceDto> many = countStatements(absenceService::getAllAbsences, 1);
+
+    assertThat(few).hasSize(2);
+    assertThat(many).hasSize(32);
+    assertThat(many).allSatisfy(absence -> assertThat(absence.employeeName()).startsWith("Сотрудник"));
+  }
+
+  @Test
+  void trainingsUseOneStatementRegardlessOfRowCount() {
+    seed(2);
+    countStatements(trainingService::getAllTrainings, 1);
+    seed(30);
+    List<TrainingDto> trainings = countStatements(trainingService::getAllTrainings, 1);
+
+    assertThat(trainings).hasSize(32);
+    assertThat(trainings).allSatisfy(training -> assertThat(training.employeeId()).isNotNull());
+  }
+
+  @Test
+  void departmentsUseOneStatementRegardlessOfRowCount() {
+    seed(2);
+    countStatements(departmentService::getAllDepartments, 1);
+    seed(30);
+    List<DepartmentDto> departments = countStatements(departmentService::getAllDepartments, 1);
+
+    // Отделы без руководителя тоже возвращаются (head_id читается без join)
+    assertThat(departments).hasSize(32);
+    assertThat(departments).filteredOn(department -> department.headId() == null).isNotEmpty();
+  }
+
+  private <T> List<T> countStatements(Supplier<List<T>> list, long expected) {
+    entityManager.clear();
+    statistics.clear();
+    List<T> result = list.get();
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(expected);
+    return result;
+  }
+
+  /**
+   * n отделов, в каждом сотрудник с одним пропуском и одним обучением; у каждого второго отдела есть руководитель
+   */
+  private void seed(int n) {
+    for (int i = 0; i < n; i++) {
+      Department department = Department.builder().name("Отдел " + i).build();
+      entityManager.persist(department);
+      Employee employee = Employee.builder()
+          .fullName("Сотрудник " + i)
+          .gender(i % 2 == 0 ? Gender.Ж : Gender.М)
+          .hireDate(LocalDate.of(2020, 1, 1))
+          .competenceRank(CompetenceRank.JUNIOR)
+          .department(department)
+          .build();
+      entityManager.persist(employee);
+      if (i % 2 == 0) {
+        department.setHead(employee);
+      }
+      entityManager.persist(AbsenceEntity.builder()
+          .employee(employee)
+          .startDate(LocalDate.of(2024, 1, 1).plusDays(i))
+          .status(AbsenceStatus.GOOD_REASON)
+          .build());
+      entityManager.persist(Training.builder()
+          .employee(employee)
+          .trainingName("Курс " + i)
+          .startDate(LocalDate.of(2024, 2, 1))
+          .levelBefore(CompetenceRank.JUNIOR)
+          .build());
+    }
+    entityManager.flush();
+  }
+}
@@ -0,0 +1,93 @@
+package com.daria.service.analytics;
+
+import com.daria.dto.AnalyticsDto;
+import com.daria.event.DataChangedEvent;
+import com.daria.infra.AnalyticsProperties;
+import com.daria.service.AnalyticsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AnalyticsCacheTest {
+
+  private final AnalyticsService analyticsService = mock(AnalyticsService.class);
+  private final AnalyticsCache cache = new AnalyticsCache(analyticsService, new AnalyticsProperties());
+  /** Номер расчета: каждый расчет возвращает новый результат */
+  private final AtomicLong computations = new AtomicLong();
+
+  @BeforeEach
+  void setUp() {
+    when(analyticsService.getAnalytics(any(), any(), anySet())).thenAnswer(invocation -> result());
+  }
+
+  @Test
+  void servesRepeatedRequestsFromCache() {
+    AnalyticsDto first = cache.getAnalytics(7L, "year");
+
+    assertThat(cache.getAnalytics(7L, "year")).isSameAs(first);
+    verify(analyticsService, times(1)).getAnalytics(eq(7L), eq("year"), anySet());
+  }
+
+  @Test
+  void doesNotCacheResultOfCalculationOverlappingCommit() {
+    // Запись коммитится, пока идет расчет: результат мог прочитать данные до нее
+    when(analyticsService.getAnalytics(eq(7L), isNull(), anySet())).thenAnswer(invocation -> {
+      cache.onDataChanged(DataChangedEvent.employee(1L, 7L));
+      return result();
+    });
+    AnalyticsDto stale = cache.getAnalytics(7L, null);
+    assertThat(cache.refresh(7L, null)).isNull();
+
+    when(analyticsService.getAnalytics(eq(7L), isNull(), anySet())).thenAnswer(invocation -> result());
+    AnalyticsDto fresh = cache.getAnalytics(7L, null);
+    assertThat(fresh).isNotEqualTo(stale);
+    assertThat(cache.getAnalytics(7L, null)).isSameAs(fresh);
+  }
+
+  @Test
+  void departmentChangeInvalidatesEverything() {
+    AnalyticsDto all = cache.getAnalytics(null, null);
+    AnalyticsDto it = cache.getAnalytics(7L, null);
+    AnalyticsDto hr = cache.getAnalytics(9L, "month");
+
+    cache.onDataChanged(DataChangedEvent.department(7L));
+
+    assertThat(cache.getAnalytics(null, null)).isNotEqualTo(all);
+    assertThat(cache.getAnalytics(7L, null)).isNotEqualTo(it);
+    assertThat(cache.getAnalytics(9L, "month")).isNotEqualTo(hr);
+    assertThat(cache.getStats().invalidations()).isEqualTo(3);
+  }
+
+  @Test
+  void employeeChangeInvalidatesAllDepartmentsAndAffectedDepartmentsOnly() {
+    AnalyticsDto all = cache.getAnalytics(null, "year");
+    AnalyticsDto from = cache.getAnalytics(7L, "year");
+    AnalyticsDto to = cache.getAnalytics(8L, null);
+    AnalyticsDto other = cache.getAnalytics(9L, "year");
+
+    // Сотрудник переведен из отдела 7 в отдел 8
+    cache.onDataChanged(DataChangedEvent.employee(1L, 7L, 8L));
+
+    assertThat(cache.getAnalytics(null, "year")).isNotEqualTo(all);
+    assertThat(cache.getAnalytics(7L, "year")).isNotEqualTo(from);
+    assertThat(cache.getAnalytics(8L, null)).isNotEqualTo(to);
+    assertThat(cache.getAnalytics(9L, "year")).isSameAs(other);
+    assertThat(cache.getStats().invalidations()).isEqualTo(3);
+  }
+
+  private AnalyticsDto result() {
+    return new AnalyticsDto(computations.incrementAndGet(), null, null, null, null, null, null,
+        null, null, null, null, null, null, null);
+  }
+}
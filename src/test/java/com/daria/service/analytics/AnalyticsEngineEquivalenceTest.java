@@ -0,0 +1,286 @@
+package com.daria.service.analytics;
+
+import com.daria.dto.AnalyticsDto;
+import com.daria.entity.AbsenceEntity;
+import com.daria.entity.Department;
+import com.daria.entity.Employee;
+import com.daria.entity.Training;
+import com.daria.entity.enums.AbsenceStatus;
+import com.daria.entity.enums.CompetenceRank;
+import com.daria.entity.enums.Gender;
+import com.daria.repository.AnalyticsQueryRepository;
+import com.daria.repository.AnalyticsQueryRepository.DepartmentRef;
+import com.daria.repository.WorkforceRow;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Однопроходный движок (AnalyticsDtoAccumulator) должен давать тот же результат,
+ * что и исходный расчет по спискам сущностей (LegacyAnalyticsCalculator).
+ * 
+ * Порядок элементов сравнивается везде, где он был детерминирован в исходной реализации
+ * (возраст, приемы/увольнения, сводки); распределения по полу, рангам и отделам
+ * строились из HashMap, поэтому для них сравнивается только состав.
+ */
+class AnalyticsEngineEquivalenceTest {
+
+  private static final String[] PERIODS = {null, "", "month", "quarter", "year", "2years", "3years", "5years", "decade"};
+
+  private static final LocalDate[] TODAYS = {
+      LocalDate.of(2026, 10, 18),
+      LocalDate.of(2028, 2, 29),
+      LocalDate.of(2025, 1, 1),
+      LocalDate.of(2024, 12, 31)
+  };
+
+  static Stream<Arguments> cases() {
+    List<Arguments> cases = new ArrayList<>();
+    long seed = 20260101L;
+    for (LocalDate today : TODAYS) {
+      cases.add(Arguments.of(seed++, today, 0));
+      cases.add(Arguments.of(seed++, today, 1));
+      cases.add(Arguments.of(seed++, today, 400));
+    }
+    return cases.stream();
+  }
+
+  @ParameterizedTest(name = "seed={0}, today={1}, employees={2}")
+  @MethodSource("cases")
+  void accumulatorsMatchLegacyCalculation(long seed, LocalDate today, int employeeCount) {
+    Workforce workforce = Workforce.generate(new Random(seed), today, employeeCount);
+    LegacyAnalyticsCalculator legacy = new LegacyAnalyticsCalculator(
+        today, workforce.departments, workforce.employees, workforce.absences, workforce.trainings);
+
+    List<Long> departmentFilters = new ArrayList<>();
+    departmentFilters.add(null);
+    workforce.departments.forEach(d -> departmentFilters.add(d.getId()));
+    departmentFilters.add(999L);
+
+    for (Long departmentId : departmentFilters) {
+      for (String period : PERIODS) {
+        AnalyticsDto expected = legacy.getAnalytics(departmentId, period);
+        AnalyticsDto actual = workforce.compute(departmentId, legacy.getPeriodStart(period), today);
+        assertEquivalent(actual, expected, "department=" + departmentId + ", period=" + period);
+      }
+    }
+  }
+
+  @ParameterizedTest(name = "seed={0}, today={1}, employees={2}")
+  @MethodSource("cases")
+  void selectedSectionsMatchFullResult(long seed, LocalDate today, int employeeCount) {
+    Workforce workforce = Workforce.generate(new Random(seed), today, employeeCount);
+    LocalDate periodStart = today.minusYears(1);
+    AnalyticsDto full = workforce.compute(null, periodStart, today);
+
+    for (AnalyticsSection section : AnalyticsSection.values()) {
+      AnalyticsDto partial = workforce.compute(null, periodStart, today, EnumSet.of(section));
+      boolean kpi = section == AnalyticsSection.KPI;
+      assertThat(partial.totalEmployees()).isEqualTo(kpi ? full.totalEmployees() : null);
+      assertThat(partial.avgCompetence()).isEqualTo(kpi ? full.avgCompetence() : null);
+      assertThat(partial.trained()).isEqualTo(kpi ? full.trained() : null);
+      assertThat(partial.fired()).isEqualTo(kpi ? full.fired() : null);
+      assertThat(partial.turnoverRate()).isEqualTo(kpi ? full.turnoverRate() : null);
+      assertThat(partial.absences()).isEqualTo(section == AnalyticsSection.ABSENCES ? full.absences() : null);
+      assertThat(partial.gender()).isEqualTo(section == AnalyticsSection.GENDER ? full.gender() : null);
+      assertThat(partial.age()).isEqualTo(section == AnalyticsSection.AGE ? full.age() : null);
+      assertThat(partial.ranks()).isEqualTo(section == AnalyticsSection.RANKS ? full.ranks() : null);
+      assertThat(partial.departments()).isEqualTo(section == AnalyticsSection.DEPARTMENTS ? full.departments() : null);
+      assertThat(partial.hiresFires()).isEqualTo(section == AnalyticsSection.HIRES_FIRES ? full.hiresFires() : null);
+      assertThat(partial.departmentsSummary())
+          .isEqualTo(section == AnalyticsSection.DEPARTMENTS_SUMMARY ? full.departmentsSummary() : null);
+      assertThat(partial.employees()).isEqualTo(section == AnalyticsSection.EMPLOYEES ? full.employees() : null);
+    }
+  }
+
+  private static void assertEquivalent(AnalyticsDto actual, AnalyticsDto expected, String description) {
+    assertThat(actual.totalEmployees()).as(description).isEqualTo(expected.totalEmployees());
+    assertThat(actual.avgCompetence()).as(description).isEqualTo(expected.avgCompetence());
+    assertThat(actual.trained()).as(description).isEqualTo(expected.trained());
+    assertThat(actual.fired()).as(description).isEqualTo(expected.fired());
+    assertThat(actual.turnoverRate()).as(description).isEqualTo(expected.turnoverRate());
+    assertThat(actual.absences()).as(description).isEqualTo(expected.absences());
+    assertThat(actual.gender()).as(description).containsExactlyInAnyOrderElementsOf(expected.gender());
+    assertThat(actual.age()).as(description).containsExactlyElementsOf(expected.age());
+    assertThat(actual.ranks()).as(description).containsExactlyInAnyOrderElementsOf(expected.ranks());
+    assertThat(actual.departments()).as(description).containsExactlyInAnyOrderElementsOf(expected.departments());
+    assertThat(actual.hiresFires()).as(description).containsExactlyElementsOf(expected.hiresFires());
+    assertThat(actual.departmentsSummary()).as(description).containsExactlyElementsOf(expected.departmentsSummary());
+    assertThat(actual.employees()).as(description).containsExactlyElementsOf(expected.employees());
+  }
+
+  /**
+   * Случайный набор данных с граничными случаями: сотрудники без отдела, даты рождения,
+   * уровня компетенции, с будущими датами приема/увольнения; отделы с одинаковым
+   * и пустым названием; обучения без даты начала. Кроме случайных - сотрудник без отдела
+   * и уровня и сотрудник с отделом без уровня.
+   */
+  private record Workforce(List<Department> departments, List<Employee> employees,
+                           List<AbsenceEntity> absences, List<Training> trainings) {
+
+    static Workforce generate(Random random, LocalDate today, int employeeCount) {
+      List<Department> departments = List.of(
+          Department.builder().id(1L).name("Разработка").build(),
+          Department.builder().id(2L).name("Бухгалтерия").build(),
+          Department.builder().id(3L).name("Разработка").build(),
+          Department.builder().id(5L).name(" ").build(),
+          Department.builder().id(8L).name("Аналитика").build()
+      );
+
+      List<Employee> employees = new ArrayList<>(employeeCount);
+      for (long id = 1; id <= employeeCount; id++) {
+        LocalDate hireDate = today.minusDays(random.nextInt(365 * 7)).plusDays(random.nextInt(10) == 0 ? 90 : 0);
+        LocalDate fireDate = null;
+        if (random.nextInt(3) == 0) {
+          fireDate = hireDate.plusDays(random.nextInt((int) Math.max(0, ChronoUnit.DAYS.between(hireDate, today.plusDays(60))) + 1));
+        }
+        employees.add(Employee.builder()
+            .id(id)
+            .fullName(random.nextInt(20) == 0 ? null : "Сотрудник " + id)
+            .gender(random.nextBoolean() ? Gender.М : Gender.Ж)
+            .birthDate(random.nextInt(10) == 0 ? null : today.minusDays(365L * 16 + random.nextInt(365 * 50)))
+            .hireDate(hireDate)
+            .fireDate(fireDate)
+            .competenceRank(CompetenceRank.values()[random.nextInt(CompetenceRank.values().length)])
+            .competenceLevel(random.nextInt(6) == 0 ? null : 1 + random.nextInt(10))
+            .department(random.nextInt(8) == 0 ? null : departments.get(random.nextInt(departments.size())))
+            .build());
+      }
+      if (employeeCount > 0) {
+        // Без отдела и уровня; с отделом без уровня (NULL уровня не должен сбрасывать отдел)
+        employees.add(Employee.builder().id(employeeCount + 1L).fullName("Без отдела").gender(Gender.Ж)
+            .hireDate(today.minusYears(1)).competenceRank(CompetenceRank.JUNIOR).build());
+        employees.add(Employee.builder().id(employeeCount + 2L).fullName("Без уровня").gender(Gender.М)
+            .hireDate(today.minusYears(2)).competenceRank(CompetenceRank.MIDDLE).department(departments.get(0)).build());
+      }
+
+      List<AbsenceEntity> absences = new ArrayList<>();
+      List<Training> trainings = new ArrayList<>();
+      if (!employees.isEmpty()) {
+        for (long id = 1; id <= employeeCount * 2L; id++) {
+          absences.add(AbsenceEntity.builder()
+              .id(id)
+              .employee(employees.get(random.nextInt(employees.size())))
+              .startDate(today.minusDays(random.nextInt(1000)))
+              .status(AbsenceStatus.values()[random.nextInt(AbsenceStatus.values().length)])
+              .build());
+        }
+        for (long id = 1; id <= employeeCount * 3L / 4 + 1; id++) {
+          trainings.add(Training.builder()
+              .id(id)
+              .employee(employees.get(random.nextInt(employees.size())))
+              .trainingName("Курс " + id)
+              .startDate(random.nextInt(10) == 0 ? null : today.minusDays(random.nextInt(365 * 6)))
+              .build());
+        }
+      }
+      return new Workforce(departments, employees, absences, trainings);
+    }
+
+    /**
+     * Расчет аккумуляторами: строки строятся так же, как их заполняет
+     * AnalyticsQueryRepository.scanWorkforce, фильтр применяется AnalyticsContext.includes
+     */
+    AnalyticsDto compute(Long departmentId, LocalDate periodStart, LocalDate today) {
+      return compute(departmentId, periodStart, today, AnalyticsSection.all());
+    }
+
+    AnalyticsDto compute(Long departmentId, LocalDate periodStart, LocalDate today, Set<AnalyticsSection> sections) {
+      List<DepartmentRef> refs = departments.stream()
+          .map(d -> new DepartmentRef(d.getId(), d.getName()))
+          .toList();
+      AnalyticsContext context = new AnalyticsContext(departmentId, periodStart, today, refs);
+      AnalyticsDtoAccumulator accumulator = new AnalyticsDtoAccumulator(context, sections);
+
+      WorkforceRow row = new WorkforceRow();
+      for (Employee e : employees) {
+        fill(row, e);
+        if (context.includes(row)) {
+          accumulator.accept(row);
+        }
+      }
+      return accumulator.result();
+    }
+
+    /**
+     * Строка заполняется через AnalyticsQueryRepository.readWorkforceRow из ResultSet
+     * с теми же колонками и NULL, что и у запроса scanWorkforce
+     */
+    private void fill(WorkforceRow row, Employee e) {
+      long total = 0;
+      long valid = 0;
+      for (AbsenceEntity a : absences) {
+        if (a.getEmployee() == e) {
+          total++;
+          if (a.getStatus() == AbsenceStatus.GOOD_REASON) {
+            valid++;
+          }
+        }
+      }
+
+      boolean trained = false;
+      LocalDate lastTraining = null;
+      for (Training t : trainings) {
+        if (t.getEmployee() == e) {
+          trained = true;
+          if (t.getStartDate() != null && (lastTraining == null || t.getStartDate().isAfter(lastTraining))) {
+            lastTraining = t.getStartDate();
+          }
+        }
+      }
+
+      Map<String, Object> columns = new HashMap<>();
+      columns.put("id", e.getId());
+      columns.put("full_name", e.getFullName());
+      columns.put("gender", e.getGender() != null ? e.getGender().name() : null);
+      columns.put("competence_rank", e.getCompetenceRank() != null ? e.getCompetenceRank().name() : null);
+      columns.put("competence_level", e.getCompetenceLevel());
+      columns.put("department_id", e.getDepartment() != null ? e.getDepartment().getId() : null);
+      columns.put("birth_date", e.getBirthDate());
+      columns.put("hire_date", e.getHireDate());
+      columns.put("fire_date", e.getFireDate());
+      columns.put("absences", total);
+      columns.put("valid_absences", valid);
+      columns.put("trained", trained);
+      columns.put("last_start", lastTraining);
+      try {
+        AnalyticsQueryRepository.readWorkforceRow(resultSet(columns), row);
+      } catch (SQLException ex) {
+        throw new IllegalStateException(ex);
+      }
+    }
+  }
+
+  /**
+   * Одна строка результата: getXxx по имени колонки, wasNull() - по последней прочитанной колонке, как в JDBC
+   */
+  private static ResultSet resultSet(Map<String, Object> columns) {
+    Object[] last = new Object[1];
+    return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+        (proxy, method, args) -> {
+          if (method.getName().equals("wasNull")) {
+            return last[0] == null;
+          }
+          Object value = columns.get((String) args[0]);
+          last[0] = value;
+          return switch (method.getName()) {
+            case "getString" -> value != null ? value.toString() : null;
+            case "getLong" -> value != null ? ((Number) value).longValue() : 0L;
+            case "getInt" -> value != null ? ((Number) value).intValue() : 0;
+            case "getBoolean" -> value != null && (Boolean) value;
+            case "getObject" -> value;
+            default -> throw new UnsupportedOperationException(method.getName());
+          };
+        });
+  }
+}
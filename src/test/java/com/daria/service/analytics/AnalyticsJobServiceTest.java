@@ -0,0 +1,122 @@
+package com.daria.service.analytics;
+
+import com.daria.dto.AnalyticsDto;
+import com.daria.dto.AnalyticsJobDto;
+import com.daria.exception.ConflictException;
+import com.daria.exception.ResourceNotFoundException;
+import com.daria.exception.ServiceUnavailableException;
+import com.daria.infra.AnalyticsProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AnalyticsJobServiceTest {
+
+  private final AnalyticsCache analyticsCache = mock(AnalyticsCache.class);
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final AnalyticsDto result = new AnalyticsDto(1L, 2.0, 0L, 0L, 0.0, null, null, null, null, null, null, null, null, null);
+  private AnalyticsJobService service;
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    service.shutdown();
+  }
+
+  @Test
+  void deduplicatesIdenticalInFlightJobs() throws Exception {
+    service = newService(1, 1);
+    blockCalculation();
+
+    AnalyticsJobDto first = service.submit(null, "year", AnalyticsSection.all());
+    AnalyticsJobDto second = service.submit(null, "year", AnalyticsSection.all());
+    assertThat(second.id()).isEqualTo(first.id());
+    assertThatThrownBy(() -> service.getResult(first.id())).isInstanceOf(ConflictException.class);
+
+    release.countDown();
+    awaitStatus(first.id(), "DONE");
+    assertThat(service.getResult(first.id())).isSameAs(result);
+    verify(analyticsCache, times(1)).getAnalytics(isNull(), eq("year"), any());
+
+    // После завершения такое же задание запускается заново
+    assertThat(service.submit(null, "year", AnalyticsSection.all()).id()).isNotEqualTo(first.id());
+  }
+
+  @Test
+  void rejectsWhenQueueIsFull() {
+    service = newService(1, 1);
+    blockCalculation();
+
+    service.submit(1L, null, AnalyticsSection.all());
+    service.submit(2L, null, AnalyticsSection.all());
+    assertThatThrownBy(() -> service.submit(3L, null, AnalyticsSection.all()))
+        .isInstanceOf(ServiceUnavailableException.class);
+  }
+
+  @Test
+  void keepsUnfinishedJobsLongerThanResultTtl() throws Exception {
+    service = newService(1, 1, Duration.ofMillis(100));
+    blockCalculation();
+
+    AnalyticsJobDto running = service.submit(null, null, AnalyticsSection.all());
+    AnalyticsJobDto queued = service.submit(1L, null, AnalyticsSection.all());
+    Thread.sleep(300);
+    assertThat(service.getJob(running.id()).status()).isEqualTo("RUNNING");
+    assertThat(service.getJob(queued.id()).status()).isEqualTo("PENDING");
+
+    release.countDown();
+    awaitStatus(queued.id(), "DONE");
+    assertThat(service.getResult(running.id())).isSameAs(result);
+
+    // Срок хранения отсчитывается от завершения
+    Thread.sleep(300);
+    assertThatThrownBy(() -> service.getJob(running.id())).isInstanceOf(ResourceNotFoundException.class);
+  }
+
+  @Test
+  void unknownJobIsNotFound() {
+    service = newService(1, 1);
+    assertThatThrownBy(() -> service.getJob("missing")).isInstanceOf(ResourceNotFoundException.class);
+  }
+
+  private void blockCalculation() {
+    when(analyticsCache.getAnalytics(any(), any(), any())).thenAnswer(invocation -> {
+      release.await(5, TimeUnit.SECONDS);
+      return result;
+    });
+  }
+
+  private AnalyticsJobService newService(int concurrency, int queueCapacity) {
+    return newService(concurrency, queueCapacity, Duration.ofMinutes(30));
+  }
+
+  private AnalyticsJobService newService(int concurrency, int queueCapacity, Duration resultTtl) {
+    AnalyticsProperties properties = new AnalyticsProperties();
+    properties.getJobs().setMaxConcurrency(concurrency);
+    properties.getJobs().setQueueCapacity(queueCapacity);
+    properties.getJobs().setResultTtl(resultTtl);
+    return new AnalyticsJobService(analyticsCache, new AnalyticsSectionRunner(properties), properties);
+  }
+
+  private void awaitStatus(String id, String status) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (!service.getJob(id).status().equals(status) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(service.getJob(id).status()).isEqualTo(status);
+  }
+
+}
@@ -0,0 +1,137 @@
+package com.daria.service.analytics;
+
+import com.daria.dto.AnalyticsDto;
+import com.daria.event.DataChangedEvent;
+import com.daria.infra.AnalyticsProperties;
+import com.daria.repository.AnalyticsQueryRepository;
+import com.daria.repository.AnalyticsQueryRepository.DepartmentRef;
+import com.daria.repository.AnalyticsSnapshotRepository;
+import com.daria.repository.AnalyticsSnapshotRepository.StoredSnapshot;
+import com.daria.service.AnalyticsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AnalyticsPrecomputeServiceTest {
+
+  private final AnalyticsService analyticsService = mock(AnalyticsService.class);
+  private final AnalyticsQueryRepository analyticsQueryRepository = mock(AnalyticsQueryRepository.class);
+  private final AnalyticsSnapshotRepository snapshotRepository = mock(AnalyticsSnapshotRepository.class);
+  private final AnalyticsProperties properties = new AnalyticsProperties();
+  private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+  private final List<StoredSnapshot> stored = new ArrayList<>();
+
+  private final AnalyticsDto analytics = new AnalyticsDto(10L, 2.5, 3L, 1L, 10.0,
+      new AnalyticsDto.AbsencesInfo(4L, 1L), null,
+      List.of(new AnalyticsDto.ChartData("Ж", 6L)), List.of(), List.of(), List.of(),
+      List.of(new AnalyticsDto.HiresFiresData("2024-06", 1L, 0L)), List.of(),
+      List.of(new AnalyticsDto.EmployeeSummary("Иванова", 3, "Да", 2L)));
+
+  @BeforeEach
+  void setUp() {
+    properties.getPrecompute().setEnabled(true);
+    when(analyticsQueryRepository.findDepartments()).thenReturn(List.of(new DepartmentRef(7L, "IT")));
+    when(analyticsService.getAnalytics(any(), any(), anySet())).thenReturn(analytics);
+    doAnswer(invocation -> stored.add(new StoredSnapshot(
+        invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3))))
+        .when(snapshotRepository).save(anyLong(), anyString(), any(), anyString());
+    when(snapshotRepository.findComputedOn(any())).thenAnswer(invocation -> stored);
+  }
+
+  @Test
+  void persistsEveryCombinationAndWarmsRestartedCache() {
+    int saved = newService(new AnalyticsCache(analyticsService, properties)).precomputeAll();
+
+    // (все отделы + 1 отдел) x (все время + 6 периодов)
+    assertThat(saved).isEqualTo(14);
+    assertThat(stored).extracting(StoredSnapshot::departmentId).containsOnly(0L, 7L);
+    assertThat(stored).extracting(StoredSnapshot::period).contains("", "year");
+
+    AnalyticsService restartedService = mock(AnalyticsService.class);
+    AnalyticsCache restartedCache = new AnalyticsCache(restartedService, properties);
+    AnalyticsPrecomputeService restarted = new AnalyticsPrecomputeService(
+        restartedCache, analyticsQueryRepository, snapshotRepository, properties, objectMapper);
+
+    assertThat(restarted.warmStart()).isEqualTo(14);
+    assertThat(restartedCache.getAnalytics(7L, "year")).isEqualTo(analytics);
+    assertThat(restartedCache.getAnalytics(null, null)).isEqualTo(analytics);
+    verify(restartedService, never()).getAnalytics(any(), any(), anySet());
+  }
+
+  @Test
+  void ignoresSnapshotsOfAnotherDay() {
+    stored.add(new StoredSnapshot(7L, "year", LocalDate.now().minusDays(1), "{}"));
+    AnalyticsCache cache = new AnalyticsCache(analyticsService, properties);
+    newService(cache).warmStart();
+
+    cache.getAnalytics(7L, "year");
+    verify(analyticsService).getAnalytics(eq(7L), eq("year"), anySet());
+  }
+
+  @Test
+  void deletesSnapshotsOfAffectedDepartments() {
+    AnalyticsPrecomputeService service = newService(new AnalyticsCache(analyticsService, properties));
+
+    service.onDataChanged(DataChangedEvent.employee(1L, 7L, 8L));
+    verify(snapshotRepository).deleteForDepartments(Set.of(7L, 8L));
+
+    service.onDataChanged(DataChangedEvent.department(7L));
+    verify(snapshotRepository).deleteAll();
+  }
+
+  @Test
+  void dropsResultWhenDataChangesBetweenRefreshAndSave() {
+    AtomicReference<AnalyticsPrecomputeService> service = new AtomicReference<>();
+    // Коммит после расчета: onDataChanged успевает удалить результаты раньше save
+    AnalyticsCache cache = new AnalyticsCache(analyticsService, properties) {
+      @Override
+      public AnalyticsDto refresh(Long departmentId, String period) {
+        AnalyticsDto result = super.refresh(departmentId, period);
+        if (departmentId != null && "year".equals(period)) {
+          service.get().onDataChanged(DataChangedEvent.employee(1L, 7L));
+        }
+        return result;
+      }
+    };
+    service.set(newService(cache));
+
+    assertThat(service.get().precomputeAll()).isEqualTo(13);
+    assertThat(stored).noneMatch(snapshot -> snapshot.departmentId() == 7L && snapshot.period().equals("year"));
+  }
+
+  @Test
+  void deletesResultSavedConcurrentlyWithDataChange() {
+    AtomicReference<AnalyticsPrecomputeService> service = new AtomicReference<>();
+    // Коммит между проверкой эпохи и save: удаление из onDataChanged прошло раньше записи
+    doAnswer(invocation -> {
+      service.get().onDataChanged(DataChangedEvent.employee(1L, 7L));
+      return null;
+    }).when(snapshotRepository).save(eq(7L), eq("year"), any(), anyString());
+    service.set(newService(new AnalyticsCache(analyticsService, properties)));
+
+    assertThat(service.get().precomputeAll()).isEqualTo(13);
+    verify(snapshotRepository).delete(7L, "year");
+  }
+
+  private AnalyticsPrecomputeService newService(AnalyticsCache cache) {
+    return new AnalyticsPrecomputeService(cache, analyticsQueryRepository, snapshotRepository, properties, objectMapper);
+  }
+}
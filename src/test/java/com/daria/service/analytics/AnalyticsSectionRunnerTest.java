@@ -0,0 +1,100 @@
+package com.daria.service.analytics;
+
+import com.daria.exception.ServiceUnavailableException;
+import com.daria.infra.AnalyticsProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AnalyticsSectionRunnerTest {
+
+  private final AnalyticsSectionRunner runner = new AnalyticsSectionRunner(parallel(Duration.ofMillis(50)));
+
+  @AfterEach
+  void tearDown() {
+    runner.shutdown();
+  }
+
+  @Test
+  void failsRequestAfterDeadline() {
+    assertThatThrownBy(this::calculateSlowly).isInstanceOf(ServiceUnavailableException.class);
+  }
+
+  @Test
+  void backgroundCalculationHasNoDeadline() {
+    assertThat(runner.withoutDeadline(this::calculateSlowly)).isEqualTo(42);
+
+    // Вне withoutDeadline крайний срок снова действует
+    assertThatThrownBy(this::calculateSlowly).isInstanceOf(ServiceUnavailableException.class);
+  }
+
+  @Test
+  void waitingForPermitCountsAgainstDeadline() throws Exception {
+    AnalyticsProperties properties = parallel(Duration.ofMillis(50));
+    properties.getParallel().setMaxConcurrency(1);
+    AnalyticsSectionRunner saturated = new AnalyticsSectionRunner(properties);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    try {
+      // Единственное разрешение занято секцией фонового расчета
+      CompletableFuture<Integer> background = CompletableFuture.supplyAsync(() -> saturated.withoutDeadline(() -> {
+        AnalyticsSectionRunner.Batch batch = saturated.begin();
+        Supplier<Integer> value = batch.submit(AnalyticsSection.KPI, () -> {
+          started.countDown();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return 1;
+        });
+        batch.await();
+        return value.get();
+      }));
+      started.await();
+
+      AnalyticsSectionRunner.Batch blocked = saturated.begin();
+      blocked.submit(AnalyticsSection.GENDER, () -> 2);
+      assertThatThrownBy(blocked::await).isInstanceOf(ServiceUnavailableException.class);
+
+      // Отмененная секция не забирает разрешение: следующий запрос выполняется
+      release.countDown();
+      assertThat(background.get()).isEqualTo(1);
+      AnalyticsSectionRunner.Batch next = saturated.begin();
+      Supplier<Integer> value = next.submit(AnalyticsSection.AGE, () -> 3);
+      next.await();
+      assertThat(value.get()).isEqualTo(3);
+    } finally {
+      release.countDown();
+      saturated.shutdown();
+    }
+  }
+
+  private int calculateSlowly() {
+    AnalyticsSectionRunner.Batch batch = runner.begin();
+    Supplier<Integer> value = batch.submit(AnalyticsSection.KPI, () -> {
+      try {
+        Thread.sleep(200);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return 42;
+    });
+    batch.await();
+    return value.get();
+  }
+
+  private static AnalyticsProperties parallel(Duration timeout) {
+    AnalyticsProperties properties = new AnalyticsProperties();
+    properties.getParallel().setEnabled(true);
+    properties.getParallel().setTimeout(timeout);
+    return properties;
+  }
+}
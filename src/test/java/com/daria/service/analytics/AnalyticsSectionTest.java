@@ -0,0 +1,32 @@
+package com.daria.service.analytics;
+
+import com.daria.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AnalyticsSectionTest {
+
+  @Test
+  void missingParameterMeansAllSections() {
+    assertThat(AnalyticsSection.parse(null)).isEqualTo(AnalyticsSection.all());
+    assertThat(AnalyticsSection.parse(" ")).isEqualTo(AnalyticsSection.all());
+    assertThat(AnalyticsSection.parse(", ,")).isEqualTo(AnalyticsSection.all());
+  }
+
+  @Test
+  void parsesKeysCaseInsensitively() {
+    assertThat(AnalyticsSection.parse("kpi, HiresFires,departmentsSummary,kpi"))
+        .isEqualTo(EnumSet.of(AnalyticsSection.KPI, AnalyticsSection.HIRES_FIRES, AnalyticsSection.DEPARTMENTS_SUMMARY));
+  }
+
+  @Test
+  void rejectsUnknownSection() {
+    assertThatThrownBy(() -> AnalyticsSection.parse("kpi,salary"))
+        .isInstanceOf(BadRequestException.class)
+        .hasMessageContaining("salary");
+  }
+}
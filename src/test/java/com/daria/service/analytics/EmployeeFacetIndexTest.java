@@ -0,0 +1,136 @@
+package com.daria.service.analytics;
+
+import com.daria.dto.EmployeeFacetsDto;
+import com.daria.entity.enums.CompetenceRank;
+import com.daria.entity.enums.Gender;
+import com.daria.event.DataChangedEvent;
+import com.daria.repository.AnalyticsQueryRepository;
+import com.daria.repository.WorkforceRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class EmployeeFacetIndexTest {
+
+  private final TreeMap<Long, Employee> table = new TreeMap<>();
+  private final AnalyticsQueryRepository repository = mock(AnalyticsQueryRepository.class);
+  private final EmployeeFacetIndex index = new EmployeeFacetIndex(repository);
+  /** "БД" недоступна: запрос падает после первой строки */
+  private boolean failing;
+
+  private record Employee(long id, long departmentId, Gender gender, CompetenceRank rank, int level, LocalDate fire) {}
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    doAnswer(invocation -> {
+      Collection<Long> ids = invocation.getArgument(0);
+      Consumer<WorkforceRow> consumer = invocation.getArgument(1);
+      WorkforceRow row = new WorkforceRow();
+      for (Employee e : table.values()) {
+        if (ids == null || ids.contains(e.id())) {
+          row.setId(e.id());
+          row.setDepartmentId(e.departmentId());
+          row.setGender(e.gender());
+          row.setCompetenceRank(e.rank());
+          row.setCompetenceLevel(e.level());
+          row.setFireDay(EpochDays.of(e.fire()));
+          consumer.accept(row);
+          if (failing) {
+            throw new IllegalStateException("connection lost");
+          }
+        }
+      }
+      return null;
+    }).when(repository).scanEmployeeAttributes(any(), any(Consumer.class));
+
+    put(new Employee(1, 7, Gender.Ж, CompetenceRank.SENIOR, 3, null));
+    put(new Employee(2, 7, Gender.Ж, CompetenceRank.SENIOR, 2, LocalDate.now().minusDays(1)));
+    put(new Employee(3, 7, Gender.М, CompetenceRank.SENIOR, 3, null));
+    put(new Employee(4, 8, Gender.Ж, CompetenceRank.JUNIOR, 1, LocalDate.now().plusDays(30)));
+    put(new Employee(5, 0, Gender.Ж, CompetenceRank.SENIOR, 0, null));
+  }
+
+  @Test
+  void countsCombinedFilterAndFacetsExcludingOwnFilter() {
+    EmployeeFacetsDto facets = index.count(
+        new EmployeeFacetIndex.Query(7L, Gender.Ж, CompetenceRank.SENIOR, null, EmployeeFacetIndex.Status.ACTIVE));
+
+    assertThat(facets.total()).isEqualTo(1);
+    // Отделы: активные SENIOR женщины без фильтра по отделу
+    assertThat(facets.departments()).containsExactly(Map.entry("none", 1L), Map.entry("7", 1L));
+    assertThat(facets.genders()).containsExactly(Map.entry("М", 1L), Map.entry("Ж", 1L));
+    assertThat(facets.ranks()).containsExactly(Map.entry("SENIOR", 1L));
+    assertThat(facets.competenceLevels()).containsExactly(Map.entry("3", 1L));
+    assertThat(facets.statuses()).containsExactly(Map.entry("ACTIVE", 1L), Map.entry("FIRED", 1L));
+  }
+
+  @Test
+  void unknownValueMatchesNothing() {
+    assertThat(index.count(new EmployeeFacetIndex.Query(99L, null, null, null, null)).total()).isZero();
+    assertThat(index.count(new EmployeeFacetIndex.Query(null, null, null, null, null)).total()).isEqualTo(5);
+  }
+
+  @Test
+  void appliesEmployeeChangesAfterEvents() {
+    index.count(new EmployeeFacetIndex.Query(null, null, null, null, null));
+
+    put(new Employee(3, 8, Gender.М, CompetenceRank.MIDDLE, 2, null));
+    table.remove(4L);
+    index.onDataChanged(DataChangedEvent.employee(3L, 7L, 8L));
+    index.onDataChanged(DataChangedEvent.employee(4L, 8L));
+
+    EmployeeFacetsDto facets = index.count(new EmployeeFacetIndex.Query(null, null, null, null, null));
+    assertThat(facets.total()).isEqualTo(4);
+    assertThat(facets.departments()).containsExactly(
+        Map.entry("none", 1L), Map.entry("7", 2L), Map.entry("8", 1L));
+    assertThat(facets.ranks()).containsEntry("MIDDLE", 1L).doesNotContainKey("JUNIOR");
+  }
+
+  @Test
+  void keepsCountsAndRetriesEmployeesAfterFailedUpdate() {
+    EmployeeFacetIndex.Query everyone = new EmployeeFacetIndex.Query(null, null, null, null, null);
+    index.count(everyone);
+
+    put(new Employee(3, 8, Gender.М, CompetenceRank.MIDDLE, 2, null));
+    put(new Employee(4, 8, Gender.Ж, CompetenceRank.MIDDLE, 1, null));
+    index.onDataChanged(DataChangedEvent.employee(3L, 7L, 8L));
+    index.onDataChanged(DataChangedEvent.employee(4L, 8L));
+    failing = true;
+    assertThatThrownBy(() -> index.count(everyone)).isInstanceOf(IllegalStateException.class);
+
+    failing = false;
+    EmployeeFacetsDto facets = index.count(everyone);
+    assertThat(facets.total()).isEqualTo(5);
+    assertThat(facets.ranks()).containsEntry("MIDDLE", 2L);
+  }
+
+  @Test
+  void retriesRebuildAfterFailure() {
+    EmployeeFacetIndex.Query everyone = new EmployeeFacetIndex.Query(null, null, null, null, null);
+    index.count(everyone);
+
+    put(new Employee(3, 0, Gender.М, CompetenceRank.SENIOR, 3, null));
+    index.onDataChanged(DataChangedEvent.department(7L));
+    failing = true;
+    assertThatThrownBy(() -> index.count(everyone)).isInstanceOf(IllegalStateException.class);
+
+    failing = false;
+    assertThat(index.count(everyone).departments()).containsEntry("none", 2L).containsEntry("7", 2L);
+  }
+
+  private void put(Employee employee) {
+    table.put(employee.id(), employee);
+  }
+}
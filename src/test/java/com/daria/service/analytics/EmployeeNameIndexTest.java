@@ -0,0 +1,84 @@
+package com.daria.service.analytics;
+
+import com.daria.dto.EmployeeSuggestionDto;
+import com.daria.event.DataChangedEvent;
+import com.daria.repository.AnalyticsQueryRepository;
+import com.daria.repository.WorkforceRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class EmployeeNameIndexTest {
+
+  private final TreeMap<Long, String> table = new TreeMap<>();
+  private final AnalyticsQueryRepository repository = mock(AnalyticsQueryRepository.class);
+  private final EmployeeNameIndex index = new EmployeeNameIndex(repository);
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    doAnswer(invocation -> {
+      Collection<Long> ids = invocation.getArgument(0);
+      Consumer<WorkforceRow> consumer = invocation.getArgument(1);
+      WorkforceRow row = new WorkforceRow();
+      table.forEach((id, name) -> {
+        if (ids == null || ids.contains(id)) {
+          row.setId(id);
+          row.setFullName(name);
+          consumer.accept(row);
+        }
+      });
+      return null;
+    }).when(repository).scanEmployeeNames(any(), any(Consumer.class));
+
+    table.put(1L, "Иванов Иван Иванович");
+    table.put(2L, "Петрова Анна Сергеевна");
+    table.put(3L, "Семёнов Пётр Иванович");
+    table.put(4L, "Салтыкова-Щедрина Мария");
+  }
+
+  @Test
+  void matchesAnyWordPrefixIgnoringCaseAndYo() {
+    assertThat(ids(index.suggest("ИВАН", 10))).containsExactly(1L, 3L);
+    assertThat(ids(index.suggest("петр", 10))).containsExactly(3L, 2L);
+    assertThat(ids(index.suggest("щед", 10))).containsExactly(4L);
+    assertThat(index.suggest(" ", 10)).isEmpty();
+  }
+
+  @Test
+  void requiresEveryQueryWordAndRespectsLimit() {
+    assertThat(ids(index.suggest("иван сем", 10))).containsExactly(3L);
+    assertThat(index.suggest("иван", 1)).hasSize(1);
+  }
+
+  @Test
+  void appliesEmployeeChangesAfterEvents() {
+    index.suggest("а", 10);
+
+    table.put(2L, "Петрова-Иванова Анна");
+    table.remove(1L);
+    table.put(5L, "Иваненко Олег");
+    index.onDataChanged(DataChangedEvent.employee(2L));
+    index.onDataChanged(DataChangedEvent.employee(1L));
+    index.onDataChanged(DataChangedEvent.employee(5L));
+
+    assertThat(ids(index.suggest("иван", 10))).containsExactly(5L, 2L, 3L);
+    verify(repository, times(1)).scanEmployeeNames(isNull(), any());
+  }
+
+  private static List<Long> ids(List<EmployeeSuggestionDto> suggestions) {
+    return suggestions.stream().map(EmployeeSuggestionDto::id).toList();
+  }
+}
@@ -0,0 +1,42 @@
+package com.daria.service.analytics;
+
+import com.daria.exception.BadRequestException;
+import com.daria.repository.AnalyticsQueryRepository.EmployeeAggregate;
+import com.daria.repository.AnalyticsQueryRepository.SummaryKeyset;
+import com.daria.repository.AnalyticsQueryRepository.SummarySort;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmployeeSummaryCursorTest {
+
+  private static final EmployeeAggregate LAST = new EmployeeAggregate(42L, "Иванов: Иван", null, true, 7);
+
+  @Test
+  void roundTripsEverySort() {
+    assertThat(EmployeeSummaryCursor.decode(EmployeeSummaryCursor.encode(SummarySort.NAME, false, LAST), SummarySort.NAME, false))
+        .isEqualTo(new SummaryKeyset("Иванов: Иван", 42L));
+    assertThat(EmployeeSummaryCursor.decode(EmployeeSummaryCursor.encode(SummarySort.COMPETENCE, true, LAST), SummarySort.COMPETENCE, true))
+        .isEqualTo(new SummaryKeyset(0, 42L));
+    assertThat(EmployeeSummaryCursor.decode(EmployeeSummaryCursor.encode(SummarySort.ABSENCES, false, LAST), SummarySort.ABSENCES, false))
+        .isEqualTo(new SummaryKeyset(7L, 42L));
+  }
+
+  @Test
+  void emptyCursorMeansFirstPage() {
+    assertThat(EmployeeSummaryCursor.decode(null, SummarySort.NAME, false)).isNull();
+    assertThat(EmployeeSummaryCursor.decode(" ", SummarySort.NAME, false)).isNull();
+  }
+
+  @Test
+  void rejectsForeignOrDamagedCursor() {
+    String cursor = EmployeeSummaryCursor.encode(SummarySort.NAME, false, LAST);
+    assertThatThrownBy(() -> EmployeeSummaryCursor.decode(cursor, SummarySort.NAME, true))
+        .isInstanceOf(BadRequestException.class);
+    assertThatThrownBy(() -> EmployeeSummaryCursor.decode(cursor, SummarySort.ABSENCES, false))
+        .isInstanceOf(BadRequestException.class);
+    assertThatThrownBy(() -> EmployeeSummaryCursor.decode("not base64!", SummarySort.NAME, false))
+        .isInstanceOf(BadRequestException.class);
+  }
+}
@@ -0,0 +1,44 @@
+package com.daria.service.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EpochDaysTest {
+
+  @Test
+  void monthIndexMatchesLocalDate() {
+    for (LocalDate date = LocalDate.of(1899, 1, 1); date.isBefore(LocalDate.of(2101, 1, 1)); date = date.plusDays(1)) {
+      assertThat(EpochDays.monthIndex(EpochDays.of(date))).as(date.toString()).isEqualTo(EpochDays.monthIndex(date));
+    }
+  }
+
+  @Test
+  void yearsBetweenMatchesChronoUnit() {
+    Random random = new Random(42);
+    for (int i = 0; i < 200_000; i++) {
+      LocalDate from = LocalDate.of(1940, 1, 1).plusDays(random.nextInt(365 * 90));
+      LocalDate to = from.plusDays(random.nextInt(365 * 70));
+      int fromPacked = EpochDays.packed(EpochDays.of(from));
+      int toPacked = EpochDays.packed(EpochDays.of(to));
+      assertThat(EpochDays.yearsBetween(fromPacked, toPacked))
+          .as(from + " -> " + to)
+          .isEqualTo(ChronoUnit.YEARS.between(from, to));
+    }
+  }
+
+  @Test
+  void leapDayBirthdays() {
+    LocalDate birth = LocalDate.of(2000, 2, 29);
+    for (LocalDate today : new LocalDate[] {
+        LocalDate.of(2018, 2, 28), LocalDate.of(2018, 3, 1), LocalDate.of(2024, 2, 28), LocalDate.of(2024, 2, 29)}) {
+      assertThat(EpochDays.yearsBetween(EpochDays.packed(EpochDays.of(birth)), EpochDays.packed(EpochDays.of(today))))
+          .as(today.toString())
+          .isEqualTo(ChronoUnit.YEARS.between(birth, today));
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package com.daria.service.analytics;
+
+import com.daria.event.DataChangedEvent;
+import com.daria.repository.AnalyticsQueryRepository;
+import com.daria.repository.WorkforceRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class HeadcountIndexTest {
+
+  private final TreeMap<Long, Employee> table = new TreeMap<>();
+  private final AnalyticsQueryRepository repository = mock(AnalyticsQueryRepository.class);
+  private final HeadcountIndex index = new HeadcountIndex(repository);
+
+  private record Employee(long id, long departmentId, LocalDate hire, LocalDate fire) {}
+
+  @BeforeEach
+  void setUp() {
+    setUpRepository();
+
+    put(new Employee(1, 7, date(2020, 1, 1), null));
+    put(new Employee(2, 7, date(2021, 3, 1), date(2022, 6, 30)));
+    put(new Employee(3, 8, date(2022, 1, 1), null));
+    put(new Employee(4, 0, date(2019, 5, 5), date(2023, 1, 1)));
+    // Уволен в день приема - не работал ни дня
+    put(new Employee(5, 8, date(2022, 2, 1), date(2022, 2, 1)));
+  }
+
+  @SuppressWarnings("unchecked")
+  private void setUpRepository() {
+    doAnswer(invocation -> {
+      Collection<Long> ids = invocation.getArgument(0);
+      Consumer<WorkforceRow> consumer = invocation.getArgument(1);
+      WorkforceRow row = new WorkforceRow();
+      for (Employee e : table.values()) {
+        if (ids == null || ids.contains(e.id())) {
+          row.setId(e.id());
+          row.setDepartmentId(e.departmentId());
+          row.setHireDay(EpochDays.of(e.hire()));
+          row.setFireDay(EpochDays.of(e.fire()));
+          consumer.accept(row);
+        }
+      }
+      return null;
+    }).when(repository).scanEmployeeAttributes(any(), any(Consumer.class));
+  }
+
+  @Test
+  void countsEmployedOnDateByHireAndFireDay() {
+    assertThat(index.headcount(null, date(2019, 5, 4))).isZero();
+    assertThat(index.headcount(null, date(2019, 5, 5))).isEqualTo(1);
+    assertThat(index.headcount(null, date(2022, 6, 29))).isEqualTo(4);
+    // В день увольнения сотрудник уже не учитывается
+    assertThat(index.headcount(null, date(2022, 6, 30))).isEqualTo(3);
+    assertThat(index.headcount(null, date(2023, 1, 1))).isEqualTo(2);
+    assertThat(index.headcount(null, date(2022, 2, 1))).isEqualTo(4);
+
+    assertThat(index.headcount(7L, date(2022, 1, 1))).isEqualTo(2);
+    assertThat(index.headcount(8L, date(2022, 2, 1))).isEqualTo(1);
+    assertThat(index.headcount(99L, date(2022, 2, 1))).isZero();
+  }
+
+  @Test
+  void answersSeriesFromOneIndexSnapshot() {
+    long[] series = index.headcount(7L, List.of(date(2020, 12, 31), date(2021, 12, 31), date(2022, 12, 31)));
+    assertThat(series).containsExactly(1, 2, 1);
+  }
+
+  @Test
+  void appliesEmployeeChangesAfterEvents() {
+    assertThat(index.headcount(7L, date(2024, 1, 1))).isEqualTo(1);
+
+    put(new Employee(1, 8, date(2020, 1, 1), date(2023, 12, 1)));
+    put(new Employee(6, 7, date(2023, 6, 1), null));
+    table.remove(3L);
+    index.onDataChanged(DataChangedEvent.employee(1L, 7L, 8L));
+    index.onDataChanged(DataChangedEvent.employee(6L, 7L));
+    index.onDataChanged(DataChangedEvent.employee(3L, 8L));
+
+    assertThat(index.headcount(7L, date(2024, 1, 1))).isEqualTo(1);
+    assertThat(index.headcount(8L, date(2023, 11, 30))).isEqualTo(1);
+    assertThat(index.headcount(8L, date(2024, 1, 1))).isZero();
+    assertThat(index.headcount(null, date(2024, 1, 1))).isEqualTo(1);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void keepsPreviousIndexWhenRebuildFails() {
+    assertThat(index.headcount(null, date(2022, 1, 1))).isEqualTo(4);
+
+    // Строки успевают прийти до ошибки: частичная загрузка не должна попасть в индекс
+    doAnswer(invocation -> {
+      Consumer<WorkforceRow> consumer = invocation.getArgument(1);
+      WorkforceRow row = new WorkforceRow();
+      row.setId(1L);
+      row.setDepartmentId(7L);
+      row.setHireDay(EpochDays.of(date(2020, 1, 1)));
+      row.setFireDay(EpochDays.NO_DATE);
+      consumer.accept(row);
+      throw new IllegalStateException("connection lost");
+    }).when(repository).scanEmployeeAttributes(any(), any(Consumer.class));
+    index.onDataChanged(DataChangedEvent.department(7L));
+
+    assertThatThrownBy(() -> index.headcount(null, date(2022, 1, 1))).isInstanceOf(IllegalStateException.class);
+
+    // Следующее изменение сотрудника не публикует частичную карту, перестройка все еще ожидается
+    index.onDataChanged(DataChangedEvent.employee(2L, 7L));
+    assertThatThrownBy(() -> index.headcount(null, date(2022, 1, 1))).isInstanceOf(IllegalStateException.class);
+
+    put(new Employee(6, 8, date(2021, 1, 1), null));
+    setUpRepository();
+    assertThat(index.headcount(null, date(2022, 1, 1))).isEqualTo(5);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void requeuesEmployeesWhenIncrementalReadFails() {
+    assertThat(index.headcount(8L, date(2024, 1, 1))).isEqualTo(1);
+
+    doAnswer(invocation -> {
+      throw new IllegalStateException("connection lost");
+    }).when(repository).scanEmployeeAttributes(any(), any(Consumer.class));
+    table.remove(3L);
+    index.onDataChanged(DataChangedEvent.employee(3L, 8L));
+    assertThatThrownBy(() -> index.headcount(8L, date(2024, 1, 1))).isInstanceOf(IllegalStateException.class);
+
+    setUpRepository();
+    assertThat(index.headcount(8L, date(2024, 1, 1))).isZero();
+  }
+
+  private void put(Employee employee) {
+    table.put(employee.id(), employee);
+  }
+
+  private static LocalDate date(int year, int month, int day) {
+    return LocalDate.of(year, month, day);
+  }
+}
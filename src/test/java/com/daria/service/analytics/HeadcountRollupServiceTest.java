@@ -0,0 +1,144 @@
+package com.daria.service.analytics;
+
+import com.daria.entity.Department;
+import com.daria.entity.Employee;
+import com.daria.event.DataVersion;
+import com.daria.repository.EmployeeRollupRepository;
+import com.daria.service.analytics.HeadcountRollupService.Snapshot;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class HeadcountRollupServiceTest {
+
+  private static final LocalDate JAN_15 = LocalDate.of(2024, 1, 15);
+  private static final LocalDate JAN_31 = LocalDate.of(2024, 1, 31);
+  private static final LocalDate MAR_10 = LocalDate.of(2024, 3, 10);
+  private static final YearMonth JAN = YearMonth.of(2024, 1);
+  private static final YearMonth MAR = YearMonth.of(2024, 3);
+
+  private final EmployeeRollupRepository repository = mock(EmployeeRollupRepository.class);
+  private final DataVersion dataVersion = new DataVersion();
+  private final HeadcountRollupService service = new HeadcountRollupService(repository, dataVersion);
+
+  @Test
+  void createdEmployeeAddsHireAndFire() {
+    service.onEmployeeChanged(null, new Snapshot(7L, JAN_15, MAR_10));
+
+    verify(repository).add(7L, JAN, 1, 0);
+    verify(repository).add(7L, MAR, 0, 1);
+    verifyNoMoreInteractions(repository);
+  }
+
+  @Test
+  void hireAndFireInOneMonthShareOneRow() {
+    service.onEmployeeChanged(null, new Snapshot(7L, JAN_15, JAN_31));
+
+    verify(repository).add(7L, JAN, 1, 1);
+    verifyNoMoreInteractions(repository);
+  }
+
+  @Test
+  void employeeWithoutDepartmentCountsInNoDepartment() {
+    service.onEmployeeChanged(null, new Snapshot(null, JAN_15, null));
+
+    verify(repository).add(EmployeeRollupRepository.NO_DEPARTMENT, JAN, 1, 0);
+    verifyNoMoreInteractions(repository);
+  }
+
+  @Test
+  void deletedEmployeeSubtractsHireAndFire() {
+    service.onEmployeeChanged(new Snapshot(7L, JAN_15, MAR_10), null);
+
+    verify(repository).add(7L, JAN, -1, 0);
+    verify(repository).add(7L, MAR, 0, -1);
+    verifyNoMoreInteractions(repository);
+  }
+
+  @Test
+  void departmentChangeMovesBothMonths() {
+    service.onEmployeeChanged(new Snapshot(7L, JAN_15, MAR_10), new Snapshot(8L, JAN_15, MAR_10));
+
+    verify(repository).add(7L, JAN, -1, 0);
+    verify(repository).add(7L, MAR, 0, -1);
+    verify(repository).add(8L, JAN, 1, 0);
+    verify(repository).add(8L, MAR, 0, 1);
+    verifyNoMoreInteractions(repository);
+  }
+
+  @Test
+  void leavingDepartmentMovesToNoDepartment() {
+    service.onEmployeeChanged(new Snapshot(7L, JAN_15, null), new Snapshot(null, JAN_15, null));
+
+    verify(repository).add(7L, JAN, -1, 0);
+    verify(repository).add(EmployeeRollupRepository.NO_DEPARTMENT, JAN, 1, 0);
+    verifyNoMoreInteractions(repository);
+  }
+
+  @Test
+  void hireDateChangeMovesMonthOnlyAcrossMonths() {
+    service.onEmployeeChanged(new Snapshot(7L, JAN_15, null), new Snapshot(7L, JAN_31, null));
+    verifyNoInteractions(repository);
+
+    service.onEmployeeChanged(new Snapshot(7L, JAN_15, null), new Snapshot(7L, MAR_10, null));
+    verify(repository).add(7L, JAN, -1, 0);
+    verify(repository).add(7L, MAR, 1, 0);
+    verifyNoMoreInteractions(repository);
+  }
+
+  @Test
+  void firingAndRehiringTouchOnlyFireMonth() {
+    service.onEmployeeChanged(new Snapshot(7L, JAN_15, null), new Snapshot(7L, JAN_15, MAR_10));
+    verify(repository).add(7L, MAR, 0, 1);
+
+    service.onEmployeeChanged(new Snapshot(7L, JAN_15, MAR_10), new Snapshot(7L, JAN_15, null));
+    verify(repository).add(7L, MAR, 0, -1);
+    verifyNoMoreInteractions(repository);
+  }
+
+  @Test
+  void unchangedEmployeeDoesNotTouchRollup() {
+    service.onEmployeeChanged(new Snapshot(7L, JAN_15, MAR_10), new Snapshot(7L, JAN_15, MAR_10));
+    service.onEmployeeChanged(null, new Snapshot(7L, null, null));
+
+    verifyNoInteractions(repository);
+  }
+
+  @Test
+  void snapshotReadsDepartmentAndDates() {
+    Employee employee = Employee.builder()
+        .department(Department.builder().id(7L).build())
+        .hireDate(JAN_15)
+        .fireDate(MAR_10)
+        .build();
+
+    assertThat(Snapshot.of(employee)).isEqualTo(new Snapshot(7L, JAN_15, MAR_10));
+    employee.setDepartment(null);
+    assertThat(Snapshot.of(employee).departmentId()).isNull();
+  }
+
+  @Test
+  void deletedDepartmentMovesToNoDepartment() {
+    service.onDepartmentDeleted(7L);
+
+    verify(repository).moveToNoDepartment(7L);
+    verifyNoMoreInteractions(repository);
+  }
+
+  @Test
+  void rebuildBumpsDataVersion() {
+    when(repository.rebuild()).thenReturn(12);
+    long version = dataVersion.current();
+
+    assertThat(service.rebuild()).isEqualTo(12);
+    assertThat(dataVersion.current()).isEqualTo(version + 1);
+  }
+}
@@ -0,0 +1,40 @@
+package com.daria.service.analytics;
+
+import com.daria.dto.AnalyticsDto;
+import com.daria.repository.AnalyticsQueryRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class InMemoryAnalyticsEngineTest {
+
+  private final AnalyticsQueryRepository repository = mock(AnalyticsQueryRepository.class);
+  private final WorkforceSnapshot snapshot = mock(WorkforceSnapshot.class);
+  private final InMemoryAnalyticsEngine engine = new InMemoryAnalyticsEngine(repository, snapshot);
+
+  @Test
+  void skipsWorkforceScanWhenNoRowSectionRequested() {
+    LocalDate today = LocalDate.of(2026, 10, 18);
+
+    AnalyticsDto memory = engine.compute(null, null, today, Set.of(AnalyticsSection.ABSENCE_DAYS), false);
+    AnalyticsDto fromSnapshot = engine.compute(1L, null, today, Set.of(AnalyticsSection.ABSENCE_DAYS), true);
+
+    verifyNoInteractions(repository, snapshot);
+    assertThat(memory.totalEmployees()).isNull();
+    assertThat(fromSnapshot.gender()).isNull();
+  }
+
+  @Test
+  void scansWorkforceForRowSections() {
+    engine.compute(null, null, LocalDate.of(2026, 10, 18), Set.of(AnalyticsSection.ABSENCE_DAYS, AnalyticsSection.KPI), false);
+
+    verify(repository).scanWorkforce(any(), any());
+  }
+}
@@ -0,0 +1,441 @@
+package com.daria.service.analytics;
+
+import com.daria.dto.AnalyticsDto;
+import com.daria.entity.AbsenceEntity;
+import com.daria.entity.Department;
+import com.daria.entity.Employee;
+import com.daria.entity.Training;
+import com.daria.entity.enums.CompetenceRank;
+import com.daria.entity.enums.Gender;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Эталонный расчет аналитики: исходные calculate* методы AnalyticsService
+ * (до перехода на SQL-агрегаты и аккумуляторы), работающие со списками сущностей.
+ * 
+ * Отличие от исходного кода только одно: текущая дата передается явно вместо LocalDate.now().
+ */
+class LegacyAnalyticsCalculator {
+
+  private final LocalDate now;
+  private final List<Department> allDepartments;
+  private final List<Employee> allEmployees;
+  private final List<AbsenceEntity> allAbsences;
+  private final List<Training> allTrainings;
+
+  LegacyAnalyticsCalculator(LocalDate now, List<Department> departments, List<Employee> employees,
+                            List<AbsenceEntity> absences, List<Training> trainings) {
+    this.now = now;
+    this.allDepartments = departments;
+    this.allEmployees = employees;
+    this.allAbsences = absences;
+    this.allTrainings = trainings;
+  }
+
+  AnalyticsDto getAnalytics(Long departmentId, String period) {
+    List<Employee> employees = getFilteredEmployees(departmentId, period);
+
+    Long totalEmployees = (long) employees.size();
+    Double avgCompetence = calculateAvgCompetence(employees);
+    Long trained = calculateTrainedCount(employees, allTrainings, period);
+    Long fired = calculateFiredCount(employees, period);
+    Double turnoverRate = calculateTurnoverRate(totalEmployees, fired);
+    AnalyticsDto.AbsencesInfo absences = calculateAbsencesInfo(employees, allAbsences);
+
+    return new AnalyticsDto(
+        totalEmployees,
+        avgCompetence,
+        trained,
+        fired,
+        turnoverRate,
+        absences,
+        null,
+        calculateGenderDistribution(employees),
+        calculateAgeDistribution(employees),
+        calculateRankDistribution(employees),
+        calculateDepartmentDistribution(employees),
+        calculateHiresFires(employees, period),
+        calculateDepartmentsSummary(employees),
+        calculateEmployeesSummary(employees, allTrainings, allAbsences)
+    );
+  }
+
+  List<Employee> getFilteredEmployees(Long departmentId, String period) {
+    List<Employee> result = allEmployees.stream()
+        .filter(e -> e != null)
+        .collect(Collectors.toList());
+
+    if (departmentId != null) {
+      result = result.stream()
+          .filter(e -> {
+            if (e.getDepartment() == null) {
+              return false;
+            }
+            if (e.getDepartment().getId() == null) {
+              return false;
+            }
+            return e.getDepartment().getId().equals(departmentId);
+          })
+          .collect(Collectors.toList());
+    }
+
+    if (period != null && !period.isEmpty()) {
+      LocalDate periodStart = getPeriodStart(period);
+      if (periodStart != null) {
+        result = result.stream()
+            .filter(e -> {
+              if (e.getHireDate() != null && !e.getHireDate().isBefore(periodStart)) {
+                return true;
+              }
+              if (e.getFireDate() != null && !e.getFireDate().isBefore(periodStart)) {
+                return true;
+              }
+              if (e.getHireDate() != null && e.getHireDate().isBefore(periodStart)) {
+                return e.getFireDate() == null || e.getFireDate().isAfter(periodStart);
+              }
+              return false;
+            })
+            .collect(Collectors.toList());
+      }
+    }
+
+    return result;
+  }
+
+  LocalDate getPeriodStart(String period) {
+    if (period == null || period.trim().isEmpty()) {
+      return null;
+    }
+
+    String normalizedPeriod = period.trim().toLowerCase();
+
+    return switch (normalizedPeriod) {
+      case "month" -> now.minusMonths(1);
+      case "quarter" -> now.minusMonths(3);
+      case "year" -> now.minusYears(1);
+      case "2years" -> now.minusYears(2);
+      case "3years" -> now.minusYears(3);
+      case "5years" -> now.minusYears(5);
+      default -> null;
+    };
+  }
+
+  private Double calculateAvgCompetence(List<Employee> employees) {
+    if (employees.isEmpty()) {
+      return 0.0;
+    }
+
+    double sum = employees.stream()
+        .filter(e -> e.getCompetenceLevel() != null)
+        .mapToInt(Employee::getCompetenceLevel)
+        .sum();
+
+    long count = employees.stream()
+        .filter(e -> e.getCompetenceLevel() != null)
+        .count();
+
+    return count > 0 ? sum / count : 0.0;
+  }
+
+  private Long calculateTrainedCount(List<Employee> employees, List<Training> allTrainings, String period) {
+    if (employees.isEmpty()) {
+      return 0L;
+    }
+
+    LocalDate periodStart = getPeriodStart(period);
+
+    Set<Long> trainedEmployeeIds = allTrainings.stream()
+        .filter(t -> {
+          if (t.getEmployee() == null || t.getStartDate() == null) {
+            return false;
+          }
+          if (periodStart != null) {
+            return !t.getStartDate().isBefore(periodStart);
+          }
+          return true;
+        })
+        .map(t -> t.getEmployee().getId())
+        .collect(Collectors.toSet());
+
+    return employees.stream()
+        .filter(e -> trainedEmployeeIds.contains(e.getId()))
+        .count();
+  }
+
+  private Long calculateFiredCount(List<Employee> employees, String period) {
+    LocalDate periodStart = getPeriodStart(period);
+
+    return employees.stream()
+        .filter(e -> {
+          if (e.getFireDate() == null) {
+            return false;
+          }
+          if (e.getFireDate().isAfter(now)) {
+            return false;
+          }
+          if (periodStart != null) {
+            return !e.getFireDate().isBefore(periodStart);
+          }
+          return true;
+        })
+        .count();
+  }
+
+  private Double calculateTurnoverRate(Long totalEmployees, Long fired) {
+    if (totalEmployees == null || totalEmployees == 0) {
+      return 0.0;
+    }
+    return (fired.doubleValue() / totalEmployees.doubleValue()) * 100.0;
+  }
+
+  private AnalyticsDto.AbsencesInfo calculateAbsencesInfo(List<Employee> employees, List<AbsenceEntity> allAbsences) {
+    if (employees.isEmpty()) {
+      return new AnalyticsDto.AbsencesInfo(0L, 0L);
+    }
+
+    Set<Long> employeeIds = employees.stream()
+        .map(Employee::getId)
+        .collect(Collectors.toSet());
+
+    List<AbsenceEntity> relevantAbsences = allAbsences.stream()
+        .filter(a -> a.getEmployee() != null && employeeIds.contains(a.getEmployee().getId()))
+        .collect(Collectors.toList());
+
+    long valid = relevantAbsences.stream()
+        .filter(a -> {
+          if (a.getStatus() == null) {
+            return false;
+          }
+          return a.getStatus() == com.daria.entity.enums.AbsenceStatus.GOOD_REASON;
+        })
+        .count();
+
+    long invalid = relevantAbsences.size() - valid;
+
+    return new AnalyticsDto.AbsencesInfo(valid, invalid);
+  }
+
+  private List<AnalyticsDto.ChartData> calculateGenderDistribution(List<Employee> employees) {
+    if (employees.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    Map<Gender, Long> distribution = employees.stream()
+        .filter(e -> e.getGender() != null)
+        .collect(Collectors.groupingBy(
+            Employee::getGender,
+            Collectors.counting()
+        ));
+
+    return distribution.entrySet().stream()
+        .map(e -> new AnalyticsDto.ChartData(
+            e.getKey() == Gender.М ? "Мужчины" : "Женщины",
+            e.getValue()
+        ))
+        .collect(Collectors.toList());
+  }
+
+  private List<AnalyticsDto.ChartData> calculateAgeDistribution(List<Employee> employees) {
+    Map<String, Long> ageGroups = new LinkedHashMap<>();
+    ageGroups.put("18–25", 0L);
+    ageGroups.put("26–35", 0L);
+    ageGroups.put("36–45", 0L);
+    ageGroups.put("46+", 0L);
+
+    employees.forEach(e -> {
+      if (e.getBirthDate() != null) {
+        long age = ChronoUnit.YEARS.between(e.getBirthDate(), now);
+        if (age >= 18 && age <= 25) {
+          ageGroups.put("18–25", ageGroups.get("18–25") + 1);
+        } else if (age <= 35) {
+          ageGroups.put("26–35", ageGroups.get("26–35") + 1);
+        } else if (age <= 45) {
+          ageGroups.put("36–45", ageGroups.get("36–45") + 1);
+        } else {
+          ageGroups.put("46+", ageGroups.get("46+") + 1);
+        }
+      }
+    });
+
+    return ageGroups.entrySet().stream()
+        .map(e -> new AnalyticsDto.ChartData(e.getKey(), e.getValue()))
+        .collect(Collectors.toList());
+  }
+
+  private List<AnalyticsDto.ChartData> calculateRankDistribution(List<Employee> employees) {
+    Map<String, Long> distribution = employees.stream()
+        .collect(Collectors.groupingBy(
+            e -> {
+              CompetenceRank rank = e.getCompetenceRank();
+              if (rank == null) return "Не указан";
+              return switch (rank) {
+                case JUNIOR -> "Начальный";
+                case MIDDLE -> "Средний";
+                case SENIOR -> "Высокий";
+              };
+            },
+            Collectors.counting()
+        ));
+
+    return distribution.entrySet().stream()
+        .map(e -> new AnalyticsDto.ChartData(e.getKey(), e.getValue()))
+        .collect(Collectors.toList());
+  }
+
+  private List<AnalyticsDto.DepartmentChartData> calculateDepartmentDistribution(List<Employee> employees) {
+    if (employees == null || employees.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    Map<String, Long> distribution = employees.stream()
+        .filter(e -> {
+          if (e == null) {
+            return false;
+          }
+          if (e.getDepartment() == null) {
+            return false;
+          }
+          if (e.getDepartment().getName() == null || e.getDepartment().getName().trim().isEmpty()) {
+            return false;
+          }
+          return true;
+        })
+        .collect(Collectors.groupingBy(
+            e -> e.getDepartment().getName(),
+            Collectors.counting()
+        ));
+
+    return distribution.entrySet().stream()
+        .map(e -> new AnalyticsDto.DepartmentChartData(e.getKey(), e.getValue()))
+        .collect(Collectors.toList());
+  }
+
+  private List<AnalyticsDto.HiresFiresData> calculateHiresFires(List<Employee> employees, String period) {
+    List<AnalyticsDto.HiresFiresData> result = new ArrayList<>();
+    LocalDate periodStart = getPeriodStart(period);
+
+    Map<String, Long> hiresByMonth = new LinkedHashMap<>();
+    Map<String, Long> firesByMonth = new LinkedHashMap<>();
+
+    LocalDate startDate = periodStart != null ? periodStart : LocalDate.of(now.getYear(), 1, 1);
+    LocalDate endDate = now;
+
+    LocalDate current = startDate.withDayOfMonth(1);
+    while (!current.isAfter(endDate)) {
+      String monthKey = String.format("%d-%02d", current.getYear(), current.getMonthValue());
+      hiresByMonth.put(monthKey, 0L);
+      firesByMonth.put(monthKey, 0L);
+      current = current.plusMonths(1);
+    }
+
+    String[] monthNames = {"Янв", "Фев", "Мар", "Апр", "Май", "Июн", "Июл", "Авг", "Сен", "Окт", "Ноя", "Дек"};
+
+    employees.forEach(e -> {
+      if (e.getHireDate() != null) {
+        LocalDate hireDate = e.getHireDate();
+        if (!hireDate.isAfter(now) && (periodStart == null || !hireDate.isBefore(periodStart))) {
+          String monthKey = String.format("%d-%02d", hireDate.getYear(), hireDate.getMonthValue());
+          hiresByMonth.put(monthKey, hiresByMonth.getOrDefault(monthKey, 0L) + 1);
+        }
+      }
+
+      if (e.getFireDate() != null) {
+        LocalDate fireDate = e.getFireDate();
+        if (!fireDate.isAfter(now) && (periodStart == null || !fireDate.isBefore(periodStart))) {
+          String monthKey = String.format("%d-%02d", fireDate.getYear(), fireDate.getMonthValue());
+          firesByMonth.put(monthKey, firesByMonth.getOrDefault(monthKey, 0L) + 1);
+        }
+      }
+    });
+
+    current = startDate.withDayOfMonth(1);
+    while (!current.isAfter(endDate)) {
+      String monthKey = String.format("%d-%02d", current.getYear(), current.getMonthValue());
+      String monthName = monthNames[current.getMonthValue() - 1];
+      String displayName = current.getYear() != now.getYear()
+          ? String.format("%s %d", monthName, current.getYear())
+          : monthName;
+
+      result.add(new AnalyticsDto.HiresFiresData(
+          displayName,
+          hiresByMonth.getOrDefault(monthKey, 0L),
+          firesByMonth.getOrDefault(monthKey, 0L)
+      ));
+      current = current.plusMonths(1);
+    }
+
+    return result;
+  }
+
+  private List<AnalyticsDto.DepartmentSummary> calculateDepartmentsSummary(List<Employee> employees) {
+    return allDepartments.stream()
+        .filter(dept -> dept != null && dept.getId() != null)
+        .map(dept -> {
+          List<Employee> deptEmployees = employees.stream()
+              .filter(e -> {
+                if (e == null) {
+                  return false;
+                }
+                if (e.getDepartment() == null) {
+                  return false;
+                }
+                if (e.getDepartment().getId() == null) {
+                  return false;
+                }
+                return e.getDepartment().getId().equals(dept.getId());
+              })
+              .collect(Collectors.toList());
+
+          double avgComp = deptEmployees.stream()
+              .filter(e -> e != null && e.getCompetenceLevel() != null)
+              .mapToInt(Employee::getCompetenceLevel)
+              .average()
+              .orElse(0.0);
+
+          String deptName = dept.getName() != null ? dept.getName() : "Не указано";
+
+          return new AnalyticsDto.DepartmentSummary(
+              deptName,
+              (long) deptEmployees.size(),
+              avgComp
+          );
+        })
+        .collect(Collectors.toList());
+  }
+
+  private List<AnalyticsDto.EmployeeSummary> calculateEmployeesSummary(
+      List<Employee> employees,
+      List<Training> allTrainings,
+      List<AbsenceEntity> allAbsences) {
+
+    if (employees.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    Set<Long> trainedEmployeeIds = allTrainings.stream()
+        .filter(t -> t != null && t.getEmployee() != null && t.getEmployee().getId() != null)
+        .map(t -> t.getEmployee().getId())
+        .collect(Collectors.toSet());
+
+    Map<Long, Long> absencesByEmployee = allAbsences.stream()
+        .filter(a -> a != null && a.getEmployee() != null && a.getEmployee().getId() != null)
+        .collect(Collectors.groupingBy(
+            a -> a.getEmployee().getId(),
+            Collectors.counting()
+        ));
+
+    return employees.stream()
+        .filter(e -> e != null)
+        .map(e -> new AnalyticsDto.EmployeeSummary(
+            e.getFullName() != null ? e.getFullName() : "Не указано",
+            e.getCompetenceLevel() != null ? e.getCompetenceLevel() : 0,
+            trainedEmployeeIds.contains(e.getId()) ? "Да" : "Нет",
+            absencesByEmployee.getOrDefault(e.getId(), 0L)
+        ))
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,161 @@
+package com.daria.service.analytics;
+
+import com.daria.entity.enums.CompetenceRank;
+import com.daria.entity.enums.Gender;
+import com.daria.event.DataChangedEvent;
+import com.daria.repository.AnalyticsQueryRepository;
+import com.daria.repository.WorkforceRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class WorkforceSnapshotTest {
+
+  private static final LocalDate TODAY = LocalDate.of(2024, 6, 15);
+
+  /** Содержимое "БД": сотрудники по идентификатору */
+  private final TreeMap<Long, Employee> table = new TreeMap<>();
+  private final AnalyticsQueryRepository repository = mock(AnalyticsQueryRepository.class);
+  private final WorkforceSnapshot snapshot = new WorkforceSnapshot(repository);
+  /** "БД" недоступна: запрос падает после первой строки */
+  private boolean failing;
+
+  private record Employee(long id, long departmentId, LocalDate hire, LocalDate fire, long absences) {}
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    doAnswer(invocation -> {
+      Collection<Long> ids = invocation.getArgument(1);
+      Consumer<WorkforceRow> consumer = invocation.getArgument(2);
+      WorkforceRow row = new WorkforceRow();
+      for (Employee e : table.values()) {
+        if (ids == null || ids.contains(e.id())) {
+          row.setId(e.id());
+          row.setFullName("Employee " + e.id());
+          row.setGender(Gender.Ж);
+          row.setCompetenceRank(CompetenceRank.values()[0]);
+          row.setCompetenceLevel(2);
+          row.setDepartmentId(e.departmentId());
+          row.setBirthDay(EpochDays.of(LocalDate.of(1990, 1, 1)));
+          row.setHireDay(EpochDays.of(e.hire()));
+          row.setFireDay(EpochDays.of(e.fire()));
+          row.setAbsences(e.absences());
+          consumer.accept(row);
+          if (failing) {
+            throw new IllegalStateException("connection lost");
+          }
+        }
+      }
+      return null;
+    }).when(repository).scanWorkforce(any(), any(), any(Consumer.class));
+
+    put(new Employee(1, 10, LocalDate.of(2020, 1, 1), null, 0));
+    put(new Employee(2, 20, LocalDate.of(2021, 1, 1), LocalDate.of(2022, 1, 1), 3));
+    put(new Employee(3, 0, LocalDate.of(2024, 1, 1), null, 1));
+  }
+
+  @Test
+  void scansAllEmployeesInIdOrderWithContextFilter() {
+    assertThat(scan(null, null)).containsExactly("1:10:0", "2:20:3", "3:0:1");
+    assertThat(scan(20L, null)).containsExactly("2:20:3");
+    // Уволен до начала периода
+    assertThat(scan(null, LocalDate.of(2023, 6, 15))).containsExactly("1:10:0", "3:0:1");
+  }
+
+  @Test
+  void appliesChangesIncrementallyAfterEvents() {
+    scan(null, null);
+
+    put(new Employee(1, 20, LocalDate.of(2020, 1, 1), null, 5));
+    put(new Employee(4, 10, LocalDate.of(2024, 5, 1), null, 0));
+    table.remove(2L);
+    snapshot.onDataChanged(DataChangedEvent.employee(1L, 10L, 20L));
+    snapshot.onDataChanged(DataChangedEvent.absence(7L, 1L, 20L));
+    snapshot.onDataChanged(DataChangedEvent.employee(4L, 10L));
+    snapshot.onDataChanged(DataChangedEvent.employee(2L, 20L));
+
+    assertThat(scan(null, null)).containsExactly("1:20:5", "3:0:1", "4:10:0");
+    // Полная загрузка и одно обновление для всех накопленных сотрудников
+    verify(repository, times(1)).scanWorkforce(any(), isNull(), any());
+    verify(repository, times(1)).scanWorkforce(any(),
+        argThat(ids -> ids != null && ids.size() == 3 && ids.containsAll(List.of(1L, 2L, 4L))), any());
+    assertThat(snapshot.getStats().employees()).isEqualTo(3);
+    assertThat(snapshot.getStats().refreshes()).isEqualTo(1);
+  }
+
+  @Test
+  void reloadsAfterDepartmentChange() {
+    scan(null, null);
+
+    put(new Employee(2, 0, LocalDate.of(2021, 1, 1), LocalDate.of(2022, 1, 1), 3));
+    snapshot.onDataChanged(DataChangedEvent.department(20L));
+
+    assertThat(scan(null, null)).containsExactly("1:10:0", "2:0:3", "3:0:1");
+    verify(repository, times(2)).scanWorkforce(any(), isNull(), any());
+  }
+
+  @Test
+  void ignoresEventsBeforeFirstLoadAndReportsFootprint() {
+    snapshot.onDataChanged(DataChangedEvent.employee(1L, 10L));
+    assertThat(snapshot.getStats().loaded()).isFalse();
+
+    scan(null, null);
+    assertThat(snapshot.getStats().loaded()).isTrue();
+    assertThat(snapshot.getStats().bytesPerEmployee()).isPositive();
+    verify(repository, times(1)).scanWorkforce(any(), any(), any());
+  }
+
+  @Test
+  void retriesEmployeesAfterFailedRefresh() {
+    scan(null, null);
+
+    put(new Employee(1, 20, LocalDate.of(2020, 1, 1), null, 5));
+    snapshot.onDataChanged(DataChangedEvent.employee(1L, 10L, 20L));
+    failing = true;
+    assertThatThrownBy(() -> scan(null, null)).isInstanceOf(IllegalStateException.class);
+
+    failing = false;
+    assertThat(scan(null, null)).containsExactly("1:20:5", "2:20:3", "3:0:1");
+  }
+
+  @Test
+  void staysStaleAfterFailedReload() {
+    scan(null, null);
+
+    put(new Employee(2, 0, LocalDate.of(2021, 1, 1), LocalDate.of(2022, 1, 1), 3));
+    snapshot.onDataChanged(DataChangedEvent.department(20L));
+    failing = true;
+    assertThatThrownBy(() -> scan(null, null)).isInstanceOf(IllegalStateException.class);
+
+    failing = false;
+    assertThat(scan(null, null)).containsExactly("1:10:0", "2:0:3", "3:0:1");
+  }
+
+  private void put(Employee employee) {
+    table.put(employee.id(), employee);
+  }
+
+  private List<String> scan(Long departmentId, LocalDate periodStart) {
+    List<String> rows = new ArrayList<>();
+    snapshot.scan(new AnalyticsContext(departmentId, periodStart, TODAY, List.of()),
+        row -> rows.add(row.getId() + ":" + row.getDepartmentId() + ":" + row.getAbsences()));
+    return rows;
+  }
+}